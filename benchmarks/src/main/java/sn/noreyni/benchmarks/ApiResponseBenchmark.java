@@ -0,0 +1,82 @@
+package sn.noreyni.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import sn.noreyni.userservice.common.ApiResponse;
+import sn.noreyni.userservice.config.JacksonConfiguration;
+import sn.noreyni.userservice.users.dto.UserResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ApiResponse} envelope construction and Jackson serialization,
+ * using the same modules user-service registers through {@link JacksonConfiguration}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ApiResponseBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int userCount;
+
+    private ObjectMapper objectMapper;
+    private List<UserResponse> users;
+    private ApiResponse<List<UserResponse>> response;
+
+    @Setup
+    public void setUp() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        // Same defaults as Spring Boot's auto-configured ObjectMapper (dates as ISO strings)
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(jacksonConfiguration.javaTimeModule(), jacksonConfiguration.jdk8TimeModule())
+                .build();
+        users = IntStream.range(0, userCount)
+                .mapToObj(BenchmarkFixtures::userResponse)
+                .toList();
+        response = ApiResponse.success(users, "Liste des utilisateurs récupérée avec succès");
+    }
+
+    @Benchmark
+    public ApiResponse<List<UserResponse>> buildSuccess() {
+        return ApiResponse.success(users, "Liste des utilisateurs récupérée avec succès");
+    }
+
+    @Benchmark
+    public ApiResponse<Object> buildError() {
+        return ApiResponse.error("USER_001", "Utilisateur introuvable", "3f2a4c1e-8d7b-4b1a-9c55-0e2f1d7a9b10");
+    }
+
+    @Benchmark
+    public ApiResponse<List<UserResponse>> buildPaged() {
+        return ApiResponse.<List<UserResponse>>builder()
+                .success(true)
+                .message("User list retrieval successful")
+                .data(users)
+                .pagination(ApiResponse.Pagination.builder()
+                        .totalElements(1_000)
+                        .totalPages(100)
+                        .currentPage(0)
+                        .pageSize(userCount)
+                        .build())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(users, "Liste des utilisateurs récupérée avec succès"));
+    }
+}
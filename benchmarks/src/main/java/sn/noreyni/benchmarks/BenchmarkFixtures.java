@@ -0,0 +1,45 @@
+package sn.noreyni.benchmarks;
+
+import org.keycloak.representations.idm.UserRepresentation;
+import sn.noreyni.userservice.users.dto.UserResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Representative payloads shared by the benchmark suites.
+ */
+public final class BenchmarkFixtures {
+
+    public static final List<String> ROLES = List.of("MEMBER", "LIBRARIAN", "default-roles-libromesh");
+
+    private BenchmarkFixtures() {
+    }
+
+    public static UserResponse userResponse(int index) {
+        return UserResponse.builder()
+                .userId("0b7e6f3c-5d2a-4e8b-9f1c-" + String.format("%012d", index))
+                .username("patron" + index)
+                .email("patron" + index + "@libromesh.sn")
+                .firstName("Aminata")
+                .lastName("Ndiaye")
+                .enabled(true)
+                .emailVerified(index % 2 == 0)
+                .createdAt(LocalDateTime.of(2024, 9, 1, 8, 30).plusMinutes(index))
+                .roles(ROLES)
+                .build();
+    }
+
+    public static UserRepresentation userRepresentation(int index) {
+        UserRepresentation user = new UserRepresentation();
+        user.setId("0b7e6f3c-5d2a-4e8b-9f1c-" + String.format("%012d", index));
+        user.setUsername("patron" + index);
+        user.setEmail("patron" + index + "@libromesh.sn");
+        user.setFirstName("Aminata");
+        user.setLastName("Ndiaye");
+        user.setEnabled(true);
+        user.setEmailVerified(index % 2 == 0);
+        user.setCreatedTimestamp(1_725_179_400_000L + index * 60_000L);
+        return user;
+    }
+}
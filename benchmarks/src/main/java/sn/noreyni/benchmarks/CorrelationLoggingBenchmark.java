@@ -0,0 +1,66 @@
+package sn.noreyni.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Correlation id generation and the structured {@code key=value | ...} log lines
+ * emitted around every controller and service call.
+ * Formatting goes through SLF4J's {@link MessageFormatter}, which is what the logger
+ * does once the level is enabled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class CorrelationLoggingBenchmark {
+
+    private static final String STARTED_PATTERN =
+            "User retrieval attempt started | correlation_id={} | user_id={} | method=getUser";
+    private static final String SUCCESS_PATTERN =
+            "{} successful | correlation_id={} | username={} | method={} | status=success | duration_ms={}";
+    private static final String FAILURE_PATTERN =
+            "{} failed | correlation_id={} | {} | method={} | status=error | error_code={} | error_message={} | duration_ms={}";
+
+    private String correlationId;
+    private String userId;
+
+    @Setup
+    public void setUp() {
+        correlationId = UUID.randomUUID().toString();
+        userId = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String correlationId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String formatStarted() {
+        return MessageFormatter.format(STARTED_PATTERN, correlationId, userId).getMessage();
+    }
+
+    @Benchmark
+    public String formatSuccess() {
+        return MessageFormatter.arrayFormat(SUCCESS_PATTERN,
+                new Object[]{"login", correlationId, "patron42", "login", 37L}).getMessage();
+    }
+
+    @Benchmark
+    public String formatFailure() {
+        return MessageFormatter.arrayFormat(FAILURE_PATTERN,
+                new Object[]{"getUser", correlationId, "identifier=" + userId, "getUser",
+                        "USER_001", "Utilisateur introuvable", 12L}).getMessage();
+    }
+
+    @Benchmark
+    public String startedWithFreshCorrelationId() {
+        return MessageFormatter.format(STARTED_PATTERN, UUID.randomUUID().toString(), userId).getMessage();
+    }
+}
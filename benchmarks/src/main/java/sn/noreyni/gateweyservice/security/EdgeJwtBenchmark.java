@@ -0,0 +1,95 @@
+package sn.noreyni.gateweyservice.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+import sn.noreyni.gateweyservice.config.EdgeAuthConfig;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of edge authentication in the gateway: RS256 verification of a
+ * Keycloak-shaped access token, then the signed claim headers.
+ * Single-threaded throughput, so the score reads as requests per second per core.
+ * The decoder is built from the public key directly, which is what the cached JWK set
+ * resolves to once warm.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(1)
+@State(Scope.Benchmark)
+public class EdgeJwtBenchmark {
+
+    private static final String ISSUER = "http://localhost:8180/realms/libroMesh";
+
+    private NimbusReactiveJwtDecoder decoder;
+    private EdgeAuthenticationFilter filter;
+    private String token;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() throws NoSuchAlgorithmException, JOSEException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject(UUID.randomUUID().toString())
+                .audience("account")
+                .claim("preferred_username", "patron00042")
+                .claim("realm_access", Map.of("roles", List.of("PATRON", "offline_access", "uma_authorization")))
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plus(1, ChronoUnit.HOURS)))
+                .build();
+        SignedJWT signed = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("benchmark").build(), claims);
+        signed.sign(new RSASSASigner(keyPair.getPrivate()));
+        token = signed.serialize();
+
+        decoder = NimbusReactiveJwtDecoder.withPublicKey((RSAPublicKey) keyPair.getPublic()).build();
+        decoder.setJwtValidator(EdgeAuthConfig.tokenValidator(ISSUER, Duration.ofSeconds(30)));
+
+        EdgeAuthConfig config = new EdgeAuthConfig();
+        config.setIssuerUri(ISSUER);
+        ClaimHeaderSigner signer = new ClaimHeaderSigner("benchmark-claims-secret-0123456789abcdef");
+        filter = new EdgeAuthenticationFilter(decoder, signer, new ErrorResponseWriter(new ObjectMapper()), config);
+        jwt = decoder.decode(token).block();
+    }
+
+    @Benchmark
+    public Jwt verifyToken() {
+        return decoder.decode(token).block();
+    }
+
+    @Benchmark
+    public Map<String, String> signClaimHeaders() {
+        return filter.claimHeaders(jwt);
+    }
+
+    @Benchmark
+    public Map<String, String> verifyAndSign() {
+        return filter.claimHeaders(decoder.decode(token).block());
+    }
+}
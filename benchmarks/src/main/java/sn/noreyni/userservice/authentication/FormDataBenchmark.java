@@ -0,0 +1,68 @@
+package sn.noreyni.userservice.authentication;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+import sn.noreyni.userservice.authentication.dto.LoginRequest;
+import sn.noreyni.userservice.authentication.dto.LogoutRequest;
+import sn.noreyni.userservice.authentication.dto.RefreshTokenRequest;
+import sn.noreyni.userservice.common.KeycloakObservations;
+import sn.noreyni.userservice.config.KeycloakAdminClientConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Form-data building for the Keycloak token and logout endpoints in {@link AuthenticationService}.
+ * Lives in the {@code authentication} package to reach the package-private builders.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FormDataBenchmark {
+
+    private AuthenticationService authenticationService;
+    private LoginRequest loginRequest;
+    private RefreshTokenRequest refreshTokenRequest;
+    private LogoutRequest logoutRequest;
+
+    @Setup
+    public void setUp() {
+        KeycloakAdminClientConfig config = new KeycloakAdminClientConfig();
+        config.setServerUrl("http://localhost:8180");
+        config.setRealm("libromesh");
+        config.setClientId("user-service");
+        config.setClientSecret("benchmark-secret");
+        authenticationService = new AuthenticationService(null, WebClient.builder(), config,
+                new KeycloakObservations(ObservationRegistry.NOOP));
+
+        loginRequest = LoginRequest.builder()
+                .username("patron42")
+                .password("s3cr3t-P@ssw0rd")
+                .build();
+        refreshTokenRequest = RefreshTokenRequest.builder()
+                .refreshToken("eyJhbGciOiJIUzUxMiIsInR5cCI6IkpXVCJ9.refresh.signature")
+                .build();
+        logoutRequest = LogoutRequest.builder()
+                .refreshToken(refreshTokenRequest.getRefreshToken())
+                .build();
+    }
+
+    @Benchmark
+    public MultiValueMap<String, String> loginFormData() {
+        return authenticationService.buildLoginFormData(loginRequest);
+    }
+
+    @Benchmark
+    public MultiValueMap<String, String> refreshTokenFormData() {
+        return authenticationService.buildRefreshTokenFormData(refreshTokenRequest);
+    }
+
+    @Benchmark
+    public MultiValueMap<String, String> logoutFormData() {
+        return authenticationService.buildLogoutFormData(logoutRequest);
+    }
+}
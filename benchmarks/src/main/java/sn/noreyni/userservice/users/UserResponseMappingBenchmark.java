@@ -0,0 +1,53 @@
+package sn.noreyni.userservice.users;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.openjdk.jmh.annotations.*;
+import sn.noreyni.benchmarks.BenchmarkFixtures;
+import sn.noreyni.userservice.common.KeycloakObservations;
+import sn.noreyni.userservice.config.KeycloakAdminClientConfig;
+import sn.noreyni.userservice.users.dto.UserResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * {@link UserService#buildUserResponse} mapping from Keycloak representations.
+ * Lives in the {@code users} package to reach the package-private mapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class UserResponseMappingBenchmark {
+
+    private UserService userService;
+    private UserRepresentation user;
+    private List<UserRepresentation> page;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(null, new KeycloakAdminClientConfig(),
+                new KeycloakObservations(ObservationRegistry.NOOP));
+        user = BenchmarkFixtures.userRepresentation(1);
+        page = IntStream.range(0, 100)
+                .mapToObj(BenchmarkFixtures::userRepresentation)
+                .toList();
+    }
+
+    @Benchmark
+    public UserResponse mapSingle() {
+        return userService.buildUserResponse(user, BenchmarkFixtures.ROLES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public List<UserResponse> mapPage() {
+        return page.stream()
+                .map(representation -> userService.buildUserResponse(representation, BenchmarkFixtures.ROLES))
+                .toList();
+    }
+}
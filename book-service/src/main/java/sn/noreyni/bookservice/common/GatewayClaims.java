@@ -0,0 +1,22 @@
+package sn.noreyni.bookservice.common;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.List;
+
+/**
+ * Caller identity verified by the gateway and checked by {@link GatewayClaimsFilter}.
+ * Absent on requests that did not carry a token through the gateway (public endpoints).
+ */
+public record GatewayClaims(String subject, String username, List<String> roles) {
+
+    static final String ATTRIBUTE = GatewayClaims.class.getName();
+
+    public static GatewayClaims from(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role);
+    }
+}
@@ -0,0 +1,70 @@
+package sn.noreyni.bookservice.common;
+
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the requests in flight and keeps the latencies of the most recent ones, read by
+ * {@link LoadMetadataPublisher}. Actuator calls are left out.
+ */
+@Component
+public class LoadSignalsFilter implements WebFilter, Ordered {
+
+    private static final int WINDOW_SIZE = 1024;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLongArray latencies = new AtomicLongArray(WINDOW_SIZE);
+    private final AtomicLong recorded = new AtomicLong();
+    private long readUpTo;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getPath().value().startsWith("/actuator")) {
+            return chain.filter(exchange);
+        }
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            inFlight.decrementAndGet();
+            latencies.set((int) (recorded.getAndIncrement() % WINDOW_SIZE), System.nanoTime() - start);
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * p99 of the latencies recorded since the previous call, at most the last {@value #WINDOW_SIZE}
+     *
+     * @return the p99 in milliseconds, or -1 when no request completed since
+     */
+    public synchronized long p99MillisSinceLastRead() {
+        long upTo = recorded.get();
+        int count = (int) Math.min(upTo - readUpTo, WINDOW_SIZE);
+        readUpTo = upTo;
+        if (count == 0) {
+            return -1;
+        }
+        long[] samples = new long[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = latencies.get((int) ((upTo - 1 - i) % WINDOW_SIZE));
+        }
+        Arrays.sort(samples);
+        return samples[(int) Math.ceil(count * 0.99) - 1] / 1_000_000;
+    }
+}
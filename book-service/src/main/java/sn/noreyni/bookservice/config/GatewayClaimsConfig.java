@@ -0,0 +1,21 @@
+package sn.noreyni.bookservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway-claims")
+@Data
+public class GatewayClaimsConfig {
+    /**
+     * HMAC secret shared with the gateway (app.gateway.edge-auth.header-signing-secret), no default
+     */
+    private String secret;
+    /**
+     * How old the gateway signature may be; bounds the replay of captured headers
+     */
+    private Duration maxAge = Duration.ofSeconds(60);
+}
@@ -0,0 +1,18 @@
+package sn.noreyni.bookservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.load-metadata")
+@Data
+public class LoadMetadataConfig {
+    private boolean enabled = true;
+    /**
+     * Unchanged signals are published again after this long, so that the gateway does not consider them stale
+     */
+    private Duration republishInterval = Duration.ofMinutes(2);
+}
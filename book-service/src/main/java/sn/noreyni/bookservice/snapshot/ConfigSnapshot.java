@@ -0,0 +1,159 @@
+package sn.noreyni.bookservice.snapshot;
+
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Last configuration resolved from config-service and Vault, kept in a local file encrypted with
+ * AES-GCM, since it holds the service's secrets. Without {@code app.config-snapshot.key} (base64,
+ * 256 bits, {@code APP_CONFIG_SNAPSHOT_KEY}) nothing is read or written.
+ * <p>
+ * Settings are read before {@code application.yml} is loaded, so they come from the environment
+ * variables, system properties or {@code .env} file only.
+ */
+final class ConfigSnapshot {
+
+    static final String PROPERTY_SOURCE_NAME = "configSnapshot";
+    static final String OVERRIDES_PROPERTY_SOURCE_NAME = "configSnapshotOverrides";
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Path path;
+    private final SecretKey key;
+    private final Duration maxAge;
+
+    private ConfigSnapshot(Path path, SecretKey key, Duration maxAge) {
+        this.path = path;
+        this.key = key;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * @return the snapshot settings, or null when snapshots are disabled or have no key
+     */
+    static ConfigSnapshot from(Environment environment) {
+        String encodedKey = environment.getProperty("app.config-snapshot.key");
+        if (!environment.getProperty("app.config-snapshot.enabled", Boolean.class, true)
+                || encodedKey == null || encodedKey.isBlank()) {
+            return null;
+        }
+        byte[] key = Base64.getDecoder().decode(encodedKey.trim());
+        if (key.length != 32) {
+            throw new IllegalStateException("app.config-snapshot.key must be a base64 encoded 256 bit key");
+        }
+        return new ConfigSnapshot(
+                Path.of(environment.getProperty("app.config-snapshot.path", "./data/config-snapshot.enc")),
+                new SecretKeySpec(key, "AES"),
+                environment.getProperty("app.config-snapshot.max-age", Duration.class, Duration.ofDays(7)));
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * @return the snapshot properties, or null when there is no usable snapshot
+     */
+    Map<String, Object> read() throws IOException, GeneralSecurityException {
+        if (!Files.exists(path) || Files.getLastModifiedTime(path).toInstant().isBefore(Instant.now().minus(maxAge))) {
+            return null;
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(path));
+        byte[] iv = new byte[IV_LENGTH];
+        content.get(iv);
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        byte[] plain = cipher.doFinal(content.array(), IV_LENGTH, content.remaining());
+
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(plain));
+        Map<String, Object> values = new LinkedHashMap<>();
+        properties.stringPropertyNames().forEach(name -> values.put(name, properties.getProperty(name)));
+        return values;
+    }
+
+    void write(Map<String, String> values) throws IOException, GeneralSecurityException {
+        Properties properties = new Properties();
+        properties.putAll(values);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        properties.store(plain, null);
+
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        byte[] encrypted = cipher.doFinal(plain.toByteArray());
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, ByteBuffer.allocate(IV_LENGTH + encrypted.length).put(iv).put(encrypted).array());
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Properties of the config-service and Vault property sources, highest precedence first
+     */
+    static Map<String, String> remoteProperties(ConfigurableEnvironment environment) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            boolean remote = isConfigServer(source) || isVault(environment, source);
+            if (remote && source instanceof EnumerablePropertySource<?> enumerable) {
+                for (String property : enumerable.getPropertyNames()) {
+                    Object value = enumerable.getProperty(property);
+                    if (value != null) {
+                        values.putIfAbsent(property, value.toString());
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Whether both config-service and Vault contributed to the environment; a snapshot is only
+     * replaced by a complete configuration, never by one missing its secrets
+     */
+    static boolean hasAllRemoteSources(ConfigurableEnvironment environment) {
+        boolean configServer = false;
+        boolean vault = false;
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            configServer |= isConfigServer(source);
+            vault |= isVault(environment, source);
+        }
+        return configServer && vault;
+    }
+
+    private static boolean isConfigServer(PropertySource<?> source) {
+        return source.getName().startsWith("configserver:");
+    }
+
+    private static boolean isVault(ConfigurableEnvironment environment, PropertySource<?> source) {
+        String vaultBackend = environment.getProperty("spring.cloud.vault.kv.backend", "secret") + "/";
+        return source.getName().startsWith("vault:") || source.getName().startsWith(vaultBackend);
+    }
+}
@@ -0,0 +1,117 @@
+package sn.noreyni.bookservice.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * After a boot from the {@link ConfigSnapshot}, fetches the configuration from config-service and
+ * Vault in the background (retrying every {@code app.config-snapshot.retry-interval}), then, once
+ * both answered, drops the snapshot and rebinds what changed. After a boot or a refresh that reached config-service,
+ * the resolved configuration is written as the new snapshot.
+ * <p>
+ * A boot without snapshot resolves from config-service as before, blocking.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConfigSnapshotRefresher {
+
+    private final ConfigurableEnvironment environment;
+    private final ApplicationContext context;
+    // Absent with spring.cloud.refresh.enabled=false (AOT processing of the fast-start build)
+    private final ObjectProvider<ContextRefresher> contextRefresher;
+    private final ObjectProvider<RefreshScope> refreshScope;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-snapshot-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        ConfigSnapshot snapshot = ConfigSnapshot.from(environment);
+        if (snapshot == null) {
+            return;
+        }
+        if (!environment.getPropertySources().contains(ConfigSnapshot.PROPERTY_SOURCE_NAME)) {
+            save(snapshot);
+            scheduler.shutdown();
+            return;
+        }
+        if (contextRefresher.getIfAvailable() == null) {
+            log.warn("Context refresh disabled, running on the config snapshot until the next restart");
+            scheduler.shutdown();
+            return;
+        }
+        Duration retryInterval = environment.getProperty("app.config-snapshot.retry-interval", Duration.class, Duration.ofSeconds(30));
+        scheduler.scheduleWithFixedDelay(this::refreshFromRemote, 0, retryInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Keeps the snapshot current with later refreshes, e.g. POST /actuator/refresh
+     */
+    @EventListener(EnvironmentChangeEvent.class)
+    public void onEnvironmentChange() {
+        ConfigSnapshot snapshot = ConfigSnapshot.from(environment);
+        if (snapshot != null && !environment.getPropertySources().contains(ConfigSnapshot.PROPERTY_SOURCE_NAME)) {
+            save(snapshot);
+        }
+    }
+
+    private void refreshFromRemote() {
+        try {
+            environment.getPropertySources().remove(ConfigSnapshot.OVERRIDES_PROPERTY_SOURCE_NAME);
+            // Environment only: refresh-scoped beans are rebuilt once, when the snapshot is dropped.
+            // The imports are fail-fast again, so an unavailable config-service or Vault throws here
+            contextRefresher.getObject().refreshEnvironment();
+            if (!ConfigSnapshot.hasAllRemoteSources(environment)) {
+                log.info("Config-service or Vault configuration incomplete, keeping the config snapshot");
+                return;
+            }
+            PropertySource<?> removed = environment.getPropertySources().remove(ConfigSnapshot.PROPERTY_SOURCE_NAME);
+            if (removed instanceof EnumerablePropertySource<?> snapshotSource) {
+                // The refresh above only rebound keys absent from the snapshot, which was still in front
+                context.publishEvent(new EnvironmentChangeEvent(context, Set.of(snapshotSource.getPropertyNames())));
+                refreshScope.ifAvailable(RefreshScope::refreshAll);
+            }
+            log.info("Configuration refreshed from config-service, config snapshot dropped");
+            scheduler.shutdown();
+        } catch (RuntimeException e) {
+            log.warn("Configuration refresh from config-service failed, keeping the config snapshot | error={}", e.toString());
+        }
+    }
+
+    private void save(ConfigSnapshot snapshot) {
+        if (!ConfigSnapshot.hasAllRemoteSources(environment)) {
+            return;
+        }
+        Map<String, String> values = ConfigSnapshot.remoteProperties(environment);
+        try {
+            snapshot.write(values);
+            log.debug("Config snapshot written | properties={} | path={}", values.size(), snapshot.path());
+        } catch (IOException | GeneralSecurityException e) {
+            log.warn("Config snapshot not written | path={} | error={}", snapshot.path(), e.toString());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package sn.noreyni.bookservice.common;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import sn.noreyni.bookservice.config.LoadMetadataConfig;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoadMetadataPublisherTest {
+
+    private final ApplicationInfoManager applicationInfoManager = mock(ApplicationInfoManager.class);
+    private final LoadSignalsFilter loadSignals = mock(LoadSignalsFilter.class);
+    private final ConnectionPool pool = mock(ConnectionPool.class);
+    private final PoolMetrics metrics = mock(PoolMetrics.class);
+    private final ObjectProvider<ConnectionFactory> connectionFactory = connectionFactory(pool);
+    private final LoadMetadataConfig config = new LoadMetadataConfig();
+    private LoadMetadataPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        when(pool.getMetrics()).thenReturn(Optional.of(metrics));
+        when(metrics.getMaxAllocatedSize()).thenReturn(10);
+        when(loadSignals.p99MillisSinceLastRead()).thenReturn(-1L);
+        publisher = new LoadMetadataPublisher(applicationInfoManager, loadSignals, connectionFactory, config);
+    }
+
+    @Test
+    void publishesTheRequestsInFlight() {
+        when(loadSignals.inFlight()).thenReturn(3);
+
+        publisher.onHeartbeat();
+
+        assertThat(published()).singleElement().satisfies(metadata -> assertThat(metadata)
+                .containsEntry("load-in-flight", "3")
+                .containsEntry("load-pool-saturation", "0.0")
+                .containsEntry("load-p99-ms", "0")
+                .containsKey("load-updated-at"));
+    }
+
+    @Test
+    void saturationCountsAcquiredAndAwaitedConnectionsRoundedToFivePercent() {
+        when(metrics.acquiredSize()).thenReturn(3, 7, 10);
+        when(metrics.pendingAcquireSize()).thenReturn(0, 0, 4);
+
+        for (int i = 0; i < 3; i++) {
+            publisher.onHeartbeat();
+        }
+
+        assertThat(published()).extracting(metadata -> metadata.get("load-pool-saturation"))
+                .containsExactly("0.3", "0.7", "1.0");
+    }
+
+    @Test
+    void connectionFactoryWithoutPoolIsNotSaturated() {
+        publisher = new LoadMetadataPublisher(applicationInfoManager, loadSignals,
+                connectionFactory(mock(ConnectionFactory.class)), config);
+
+        publisher.onHeartbeat();
+
+        assertThat(published()).singleElement()
+                .satisfies(metadata -> assertThat(metadata).containsEntry("load-pool-saturation", "0.0"));
+    }
+
+    @Test
+    void p99IsRoundedToTwoSignificantDigitsAndKeptWhileIdle() {
+        when(loadSignals.p99MillisSinceLastRead()).thenReturn(87L, 1234L, 156L, -1L);
+
+        for (int i = 0; i < 4; i++) {
+            publisher.onHeartbeat();
+        }
+
+        assertThat(published()).extracting(metadata -> metadata.get("load-p99-ms"))
+                .containsExactly("87", "1200", "160");
+    }
+
+    @Test
+    void unchangedSignalsAreNotRepublishedBeforeTheInterval() {
+        when(loadSignals.p99MillisSinceLastRead()).thenReturn(1234L, 1249L, 1251L);
+
+        for (int i = 0; i < 3; i++) {
+            publisher.onHeartbeat();
+        }
+
+        assertThat(published()).extracting(metadata -> metadata.get("load-p99-ms"))
+                .containsExactly("1200", "1300");
+    }
+
+    @Test
+    void unchangedSignalsAreRepublishedOnceTheIntervalElapsed() {
+        config.setRepublishInterval(Duration.ZERO);
+
+        publisher.onHeartbeat();
+        publisher.onHeartbeat();
+
+        assertThat(published()).hasSize(2);
+    }
+
+    @Test
+    void disabledPublishesNothing() {
+        config.setEnabled(false);
+
+        publisher.onHeartbeat();
+
+        verify(applicationInfoManager, never()).registerAppMetadata(anyMap());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ObjectProvider<ConnectionFactory> connectionFactory(ConnectionFactory connectionFactory) {
+        ObjectProvider<ConnectionFactory> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(connectionFactory);
+        return provider;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, String>> published() {
+        ArgumentCaptor<Map<String, String>> metadata = ArgumentCaptor.forClass(Map.class);
+        verify(applicationInfoManager, atLeast(0)).registerAppMetadata(metadata.capture());
+        return metadata.getAllValues();
+    }
+}
@@ -0,0 +1,69 @@
+package sn.noreyni.bookservice.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadSignalsFilterTest {
+
+    private static final Duration SLOW = Duration.ofMillis(50);
+
+    private final LoadSignalsFilter filter = new LoadSignalsFilter();
+
+    @Test
+    void countsRequestsUntilTheyCompleteOrAreCancelled() {
+        Sinks.Empty<Void> done = Sinks.empty();
+        WebFilterChain pending = exchange -> done.asMono();
+
+        filter.filter(exchange("/api/v1/books"), pending).subscribe();
+        Disposable cancelled = filter.filter(exchange("/api/v1/books"), pending).subscribe();
+        assertThat(filter.inFlight()).isEqualTo(2);
+
+        cancelled.dispose();
+        assertThat(filter.inFlight()).isEqualTo(1);
+
+        done.tryEmitEmpty();
+        assertThat(filter.inFlight()).isZero();
+    }
+
+    @Test
+    void actuatorCallsAreLeftOut() {
+        filter.filter(exchange("/actuator/health"), exchange -> Mono.never()).subscribe();
+        filter.filter(exchange("/actuator/prometheus"), exchange -> Mono.empty()).block();
+
+        assertThat(filter.inFlight()).isZero();
+        assertThat(filter.p99MillisSinceLastRead()).isEqualTo(-1);
+    }
+
+    @Test
+    void p99CoversOnlyTheRequestsSinceThePreviousRead() {
+        assertThat(filter.p99MillisSinceLastRead()).isEqualTo(-1);
+
+        filter.filter(exchange("/api/v1/books"), exchange -> Mono.delay(SLOW).then()).block();
+
+        assertThat(filter.p99MillisSinceLastRead()).isGreaterThanOrEqualTo(SLOW.toMillis());
+        assertThat(filter.p99MillisSinceLastRead()).isEqualTo(-1);
+    }
+
+    @Test
+    void p99LeavesOutTheSlowestPercent() {
+        for (int i = 0; i < 100; i++) {
+            filter.filter(exchange("/api/v1/books"), exchange -> Mono.empty()).block();
+        }
+        filter.filter(exchange("/api/v1/books"), exchange -> Mono.delay(SLOW).then()).block();
+
+        assertThat(filter.p99MillisSinceLastRead()).isLessThan(SLOW.toMillis());
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
@@ -0,0 +1,68 @@
+package sn.noreyni.configservice.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+
+/**
+ * Puts the {@link EnvironmentCache} in front of the primary {@link EnvironmentRepository}, the
+ * composite of every enabled backend that the config server controllers resolve through.
+ * The proxy keeps the repository's class and interfaces ({@code SearchPathLocator} among them),
+ * only {@code findOne} goes through the cache.
+ */
+public class CachingEnvironmentRepositoryPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+	private final ObjectProvider<EnvironmentCache> cache;
+	private ConfigurableListableBeanFactory beanFactory;
+
+	public CachingEnvironmentRepositoryPostProcessor(ObjectProvider<EnvironmentCache> cache) {
+		this.cache = cache;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (!(bean instanceof EnvironmentRepository) || !isPrimary(beanName)) {
+			return bean;
+		}
+		ProxyFactory proxyFactory = new ProxyFactory(bean);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+			Object[] args = invocation.getArguments();
+			if (!invocation.getMethod().getName().equals("findOne")
+					|| invocation.getMethod().getReturnType() != Environment.class || args.length < 3) {
+				return invocation.proceed();
+			}
+			boolean includeOrigin = args.length > 3 && Boolean.TRUE.equals(args[3]);
+			return cache.getObject().get((String) args[0], (String) args[1], (String) args[2], includeOrigin,
+					() -> proceed(invocation));
+		});
+		return proxyFactory.getProxy(bean.getClass().getClassLoader());
+	}
+
+	private boolean isPrimary(String beanName) {
+		return beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary();
+	}
+
+	private static Environment proceed(MethodInvocation invocation) {
+		try {
+			return (Environment) invocation.proceed();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
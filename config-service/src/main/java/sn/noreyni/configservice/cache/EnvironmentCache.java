@@ -0,0 +1,57 @@
+package sn.noreyni.configservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.config.environment.Environment;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Resolved {@link Environment}s per (application, profile, label, include origin), so that a
+ * client fetch does not resolve the repository and Vault again.
+ * <p>
+ * Concurrent fetches of the same key wait for one resolution instead of each hitting git and
+ * Vault. Failed resolutions are not cached. The cache holds at most {@code maxEntries}
+ * environments, the least used ones leaving first.
+ * <p>
+ * Staleness: entries are dropped all at once when a change is signalled ({@link #invalidateAll()}:
+ * file change under a native search location, {@code /actuator/refresh}), which is immediate.
+ * Nothing signals a push to the git remote or a secret written to Vault, so those reach clients
+ * at most {@code ttl} after the first fetch that cached the previous value, plus the client's own
+ * refresh delay. Lower {@code ttl} where that window matters more than the backend load.
+ */
+@Slf4j
+public class EnvironmentCache {
+
+	private final Cache<Key, Environment> entries;
+
+	public EnvironmentCache(Duration ttl, int maxEntries) {
+		this.entries = Caffeine.newBuilder()
+				.maximumSize(maxEntries)
+				.expireAfterWrite(ttl)
+				.build();
+	}
+
+	public Environment get(String application, String profile, String label, boolean includeOrigin,
+						   Supplier<Environment> resolver) {
+		return entries.get(new Key(application, profile, label, includeOrigin), key -> resolver.get());
+	}
+
+	public void invalidateAll() {
+		long size = entries.estimatedSize();
+		if (size > 0) {
+			log.info("Resolved environment cache cleared | entries={}", size);
+			entries.invalidateAll();
+		}
+	}
+
+	long size() {
+		entries.cleanUp();
+		return entries.estimatedSize();
+	}
+
+	private record Key(String application, String profile, String label, boolean includeOrigin) {
+	}
+}
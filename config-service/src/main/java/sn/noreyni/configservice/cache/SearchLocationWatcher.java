@@ -0,0 +1,91 @@
+package sn.noreyni.configservice.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Clears the {@link EnvironmentCache} when a file changes under the {@code file:} search
+ * locations of the native backend. Directories are registered recursively at start;
+ * directories created later are registered when their creation is seen.
+ */
+@Slf4j
+public class SearchLocationWatcher {
+
+	private final EnvironmentCache cache;
+	private final List<Path> roots;
+	private WatchService watchService;
+	private Thread thread;
+
+	public SearchLocationWatcher(EnvironmentCache cache, List<String> searchLocations) {
+		this.cache = cache;
+		this.roots = searchLocations.stream()
+				.map(String::trim)
+				.filter(location -> location.startsWith("file:"))
+				.map(location -> Path.of(location.substring("file:".length()).replace("{application}", "")
+						.replace("{profile}", "").replace("{label}", "")).normalize())
+				.filter(Files::isDirectory)
+				.toList();
+	}
+
+	public void start() throws IOException {
+		if (roots.isEmpty()) {
+			return;
+		}
+		watchService = FileSystems.getDefault().newWatchService();
+		for (Path root : roots) {
+			registerTree(root);
+		}
+		thread = new Thread(this::watch, "config-search-location-watcher");
+		thread.setDaemon(true);
+		thread.start();
+		log.info("Watching native search locations | roots={}", roots);
+	}
+
+	public void stop() throws IOException {
+		if (watchService != null) {
+			watchService.close();
+		}
+	}
+
+	private void watch() {
+		try {
+			while (true) {
+				WatchKey key = watchService.take();
+				Path directory = (Path) key.watchable();
+				key.pollEvents().forEach(event -> {
+					if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+							&& Files.isDirectory(directory.resolve((Path) event.context()))) {
+						registerTree(directory.resolve((Path) event.context()));
+					}
+				});
+				key.reset();
+				cache.invalidateAll();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ClosedWatchServiceException e) {
+			// stopped
+		}
+	}
+
+	private void registerTree(Path root) {
+		try (Stream<Path> directories = Files.walk(root)) {
+			for (Path directory : directories.filter(Files::isDirectory).toList()) {
+				directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			}
+		} catch (IOException e) {
+			log.warn("Search location not watched, changes only show after the cache ttl | path={} | error={}", root, e.toString());
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package sn.noreyni.configservice.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Data;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import sn.noreyni.configservice.cache.CachingEnvironmentRepositoryPostProcessor;
+import sn.noreyni.configservice.cache.EnvironmentCache;
+import sn.noreyni.configservice.cache.SearchLocationWatcher;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.config-cache")
+@Data
+public class EnvironmentCacheConfig {
+	private boolean enabled = true;
+	/**
+	 * Upper bound on how stale a cached environment can be when no change is signalled: a push to
+	 * the git remote or a Vault secret update reaches clients within this delay
+	 */
+	private Duration ttl = Duration.ofMinutes(5);
+	private int maxEntries = 500;
+
+	@Bean
+	@ConditionalOnProperty(prefix = "app.config-cache", name = "enabled", matchIfMissing = true)
+	public static CachingEnvironmentRepositoryPostProcessor cachingEnvironmentRepositoryPostProcessor(
+			ObjectProvider<EnvironmentCache> environmentCache) {
+		return new CachingEnvironmentRepositoryPostProcessor(environmentCache);
+	}
+
+	@Bean
+	public EnvironmentCache environmentCache() {
+		return new EnvironmentCache(ttl, maxEntries);
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	@Profile("native")
+	public SearchLocationWatcher searchLocationWatcher(EnvironmentCache environmentCache,
+			@Value("${spring.cloud.config.server.native.search-locations:}") List<String> searchLocations) {
+		return new SearchLocationWatcher(environmentCache, searchLocations);
+	}
+
+	/**
+	 * A refresh of the config server itself (POST /actuator/refresh) may change the backends
+	 */
+	@EventListener({EnvironmentChangeEvent.class, RefreshScopeRefreshedEvent.class})
+	public void onRefresh() {
+		environmentCache().invalidateAll();
+	}
+
+	/**
+	 * ETag on every resolved configuration, and 304 for clients sending it back in If-None-Match
+	 */
+	@Bean
+	public FilterRegistrationBean<ShallowEtagHeaderFilter> configEtagFilter() {
+		FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter() {
+			@Override
+			protected boolean shouldNotFilter(HttpServletRequest request) {
+				return request.getRequestURI().startsWith("/actuator");
+			}
+		});
+		registration.addUrlPatterns("/*");
+		return registration;
+	}
+}
@@ -0,0 +1,113 @@
+package sn.noreyni.configservice.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.config.environment.Environment;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EnvironmentCacheTest {
+
+	private final AtomicInteger resolutions = new AtomicInteger();
+	private final EnvironmentCache cache = new EnvironmentCache(Duration.ofMinutes(5), 2);
+
+	@Test
+	void resolvedEnvironmentIsServedFromTheCache() {
+		Environment first = cache.get("book-service", "default", "main", false, resolver());
+		Environment second = cache.get("book-service", "default", "main", false, resolver());
+
+		assertThat(second).isSameAs(first);
+		assertThat(resolutions).hasValue(1);
+	}
+
+	@Test
+	void eachProfileLabelAndOriginFlagIsResolvedSeparately() {
+		cache.get("book-service", "default", "main", false, resolver());
+		cache.get("book-service", "prod", "main", false, resolver());
+		cache.get("book-service", "default", "main", true, resolver());
+
+		assertThat(resolutions).hasValue(3);
+	}
+
+	@Test
+	void concurrentFetchesShareOneResolution() throws Exception {
+		CountDownLatch resolving = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Supplier<Environment> slow = () -> {
+			resolving.countDown();
+			await(release);
+			return resolver().get();
+		};
+
+		CompletableFuture<Environment> first = CompletableFuture.supplyAsync(() -> cache.get("book-service", "default", "main", false, slow));
+		assertThat(resolving.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<Environment> second = CompletableFuture.supplyAsync(() -> cache.get("book-service", "default", "main", false, slow));
+		release.countDown();
+
+		assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+		assertThat(resolutions).hasValue(1);
+	}
+
+	@Test
+	void failedResolutionIsNotCached() {
+		assertThatThrownBy(() -> cache.get("book-service", "default", "main", false, () -> {
+			throw new IllegalStateException("git unreachable");
+		})).isInstanceOf(IllegalStateException.class);
+
+		cache.get("book-service", "default", "main", false, resolver());
+
+		assertThat(resolutions).hasValue(1);
+	}
+
+	@Test
+	void invalidateAllForcesANewResolution() {
+		cache.get("book-service", "default", "main", false, resolver());
+
+		cache.invalidateAll();
+		cache.get("book-service", "default", "main", false, resolver());
+
+		assertThat(resolutions).hasValue(2);
+	}
+
+	@Test
+	void entriesExpireAfterTheTtl() throws InterruptedException {
+		EnvironmentCache shortLived = new EnvironmentCache(Duration.ofMillis(20), 10);
+		shortLived.get("book-service", "default", "main", false, resolver());
+		Thread.sleep(50);
+
+		shortLived.get("book-service", "default", "main", false, resolver());
+
+		assertThat(resolutions).hasValue(2);
+	}
+
+	@Test
+	void sizeIsBoundedByMaxEntries() {
+		for (String application : new String[]{"book-service", "user-service", "gateway-service", "discovery-service"}) {
+			cache.get(application, "default", "main", false, resolver());
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(2);
+	}
+
+	private Supplier<Environment> resolver() {
+		return () -> {
+			resolutions.incrementAndGet();
+			return new Environment("book-service", "default");
+		};
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package sn.noreyni.discoveryservice.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+
+import java.util.Map;
+
+/**
+ * One registry delta as pushed to subscribers. {@code REGISTERED} carries the instance as
+ * it registered, including its status, and {@code STATUS_CHANGED} the instance with its
+ * overridden status; {@code CANCELED} only identifies the instance.
+ */
+public record RegistryChange(Type type, String app, String instanceId, String host, int port, boolean secure,
+							 String status, Map<String, String> metadata, long timestamp) {
+
+	public enum Type {
+		REGISTERED, STATUS_CHANGED, CANCELED
+	}
+
+	static RegistryChange registered(InstanceInfo instance) {
+		return of(Type.REGISTERED, instance);
+	}
+
+	static RegistryChange statusChanged(InstanceInfo instance) {
+		return of(Type.STATUS_CHANGED, instance);
+	}
+
+	private static RegistryChange of(Type type, InstanceInfo instance) {
+		boolean secure = instance.isPortEnabled(InstanceInfo.PortType.SECURE);
+		return new RegistryChange(type, instance.getAppName().toLowerCase(), instance.getId(),
+				instance.getHostName(), secure ? instance.getSecurePort() : instance.getPort(), secure,
+				instance.getStatus().name(), Map.copyOf(instance.getMetadata()), System.currentTimeMillis());
+	}
+
+	static RegistryChange canceled(String app, String instanceId) {
+		return new RegistryChange(Type.CANCELED, app.toLowerCase(), instanceId, null, 0, false,
+				null, Map.of(), System.currentTimeMillis());
+	}
+}
@@ -0,0 +1,102 @@
+package sn.noreyni.discoveryservice.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceCanceledEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes registrations, status overrides (see {@link RegistryStatusUpdateFilter}) and
+ * cancellations (explicit or lease eviction) to every subscriber as server-sent events, so that clients do not have to wait for their next registry poll.
+ * <p>
+ * Events are sent from a single thread: a registering instance never waits on a slow
+ * subscriber, and subscribers see the changes in the order this node saw them. A comment
+ * line is sent every {@code HEARTBEAT_SECONDS} to keep idle connections open through proxies.
+ */
+@Component
+public class RegistryChangeBroadcaster {
+
+	private static final Logger LOG = LoggerFactory.getLogger(RegistryChangeBroadcaster.class);
+
+	private static final long HEARTBEAT_SECONDS = 15;
+
+	private final Set<SseEmitter> subscribers = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "registry-push");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public RegistryChangeBroadcaster() {
+		sender.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	public SseEmitter subscribe() {
+		// No timeout: the stream lives as long as the subscriber stays connected
+		SseEmitter emitter = new SseEmitter(0L);
+		emitter.onCompletion(() -> subscribers.remove(emitter));
+		emitter.onTimeout(() -> subscribers.remove(emitter));
+		emitter.onError(ex -> subscribers.remove(emitter));
+		subscribers.add(emitter);
+		LOG.info("Registry push subscriber connected | subscribers={}", subscribers.size());
+		return emitter;
+	}
+
+	@EventListener
+	public void onRegistered(EurekaInstanceRegisteredEvent event) {
+		broadcast(RegistryChange.registered(event.getInstanceInfo()));
+	}
+
+	public void onStatusChanged(InstanceInfo instance) {
+		broadcast(RegistryChange.statusChanged(instance));
+	}
+
+	@EventListener
+	public void onCanceled(EurekaInstanceCanceledEvent event) {
+		broadcast(RegistryChange.canceled(event.getAppName(), event.getServerId()));
+	}
+
+	private void broadcast(RegistryChange change) {
+		sender.execute(() -> {
+			for (SseEmitter emitter : subscribers) {
+				send(emitter, SseEmitter.event()
+						.name(change.type().name())
+						.data(change, MediaType.APPLICATION_JSON));
+			}
+		});
+	}
+
+	private void heartbeat() {
+		for (SseEmitter emitter : subscribers) {
+			send(emitter, SseEmitter.event().comment("heartbeat"));
+		}
+	}
+
+	private void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+		try {
+			emitter.send(event);
+		} catch (IOException | IllegalStateException e) {
+			subscribers.remove(emitter);
+			emitter.completeWithError(e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		sender.shutdownNow();
+		subscribers.forEach(SseEmitter::complete);
+	}
+}
@@ -0,0 +1,209 @@
+package sn.noreyni.discoveryservice.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRegisteredEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Warm restarts: the registry is written to a gzipped snapshot (Eureka's own JSON format)
+ * every {@code interval}, and reloaded when the server starts, so clients fetching right
+ * after a restart get the instances they had before instead of an empty registry.
+ * <p>
+ * Reloaded instances are provisional and carry {@value #PROVISIONAL_METADATA} in their
+ * metadata. The marker is dropped once the instance renews or registers again; instances
+ * still provisional after {@code provisional-grace} are cancelled, as they most likely went
+ * away while the server was down. Restored entries are registered as replications, so they
+ * are not pushed to peer nodes, which keep their own registry.
+ */
+@Component
+public class RegistrySnapshots {
+
+	public static final String PROVISIONAL_METADATA = "registry-snapshot-provisional";
+
+	private static final Logger LOG = LoggerFactory.getLogger(RegistrySnapshots.class);
+
+	private final PeerAwareInstanceRegistry registry;
+	private final CodecWrappers.JacksonJson codec = new CodecWrappers.JacksonJson();
+	private final Path path;
+	private final Duration interval;
+	private final Duration maxAge;
+	private final Duration provisionalGrace;
+	private final Set<String> provisional = ConcurrentHashMap.newKeySet();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "registry-snapshot");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public RegistrySnapshots(PeerAwareInstanceRegistry registry,
+							 @Value("${app.registry.snapshot.path:./data/registry-snapshot.json.gz}") Path path,
+							 @Value("${app.registry.snapshot.interval:30s}") Duration interval,
+							 @Value("${app.registry.snapshot.max-age:15m}") Duration maxAge,
+							 @Value("${app.registry.snapshot.provisional-grace:90s}") Duration provisionalGrace) {
+		this.registry = registry;
+		this.path = path;
+		this.interval = interval;
+		this.maxAge = maxAge;
+		this.provisionalGrace = provisionalGrace;
+	}
+
+	@EventListener(EurekaRegistryAvailableEvent.class)
+	public void onRegistryAvailable() {
+		restore();
+		scheduler.schedule(this::expireProvisional, provisionalGrace.toMillis(), TimeUnit.MILLISECONDS);
+		// No snapshot before provisional entries are settled, it would persist them again
+		scheduler.scheduleWithFixedDelay(this::write, provisionalGrace.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@EventListener
+	public void onRenewed(EurekaInstanceRenewedEvent event) {
+		if (provisional.remove(key(event.getAppName(), event.getServerId()))) {
+			confirm(event.getAppName(), event.getServerId());
+		}
+	}
+
+	@EventListener
+	public void onRegistered(EurekaInstanceRegisteredEvent event) {
+		InstanceInfo instance = event.getInstanceInfo();
+		// Our own restore registers the marker; a real registration replaces the entry
+		if (!instance.getMetadata().containsKey(PROVISIONAL_METADATA)) {
+			provisional.remove(key(instance.getAppName(), instance.getId()));
+		}
+	}
+
+	private void restore() {
+		Applications snapshot = read();
+		if (snapshot == null) {
+			return;
+		}
+		int restored = 0;
+		for (Application application : snapshot.getRegisteredApplications()) {
+			for (InstanceInfo stored : application.getInstances()) {
+				if (stored.getStatus() != InstanceInfo.InstanceStatus.UP
+						|| registry.getInstanceByAppAndId(application.getName(), stored.getId()) != null) {
+					continue;
+				}
+				Map<String, String> metadata = new HashMap<>(stored.getMetadata());
+				metadata.put(PROVISIONAL_METADATA, "true");
+				InstanceInfo instance = new InstanceInfo.Builder(stored).setMetadata(metadata).build();
+				provisional.add(key(application.getName(), stored.getId()));
+				registry.register(instance, leaseDuration(stored), true);
+				restored++;
+			}
+		}
+		LOG.info("Registry restored from snapshot | instances={} | path={}", restored, path);
+	}
+
+	private Applications read() {
+		try {
+			if (!Files.exists(path)) {
+				return null;
+			}
+			Instant writtenAt = Files.getLastModifiedTime(path).toInstant();
+			if (writtenAt.isBefore(Instant.now().minus(maxAge))) {
+				LOG.info("Registry snapshot ignored, too old | writtenAt={} | path={}", writtenAt, path);
+				return null;
+			}
+			try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+				return codec.decode(in, Applications.class);
+			}
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Registry snapshot unreadable, starting empty | path={} | error={}", path, e.toString());
+			return null;
+		}
+	}
+
+	private void write() {
+		Applications confirmed = new Applications();
+		for (Application application : registry.getApplications().getRegisteredApplications()) {
+			Application copy = new Application(application.getName());
+			for (InstanceInfo instance : application.getInstances()) {
+				if (!instance.getMetadata().containsKey(PROVISIONAL_METADATA)) {
+					copy.addInstance(instance);
+				}
+			}
+			if (!copy.getInstances().isEmpty()) {
+				confirmed.addApplication(copy);
+			}
+		}
+		try {
+			Files.createDirectories(path.toAbsolutePath().getParent());
+			Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+				codec.encode(confirmed, out);
+			}
+			Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			LOG.warn("Registry snapshot not written | path={} | error={}", path, e.toString());
+		}
+	}
+
+	/**
+	 * Re-registers the live entry without the provisional marker, keeping its dirty timestamp
+	 * so that a later registration from the instance itself still wins.
+	 */
+	private void confirm(String appName, String id) {
+		InstanceInfo current = registry.getInstanceByAppAndId(appName, id);
+		if (current == null || !current.getMetadata().containsKey(PROVISIONAL_METADATA)) {
+			return;
+		}
+		Map<String, String> metadata = new HashMap<>(current.getMetadata());
+		metadata.remove(PROVISIONAL_METADATA);
+		InstanceInfo confirmed = new InstanceInfo.Builder(new InstanceInfo(current)).setMetadata(metadata).build();
+		registry.register(confirmed, leaseDuration(current), true);
+	}
+
+	private void expireProvisional() {
+		for (String key : Set.copyOf(provisional)) {
+			if (provisional.remove(key)) {
+				String[] parts = key.split("\u0000", 2);
+				LOG.info("Provisional instance never renewed, cancelling | app={} | instance={}", parts[0], parts[1]);
+				registry.cancel(parts[0], parts[1], true);
+			}
+		}
+	}
+
+	private static int leaseDuration(InstanceInfo instance) {
+		LeaseInfo lease = instance.getLeaseInfo();
+		return lease != null && lease.getDurationInSecs() > 0 ? lease.getDurationInSecs() : LeaseInfo.DEFAULT_LEASE_DURATION;
+	}
+
+	private static String key(String appName, String id) {
+		return appName.toUpperCase() + '\u0000' + id;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+}
@@ -0,0 +1,61 @@
+package sn.noreyni.discoveryservice.registry;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Eureka publishes no event when an instance status is overridden through
+ * {@code PUT|DELETE /eureka/apps/{app}/{id}/status} (e.g. taken {@code OUT_OF_SERVICE} before
+ * a deployment), so the successful calls are caught here and the resulting status pushed.
+ * Status changes reported by the instance itself, such as {@code DOWN} from its health check,
+ * arrive as a new registration and are pushed as such.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RegistryStatusUpdateFilter extends OncePerRequestFilter {
+
+	private static final Pattern STATUS_PATH = Pattern.compile("/eureka/apps/([^/]+)/([^/]+)/status/?");
+
+	private final PeerAwareInstanceRegistry registry;
+	private final RegistryChangeBroadcaster broadcaster;
+
+	public RegistryStatusUpdateFilter(PeerAwareInstanceRegistry registry, RegistryChangeBroadcaster broadcaster) {
+		this.registry = registry;
+		this.broadcaster = broadcaster;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		String method = request.getMethod();
+		return !("PUT".equals(method) || "DELETE".equals(method))
+				|| !STATUS_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length())).matches();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		chain.doFilter(request, response);
+		if (response.getStatus() != HttpServletResponse.SC_OK) {
+			return;
+		}
+		Matcher matcher = STATUS_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+		if (matcher.matches()) {
+			InstanceInfo instance = registry.getInstanceByAppAndId(matcher.group(1), matcher.group(2));
+			if (instance != null) {
+				broadcaster.onStatusChanged(instance);
+			}
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package sn.noreyni.discoveryservice.registry;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Registry deltas as a server-sent event stream, next to the regular Eureka REST API
+ * that clients keep polling as a fallback.
+ */
+@RestController
+public class RegistryStreamController {
+
+	private final RegistryChangeBroadcaster broadcaster;
+
+	public RegistryStreamController(RegistryChangeBroadcaster broadcaster) {
+		this.broadcaster = broadcaster;
+	}
+
+	@GetMapping(path = "/registry/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream() {
+		return broadcaster.subscribe();
+	}
+}
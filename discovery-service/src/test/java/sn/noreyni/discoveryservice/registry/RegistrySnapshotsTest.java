@@ -0,0 +1,187 @@
+package sn.noreyni.discoveryservice.registry;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.converters.wrappers.CodecWrappers;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaInstanceRenewedEvent;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegistrySnapshotsTest {
+
+	private static final CodecWrappers.JacksonJson CODEC = new CodecWrappers.JacksonJson();
+
+	@TempDir
+	Path directory;
+
+	private final PeerAwareInstanceRegistry registry = mock(PeerAwareInstanceRegistry.class);
+	private RegistrySnapshots snapshots;
+
+	@AfterEach
+	void shutdown() {
+		if (snapshots != null) {
+			snapshots.shutdown();
+		}
+	}
+
+	@Test
+	void upInstancesAreRestoredAsProvisionalReplications() throws IOException {
+		Path path = snapshot(Instant.now(), instance("book-1", InstanceInfo.InstanceStatus.UP, Map.of()),
+				instance("book-2", InstanceInfo.InstanceStatus.DOWN, Map.of()));
+
+		start(path, Duration.ofHours(1));
+
+		ArgumentCaptor<InstanceInfo> restored = ArgumentCaptor.forClass(InstanceInfo.class);
+		verify(registry).register(restored.capture(), eq(90), eq(true));
+		assertThat(restored.getValue().getId()).isEqualTo("book-1");
+		assertThat(restored.getValue().getMetadata()).containsKey(RegistrySnapshots.PROVISIONAL_METADATA);
+	}
+
+	@Test
+	void instancesAlreadyRegisteredAreNotOverwritten() throws IOException {
+		InstanceInfo live = instance("book-1", InstanceInfo.InstanceStatus.UP, Map.of());
+		when(registry.getInstanceByAppAndId("BOOK-SERVICE", "book-1")).thenReturn(live);
+		Path path = snapshot(Instant.now(), instance("book-1", InstanceInfo.InstanceStatus.UP, Map.of()));
+
+		start(path, Duration.ofHours(1));
+
+		verify(registry, never()).register(any(), anyInt(), anyBoolean());
+	}
+
+	@Test
+	void snapshotOlderThanMaxAgeIsIgnored() throws IOException {
+		Path path = snapshot(Instant.now().minus(Duration.ofHours(1)), instance("book-1", InstanceInfo.InstanceStatus.UP, Map.of()));
+
+		start(path, Duration.ofHours(1));
+
+		verify(registry, never()).register(any(), anyInt(), anyBoolean());
+	}
+
+	@Test
+	void unreadableSnapshotStartsEmpty() throws IOException {
+		Path path = directory.resolve("registry-snapshot.json.gz");
+		Files.writeString(path, "not gzip");
+
+		start(path, Duration.ofHours(1));
+
+		verify(registry, never()).register(any(), anyInt(), anyBoolean());
+	}
+
+	@Test
+	void renewalConfirmsAProvisionalInstance() throws IOException {
+		Path path = snapshot(Instant.now(), instance("book-1", InstanceInfo.InstanceStatus.UP, Map.of()));
+		start(path, Duration.ofHours(1));
+		when(registry.getInstanceByAppAndId("BOOK-SERVICE", "book-1")).thenReturn(
+				instance("book-1", InstanceInfo.InstanceStatus.UP, Map.of(RegistrySnapshots.PROVISIONAL_METADATA, "true")));
+
+		snapshots.onRenewed(new EurekaInstanceRenewedEvent(this, "BOOK-SERVICE", "book-1", null, false));
+
+		ArgumentCaptor<InstanceInfo> registered = ArgumentCaptor.forClass(InstanceInfo.class);
+		verify(registry, times(2)).register(registered.capture(), eq(90), eq(true));
+		assertThat(registered.getValue().getMetadata()).doesNotContainKey(RegistrySnapshots.PROVISIONAL_METADATA);
+	}
+
+	@Test
+	void provisionalInstanceNeverRenewedIsCancelledAfterTheGrace() throws IOException {
+		Path path = snapshot(Instant.now(), instance("book-1", InstanceInfo.InstanceStatus.UP, Map.of()));
+
+		start(path, Duration.ofMillis(50));
+
+		verify(registry, timeout(5_000)).cancel("BOOK-SERVICE", "book-1", true);
+	}
+
+	@Test
+	void snapshotHoldsConfirmedInstancesOnly() throws IOException {
+		Path path = directory.resolve("registry-snapshot.json.gz");
+		when(registry.getApplications()).thenReturn(applications(
+				instance("book-1", InstanceInfo.InstanceStatus.UP, Map.of()),
+				instance("book-2", InstanceInfo.InstanceStatus.UP, Map.of(RegistrySnapshots.PROVISIONAL_METADATA, "true"))));
+
+		start(path, Duration.ofMillis(10));
+		awaitFile(path);
+
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+			List<InstanceInfo> written = CODEC.decode(in, Applications.class)
+					.getRegisteredApplications("BOOK-SERVICE").getInstances();
+			assertThat(written).extracting(InstanceInfo::getId).containsExactly("book-1");
+		}
+	}
+
+	private void start(Path path, Duration provisionalGrace) {
+		snapshots = new RegistrySnapshots(registry, path, Duration.ofHours(1), Duration.ofMinutes(15), provisionalGrace);
+		snapshots.onRegistryAvailable();
+	}
+
+	private static void awaitFile(Path path) {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!Files.exists(path) && System.nanoTime() < deadline) {
+			Thread.onSpinWait();
+		}
+		assertThat(path).exists();
+	}
+
+	private Path snapshot(Instant writtenAt, InstanceInfo... instances) throws IOException {
+		Path path = directory.resolve("registry-snapshot.json.gz");
+		try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(path))) {
+			CODEC.encode(applications(instances), out);
+		}
+		Files.setLastModifiedTime(path, FileTime.from(writtenAt));
+		return path;
+	}
+
+	private static Applications applications(InstanceInfo... instances) {
+		Application application = new Application("BOOK-SERVICE");
+		for (InstanceInfo instance : instances) {
+			application.addInstance(instance);
+		}
+		Applications applications = new Applications();
+		applications.addApplication(application);
+		return applications;
+	}
+
+	private static InstanceInfo instance(String id, InstanceInfo.InstanceStatus status, Map<String, String> metadata) {
+		return InstanceInfo.Builder.newBuilder()
+				.setAppName("BOOK-SERVICE")
+				.setInstanceId(id)
+				.setHostName("10.0.0." + id.charAt(id.length() - 1))
+				.setPort(8080)
+				.setStatus(status)
+				.setMetadata(new HashMap<>(metadata))
+				.setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+				.setLeaseInfo(LeaseInfo.Builder.newBuilder().setDurationInSecs(90).build())
+				.build();
+	}
+}
@@ -0,0 +1,57 @@
+package sn.noreyni.gateweyservice.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+
+/**
+ * The {@code Cache-Control} directives a shared cache acts on. {@code s-maxage} wins over
+ * {@code max-age}; {@code maxAge} is {@code null} when neither is present.
+ */
+record CacheDirectives(boolean noStore, boolean noCache, boolean isPrivate, boolean isPublic, Duration maxAge) {
+
+    static final CacheDirectives NONE = new CacheDirectives(false, false, false, false, null);
+
+    static CacheDirectives parse(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl == null || cacheControl.isBlank()) {
+            return NONE;
+        }
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        boolean isPublic = false;
+        Duration maxAge = null;
+        Duration sharedMaxAge = null;
+
+        for (String directive : cacheControl.split(",")) {
+            String value = directive.trim().toLowerCase();
+            if (value.equals("no-store")) {
+                noStore = true;
+            } else if (value.equals("no-cache")) {
+                noCache = true;
+            } else if (value.startsWith("private")) {
+                isPrivate = true;
+            } else if (value.equals("public")) {
+                isPublic = true;
+            } else if (value.startsWith("s-maxage=")) {
+                sharedMaxAge = seconds(value.substring("s-maxage=".length()));
+            } else if (value.startsWith("max-age=")) {
+                maxAge = seconds(value.substring("max-age=".length()));
+            }
+        }
+        return new CacheDirectives(noStore, noCache, isPrivate, isPublic, sharedMaxAge != null ? sharedMaxAge : maxAge);
+    }
+
+    boolean present() {
+        return this != NONE;
+    }
+
+    private static Duration seconds(String value) {
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.replace("\"", "").trim())));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package sn.noreyni.gateweyservice.cache;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import sn.noreyni.gateweyservice.security.EdgeAuthenticationFilter;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Keys and buffer handling shared by the response cache and request coalescing filters.
+ */
+final class CacheKeys {
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization", "set-cookie");
+
+    private CacheKeys() {
+    }
+
+    static List<PathPattern> parsePaths(List<String> paths) {
+        return paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    }
+
+    static boolean matches(List<PathPattern> paths, ServerHttpRequest request) {
+        if (paths.isEmpty()) {
+            return true;
+        }
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "";
+    }
+
+    /**
+     * Route, path, caller scope and query: method independent. Callers are told apart through
+     * the JWT verified by {@link EdgeAuthenticationFilter}, never through raw headers. The key
+     * starts with its {@link #pathKey}, which is how writes find every entry of a path.
+     *
+     * @return {@code null} when the scope needs a caller and the request has none; a
+     * {@code ROLES} request without a token is not cached either
+     */
+    static String primaryKey(String routeId, CacheScope scope, ServerWebExchange exchange) {
+        Jwt jwt = exchange.getAttribute(EdgeAuthenticationFilter.VERIFIED_JWT_ATTR);
+        String principal = switch (scope) {
+            case PUBLIC -> "*";
+            case ROLES -> jwt != null ? "roles:" + String.join(",", sortedRealmRoles(jwt)) : null;
+            case USER -> jwt != null ? "user:" + jwt.getSubject() : null;
+        };
+        if (principal == null) {
+            return null;
+        }
+        String query = exchange.getRequest().getURI().getRawQuery();
+        return pathKey(routeId, exchange.getRequest().getURI().getRawPath())
+                + '\u0000' + principal + '\u0000' + (query != null ? query : "");
+    }
+
+    /**
+     * Route and path without a trailing slash: what a write to that path can make stale.
+     */
+    static String pathKey(String routeId, String rawPath) {
+        String path = rawPath.length() > 1 && rawPath.endsWith("/")
+                ? rawPath.substring(0, rawPath.length() - 1)
+                : rawPath;
+        return routeId + '\u0000' + path;
+    }
+
+    /**
+     * @return the {@link #pathKey} that a {@link #primaryKey}, or an entry key built on it, starts with
+     */
+    static String pathKeyOf(String key) {
+        int routeEnd = key.indexOf('\u0000');
+        int pathEnd = key.indexOf('\u0000', routeEnd + 1);
+        return pathEnd < 0 ? key : key.substring(0, pathEnd);
+    }
+
+    /**
+     * Only what the upstream sent, minus hop-by-hop headers; gateway-added headers such as
+     * rate limit counters belong to one exchange.
+     */
+    static HttpHeaders upstreamHeaders(ServerWebExchange exchange, HttpHeaders responseHeaders) {
+        Set<String> upstreamNames = exchange.getAttributeOrDefault(CLIENT_RESPONSE_HEADER_NAMES, Set.of());
+        HttpHeaders stored = new HttpHeaders();
+        responseHeaders.forEach((name, values) -> {
+            if (upstreamNames.contains(name) && !HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                stored.put(name, new ArrayList<>(values));
+            }
+        });
+        return stored;
+    }
+
+    /**
+     * A right-sized heap copy of the body, leaving {@code joined} readable and owned by the caller.
+     */
+    static byte[] copyOf(DataBuffer joined) {
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.toByteBuffer(joined.readPosition(), ByteBuffer.wrap(bytes), 0, bytes.length);
+        return bytes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> sortedRealmRoles(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+        if (realmAccess == null || !(realmAccess.get("roles") instanceof Collection<?> roles)) {
+            return List.of();
+        }
+        return ((Collection<String>) roles).stream().sorted().toList();
+    }
+}
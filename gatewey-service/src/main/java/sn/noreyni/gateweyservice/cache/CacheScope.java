@@ -0,0 +1,19 @@
+package sn.noreyni.gateweyservice.cache;
+
+/**
+ * Who may share a stored or coalesced response.
+ */
+public enum CacheScope {
+    /**
+     * Everyone: the response does not depend on the caller
+     */
+    PUBLIC,
+    /**
+     * Callers with the same set of realm roles
+     */
+    ROLES,
+    /**
+     * One subject only; requests without a verified token are never shared
+     */
+    USER
+}
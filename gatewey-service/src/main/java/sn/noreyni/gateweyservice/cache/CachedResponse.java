@@ -0,0 +1,97 @@
+package sn.noreyni.gateweyservice.cache;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import sn.noreyni.gateweyservice.compression.ContentCoding;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A stored upstream response. The body is a right-sized heap copy: keeping the pooled buffer
+ * the response was read into would pin a whole pooled chunk per entry for its lifetime.
+ * Every hit wraps the same bytes without copying them again.
+ * <p>
+ * Compressible bodies also keep their compressed codings, made once when stored.
+ */
+final class CachedResponse {
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final String etag;
+    private final Map<ContentCoding, byte[]> encodedBodies;
+    private volatile long storedAtMillis;
+    private volatile long expiresAtNanos;
+
+    CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long ttlNanos) {
+        this(status, headers, body, ttlNanos, Map.of());
+    }
+
+    CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long ttlNanos,
+                   Map<ContentCoding, byte[]> encodedBodies) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.encodedBodies = Map.copyOf(encodedBodies);
+        this.etag = headers.getETag();
+        freshen(ttlNanos);
+    }
+
+    HttpStatusCode status() {
+        return status;
+    }
+
+    HttpHeaders headers() {
+        return headers;
+    }
+
+    String etag() {
+        return etag;
+    }
+
+    int size() {
+        int size = body.length;
+        for (byte[] encoded : encodedBodies.values()) {
+            size += encoded.length;
+        }
+        return size;
+    }
+
+    Set<ContentCoding> codings() {
+        return encodedBodies.keySet();
+    }
+
+    byte[] encodedBody(ContentCoding coding) {
+        return encodedBodies.get(coding);
+    }
+
+    boolean isFresh() {
+        return System.nanoTime() - expiresAtNanos < 0;
+    }
+
+    long ageSeconds() {
+        return Math.max(0, (System.currentTimeMillis() - storedAtMillis) / 1000);
+    }
+
+    /**
+     * Restarts the freshness lifetime after a successful revalidation (upstream 304).
+     */
+    void freshen(long ttlNanos) {
+        this.storedAtMillis = System.currentTimeMillis();
+        this.expiresAtNanos = System.nanoTime() + ttlNanos;
+    }
+
+    byte[] body() {
+        return body;
+    }
+
+    /**
+     * @return the body for one write; the bytes are shared, never modified
+     */
+    DataBuffer body(DataBufferFactory bufferFactory) {
+        return bufferFactory.wrap(body);
+    }
+}
@@ -0,0 +1,310 @@
+package sn.noreyni.gateweyservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Honours the {@code Idempotency-Key} header on mutating requests. The first request with a
+ * key goes upstream and its response is stored ({@link IdempotencyStore}); a retry with the
+ * same key gets that response replayed with {@code Idempotent-Replayed: true}, and a retry
+ * arriving while the first is still running waits for it instead of reaching the backend.
+ * <p>
+ * Keys are scoped to the route and the caller (user, service account or IP). Reusing a key
+ * for a different method, path or body is refused with a 422. 5xx and 429 responses are not
+ * stored: the key is freed and the next retry executes again, as it is when the call fails or
+ * is cancelled before the upstream answered. Any other response without a Content-Length or
+ * larger than {@code max-entry-size} keeps the key for the TTL without its body, and retries
+ * get a 409 rather than a second execution.
+ * <p>
+ * The filter runs ahead of {@link NettyWriteResponseFilter}, whatever its place in the route,
+ * so that it sees the upstream body being written; it therefore also answers replays before
+ * the route's rate limiter.
+ * <pre>
+ * - name: Idempotency
+ *   args:
+ *     paths: /user-service/api/v1/users/**
+ * </pre>
+ */
+@Component
+public class IdempotencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<IdempotencyGatewayFilterFactory.Config> {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final KeyResolver callerResolver;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public IdempotencyGatewayFilterFactory(IdempotencyStore store,
+                                           @Qualifier("principalOrIpKeyResolver") KeyResolver callerResolver,
+                                           ErrorResponseWriter errorResponseWriter,
+                                           MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.store = store;
+        this.callerResolver = callerResolver;
+        this.errorResponseWriter = errorResponseWriter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> paths = CacheKeys.parsePaths(config.getPaths());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String idempotencyKey = request.getHeaders().getFirst(IDEMPOTENCY_KEY_HEADER);
+            if (idempotencyKey == null || !config.getMethods().contains(request.getMethod())
+                    || !CacheKeys.matches(paths, request)) {
+                return chain.filter(exchange);
+            }
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+                return errorResponseWriter.write(exchange, HttpStatus.BAD_REQUEST, "GATEWAY_007",
+                        "L'en-tête Idempotency-Key doit contenir entre 1 et " + MAX_KEY_LENGTH + " caractères");
+            }
+            String routeId = CacheKeys.routeId(exchange);
+
+            return DataBufferUtils.join(request.getBody(), (int) config.getMaxRequestSize().toBytes())
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .zipWith(callerResolver.resolve(exchange).defaultIfEmpty("anonymous"))
+                    .flatMap(bodyAndCaller -> {
+                        byte[] body = bodyAndCaller.getT1();
+                        String key = routeId + '\u0000' + bodyAndCaller.getT2() + '\u0000' + idempotencyKey;
+                        ServerWebExchange replayable = exchange.mutate()
+                                .request(new ReplayableRequest(request, body, exchange.getResponse().bufferFactory()))
+                                .build();
+                        return execute(replayable, chain, config, routeId, key, fingerprint(request, body));
+                    })
+                    .onErrorResume(DataBufferLimitException.class, ex -> errorResponseWriter.write(exchange,
+                            HttpStatus.PAYLOAD_TOO_LARGE, "GATEWAY_005",
+                            "La requête dépasse la taille maximale autorisée ("
+                                    + config.getMaxRequestSize().toKilobytes() + " Ko)"));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> execute(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                               String routeId, String key, String fingerprint) {
+        IdempotencyStore.Execution execution = new IdempotencyStore.Execution(fingerprint);
+        IdempotencyStore.Execution existing = store.claim(key, execution);
+        if (existing == null) {
+            count(routeId, "executed");
+            RecordingResponse recording = new RecordingResponse(exchange, key, execution);
+            return chain.filter(exchange.mutate().response(recording).build())
+                    .doFinally(signal -> {
+                        if (execution.response() != null) {
+                            return;
+                        }
+                        IdempotencyStore.StoredResponse answered = recording.answered;
+                        if (answered != null) {
+                            // Cancelled while the body was being read: the call did run upstream
+                            store.complete(key, execution, answered);
+                        } else {
+                            // Error, cancellation before the upstream answered, 5xx or 429
+                            store.abandon(key, execution);
+                        }
+                    });
+        }
+        if (!existing.fingerprint().equals(fingerprint)) {
+            count(routeId, "mismatch");
+            return errorResponseWriter.write(exchange, HttpStatus.UNPROCESSABLE_ENTITY, "GATEWAY_008",
+                    "Cette clé d'idempotence a déjà été utilisée pour une autre requête");
+        }
+        if (existing.response() != null) {
+            return replay(exchange, routeId, existing.response());
+        }
+
+        return existing.outcome()
+                .timeout(config.getMaxWait(), Mono.defer(() -> {
+                    count(routeId, "in_progress");
+                    return errorResponseWriter.write(exchange, HttpStatus.CONFLICT, "GATEWAY_009",
+                                    "Une requête avec la même clé d'idempotence est toujours en cours")
+                            .then(Mono.<Optional<IdempotencyStore.StoredResponse>>empty());
+                }))
+                .flatMap(outcome -> {
+                    if (outcome.isEmpty()) {
+                        // The first execution failed: compete for the key again
+                        return execute(exchange, chain, config, routeId, key, fingerprint);
+                    }
+                    return replay(exchange, routeId, outcome.get());
+                });
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, String routeId, IdempotencyStore.StoredResponse stored) {
+        if (!stored.replayable()) {
+            count(routeId, "not_replayable");
+            return errorResponseWriter.write(exchange, HttpStatus.CONFLICT, "GATEWAY_011",
+                    "Cette clé d'idempotence a déjà été exécutée (statut " + stored.status().value()
+                            + ") mais sa réponse ne peut pas être rejouée");
+        }
+        count(routeId, "replayed");
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        stored.headers().forEach(headers::putIfAbsent);
+        headers.setContentLength(stored.body().length);
+        headers.set(REPLAYED_HEADER, "true");
+        response.setStatusCode(stored.status());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(stored.body())));
+    }
+
+    /**
+     * Method, path, query and body: a key reused for anything else is a client bug, not a retry.
+     */
+    private static String fingerprint(ServerHttpRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod().name() + ' ' + request.getURI().getRawPath() + '?'
+                    + request.getURI().getRawQuery() + '\n').getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Serves the body read for the fingerprint, as many times as downstream filters subscribe.
+     */
+    private static final class ReplayableRequest extends ServerHttpRequestDecorator {
+
+        private final byte[] body;
+        private final DataBufferFactory bufferFactory;
+
+        ReplayableRequest(ServerHttpRequest delegate, byte[] body, DataBufferFactory bufferFactory) {
+            super(delegate);
+            this.body = body;
+            this.bufferFactory = bufferFactory;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return body.length == 0
+                    ? Flux.empty()
+                    : Flux.defer(() -> Flux.just(bufferFactory.wrap(body)));
+        }
+    }
+
+    private class RecordingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final IdempotencyStore.Execution execution;
+        /**
+         * Status and headers of a storable answer, set once the upstream has answered
+         */
+        private volatile IdempotencyStore.StoredResponse answered;
+
+        RecordingResponse(ServerWebExchange exchange, String key, IdempotencyStore.Execution execution) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.execution = execution;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (!isStorable(status)) {
+                return super.writeWith(body);
+            }
+            HttpHeaders upstreamHeaders = CacheKeys.upstreamHeaders(exchange, getHeaders());
+            answered = IdempotencyStore.StoredResponse.notReplayable(status, upstreamHeaders);
+            if (!store.fits(getHeaders().getContentLength())) {
+                store.complete(key, execution, answered);
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        store.complete(key, execution,
+                                new IdempotencyStore.StoredResponse(status, upstreamHeaders, bytes));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+
+        private boolean isStorable(HttpStatusCode status) {
+            return status != null
+                    && !status.is5xxServerError()
+                    && status.value() != HttpStatus.TOO_MANY_REQUESTS.value();
+        }
+    }
+
+    private void count(String routeId, String result) {
+        counters.computeIfAbsent(routeId + ':' + result, k -> Counter.builder("gateway.idempotency.requests")
+                        .description("Requests carrying an Idempotency-Key seen by the gateway")
+                        .tag("route", routeId)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private List<HttpMethod> methods = new ArrayList<>(List.of(HttpMethod.POST, HttpMethod.PATCH));
+        private List<String> paths = new ArrayList<>();
+        /**
+         * How long a retry waits for the execution in flight before getting a 409
+         */
+        private Duration maxWait = Duration.ofSeconds(10);
+        /**
+         * Bodies are read in full to fingerprint the request
+         */
+        private DataSize maxRequestSize = DataSize.ofMegabytes(1);
+    }
+}
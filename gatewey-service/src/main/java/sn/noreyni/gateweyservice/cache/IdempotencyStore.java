@@ -0,0 +1,120 @@
+package sn.noreyni.gateweyservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Size-bounded store behind {@link IdempotencyGatewayFilterFactory}: the first response to each
+ * idempotency key, kept for {@code ttl} after it was written. A key is claimed before the call
+ * goes upstream, so concurrent retries find it in flight and wait for its outcome. A response
+ * too large to keep is remembered by its status and headers only, so the key is not executed
+ * a second time.
+ */
+public class IdempotencyStore {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private final Cache<String, Execution> entries;
+    private final long maxEntryBytes;
+
+    public IdempotencyStore(DataSize maxSize, DataSize maxEntrySize, Duration ttl, MeterRegistry meterRegistry) {
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Execution value) -> value.size() + ENTRY_OVERHEAD_BYTES)
+                .expireAfterWrite(ttl)
+                .build();
+
+        Gauge.builder("gateway.idempotency.entries", entries, Cache::estimatedSize)
+                .description("Idempotency keys held by the gateway, in flight or completed")
+                .register(meterRegistry);
+    }
+
+    boolean fits(long contentLength) {
+        return contentLength >= 0 && contentLength <= maxEntryBytes;
+    }
+
+    /**
+     * @return {@code null} when the key was free and is now claimed by {@code execution},
+     * otherwise the execution already holding it
+     */
+    Execution claim(String key, Execution execution) {
+        return entries.asMap().putIfAbsent(key, execution);
+    }
+
+    /**
+     * Stores the response and wakes up the retries waiting on it; the TTL starts now.
+     */
+    void complete(String key, Execution execution, StoredResponse response) {
+        execution.response = response;
+        entries.asMap().replace(key, execution, execution);
+        execution.outcome.tryEmitValue(Optional.of(response));
+    }
+
+    /**
+     * Frees the key after a failure, or when the call ended before the upstream answered,
+     * so the next retry executes again.
+     */
+    void abandon(String key, Execution execution) {
+        entries.asMap().remove(key, execution);
+        execution.outcome.tryEmitValue(Optional.empty());
+    }
+
+    /**
+     * @param body {@code null} for a response whose body was not kept; see {@link #notReplayable}
+     */
+    record StoredResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+        static StoredResponse notReplayable(HttpStatusCode status, HttpHeaders headers) {
+            return new StoredResponse(status, headers, null);
+        }
+
+        boolean replayable() {
+            return body != null;
+        }
+    }
+
+    /**
+     * One execution of an idempotency key: the request it was made for and, once written, its response.
+     */
+    static final class Execution {
+
+        private final String fingerprint;
+        private final Sinks.One<Optional<StoredResponse>> outcome = Sinks.one();
+        private volatile StoredResponse response;
+
+        Execution(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        String fingerprint() {
+            return fingerprint;
+        }
+
+        StoredResponse response() {
+            return response;
+        }
+
+        /**
+         * @return the response, or empty when the execution was abandoned
+         */
+        Mono<Optional<StoredResponse>> outcome() {
+            return outcome.asMono();
+        }
+
+        int size() {
+            StoredResponse stored = response;
+            return fingerprint.length() + (stored != null && stored.replayable() ? stored.body().length : 0);
+        }
+    }
+}
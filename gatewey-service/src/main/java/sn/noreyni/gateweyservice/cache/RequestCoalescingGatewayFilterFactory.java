@@ -0,0 +1,206 @@
+package sn.noreyni.gateweyservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+
+/**
+ * Collapses concurrent identical GETs of a route into one upstream call.
+ * <p>
+ * The first request for a key (route, caller {@code scope}, path and query, negotiation and
+ * conditional headers) goes upstream; identical requests arriving while it is in flight wait
+ * for its response and get the same status, headers and body. Nothing is kept once the
+ * response is written, so a request never receives data older than its own arrival.
+ * Followers fall back to their own upstream call when the shared response cannot be used:
+ * unknown or too large body, {@code Set-Cookie}, gateway fallback response, or no answer
+ * within {@code maxWait}.
+ * <p>
+ * The filter runs ahead of {@link NettyWriteResponseFilter}, whatever its place in the route,
+ * so that it sees the leader's body being written.
+ * <pre>
+ * - name: RequestCoalescing
+ *   args:
+ *     scope: PUBLIC
+ *     paths: /book-service/api/v1/books/**
+ * </pre>
+ */
+@Component
+public class RequestCoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+
+    // A follower must not receive a 304 or a partial body answered to another conditional request
+    private static final List<String> KEY_HEADERS = List.of(
+            HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.RANGE);
+
+    private final Map<String, Sinks.One<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public RequestCoalescingGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> paths = CacheKeys.parsePaths(config.getPaths());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || !CacheKeys.matches(paths, request)
+                    || CacheDirectives.parse(request.getHeaders()).noStore()) {
+                return chain.filter(exchange);
+            }
+            String routeId = CacheKeys.routeId(exchange);
+            String primaryKey = CacheKeys.primaryKey(routeId, config.getScope(), exchange);
+            if (primaryKey == null) {
+                return chain.filter(exchange);
+            }
+            String key = coalescingKey(primaryKey, request.getHeaders(), config);
+
+            Sinks.One<Optional<CachedResponse>> sink = Sinks.one();
+            Sinks.One<Optional<CachedResponse>> leader = inFlight.putIfAbsent(key, sink);
+            if (leader != null) {
+                return follow(exchange, chain, config, routeId, leader);
+            }
+            count(routeId, "leader");
+            return chain.filter(exchange.mutate()
+                            .response(new SharingResponse(exchange, config, key, sink))
+                            .build())
+                    .doFinally(signal -> {
+                        // Error, cancellation or unshared response: waiters go upstream themselves
+                        inFlight.remove(key, sink);
+                        sink.tryEmitValue(Optional.empty());
+                    });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                              String routeId, Sinks.One<Optional<CachedResponse>> leader) {
+        return leader.asMono()
+                .timeout(config.getMaxWait(), Mono.just(Optional.empty()))
+                .flatMap(shared -> {
+                    if (shared.isEmpty()) {
+                        count(routeId, "fallback");
+                        return chain.filter(exchange);
+                    }
+                    count(routeId, "follower");
+                    return serve(exchange, shared.get(), shared.get().body(exchange.getResponse().bufferFactory()));
+                });
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse shared, DataBuffer body) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        shared.headers().forEach(headers::putIfAbsent);
+        headers.setContentLength(body.readableByteCount());
+        // Lets an enclosing ResponseCache store the shared response as if it came from upstream
+        exchange.getAttributes().put(CLIENT_RESPONSE_HEADER_NAMES, Set.copyOf(shared.headers().keySet()));
+        response.setStatusCode(shared.status());
+        return response.writeWith(Mono.just(body));
+    }
+
+    private static String coalescingKey(String primaryKey, HttpHeaders requestHeaders, Config config) {
+        StringBuilder key = new StringBuilder(primaryKey);
+        for (List<String> names : List.of(config.getVaryHeaders(), KEY_HEADERS)) {
+            for (String name : names) {
+                key.append('\u0000').append(String.join(",", requestHeaders.getOrEmpty(name)));
+            }
+        }
+        return key.toString();
+    }
+
+    private class SharingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final Config config;
+        private final String key;
+        private final Sinks.One<Optional<CachedResponse>> sink;
+
+        SharingResponse(ServerWebExchange exchange, Config config, String key,
+                        Sinks.One<Optional<CachedResponse>> sink) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.config = config;
+            this.key = key;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (!isShareable(status)) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                CachedResponse shared = new CachedResponse(status,
+                        CacheKeys.upstreamHeaders(exchange, getHeaders()), CacheKeys.copyOf(joined), 0);
+                // Late arrivals start a new call instead of joining one that has already answered
+                inFlight.remove(key, sink);
+                sink.tryEmitValue(Optional.of(shared));
+                return super.writeWith(Mono.just(joined));
+            });
+        }
+
+        private boolean isShareable(HttpStatusCode status) {
+            HttpHeaders headers = getHeaders();
+            long contentLength = headers.getContentLength();
+            return status != null
+                    && exchange.getAttribute(CLIENT_RESPONSE_HEADER_NAMES) != null
+                    && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                    && contentLength > 0 && contentLength <= config.getMaxBodySize().toBytes();
+        }
+    }
+
+    private void count(String routeId, String result) {
+        counters.computeIfAbsent(routeId + ':' + result, k -> Counter.builder("gateway.coalescing.requests")
+                        .description("GET requests seen by the gateway request coalescing filter")
+                        .tag("route", routeId)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private CacheScope scope = CacheScope.USER;
+        private List<String> paths = new ArrayList<>();
+        private List<String> varyHeaders = new ArrayList<>(List.of(
+                HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE));
+        private Duration maxWait = Duration.ofSeconds(5);
+        private DataSize maxBodySize = DataSize.ofKilobytes(256);
+    }
+}
@@ -0,0 +1,135 @@
+package sn.noreyni.gateweyservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Size-bounded store behind {@link ResponseCacheGatewayFilterFactory}, weighed in body bytes.
+ * <p>
+ * {@code Vary} is handled in two steps: the primary key (route, path, scope, query) maps to
+ * the header names the upstream varies on, and the entry key adds those headers' values.
+ * <p>
+ * Entries are also indexed by route and path ({@link CacheKeys#pathKey}), so a write
+ * invalidates every variant, caller scope and query of the paths it can make stale.
+ */
+public class ResponseCache {
+
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private final Cache<String, CachedResponse> entries;
+    private final Cache<String, List<String>> varyIndex;
+    private final ConcurrentNavigableMap<String, Set<String>> pathIndex = new ConcurrentSkipListMap<>();
+    private final long maxEntryBytes;
+
+    public ResponseCache(DataSize maxSize, DataSize maxEntrySize, MeterRegistry meterRegistry) {
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, CachedResponse value) -> value.size() + ENTRY_OVERHEAD_BYTES)
+                // Keep the path index in step with evictions on the calling thread
+                .executor(Runnable::run)
+                .removalListener((String key, CachedResponse value, RemovalCause cause) -> {
+                    if (key != null && cause != RemovalCause.REPLACED) {
+                        unindex(key);
+                    }
+                })
+                .build();
+        this.varyIndex = Caffeine.newBuilder()
+                .maximumSize(maxSize.toBytes() / ENTRY_OVERHEAD_BYTES)
+                .build();
+
+        Gauge.builder("gateway.cache.entries", entries, Cache::estimatedSize)
+                .description("Responses held in the gateway cache")
+                .register(meterRegistry);
+        Gauge.builder("gateway.cache.size", entries,
+                        cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Approximate bytes held in the gateway cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    boolean fits(long contentLength) {
+        // Unknown (-1) or empty bodies are not worth buffering
+        return contentLength > 0 && contentLength <= maxEntryBytes;
+    }
+
+    CachedResponse get(String primaryKey, HttpHeaders requestHeaders) {
+        List<String> varyNames = varyIndex.getIfPresent(primaryKey);
+        if (varyNames == null) {
+            return null;
+        }
+        return entries.getIfPresent(entryKey(primaryKey, varyNames, requestHeaders));
+    }
+
+    void put(String primaryKey, List<String> varyNames, HttpHeaders requestHeaders, CachedResponse response) {
+        varyIndex.put(primaryKey, varyNames);
+        String entryKey = entryKey(primaryKey, varyNames, requestHeaders);
+        entries.put(entryKey, response);
+        pathIndex.computeIfAbsent(CacheKeys.pathKeyOf(entryKey), k -> ConcurrentHashMap.newKeySet()).add(entryKey);
+    }
+
+    /**
+     * Drops what a successful write to a path can have made stale, for every caller scope,
+     * query and {@code Vary} variant: the path itself, the paths below it, and its parent
+     * collection ({@code PUT /books/42} also drops {@code /books?page=2}).
+     *
+     * @param pathKey see {@link CacheKeys#pathKey}
+     * @return the number of entries dropped
+     */
+    int invalidate(String pathKey) {
+        List<String> stale = new ArrayList<>();
+        collect(pathIndex.get(pathKey), stale);
+        pathIndex.subMap(pathKey + "/", pathKey + "/\uffff").values().forEach(keys -> collect(keys, stale));
+        int parentEnd = pathKey.lastIndexOf('/');
+        if (parentEnd > pathKey.indexOf('\u0000') + 1) {
+            collect(pathIndex.get(pathKey.substring(0, parentEnd)), stale);
+        }
+        entries.invalidateAll(stale);
+        // Keys evicted between the put and its indexing are left in the index; drop them too
+        stale.forEach(this::unindex);
+        return stale.size();
+    }
+
+    private static void collect(Set<String> keys, List<String> into) {
+        if (keys != null) {
+            into.addAll(keys);
+        }
+    }
+
+    private void unindex(String entryKey) {
+        pathIndex.computeIfPresent(CacheKeys.pathKeyOf(entryKey), (pathKey, keys) -> {
+            // A put racing with this removal may have stored the key again
+            if (!entries.asMap().containsKey(entryKey)) {
+                keys.remove(entryKey);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private String entryKey(String primaryKey, List<String> varyNames, HttpHeaders requestHeaders) {
+        if (varyNames.isEmpty()) {
+            return primaryKey;
+        }
+        StringBuilder key = new StringBuilder(primaryKey);
+        for (String name : varyNames) {
+            key.append('\u0000').append(name).append('=');
+            List<String> values = requestHeaders.get(name);
+            if (values != null) {
+                key.append(String.join(",", values));
+            }
+        }
+        return key.toString();
+    }
+}
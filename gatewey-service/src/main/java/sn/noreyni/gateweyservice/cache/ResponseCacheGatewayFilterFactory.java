@@ -0,0 +1,296 @@
+package sn.noreyni.gateweyservice.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.compression.ContentCoding;
+import sn.noreyni.gateweyservice.compression.ResponseCompressionFilter;
+import sn.noreyni.gateweyservice.compression.ResponseCompressor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches idempotent GET responses of a route in gateway memory.
+ * <ul>
+ *     <li>Honors upstream {@code Cache-Control} ({@code no-store}, {@code no-cache}, {@code private},
+ *     {@code s-maxage}/{@code max-age}) and {@code Vary}; {@code defaultTtl} only applies when the
+ *     upstream sends no {@code Cache-Control} at all.</li>
+ *     <li>Stale entries with an ETag are revalidated with {@code If-None-Match}; an upstream 304
+ *     refreshes the entry and the stored body is served.</li>
+ *     <li>{@code scope} keeps entries apart where the response depends on the caller:
+ *     {@code PUBLIC} (shared), {@code ROLES} (per set of realm roles) or {@code USER} (per subject);
+ *     the last two are bypassed for anonymous callers.</li>
+ *     <li>A successful write drops the cached path, the paths below it and its parent collection,
+ *     for every scope and variant.</li>
+ *     <li>Compressible bodies are stored with their {@code br}/{@code gzip} codings, so hits are
+ *     never compressed again.</li>
+ * </ul>
+ * The filter runs ahead of {@link NettyWriteResponseFilter}, whatever its place in the route,
+ * so that it sees the upstream body being written; hits are therefore served before the
+ * route's rate limiter.
+ * <pre>
+ * - name: ResponseCache
+ *   args:
+ *     scope: ROLES
+ *     paths: /user-service/api/v1/roles/**
+ *     defaultTtl: 60s
+ * </pre>
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    private final ResponseCache cache;
+    private final ResponseCompressor compressor;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache cache, ResponseCompressor compressor,
+                                             MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.cache = cache;
+        this.compressor = compressor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> paths = CacheKeys.parsePaths(config.getPaths());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (!CacheKeys.matches(paths, request)) {
+                return chain.filter(exchange);
+            }
+            String routeId = CacheKeys.routeId(exchange);
+            if (request.getMethod() != HttpMethod.GET) {
+                // Whoever the writer is, entries of every caller scope can be stale afterwards
+                return request.getMethod() == HttpMethod.HEAD || request.getMethod() == HttpMethod.OPTIONS
+                        ? chain.filter(exchange)
+                        : invalidateOnSuccess(exchange, chain, CacheKeys.pathKey(routeId, request.getURI().getRawPath()));
+            }
+            String primaryKey = CacheKeys.primaryKey(routeId, config.getScope(), exchange);
+            if (primaryKey == null) {
+                count(routeId, "bypass");
+                return chain.filter(exchange);
+            }
+
+            CacheDirectives requestDirectives = CacheDirectives.parse(request.getHeaders());
+            if (requestDirectives.noStore()) {
+                count(routeId, "bypass");
+                return chain.filter(exchange);
+            }
+
+            CachedResponse cached = cache.get(primaryKey, request.getHeaders());
+            if (cached != null && cached.isFresh() && !requestDirectives.noCache()) {
+                count(routeId, "hit");
+                return serve(exchange.getResponse(), request, cached,
+                        cached.body(exchange.getResponse().bufferFactory()), "HIT");
+            }
+            return forward(exchange, chain, config, routeId, primaryKey,
+                    cached != null && cached.etag() != null ? cached : null);
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, Config config,
+                               String routeId, String primaryKey, CachedResponse stale) {
+        ServerWebExchange.Builder upstream = exchange.mutate()
+                .response(new CachingResponse(exchange, config, routeId, primaryKey, stale));
+        if (stale != null) {
+            upstream.request(request -> request.headers(headers -> headers.setIfNoneMatch(stale.etag())));
+        }
+        return chain.filter(upstream.build());
+    }
+
+    private Mono<Void> invalidateOnSuccess(ServerWebExchange exchange, GatewayFilterChain chain, String pathKey) {
+        return chain.filter(exchange).doOnSuccess(done -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            if (status != null && status.is2xxSuccessful()) {
+                cache.invalidate(pathKey);
+            }
+        });
+    }
+
+    /**
+     * Writes a stored response, or a bare 304 when the client already holds that ETag.
+     */
+    private Mono<Void> serve(ServerHttpResponse response, ServerHttpRequest request,
+                             CachedResponse cached, DataBuffer body, String result) {
+        HttpHeaders headers = response.getHeaders();
+        cached.headers().forEach(headers::putIfAbsent);
+        headers.setContentLength(body.readableByteCount());
+        headers.set(HttpHeaders.AGE, Long.toString(cached.ageSeconds()));
+        headers.set(CACHE_HEADER, result);
+
+        if (cached.etag() != null && matchesWeakly(request.getHeaders().getIfNoneMatch(), cached.etag())) {
+            DataBufferUtils.release(body);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        response.setStatusCode(cached.status());
+        return response.writeWith(Mono.just(encodedOrIdentity(headers, request, cached, body, response)));
+    }
+
+    /**
+     * The stored coding the client prefers, releasing the identity body, or the identity body.
+     */
+    private DataBuffer encodedOrIdentity(HttpHeaders headers, ServerHttpRequest request, CachedResponse cached,
+                                         DataBuffer body, ServerHttpResponse response) {
+        ContentCoding coding = cached.codings().isEmpty() ? null
+                : compressor.negotiate(request.getHeaders(), cached.codings());
+        if (coding == null) {
+            return body;
+        }
+        DataBufferUtils.release(body);
+        byte[] encoded = cached.encodedBody(coding);
+        ResponseCompressionFilter.markEncoded(headers, coding, encoded.length);
+        return response.bufferFactory().wrap(encoded);
+    }
+
+    /**
+     * Compressed representations carry the weak form of the stored ETag
+     */
+    private static boolean matchesWeakly(List<String> ifNoneMatch, String etag) {
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        return ifNoneMatch.stream().anyMatch(tag -> (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque));
+    }
+
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final Config config;
+        private final String routeId;
+        private final String primaryKey;
+        private final CachedResponse stale;
+
+        CachingResponse(ServerWebExchange exchange, Config config, String routeId, String primaryKey,
+                        CachedResponse stale) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.config = config;
+            this.routeId = routeId;
+            this.primaryKey = primaryKey;
+            this.stale = stale;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+
+            if (status != null && status.value() == HttpStatus.NOT_MODIFIED.value() && stale != null) {
+                stale.freshen(ttl(CacheDirectives.parse(getHeaders()), config).toNanos());
+                count(routeId, "revalidated");
+                return Flux.from(body).doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(() -> serve(getDelegate(), exchange.getRequest(), stale,
+                                stale.body(bufferFactory()), "REVALIDATED")));
+            }
+
+            CacheDirectives directives = CacheDirectives.parse(getHeaders());
+            Duration ttl = ttl(directives, config);
+            if (!isCacheable(status, directives, ttl)) {
+                count(routeId, "miss");
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(body).flatMap(joined -> {
+                byte[] stored = CacheKeys.copyOf(joined);
+                HttpHeaders storedHeaders = CacheKeys.upstreamHeaders(exchange, getHeaders());
+                return encodings(stored).flatMap(encodedBodies -> {
+                    CachedResponse entry = new CachedResponse(status, storedHeaders, stored, ttl.toNanos(), encodedBodies);
+                    cache.put(primaryKey, varyNames(), exchange.getRequest().getHeaders(), entry);
+                    count(routeId, "miss");
+                    getHeaders().set(CACHE_HEADER, "MISS");
+                    return super.writeWith(Mono.just(encodedOrIdentity(getHeaders(), exchange.getRequest(), entry, joined, this)));
+                });
+            });
+        }
+
+        private Mono<Map<ContentCoding, byte[]>> encodings(byte[] stored) {
+            ResponseCompressor.Rule rule = getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING) ? null
+                    : compressor.ruleFor(getHeaders().getContentType(), stored.length);
+            if (rule == null) {
+                return Mono.just(Map.of());
+            }
+            return compressor.compressAll(stored, rule)
+                    .onErrorReturn(Map.of());
+        }
+
+        private boolean isCacheable(HttpStatusCode status, CacheDirectives directives, Duration ttl) {
+            HttpHeaders headers = getHeaders();
+            if (status == null || status.value() != HttpStatus.OK.value() || directives.noStore() || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+                return false;
+            }
+            if (directives.isPrivate() && config.getScope() != CacheScope.USER) {
+                return false;
+            }
+            if (headers.getVary().contains("*") || !cache.fits(headers.getContentLength())) {
+                return false;
+            }
+            // A zero lifetime is only worth storing if it can be revalidated
+            return !ttl.isZero() || headers.getETag() != null;
+        }
+
+        private List<String> varyNames() {
+            return getHeaders().getVary().stream()
+                    .map(String::toLowerCase)
+                    .sorted()
+                    .toList();
+        }
+
+    }
+
+    private static Duration ttl(CacheDirectives directives, Config config) {
+        if (directives.noCache()) {
+            return Duration.ZERO;
+        }
+        if (directives.maxAge() != null) {
+            return directives.maxAge();
+        }
+        return directives.present() ? Duration.ZERO : config.getDefaultTtl();
+    }
+
+    private void count(String routeId, String result) {
+        counters.computeIfAbsent(routeId + ':' + result, k -> Counter.builder("gateway.cache.requests")
+                        .description("Requests seen by the gateway response cache")
+                        .tag("route", routeId)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private CacheScope scope = CacheScope.USER;
+        private List<String> paths = new ArrayList<>();
+        private Duration defaultTtl = Duration.ZERO;
+    }
+}
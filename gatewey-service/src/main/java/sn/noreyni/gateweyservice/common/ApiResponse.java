@@ -0,0 +1,62 @@
+package sn.noreyni.gateweyservice.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Same envelope as the downstream services, so clients parse gateway errors the same way.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ApiResponse<T> {
+    private boolean success;
+    private String message;
+    private T data;
+    private ErrorDetails error;
+    private LocalDateTime timestamp;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ErrorDetails {
+        private String code;
+        private String message;
+        private Object details;
+    }
+
+    public static <T> ApiResponse<T> success(T data) {
+        return ApiResponse.<T>builder()
+                .success(true)
+                .message("Opération réussie")
+                .data(data)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    public static <T> ApiResponse<T> error(String code, String message) {
+        return error(code, message, null);
+    }
+
+    public static <T> ApiResponse<T> error(String code, String message, Object details) {
+        return ApiResponse.<T>builder()
+                .success(false)
+                .message("Erreur lors de l'opération")
+                .error(ErrorDetails.builder()
+                        .code(code)
+                        .message(message)
+                        .details(details)
+                        .build())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,250 @@
+package sn.noreyni.gateweyservice.composition;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.common.ApiResponse;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+import sn.noreyni.gateweyservice.config.CompositionConfig;
+import sn.noreyni.gateweyservice.security.EdgeAuthenticationFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Answers a route with one merged document built from several services, called in parallel
+ * ({@code app.gateway.composition.views}). The client pays one round trip and the latency of
+ * the slowest leg instead of the sum of sequential calls.
+ * <p>
+ * Each leg has its own timeout and goes through the circuit breaker of its service. A failed
+ * optional leg leaves its field out and is listed in {@code error.details} with the reason;
+ * only a failed required leg fails the whole view: with the leg's own status and body when
+ * the service answered 4xx (the caller's problem, e.g. a 404 or 403), with a 503 otherwise. Legs carry the caller's token and the
+ * signed claim headers set by {@link EdgeAuthenticationFilter}, so the route is never public.
+ * <pre>
+ * - name: Compose
+ *   args:
+ *     view: patron-dashboard
+ * </pre>
+ */
+@Slf4j
+@Component
+public class ComposeGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ComposeGatewayFilterFactory.Config> {
+
+    public static final String PARTIAL_HEADER = "X-Composition-Partial";
+
+    private final CompositionConfig composition;
+    private final CompositionClient client;
+    private final ReactiveCircuitBreakerFactory<?, ?> circuitBreakers;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public ComposeGatewayFilterFactory(CompositionConfig composition,
+                                       CompositionClient client,
+                                       ReactiveCircuitBreakerFactory<?, ?> circuitBreakers,
+                                       ErrorResponseWriter errorResponseWriter,
+                                       ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.composition = composition;
+        this.client = client;
+        this.circuitBreakers = circuitBreakers;
+        this.errorResponseWriter = errorResponseWriter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("view");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        CompositionConfig.View view = composition.view(config.getView());
+        if (view == null || view.getLegs().isEmpty()) {
+            throw new IllegalArgumentException("Unknown or empty composition view " + config.getView());
+        }
+
+        return (exchange, chain) -> {
+            Jwt jwt = exchange.getAttribute(EdgeAuthenticationFilter.VERIFIED_JWT_ATTR);
+            if (jwt == null) {
+                return errorResponseWriter.write(exchange, HttpStatus.UNAUTHORIZED, "AUTH_001",
+                        "En-tête d'autorisation manquant ou invalide");
+            }
+            return Flux.fromIterable(view.getLegs())
+                    .flatMap(leg -> call(exchange, config.getView(), leg, jwt))
+                    .collectList()
+                    .flatMap(results -> write(exchange, config.getView(), results));
+        };
+    }
+
+    private Mono<LegResult> call(ServerWebExchange exchange, String viewName, CompositionConfig.Leg leg, Jwt jwt) {
+        long start = System.nanoTime();
+        HttpHeaders incoming = exchange.getRequest().getHeaders();
+        Mono<LegResult> guarded = client.get(leg.getServiceId(), expand(leg.getPath(), jwt), headers -> forward(incoming, headers))
+                .map(data -> new LegResult(leg, data, null, null))
+                .onErrorResume(CompositionClient.LegFailedException.class, ex -> ex.isClientError()
+                        ? Mono.just(new LegResult(leg, null, ex.getMessage(), ex))
+                        : Mono.error(ex))
+                .timeout(leg.getTimeout());
+
+        return circuitBreakers.create(leg.getServiceId()).run(guarded)
+                .onErrorResume(ex -> Mono.just(new LegResult(leg, null, reason(ex), null)))
+                .doOnNext(result -> {
+                    if (result.failure() != null) {
+                        log.debug("Composition leg failed | view={} | leg={} | reason={}", viewName, leg.getName(), result.failure());
+                    }
+                    timer(viewName, leg.getName(), result.failure() == null ? "ok" : result.failure())
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                });
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, String viewName, List<LegResult> results) {
+        Map<String, JsonNode> data = new LinkedHashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (LegResult result : results) {
+            if (result.failure() == null) {
+                data.put(result.leg().getName(), result.data());
+                continue;
+            }
+            if (result.leg().isRequired() && result.clientError() != null) {
+                log.debug("Composition refused by a required leg | view={} | leg={} | reason={}",
+                        viewName, result.leg().getName(), result.failure());
+                return passThrough(exchange.getResponse(), result.clientError());
+            }
+            if (result.leg().isRequired()) {
+                log.warn("Composition failed on a required leg | view={} | leg={} | reason={}",
+                        viewName, result.leg().getName(), result.failure());
+                return errorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_001",
+                        "Service temporairement indisponible, veuillez réessayer plus tard");
+            }
+            missing.put(result.leg().getName(), result.failure());
+        }
+
+        ApiResponse.ApiResponseBuilder<Map<String, JsonNode>> body = ApiResponse.<Map<String, JsonNode>>builder()
+                .success(true)
+                .message("Opération réussie")
+                .data(data)
+                .timestamp(LocalDateTime.now());
+        if (!missing.isEmpty()) {
+            body.error(ApiResponse.ErrorDetails.builder()
+                    .code("GATEWAY_010")
+                    .message("Résultat partiel : certaines données sont temporairement indisponibles")
+                    .details(missing)
+                    .build());
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body.build());
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(bytes.length);
+        response.getHeaders().setCacheControl("private, no-store");
+        response.getHeaders().set(PARTIAL_HEADER, Boolean.toString(!missing.isEmpty()));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    /**
+     * A required leg's 4xx, as the service sent it: the answer is about this caller's request
+     */
+    private static Mono<Void> passThrough(ServerHttpResponse response, CompositionClient.LegFailedException refused) {
+        byte[] body = refused.body();
+        response.setStatusCode(refused.status());
+        if (refused.contentType() != null) {
+            response.getHeaders().setContentType(refused.contentType());
+        }
+        response.getHeaders().setContentLength(body.length);
+        response.getHeaders().setCacheControl("private, no-store");
+        return body.length == 0
+                ? response.setComplete()
+                : response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * The caller's token and the claim headers signed at the edge; nothing else crosses over
+     */
+    private static void forward(HttpHeaders incoming, HttpHeaders outgoing) {
+        incoming.forEach((name, values) -> {
+            if (name.equalsIgnoreCase(HttpHeaders.AUTHORIZATION) || name.equalsIgnoreCase(HttpHeaders.ACCEPT_LANGUAGE)
+                    || name.regionMatches(true, 0, "X-Auth-", 0, "X-Auth-".length())) {
+                outgoing.put(name, values);
+            }
+        });
+    }
+
+    private static String expand(String path, Jwt jwt) {
+        String username = jwt.getClaimAsString("preferred_username");
+        return path
+                .replace("{sub}", UriUtils.encodePathSegment(jwt.getSubject(), StandardCharsets.UTF_8))
+                .replace("{username}", UriUtils.encodePathSegment(username != null ? username : "", StandardCharsets.UTF_8));
+    }
+
+    private static String reason(Throwable ex) {
+        if (ex instanceof TimeoutException) {
+            return "TIMEOUT";
+        }
+        if (ex instanceof CallNotPermittedException) {
+            return "CIRCUIT_OPEN";
+        }
+        if (ex instanceof CompositionClient.LegFailedException) {
+            return ex.getMessage();
+        }
+        return "UNAVAILABLE";
+    }
+
+    private Timer timer(String view, String leg, String result) {
+        return timers.computeIfAbsent(view + ':' + leg + ':' + result, k -> Timer.builder("gateway.composition.legs")
+                .description("Calls made by the gateway to build composed documents")
+                .tag("view", view)
+                .tag("leg", leg)
+                .tag("result", result.toLowerCase())
+                .register(meterRegistry));
+    }
+
+    /**
+     * @param clientError set when the leg's service answered 4xx
+     */
+    private record LegResult(CompositionConfig.Leg leg, JsonNode data, String failure,
+                             CompositionClient.LegFailedException clientError) {
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private String view;
+    }
+}
@@ -0,0 +1,109 @@
+package sn.noreyni.gateweyservice.composition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.routing.DownstreamHttpClients;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Load-balanced GETs for composition legs, over the same per-service connection pools as
+ * the routes ({@link DownstreamHttpClients}).
+ */
+public class CompositionClient {
+
+    private final WebClient.Builder webClientBuilder;
+    private final ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction;
+    private final DownstreamHttpClients downstreamHttpClients;
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+
+    public CompositionClient(WebClient.Builder webClientBuilder,
+                             ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                             DownstreamHttpClients downstreamHttpClients) {
+        this.webClientBuilder = webClientBuilder;
+        this.loadBalancerFunction = loadBalancerFunction;
+        this.downstreamHttpClients = downstreamHttpClients;
+    }
+
+    /**
+     * @return the {@code data} of an {@code ApiResponse} envelope, or the whole body for other
+     * JSON; errors with {@link LegFailedException} on a non-2xx status, carrying the body of a 4xx
+     */
+    Mono<JsonNode> get(String serviceId, String path, Consumer<HttpHeaders> headers) {
+        return clients.computeIfAbsent(serviceId, this::newClient)
+                .get()
+                .uri("http://" + serviceId + path)
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(headers)
+                .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                        ? response.bodyToMono(JsonNode.class)
+                                .map(CompositionClient::unwrap)
+                                .defaultIfEmpty(NullNode.getInstance())
+                        : response.statusCode().is4xxClientError()
+                        ? response.bodyToMono(byte[].class)
+                                .defaultIfEmpty(new byte[0])
+                                .flatMap(body -> Mono.error(new LegFailedException(response.statusCode(),
+                                        response.headers().contentType().orElse(null), body)))
+                        : response.releaseBody()
+                                .then(Mono.error(new LegFailedException(response.statusCode(), null, null))));
+    }
+
+    private WebClient newClient(String serviceId) {
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(downstreamHttpClients.clientFor(serviceId)))
+                .filter(loadBalancerFunction)
+                .build();
+    }
+
+    private static JsonNode unwrap(JsonNode body) {
+        return body.has("success") && body.has("data") ? body.get("data") : body;
+    }
+
+    static final class LegFailedException extends RuntimeException {
+
+        private final HttpStatusCode status;
+        private final MediaType contentType;
+        private final byte[] body;
+
+        LegFailedException(HttpStatusCode status, MediaType contentType, byte[] body) {
+            super("HTTP_" + status.value(), null, false, false);
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        /**
+         * A 4xx is the service's answer for this caller, not a sign that the service is failing
+         */
+        boolean isClientError() {
+            return status.is4xxClientError();
+        }
+
+        HttpStatusCode status() {
+            return status;
+        }
+
+        /**
+         * @return the content type of a 4xx body, if the service sent one
+         */
+        MediaType contentType() {
+            return contentType;
+        }
+
+        /**
+         * @return the body of a 4xx, {@code null} otherwise
+         */
+        byte[] body() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package sn.noreyni.gateweyservice.compression;
+
+/**
+ * Content codings the gateway can produce, in order of preference at equal quality.
+ */
+public enum ContentCoding {
+    BROTLI("br"),
+    GZIP("gzip");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+}
@@ -0,0 +1,115 @@
+package sn.noreyni.gateweyservice.compression;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.filter.StreamingGatewayFilterFactory;
+
+/**
+ * Compresses proxied responses the client accepts compressed ({@code br} where available,
+ * else {@code gzip}), by media type rule of {@link ResponseCompressor}.
+ * <p>
+ * Only bodies of known length are compressed, so streams and server-sent events pass through
+ * untouched. Responses already carrying a {@code Content-Encoding}, such as those served
+ * pre-compressed by the response cache, are left as they are, and so are streaming routes.
+ */
+public class ResponseCompressionFilter implements GlobalFilter, Ordered {
+
+    private final ResponseCompressor compressor;
+
+    public ResponseCompressionFilter(ResponseCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new CompressingResponse(exchange)).build());
+    }
+
+    /**
+     * Right after edge authentication, so every route filter writes through the compressor
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 200;
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final ServerHttpRequest request;
+
+        CompressingResponse(ServerWebExchange exchange) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.request = exchange.getRequest();
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpHeaders headers = getHeaders();
+            HttpStatusCode status = getStatusCode();
+            if (StreamingGatewayFilterFactory.isStreaming(exchange)
+                    || headers.containsKey(HttpHeaders.CONTENT_ENCODING) || status == null
+                    || status.value() == 204 || status.value() == 206 || status.value() == 304) {
+                return super.writeWith(body);
+            }
+            ResponseCompressor.Rule rule = compressor.ruleFor(headers.getContentType(), headers.getContentLength());
+            if (rule == null) {
+                return super.writeWith(body);
+            }
+            addVary(headers);
+            ContentCoding coding = compressor.negotiate(request.getHeaders(), compressor.codings());
+            if (coding == null) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(body)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .flatMap(bytes -> compressor.compress(bytes, coding, rule))
+                    .flatMap(compressed -> {
+                        markEncoded(headers, coding, compressed.length);
+                        return super.writeWith(Mono.just(bufferFactory().wrap(compressed)));
+                    });
+        }
+    }
+
+    static void addVary(HttpHeaders headers) {
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    /**
+     * Sets the coding headers of a compressed body. A strong ETag names the identity bytes,
+     * so it is weakened for the encoded representation.
+     */
+    public static void markEncoded(HttpHeaders headers, ContentCoding coding, int length) {
+        addVary(headers);
+        headers.set(HttpHeaders.CONTENT_ENCODING, coding.token());
+        headers.setContentLength(length);
+        String etag = headers.getETag();
+        if (etag != null && !etag.startsWith("W/")) {
+            headers.setETag("W/" + etag);
+        }
+    }
+}
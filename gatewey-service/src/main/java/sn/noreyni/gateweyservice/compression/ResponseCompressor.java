@@ -0,0 +1,154 @@
+package sn.noreyni.gateweyservice.compression;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Accept-Encoding negotiation and compression with a size threshold and level per media type.
+ * <p>
+ * Compression is CPU work on whatever thread calls it: bodies over {@code offloadThreshold}
+ * are compressed on the parallel scheduler so that a large payload does not hold an event
+ * loop thread that other connections are waiting on.
+ */
+@Slf4j
+public class ResponseCompressor {
+
+    /**
+     * @param minSize smaller bodies are sent as they are, the headers would eat the gain
+     */
+    public record Rule(MediaType mediaType, long minSize, int gzipLevel, int brotliQuality) {
+    }
+
+    private final List<Rule> rules;
+    private final Set<ContentCoding> codings;
+    private final long offloadThreshold;
+    private final long maxBufferedSize;
+
+    public ResponseCompressor(List<Rule> rules, boolean brotli, long offloadThreshold, long maxBufferedSize) {
+        this.rules = List.copyOf(rules);
+        this.codings = brotli && brotliAvailable() ? EnumSet.allOf(ContentCoding.class) : EnumSet.of(ContentCoding.GZIP);
+        this.offloadThreshold = offloadThreshold;
+        this.maxBufferedSize = maxBufferedSize;
+    }
+
+    /**
+     * @return the rule for a response, or {@code null} when it is not worth compressing
+     */
+    public Rule ruleFor(MediaType contentType, long contentLength) {
+        if (contentType == null || contentLength < 0 || contentLength > maxBufferedSize) {
+            return null;
+        }
+        for (Rule rule : rules) {
+            if (rule.mediaType().isCompatibleWith(contentType)) {
+                return contentLength >= rule.minSize() ? rule : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks the preferred coding the client accepts ({@code q > 0}), or {@code null} for identity.
+     */
+    public ContentCoding negotiate(HttpHeaders requestHeaders, Set<ContentCoding> available) {
+        ContentCoding best = null;
+        double bestQuality = 0;
+        for (String header : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String element : header.split(",")) {
+                String[] parts = element.trim().split(";");
+                double quality = quality(parts);
+                for (ContentCoding coding : available) {
+                    boolean matches = parts[0].equalsIgnoreCase(coding.token()) || parts[0].equals("*");
+                    if (matches && codings.contains(coding)
+                            && (quality > bestQuality || quality == bestQuality && best != null && coding.ordinal() < best.ordinal())) {
+                        best = coding;
+                        bestQuality = quality;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    public Set<ContentCoding> codings() {
+        return codings;
+    }
+
+    public Mono<byte[]> compress(byte[] input, ContentCoding coding, Rule rule) {
+        Mono<byte[]> compressed = Mono.fromCallable(() -> compressNow(input, coding, rule));
+        return input.length > offloadThreshold ? compressed.subscribeOn(Schedulers.parallel()) : compressed;
+    }
+
+    /**
+     * Every available coding of a body, for responses stored once and served many times.
+     */
+    public Mono<Map<ContentCoding, byte[]>> compressAll(byte[] input, Rule rule) {
+        Mono<Map<ContentCoding, byte[]>> compressed = Mono.fromCallable(() -> {
+            Map<ContentCoding, byte[]> encoded = new EnumMap<>(ContentCoding.class);
+            for (ContentCoding coding : codings) {
+                encoded.put(coding, compressNow(input, coding, rule));
+            }
+            return encoded;
+        });
+        return input.length > offloadThreshold ? compressed.subscribeOn(Schedulers.parallel()) : compressed;
+    }
+
+    private static byte[] compressNow(byte[] input, ContentCoding coding, Rule rule) throws IOException {
+        return switch (coding) {
+            case GZIP -> gzip(input, rule.gzipLevel());
+            case BROTLI -> Encoder.compress(input, new Encoder.Parameters().setQuality(rule.brotliQuality()));
+        };
+    }
+
+    private static byte[] gzip(byte[] input, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Brotli4jLoader.ensureAvailability();
+            return true;
+        } catch (Throwable e) {
+            log.info("Brotli unavailable on this platform, responses are gzip only: {}", e.toString());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+import sn.noreyni.gateweyservice.config.AdmissionConfig;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adaptive concurrency limit per route: the number of calls allowed in flight follows the
+ * downstream latency ({@link GradientLimit}) instead of a fixed bulkhead size. Calls that cannot
+ * get a slot are shed with a 503 and {@code Retry-After}, before reaching the circuit breaker.
+ * <p>
+ * Latency is measured from admission to the end of the response. 5xx responses and errors
+ * count as drops and back the limit off. Limiters sharing a {@code name} share the limit.
+ * <p>
+ * Once the limit is reached, requests wait by {@link PriorityClass} in a {@link WeightedFairQueue}
+ * ({@code app.gateway.admission}): staff get most of the released slots and wait longest before
+ * being shed, anonymous traffic the fewest and shortest.
+ * <pre>
+ * - name: AdaptiveConcurrency
+ *   args:
+ *     name: user-service
+ *     initialLimit: 20
+ *     maxLimit: 200
+ * </pre>
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    public static final String LIMIT_HEADER = "X-Concurrency-Limit";
+
+    private final ErrorResponseWriter errorResponseWriter;
+    private final PriorityClassifier classifier;
+    private final AdmissionConfig admission;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyGatewayFilterFactory(ErrorResponseWriter errorResponseWriter,
+                                                   PriorityClassifier classifier,
+                                                   AdmissionConfig admission,
+                                                   MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.errorResponseWriter = errorResponseWriter;
+        this.classifier = classifier;
+        this.admission = admission;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        config.validate();
+        AdaptiveLimiter limiter = limiters.computeIfAbsent(config.getName(), name -> newLimiter(name, config));
+
+        return (exchange, chain) -> {
+            PriorityClass priority = classifier.classify(exchange);
+            return limiter.acquire(priority.ordinal(), admission.settings(priority).getMaxWait())
+                    .flatMap(inFlight -> {
+                        count(config.getName(), priority, "accepted");
+                        return forward(exchange, chain, limiter, inFlight).thenReturn(true);
+                    })
+                    .switchIfEmpty(Mono.defer(() -> {
+                        count(config.getName(), priority, "rejected");
+                        return shed(exchange, config, limiter, priority).thenReturn(true);
+                    }))
+                    .then();
+        };
+    }
+
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, AdaptiveLimiter limiter, int inFlight) {
+        long start = System.nanoTime();
+        AtomicBoolean failed = new AtomicBoolean();
+        return chain.filter(exchange)
+                .doOnError(ex -> failed.set(true))
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limiter.releaseIgnored();
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = failed.get() || (status != null && status.is5xxServerError());
+                    limiter.release(start, inFlight, dropped);
+                });
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange, Config config, AdaptiveLimiter limiter, PriorityClass priority) {
+        log.debug("Shedding {} {} | priority={} | limit={} | queued={}", exchange.getRequest().getMethod(),
+                exchange.getRequest().getPath(), priority, limiter.limit(), limiter.queued());
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1, config.getRetryAfter().toSeconds())));
+        exchange.getResponse().getHeaders().set(LIMIT_HEADER, Integer.toString(limiter.limit()));
+        return errorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, "GATEWAY_004",
+                "Le service " + config.getName() + " est surchargé, veuillez réessayer plus tard");
+    }
+
+    private AdaptiveLimiter newLimiter(String name, Config config) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(new GradientLimit(
+                config.getInitialLimit(), config.getMinLimit(), config.getMaxLimit(),
+                config.getSmoothing(), config.getRttTolerance(), config.getBackoffRatio(),
+                config.getLongWindow(), config.getWindow().toNanos(), config.getMinWindowSamples(),
+                System.nanoTime()), newQueue());
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in-flight", limiter, AdaptiveLimiter::inFlight)
+                .description("Calls currently admitted by the adaptive concurrency limiter")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.queued", limiter, AdaptiveLimiter::queued)
+                .description("Calls waiting for a slot of the adaptive concurrency limiter")
+                .tag("name", name)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private WeightedFairQueue<AdaptiveLimiter.Waiter> newQueue() {
+        PriorityClass[] classes = PriorityClass.values();
+        int[] weights = new int[classes.length];
+        int[] capacities = new int[classes.length];
+        for (PriorityClass priority : classes) {
+            weights[priority.ordinal()] = Math.max(1, admission.settings(priority).getWeight());
+            capacities[priority.ordinal()] = admission.settings(priority).getQueueCapacity();
+        }
+        return new WeightedFairQueue<>(weights, capacities);
+    }
+
+    private void count(String name, PriorityClass priority, String result) {
+        counters.computeIfAbsent(name + ':' + priority + ':' + result, k -> Counter.builder("gateway.concurrency.requests")
+                        .description("Requests admitted or shed by the adaptive concurrency limiter")
+                        .tag("name", name)
+                        .tag("priority", priority.name())
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private String name;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 500;
+        /**
+         * Share of each update applied to the limit, 1 means no smoothing
+         */
+        private double smoothing = 0.2;
+        /**
+         * How much the short-term RTT may exceed the long-term RTT before the limit shrinks
+         */
+        private double rttTolerance = 1.5;
+        private double backoffRatio = 0.9;
+        /**
+         * Number of windows averaged into the long-term RTT
+         */
+        private int longWindow = 600;
+        private Duration window = Duration.ofMillis(100);
+        private int minWindowSamples = 10;
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        void validate() {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("AdaptiveConcurrency needs a name");
+            }
+            if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("AdaptiveConcurrency needs 1 <= minLimit <= initialLimit <= maxLimit");
+            }
+            if (smoothing <= 0 || smoothing > 1 || backoffRatio <= 0 || backoffRatio >= 1 || rttTolerance < 1) {
+                throw new IllegalArgumentException("AdaptiveConcurrency smoothing, backoffRatio or rttTolerance out of range");
+            }
+        }
+    }
+}
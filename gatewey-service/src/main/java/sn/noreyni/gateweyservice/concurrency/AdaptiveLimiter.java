@@ -0,0 +1,148 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-flight counter of one route (or group of routes sharing a name) checked against
+ * its {@link GradientLimit}. Calls over the limit may wait in a {@link WeightedFairQueue}:
+ * a released slot is handed straight to the next waiter, so new arrivals cannot overtake
+ * the queue.
+ */
+final class AdaptiveLimiter {
+
+    private final GradientLimit limit;
+    private final WeightedFairQueue<Waiter> queue;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    AdaptiveLimiter(GradientLimit limit, WeightedFairQueue<Waiter> queue) {
+        this.limit = limit;
+        this.queue = queue;
+    }
+
+    int limit() {
+        return limit.limit();
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    /**
+     * Admits the call now, or after waiting at most {@code maxWait} in the queue of {@code priority}.
+     *
+     * @return the number of calls in flight including this one, or empty when the call is shed
+     */
+    Mono<Integer> acquire(int priority, Duration maxWait) {
+        if (queue.isEmpty()) {
+            int admitted = tryAcquire();
+            if (admitted > 0) {
+                return Mono.just(admitted);
+            }
+        }
+        Waiter waiter = new Waiter();
+        if (maxWait.isZero() || !queue.offer(priority, waiter)) {
+            return Mono.empty();
+        }
+        // Slots released between the failed attempt and the offer found an empty queue
+        drain();
+
+        return waiter.granted.asMono()
+                .timeout(maxWait, Mono.defer(() -> {
+                    if (waiter.abandon()) {
+                        queue.remove(priority, waiter);
+                        return Mono.empty();
+                    }
+                    return waiter.granted.asMono();
+                }))
+                .doOnCancel(() -> {
+                    if (waiter.abandon()) {
+                        queue.remove(priority, waiter);
+                    } else {
+                        releaseIgnored();
+                    }
+                });
+    }
+
+    void release(long startNanos, int inFlightAtStart, boolean dropped) {
+        releaseIgnored();
+        long now = System.nanoTime();
+        limit.onSample(now, now - startNanos, inFlightAtStart, dropped);
+    }
+
+    /**
+     * Ends a call that says nothing about the service, such as one cancelled by the client.
+     */
+    void releaseIgnored() {
+        int current = inFlight.get();
+        // Keep the slot and give it to a waiter, unless the limit shrank below what is in flight
+        if (current <= limit.limit() && grantNext(current)) {
+            return;
+        }
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private int tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit.limit()) {
+                return -1;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return current + 1;
+    }
+
+    private void drain() {
+        while (!queue.isEmpty()) {
+            int admitted = tryAcquire();
+            if (admitted < 0) {
+                return;
+            }
+            if (!grantNext(admitted)) {
+                inFlight.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private boolean grantNext(int inFlightNow) {
+        Waiter waiter;
+        while ((waiter = queue.poll()) != null) {
+            if (waiter.grant(inFlightNow)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class Waiter {
+
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int ABANDONED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private final Sinks.One<Integer> granted = Sinks.one();
+
+        boolean grant(int inFlight) {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            granted.tryEmitValue(inFlight);
+            return true;
+        }
+
+        boolean abandon() {
+            return state.compareAndSet(WAITING, ABANDONED);
+        }
+    }
+}
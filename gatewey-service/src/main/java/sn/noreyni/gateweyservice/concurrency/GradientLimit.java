@@ -0,0 +1,105 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit discovered from latency, after the gradient algorithm of Netflix
+ * concurrency-limits: the limit grows by a small queue allowance while the short-term RTT
+ * stays close to the long-term RTT, and shrinks in proportion as queuing inflates it.
+ * <pre>
+ * gradient = clamp(0.5, 1, tolerance x longRtt / shortRtt)
+ * limit    = limit x gradient + sqrt(limit)
+ * </pre>
+ * Samples are folded into windows (minimum RTT, peak in-flight), so the limit is updated once
+ * per window by one thread instead of under a lock on every response. A window with a failed
+ * or timed out call backs the limit off multiplicatively.
+ */
+final class GradientLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final double backoffRatio;
+    private final double longRttAlpha;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private volatile int limit;
+
+    // Guarded by this, touched once per window
+    private double estimatedLimit;
+    private double longRtt;
+
+    private final AtomicLong windowStartNanos;
+    private final AtomicLong windowMinRtt = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicInteger windowSamples = new AtomicInteger();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private volatile boolean windowDropped;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance,
+                  double backoffRatio, int longWindow, long windowNanos, int minWindowSamples, long nowNanos) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.backoffRatio = backoffRatio;
+        this.longRttAlpha = 2.0 / (longWindow + 1);
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+        this.windowStartNanos = new AtomicLong(nowNanos);
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * @param inFlight calls in flight when this one started, itself included
+     */
+    void onSample(long nowNanos, long rttNanos, int inFlight, boolean dropped) {
+        windowMinRtt.accumulateAndGet(rttNanos, Math::min);
+        windowMaxInFlight.accumulateAndGet(inFlight, Math::max);
+        windowSamples.incrementAndGet();
+        if (dropped) {
+            windowDropped = true;
+        }
+
+        long start = windowStartNanos.get();
+        if (nowNanos - start >= windowNanos && windowSamples.get() >= minWindowSamples
+                && windowStartNanos.compareAndSet(start, nowNanos)) {
+            long shortRtt = windowMinRtt.getAndSet(Long.MAX_VALUE);
+            int peakInFlight = windowMaxInFlight.getAndSet(0);
+            boolean anyDropped = windowDropped;
+            windowDropped = false;
+            windowSamples.set(0);
+            update(shortRtt, peakInFlight, anyDropped);
+        }
+    }
+
+    private synchronized void update(long shortRtt, int peakInFlight, boolean dropped) {
+        longRtt = longRtt == 0 ? shortRtt : longRtt * (1 - longRttAlpha) + shortRtt * longRttAlpha;
+        // Latency dropped for good (e.g. a slow instance left): let the long average catch up
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // Traffic does not use half the limit: nothing was learned about the service's capacity
+        if (!dropped && peakInFlight < estimatedLimit / 2) {
+            return;
+        }
+
+        double target;
+        if (dropped) {
+            target = estimatedLimit * backoffRatio;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+            target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        }
+        target = estimatedLimit * (1 - smoothing) + target * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, target));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,23 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+/**
+ * Admission classes, scheduled by weighted fair queuing once a route's concurrency limit is reached.
+ */
+public enum PriorityClass {
+    /**
+     * Library staff, and authenticated calls to the authentication endpoints
+     */
+    CRITICAL,
+    /**
+     * Authenticated patrons, and logins made without a token yet
+     */
+    STANDARD,
+    /**
+     * Service accounts and bulk endpoints
+     */
+    BATCH,
+    /**
+     * Requests without a token, such as catalog crawlers
+     */
+    ANONYMOUS
+}
@@ -0,0 +1,75 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import sn.noreyni.gateweyservice.security.EdgeAuthenticationFilter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns a {@link PriorityClass} from the route path and the JWT verified by
+ * {@link EdgeAuthenticationFilter}, in this order: batch paths, no token, critical paths,
+ * staff roles, service accounts, any other token.
+ * <p>
+ * Callers without a token are classified before the critical paths: a login without a token
+ * gets {@link PriorityClass#STANDARD}, so a flood of anonymous calls to the authentication
+ * endpoints cannot take the weight reserved for staff.
+ */
+public class PriorityClassifier {
+
+    private final Set<String> staffRoles;
+    private final List<PathPattern> criticalPaths;
+    private final List<PathPattern> batchPaths;
+    private final boolean serviceAccountsAsBatch;
+
+    public PriorityClassifier(Collection<String> staffRoles, List<String> criticalPaths,
+                              List<String> batchPaths, boolean serviceAccountsAsBatch) {
+        this.staffRoles = Set.copyOf(staffRoles);
+        this.criticalPaths = criticalPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.batchPaths = batchPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.serviceAccountsAsBatch = serviceAccountsAsBatch;
+    }
+
+    public PriorityClass classify(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (matches(batchPaths, request)) {
+            return PriorityClass.BATCH;
+        }
+        boolean critical = matches(criticalPaths, request);
+        Jwt jwt = exchange.getAttribute(EdgeAuthenticationFilter.VERIFIED_JWT_ATTR);
+        if (jwt == null) {
+            return critical ? PriorityClass.STANDARD : PriorityClass.ANONYMOUS;
+        }
+        if (critical || hasStaffRole(jwt)) {
+            return PriorityClass.CRITICAL;
+        }
+        String username = jwt.getClaimAsString("preferred_username");
+        if (serviceAccountsAsBatch && username != null && username.startsWith("service-account-")) {
+            return PriorityClass.BATCH;
+        }
+        return PriorityClass.STANDARD;
+    }
+
+    private boolean hasStaffRole(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+        if (realmAccess == null || !(realmAccess.get("roles") instanceof Collection<?> roles)) {
+            return false;
+        }
+        return roles.stream().anyMatch(staffRoles::contains);
+    }
+
+    private static boolean matches(List<PathPattern> patterns, ServerHttpRequest request) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(request.getPath().pathWithinApplication())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
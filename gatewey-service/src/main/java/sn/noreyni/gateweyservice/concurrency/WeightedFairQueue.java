@@ -0,0 +1,81 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+import java.util.ArrayDeque;
+
+/**
+ * Start-time fair queuing over a fixed number of classes: each entry is tagged with a virtual
+ * finish time {@code max(virtualTime, lastFinish[class]) + 1 / weight[class]} and the smallest
+ * tag leaves first. A busy class gets its weight's share of the slots, an idle class
+ * does not bank credit, and no class starves. Each class queue is bounded.
+ */
+final class WeightedFairQueue<T> {
+
+    private record Entry<T>(T item, double start, double finish) {
+    }
+
+    private final double[] costs;
+    private final int[] capacities;
+    private final ArrayDeque<Entry<T>>[] queues;
+    private final double[] lastFinish;
+    private double virtualTime;
+    private volatile int size;
+
+    @SuppressWarnings("unchecked")
+    WeightedFairQueue(int[] weights, int[] capacities) {
+        this.costs = new double[weights.length];
+        this.capacities = capacities.clone();
+        this.queues = new ArrayDeque[weights.length];
+        this.lastFinish = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            costs[i] = 1.0 / weights[i];
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code false} when the class queue is full
+     */
+    synchronized boolean offer(int cls, T item) {
+        if (queues[cls].size() >= capacities[cls]) {
+            return false;
+        }
+        double start = Math.max(virtualTime, lastFinish[cls]);
+        lastFinish[cls] = start + costs[cls];
+        queues[cls].addLast(new Entry<>(item, start, lastFinish[cls]));
+        size++;
+        return true;
+    }
+
+    synchronized T poll() {
+        int next = -1;
+        for (int i = 0; i < queues.length; i++) {
+            Entry<T> head = queues[i].peekFirst();
+            if (head != null && (next < 0 || head.finish() < queues[next].peekFirst().finish())) {
+                next = i;
+            }
+        }
+        if (next < 0) {
+            return null;
+        }
+        Entry<T> entry = queues[next].pollFirst();
+        virtualTime = entry.start();
+        size--;
+        return entry.item();
+    }
+
+    synchronized boolean remove(int cls, T item) {
+        boolean removed = queues[cls].removeIf(entry -> entry.item() == item);
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,69 @@
+package sn.noreyni.gateweyservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sn.noreyni.gateweyservice.concurrency.PriorityClass;
+import sn.noreyni.gateweyservice.concurrency.PriorityClassifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.admission")
+@Data
+public class AdmissionConfig {
+    /**
+     * Realm roles whose requests are {@link PriorityClass#CRITICAL}
+     */
+    private List<String> staffRoles = new ArrayList<>(List.of(
+            "SUPER_ADMIN", "LIBRARY_MANAGER", "LIBRARIAN", "CIRCULATION_STAFF", "CATALOGER",
+            "REFERENCE_LIBRARIAN", "ACQUISITIONS_LIBRARIAN", "SYSTEMS_ADMIN"));
+    /**
+     * Paths that are {@link PriorityClass#CRITICAL} with a token and {@link PriorityClass#STANDARD} without, e.g. login
+     */
+    private List<String> criticalPaths = new ArrayList<>(List.of("/user-service/api/v1/auth/**"));
+    /**
+     * Bulk endpoints, always {@link PriorityClass#BATCH}
+     */
+    private List<String> batchPaths = new ArrayList<>(List.of("/user-service/api/v1/users/all"));
+    private boolean serviceAccountsAsBatch = true;
+    private Map<PriorityClass, ClassSettings> classes = new EnumMap<>(Map.of(
+            PriorityClass.CRITICAL, new ClassSettings(16, Duration.ofSeconds(2), 256),
+            PriorityClass.STANDARD, new ClassSettings(4, Duration.ofMillis(500), 256),
+            PriorityClass.BATCH, new ClassSettings(2, Duration.ofSeconds(1), 64),
+            PriorityClass.ANONYMOUS, new ClassSettings(1, Duration.ofMillis(250), 128)));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ClassSettings {
+        /**
+         * Share of released slots given to this class while several classes wait
+         */
+        private int weight = 1;
+        /**
+         * How long a request may wait for a slot before it is shed, 0 sheds at once
+         */
+        private Duration maxWait = Duration.ZERO;
+        /**
+         * Waiting requests of this class per limiter
+         */
+        private int queueCapacity = 64;
+    }
+
+    public ClassSettings settings(PriorityClass priority) {
+        return classes.getOrDefault(priority, new ClassSettings());
+    }
+
+    @Bean
+    public PriorityClassifier priorityClassifier() {
+        return new PriorityClassifier(staffRoles, criticalPaths, batchPaths, serviceAccountsAsBatch);
+    }
+}
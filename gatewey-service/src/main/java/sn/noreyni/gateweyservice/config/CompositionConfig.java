@@ -0,0 +1,64 @@
+package sn.noreyni.gateweyservice.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+import sn.noreyni.gateweyservice.composition.CompositionClient;
+import sn.noreyni.gateweyservice.routing.DownstreamHttpClients;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.composition")
+@Data
+public class CompositionConfig {
+    /**
+     * Documents served by the Compose filter, by view name
+     */
+    private Map<String, View> views = new HashMap<>();
+
+    @Data
+    public static class View {
+        private List<Leg> legs = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Leg {
+        /**
+         * Field of the merged document holding this leg's data
+         */
+        private String name;
+        private String serviceId;
+        /**
+         * Downstream path; {sub} and {username} are replaced with the caller's verified claims
+         */
+        private String path;
+        private Duration timeout = Duration.ofSeconds(1);
+        /**
+         * Without a required leg the view fails, other legs are reported missing
+         */
+        private boolean required;
+    }
+
+    public View view(String name) {
+        return views.get(name);
+    }
+
+    @Bean
+    public CompositionClient compositionClient(WebClient.Builder webClientBuilder,
+                                               ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+                                               DownstreamHttpClients downstreamHttpClients) {
+        return new CompositionClient(webClientBuilder, loadBalancerFunction, downstreamHttpClients);
+    }
+}
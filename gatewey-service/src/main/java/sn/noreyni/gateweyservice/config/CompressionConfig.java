@@ -0,0 +1,74 @@
+package sn.noreyni.gateweyservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import sn.noreyni.gateweyservice.compression.ResponseCompressionFilter;
+import sn.noreyni.gateweyservice.compression.ResponseCompressor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.compression")
+@Data
+public class CompressionConfig {
+    private boolean enabled = true;
+    /**
+     * Offered before gzip when the native brotli library loads on this platform
+     */
+    private boolean brotli = true;
+    /**
+     * Larger bodies are compressed off the event loop
+     */
+    private DataSize offloadThreshold = DataSize.ofKilobytes(64);
+    /**
+     * Larger bodies are proxied uncompressed rather than buffered
+     */
+    private DataSize maxBufferedSize = DataSize.ofMegabytes(4);
+    /**
+     * First compatible entry wins, media types without an entry are never compressed
+     */
+    private List<MediaTypeRule> mediaTypes = new ArrayList<>(List.of(
+            new MediaTypeRule("application/json", DataSize.ofKilobytes(1), 6, 5),
+            new MediaTypeRule("application/problem+json", DataSize.ofKilobytes(1), 6, 5),
+            new MediaTypeRule("text/*", DataSize.ofKilobytes(1), 6, 5)));
+
+    @Data
+    public static class MediaTypeRule {
+        private String mediaType;
+        private DataSize minSize = DataSize.ofKilobytes(1);
+        private int gzipLevel = 6;
+        private int brotliQuality = 5;
+
+        public MediaTypeRule() {
+        }
+
+        MediaTypeRule(String mediaType, DataSize minSize, int gzipLevel, int brotliQuality) {
+            this.mediaType = mediaType;
+            this.minSize = minSize;
+            this.gzipLevel = gzipLevel;
+            this.brotliQuality = brotliQuality;
+        }
+    }
+
+    /**
+     * Without rules nothing is compressed, by the global filter or by the response cache
+     */
+    @Bean
+    public ResponseCompressor responseCompressor() {
+        List<ResponseCompressor.Rule> rules = !enabled ? List.of() : mediaTypes.stream()
+                .map(rule -> new ResponseCompressor.Rule(MediaType.parseMediaType(rule.getMediaType()),
+                        rule.getMinSize().toBytes(), rule.getGzipLevel(), rule.getBrotliQuality()))
+                .toList();
+        return new ResponseCompressor(rules, brotli, offloadThreshold.toBytes(), maxBufferedSize.toBytes());
+    }
+
+    @Bean
+    public ResponseCompressionFilter responseCompressionFilter(ResponseCompressor responseCompressor) {
+        return new ResponseCompressionFilter(responseCompressor);
+    }
+}
@@ -0,0 +1,77 @@
+package sn.noreyni.gateweyservice.config;
+
+import lombok.Data;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import sn.noreyni.gateweyservice.routing.DownstreamHttpClients;
+import sn.noreyni.gateweyservice.routing.DownstreamRoutingFilter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.downstream")
+@Data
+public class DownstreamClientConfig {
+    /**
+     * Of services whose pool sets none. H2C alone uses HTTP/2 with prior knowledge and fails
+     * against instances without h2c; add HTTP11 to upgrade from HTTP/1.1 instead
+     */
+    private List<HttpProtocol> protocols = new ArrayList<>(List.of(HttpProtocol.HTTP11));
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    /**
+     * Pool of services without an entry in {@code services}
+     */
+    private Pool pool = new Pool();
+    private Map<String, Pool> services = new HashMap<>();
+
+    @Data
+    public static class Pool {
+        /**
+         * Empty for the default {@code protocols}
+         */
+        private List<HttpProtocol> protocols = new ArrayList<>();
+        /**
+         * Connections per instance
+         */
+        private int maxConnections = 16;
+        /**
+         * With HTTP/2, requests multiplexed on one connection before another is opened
+         */
+        private long maxConcurrentStreams = 256;
+        private int pendingAcquireMaxCount = 1000;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(10);
+        private Duration evictionInterval = Duration.ofSeconds(30);
+
+        DownstreamHttpClients.PoolSettings toSettings(List<HttpProtocol> defaultProtocols) {
+            return new DownstreamHttpClients.PoolSettings(protocols.isEmpty() ? defaultProtocols : protocols,
+                    maxConnections, maxConcurrentStreams, pendingAcquireMaxCount, pendingAcquireTimeout,
+                    maxIdleTime, maxLifeTime, evictionInterval);
+        }
+    }
+
+    @Bean
+    public DownstreamHttpClients downstreamHttpClients() {
+        return new DownstreamHttpClients(connectTimeout,
+                serviceId -> services.getOrDefault(serviceId, pool).toSettings(protocols));
+    }
+
+    @Bean
+    public DownstreamRoutingFilter downstreamRoutingFilter(HttpClient httpClient,
+                                                           ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                           HttpClientProperties properties,
+                                                           DownstreamHttpClients downstreamHttpClients) {
+        return new DownstreamRoutingFilter(httpClient, headersFilters, properties, downstreamHttpClients);
+    }
+}
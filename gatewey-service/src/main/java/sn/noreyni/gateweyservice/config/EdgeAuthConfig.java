@@ -0,0 +1,76 @@
+package sn.noreyni.gateweyservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtIssuerValidator;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import sn.noreyni.gateweyservice.security.ClaimHeaderSigner;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.edge-auth")
+@Data
+public class EdgeAuthConfig {
+    /**
+     * OAuth2 error code of a token rejected only because its {@code exp} claim is past
+     */
+    public static final String TOKEN_EXPIRED_ERROR = "token_expired";
+
+    private boolean enabled = true;
+    private String issuerUri;
+    private String jwkSetUri;
+    private Duration clockSkew = Duration.ofSeconds(30);
+    private String headerSigningSecret;
+    private List<String> publicPaths = new ArrayList<>();
+
+    /**
+     * Verifies access tokens locally. The JWK set is fetched once and kept in memory;
+     * it is only fetched again when a token carries an unknown key id (key rotation).
+     */
+    @Bean
+    public ReactiveJwtDecoder edgeJwtDecoder() {
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withJwkSetUri(jwkSetUri).build();
+        decoder.setJwtValidator(tokenValidator(issuerUri, clockSkew));
+        return decoder;
+    }
+
+    @Bean
+    public ClaimHeaderSigner claimHeaderSigner() {
+        return new ClaimHeaderSigner(headerSigningSecret);
+    }
+
+    public static OAuth2TokenValidator<Jwt> tokenValidator(String issuerUri, Duration clockSkew) {
+        return new DelegatingOAuth2TokenValidator<>(
+                expiryValidator(clockSkew),
+                new JwtTimestampValidator(clockSkew),
+                new JwtIssuerValidator(issuerUri));
+    }
+
+    /**
+     * Reports an expired {@code exp} claim with its own error code, so that the edge filter can
+     * tell an expired session from an invalid token without parsing error messages
+     */
+    static OAuth2TokenValidator<Jwt> expiryValidator(Duration clockSkew) {
+        return jwt -> {
+            Instant expiresAt = jwt.getExpiresAt();
+            if (expiresAt != null && Instant.now().minus(clockSkew).isAfter(expiresAt)) {
+                return OAuth2TokenValidatorResult.failure(
+                        new OAuth2Error(TOKEN_EXPIRED_ERROR, "Jwt expired at " + expiresAt, null));
+            }
+            return OAuth2TokenValidatorResult.success();
+        };
+    }
+}
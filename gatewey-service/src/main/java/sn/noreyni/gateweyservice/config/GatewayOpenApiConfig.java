@@ -6,6 +6,7 @@ import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springdoc.core.properties.AbstractSwaggerUiConfigProperties;
 import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
 import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
@@ -14,10 +15,17 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.openapi.OpenApiDocumentCache;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+@Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class GatewayOpenApiConfig {
@@ -26,6 +34,14 @@ public class GatewayOpenApiConfig {
 
     private final ReactiveDiscoveryClient discoveryClient;
 
+    private final OpenApiDocumentCache documentCache;
+
+    private final OpenApiDocsConfig openApiDocsConfig;
+
+    private static final String GATEWAY_API_DOCS = "/libromesh/api-docs";
+
+    private Disposable refresher;
+
     // Thread-safe list for dynamic service discovery
     private final List<AbstractSwaggerUiConfigProperties.SwaggerUrl> swaggerUrls = new CopyOnWriteArrayList<>();
 
@@ -106,34 +122,65 @@ public class GatewayOpenApiConfig {
         // Gateway service itself (always available)
         swaggerUrls.add(new org.springdoc.core.properties.SwaggerUiConfigProperties.SwaggerUrl(
                 "Gateway Service",
-                "/libromesh/api-docs",
+                GATEWAY_API_DOCS,
                 "LibroMesh Gateway Service API"
         ));
 
-        // Dynamically discover services and add their Swagger URLs
-        discoveryClient.getServices()
+        // Re-discover periodically: services registering after the gateway started are picked up
+        refresher = Flux.interval(Duration.ZERO, openApiDocsConfig.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> refreshServices(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopRefresh() {
+        if (refresher != null) {
+            refresher.dispose();
+        }
+    }
+
+    /**
+     * Adds Swagger URLs of new services, removes those of vanished ones and revalidates the
+     * cached document of each service. Errors only skip this round.
+     */
+    private Mono<Void> refreshServices() {
+        return discoveryClient.getServices()
                 .filter(serviceId -> !"gateway-service".equalsIgnoreCase(serviceId))
                 .filter(serviceId -> !"eureka".equalsIgnoreCase(serviceId)) // Skip Eureka server
-                .doOnNext(serviceId -> {
-                    String displayName = formatServiceName(serviceId);
-                    String swaggerUrl = "/" + serviceId + "/libromesh/api-docs";
-                    String description = getServiceDescription(serviceId);
-
-                    // Check if this service URL already exists
-                    boolean exists = swaggerUrls.stream()
-                            .anyMatch(url -> url.getUrl().equals(swaggerUrl));
-
-                    if (!exists) {
-                        swaggerUrls.add(new org.springdoc.core.properties.SwaggerUiConfigProperties.SwaggerUrl(
-                                displayName,
-                                swaggerUrl,
-                                description
-                        ));
-                        System.out.println("Added Swagger URL for service: " + serviceId + " -> " + swaggerUrl);
-                    }
+                .collectList()
+                .flatMap(serviceIds -> {
+                    documentCache.retainOnly(serviceIds);
+                    swaggerUrls.removeIf(url -> !GATEWAY_API_DOCS.equals(url.getUrl())
+                            && serviceIds.stream().noneMatch(serviceId -> url.getUrl().equals(swaggerUrl(serviceId))));
+                    serviceIds.forEach(this::addSwaggerUrl);
+                    return Flux.fromIterable(serviceIds)
+                            .flatMap(serviceId -> discoveryClient.getInstances(serviceId).collectList()
+                                    .flatMap(instances -> documentCache.refresh(serviceId, instances))
+                                    .onErrorResume(ex -> Mono.empty()))
+                            .then();
                 })
-                .doOnError(error -> System.err.println("Error discovering services: " + error.getMessage()))
-                .subscribe();
+                .doOnError(error -> log.warn("Error discovering services: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    private void addSwaggerUrl(String serviceId) {
+        String swaggerUrl = swaggerUrl(serviceId);
+        boolean exists = swaggerUrls.stream()
+                .anyMatch(url -> url.getUrl().equals(swaggerUrl));
+
+        if (!exists) {
+            swaggerUrls.add(new org.springdoc.core.properties.SwaggerUiConfigProperties.SwaggerUrl(
+                    formatServiceName(serviceId),
+                    swaggerUrl,
+                    getServiceDescription(serviceId)
+            ));
+            log.info("Added Swagger URL for service: {} -> {}", serviceId, swaggerUrl);
+        }
+    }
+
+    private static String swaggerUrl(String serviceId) {
+        return "/" + serviceId + "/libromesh/api-docs";
     }
 
     @Bean
@@ -0,0 +1,34 @@
+package sn.noreyni.gateweyservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import sn.noreyni.gateweyservice.cache.IdempotencyStore;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.idempotency")
+@Data
+public class IdempotencyConfig {
+    /**
+     * Total response bytes kept for idempotency keys, shared by every route using the Idempotency filter
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+    /**
+     * Larger responses keep their key for the TTL without their body; retries get a 409
+     */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(64);
+    /**
+     * How long a completed key is replayed, counted from its response
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    @Bean
+    public IdempotencyStore idempotencyStore(MeterRegistry meterRegistry) {
+        return new IdempotencyStore(maxSize, maxEntrySize, ttl, meterRegistry);
+    }
+}
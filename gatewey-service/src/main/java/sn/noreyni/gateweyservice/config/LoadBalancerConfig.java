@@ -0,0 +1,79 @@
+package sn.noreyni.gateweyservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import sn.noreyni.gateweyservice.loadbalancer.InstanceStatsCancellationFilter;
+import sn.noreyni.gateweyservice.loadbalancer.InstanceStatsLifecycle;
+import sn.noreyni.gateweyservice.loadbalancer.InstanceStatsRegistry;
+import sn.noreyni.gateweyservice.loadbalancer.LoadSignalWeighting;
+import sn.noreyni.gateweyservice.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.load-balancer")
+@Data
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+    /**
+     * Latency assumed for an instance before its first response
+     */
+    private Duration initialLatency = Duration.ofMillis(20);
+    /**
+     * How fast old latency samples fade out of the EWMA
+     */
+    private Duration decay = Duration.ofSeconds(10);
+    /**
+     * How long an instance is avoided after a failed call or a 5xx response
+     */
+    private Duration coolDown = Duration.ofSeconds(5);
+    /**
+     * How the load signals published in the instance metadata weigh on the choice
+     */
+    private LoadSignals loadSignals = new LoadSignals();
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry() {
+        return new InstanceStatsRegistry(initialLatency, decay, coolDown);
+    }
+
+    @Bean
+    public LoadSignalWeighting loadSignalWeighting() {
+        return new LoadSignalWeighting(loadSignals.isEnabled(), loadSignals.getMaxAge(), loadSignals.getInFlightScale(),
+                loadSignals.getSaturationWeight(), loadSignals.getP99Scale());
+    }
+
+    @Bean
+    public InstanceStatsLifecycle instanceStatsLifecycle(InstanceStatsRegistry instanceStatsRegistry) {
+        return new InstanceStatsLifecycle(instanceStatsRegistry);
+    }
+
+    @Bean
+    public InstanceStatsCancellationFilter instanceStatsCancellationFilter(InstanceStatsRegistry instanceStatsRegistry) {
+        return new InstanceStatsCancellationFilter(instanceStatsRegistry);
+    }
+
+    @Data
+    public static class LoadSignals {
+        private boolean enabled = true;
+        /**
+         * Signals older than this are ignored; services republish unchanged signals every 2 minutes
+         */
+        private Duration maxAge = Duration.ofMinutes(5);
+        /**
+         * Requests in flight on the instance that double its cost
+         */
+        private int inFlightScale = 50;
+        /**
+         * Extra cost of a fully saturated connection pool, 2 triples the cost
+         */
+        private double saturationWeight = 2;
+        /**
+         * Published p99 that doubles the cost
+         */
+        private Duration p99Scale = Duration.ofMillis(500);
+    }
+}
@@ -0,0 +1,40 @@
+package sn.noreyni.gateweyservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+import sn.noreyni.gateweyservice.openapi.OpenApiDocumentCache;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.openapi")
+@Data
+public class OpenApiDocsConfig {
+    /**
+     * How often services are re-discovered and their documents revalidated
+     */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+    /**
+     * Documents are fetched again after this long even if the instances did not change
+     */
+    private Duration maxAge = Duration.ofMinutes(15);
+    private Duration fetchTimeout = Duration.ofSeconds(5);
+    /**
+     * springdoc path of the downstream services
+     */
+    private String apiDocsPath = "/libromesh/api-docs";
+
+    @Bean
+    public OpenApiDocumentCache openApiDocumentCache(WebClient.Builder webClientBuilder,
+                                                     ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction) {
+        WebClient webClient = webClientBuilder.clone()
+                .filter(loadBalancerFunction)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(4 * 1024 * 1024))
+                .build();
+        return new OpenApiDocumentCache(webClient, apiDocsPath, maxAge, fetchTimeout);
+    }
+}
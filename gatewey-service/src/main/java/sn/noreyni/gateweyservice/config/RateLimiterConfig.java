@@ -0,0 +1,71 @@
+package sn.noreyni.gateweyservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.ratelimit.InMemoryRateLimiter;
+import sn.noreyni.gateweyservice.security.EdgeAuthenticationFilter;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.rate-limit")
+@Data
+public class RateLimiterConfig {
+    private int replenishRate = 20;
+    private int burstCapacity = 40;
+    private int maxKeys = 100_000;
+    /**
+     * A bucket untouched this long is dropped; keep it above every route's burstCapacity / replenishRate.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(1);
+    /**
+     * Trusted proxies in front of the gateway; 0 keys anonymous traffic on the socket address.
+     */
+    private int trustedProxies = 0;
+
+    @Bean
+    @Primary
+    public InMemoryRateLimiter inMemoryRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry) {
+        InMemoryRateLimiter.Config defaults = new InMemoryRateLimiter.Config();
+        defaults.setReplenishRate(replenishRate);
+        defaults.setBurstCapacity(burstCapacity);
+        return new InMemoryRateLimiter(configurationService, meterRegistry, defaults, maxKeys, idleTimeout);
+    }
+
+    /**
+     * Authenticated users by subject, service accounts by client, anonymous traffic by IP.
+     * Relies on the JWT verified by {@link EdgeAuthenticationFilter}, never on raw headers.
+     */
+    @Bean
+    public KeyResolver principalOrIpKeyResolver() {
+        RemoteAddressResolver addressResolver = trustedProxies > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies)
+                : new RemoteAddressResolver() {
+                };
+
+        return exchange -> {
+            Jwt jwt = exchange.getAttribute(EdgeAuthenticationFilter.VERIFIED_JWT_ATTR);
+            if (jwt != null) {
+                String username = jwt.getClaimAsString("preferred_username");
+                if (username != null && username.startsWith("service-account-") && jwt.hasClaim("azp")) {
+                    return Mono.just("client:" + jwt.getClaimAsString("azp"));
+                }
+                return Mono.just("user:" + jwt.getSubject());
+            }
+            InetSocketAddress address = addressResolver.resolve(exchange);
+            return Mono.justOrEmpty(address)
+                    .map(a -> "ip:" + (a.getAddress() != null ? a.getAddress().getHostAddress() : a.getHostString()));
+        };
+    }
+}
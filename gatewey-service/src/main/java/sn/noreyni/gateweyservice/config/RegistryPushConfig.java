@@ -0,0 +1,38 @@
+package sn.noreyni.gateweyservice.config;
+
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+import sn.noreyni.gateweyservice.loadbalancer.RegistryOverlay;
+import sn.noreyni.gateweyservice.loadbalancer.RegistryPushSubscriber;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.registry-push")
+@Data
+public class RegistryPushConfig {
+    private boolean enabled = true;
+    private String url = "http://localhost:8761/registry/stream";
+    /**
+     * How long a pushed change overrides the polled instance list: Eureka client poll
+     * plus the load balancer cache, with some margin
+     */
+    private Duration retention = Duration.ofSeconds(90);
+    private Duration minBackoff = Duration.ofSeconds(1);
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    @Bean
+    public RegistryOverlay registryOverlay() {
+        return new RegistryOverlay(retention);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "app.gateway.registry-push", name = "enabled", matchIfMissing = true)
+    public RegistryPushSubscriber registryPushSubscriber(WebClient.Builder webClientBuilder, RegistryOverlay registryOverlay) {
+        return new RegistryPushSubscriber(webClientBuilder.build(), url, registryOverlay, minBackoff, maxBackoff);
+    }
+}
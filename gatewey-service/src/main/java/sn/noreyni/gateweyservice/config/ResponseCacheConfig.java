@@ -0,0 +1,28 @@
+package sn.noreyni.gateweyservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import sn.noreyni.gateweyservice.cache.ResponseCache;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.gateway.response-cache")
+@Data
+public class ResponseCacheConfig {
+    /**
+     * Total body bytes kept by the cache, shared by every route using the ResponseCache filter
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    /**
+     * Larger responses are proxied without being buffered
+     */
+    private DataSize maxEntrySize = DataSize.ofKilobytes(256);
+
+    @Bean
+    public ResponseCache responseCache(MeterRegistry meterRegistry) {
+        return new ResponseCache(maxSize, maxEntrySize, meterRegistry);
+    }
+}
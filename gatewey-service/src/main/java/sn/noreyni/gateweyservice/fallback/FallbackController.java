@@ -0,0 +1,78 @@
+package sn.noreyni.gateweyservice.fallback;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.common.ApiResponse;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+
+/**
+ * Fast fallback for routes whose circuit breaker is open, whose bulkhead is full or
+ * whose call failed after retries. Never calls the downstream service.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @RequestMapping("/{service}")
+    public Mono<ResponseEntity<ApiResponse<Void>>> fallback(@PathVariable String service, ServerWebExchange exchange) {
+        Throwable cause = rootCause(exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR));
+        HttpStatus status = cause instanceof TimeoutException ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE;
+
+        log.warn("Fallback for {} | status={} | cause={}", service, status.value(),
+                cause != null ? cause.getClass().getSimpleName() : "unknown");
+
+        return Mono.just(ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(cause))
+                .body(ApiResponse.error(errorCode(cause), errorMessage(service, cause))));
+    }
+
+    /**
+     * Routing failures arrive wrapped (e.g. a response timeout becomes a 504 ResponseStatusException)
+     */
+    private Throwable rootCause(Throwable throwable) {
+        if (throwable != null && throwable.getCause() instanceof TimeoutException timeout) {
+            return timeout;
+        }
+        return throwable;
+    }
+
+    private String errorCode(Throwable cause) {
+        if (cause instanceof CallNotPermittedException) {
+            return "GATEWAY_001";
+        }
+        if (cause instanceof BulkheadFullException) {
+            return "GATEWAY_002";
+        }
+        if (cause instanceof TimeoutException) {
+            return "GATEWAY_003";
+        }
+        return "SERVICE_001";
+    }
+
+    private String errorMessage(String service, Throwable cause) {
+        if (cause instanceof TimeoutException) {
+            return "Le service " + service + " n'a pas répondu à temps";
+        }
+        if (cause instanceof BulkheadFullException) {
+            return "Le service " + service + " est surchargé, veuillez réessayer plus tard";
+        }
+        return "Le service " + service + " est temporairement indisponible, veuillez réessayer plus tard";
+    }
+
+    private String retryAfterSeconds(Throwable cause) {
+        return cause instanceof CallNotPermittedException ? "10" : "1";
+    }
+}
@@ -0,0 +1,83 @@
+package sn.noreyni.gateweyservice.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Semaphore bulkhead per route: caps the number of in-flight calls to one downstream
+ * service so that a slow service cannot hold every gateway connection.
+ * <p>
+ * Rejected calls fail with {@code BulkheadFullException}; the route's circuit breaker
+ * fallback turns that into a fast 503. Bulkheads sharing a {@code name} share permits.
+ * <p>
+ * Bulkheads live in the application's {@link BulkheadRegistry}, which publishes their
+ * {@code resilience4j.bulkhead.*} meters and the {@code bulkheads} actuator endpoint. When a
+ * route refresh changes the limits, the registered bulkhead is replaced; calls already in
+ * flight release their permits to the one that admitted them.
+ * <pre>
+ * - name: Bulkhead
+ *   args:
+ *     name: user-service
+ *     maxConcurrentCalls: 64
+ *     maxWait: 0ms
+ * </pre>
+ */
+@Component
+public class BulkheadGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<BulkheadGatewayFilterFactory.Config> {
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public BulkheadGatewayFilterFactory(BulkheadRegistry bulkheadRegistry) {
+        super(Config.class);
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name", "maxConcurrentCalls");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Bulkhead bulkhead = bulkhead(config.getName(), BulkheadConfig.custom()
+                .maxConcurrentCalls(config.getMaxConcurrentCalls())
+                .maxWaitDuration(config.getMaxWait())
+                .build());
+
+        return (exchange, chain) -> chain.filter(exchange).transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    private synchronized Bulkhead bulkhead(String name, BulkheadConfig config) {
+        Bulkhead existing = bulkheadRegistry.find(name).orElse(null);
+        if (existing == null) {
+            return bulkheadRegistry.bulkhead(name, config);
+        }
+        BulkheadConfig current = existing.getBulkheadConfig();
+        if (current.getMaxConcurrentCalls() == config.getMaxConcurrentCalls()
+                && current.getMaxWaitDuration().equals(config.getMaxWaitDuration())) {
+            return existing;
+        }
+        Bulkhead replacement = Bulkhead.of(name, config);
+        bulkheadRegistry.replace(name, replacement);
+        return replacement;
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private String name;
+        private int maxConcurrentCalls = 64;
+        private Duration maxWait = Duration.ZERO;
+    }
+}
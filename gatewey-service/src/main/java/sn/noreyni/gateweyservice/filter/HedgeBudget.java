@@ -0,0 +1,37 @@
+package sn.noreyni.gateweyservice.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps hedged requests to a percentage of the primary ones: every primary request earns
+ * {@code percent / 100} of a hedge, every hedge spends one, and at most {@code burst} unspent
+ * hedges are kept. Balances are held in thousandths of a hedge.
+ */
+final class HedgeBudget {
+
+    private static final long ONE_HEDGE = 1000;
+
+    private final long creditPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance = new AtomicLong();
+
+    HedgeBudget(double percent, int burst) {
+        this.creditPerRequest = Math.round(percent * ONE_HEDGE / 100);
+        this.maxBalance = burst * ONE_HEDGE;
+    }
+
+    void onRequest() {
+        balance.accumulateAndGet(creditPerRequest, (current, credit) -> Math.min(maxBalance, current + credit));
+    }
+
+    boolean tryAcquire() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < ONE_HEDGE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - ONE_HEDGE));
+        return true;
+    }
+}
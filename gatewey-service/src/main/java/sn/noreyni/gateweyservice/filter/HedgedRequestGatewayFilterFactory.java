@@ -0,0 +1,328 @@
+package sn.noreyni.gateweyservice.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static sn.noreyni.gateweyservice.loadbalancer.PeakEwmaLoadBalancer.EXCLUDED_INSTANCE_ATTR;
+
+/**
+ * Hedged reads: when the upstream has not answered an idempotent request after the route's
+ * observed {@code quantile} latency, the same request is sent to another instance. The first
+ * response to arrive is written to the client and the other call is cancelled.
+ * <p>
+ * The filter sits inside {@code NettyWriteResponseFilter}: an attempt wins when its routing
+ * completes, i.e. when upstream response headers arrived, and hands its status, headers and
+ * upstream connection to the real exchange, whose body is then written from that connection.
+ * <p>
+ * Hedges are capped by {@code maxExtraLoadPercent} of the route's requests, so a slow service
+ * under load is not handed twice the traffic. No hedging happens until {@code minSamples}
+ * latencies were observed. Each attempt runs the rest of the chain with its own copy of the
+ * exchange attributes, so load balancing and upstream connections are not shared.
+ * <pre>
+ * - name: HedgedRequest
+ *   args:
+ *     quantile: 0.95
+ *     maxExtraLoadPercent: 10
+ * </pre>
+ */
+@Component
+public class HedgedRequestGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<HedgedRequestGatewayFilterFactory.Config> {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public HedgedRequestGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        config.validate();
+        LatencyWindow latencies = new LatencyWindow(config.getWindowSize(), config.getRefreshInterval().toNanos());
+        HedgeBudget budget = new HedgeBudget(config.getMaxExtraLoadPercent(), config.getBurst());
+
+        return (exchange, chain) -> {
+            if (!config.getMethods().contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            budget.onRequest();
+            long start = System.nanoTime();
+            exchange.getResponse().beforeCommit(() -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status == null || !status.is5xxServerError()) {
+                    latencies.record(System.nanoTime() - start);
+                }
+                return Mono.empty();
+            });
+
+            long delayNanos = latencies.quantile(config.getQuantile(), config.getMinSamples());
+            if (delayNanos < 0) {
+                return chain.filter(exchange);
+            }
+            Duration delay = Duration.ofNanos(Math.max(delayNanos, config.getMinDelay().toNanos()));
+            return hedge(exchange, chain, delay, budget);
+        };
+    }
+
+    private Mono<Void> hedge(ServerWebExchange exchange, GatewayFilterChain chain, Duration delay, HedgeBudget budget) {
+        String routeId = routeId(exchange);
+        AtomicReference<Attempt> winner = new AtomicReference<>();
+        AtomicInteger running = new AtomicInteger();
+        Attempt primary = new Attempt(exchange, winner, running);
+        Attempt hedged = new Attempt(exchange, winner, running);
+        primary.other = hedged;
+        hedged.other = primary;
+
+        Sinks.One<Boolean> primaryDone = Sinks.one();
+        Mono<Void> first = Mono.defer(() -> primary.run(chain))
+                .doFinally(signal -> primaryDone.tryEmitValue(true));
+        // Once sent, the hedge only stops when the primary wins; until then it is not sent at all
+        // if the primary has finished, so an answered request is not held back by the delay
+        Mono<Void> second = Mono.delay(delay)
+                .takeUntilOther(primaryDone.asMono())
+                .filter(tick -> winner.get() == null)
+                .flatMap(tick -> {
+                    if (!budget.tryAcquire()) {
+                        count(routeId, "no_budget");
+                        return Mono.empty();
+                    }
+                    count(routeId, "sent");
+                    Response<ServiceInstance> chosen = primary.exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+                    if (chosen != null && chosen.hasServer()) {
+                        hedged.exchange.getAttributes().put(EXCLUDED_INSTANCE_ATTR, chosen.getServer());
+                    }
+                    return hedged.run(chain).doOnSuccess(done -> {
+                        if (winner.get() == hedged) {
+                            count(routeId, "won");
+                        }
+                    });
+                })
+                .takeUntilOther(hedged.cancelled.asMono());
+        return Mono.when(first, second);
+    }
+
+    /**
+     * One upstream call. The first attempt to produce a response claims the real one: its
+     * status, headers and attributes are copied over and the other attempt is cancelled. The
+     * loser's upstream connection, if it got one, is closed.
+     */
+    private final class Attempt {
+
+        private final ServerWebExchange original;
+        private final AttemptExchange exchange;
+        private final AtomicReference<Attempt> winner;
+        private final AtomicInteger running;
+        private final Sinks.One<Boolean> cancelled = Sinks.one();
+        private Attempt other;
+
+        Attempt(ServerWebExchange original, AtomicReference<Attempt> winner, AtomicInteger running) {
+            this.original = original;
+            this.exchange = new AttemptExchange(original, this);
+            this.winner = winner;
+            this.running = running;
+        }
+
+        Mono<Void> run(GatewayFilterChain chain) {
+            running.incrementAndGet();
+            // The cancelled attempt's instance is released by InstanceStatsCancellationFilter
+            return chain.filter(exchange)
+                    // Routing completes on response headers, before the body is written further out
+                    .then(Mono.<Void>fromRunnable(this::claim))
+                    .takeUntilOther(cancelled.asMono())
+                    .doOnSuccess(done -> running.decrementAndGet())
+                    // A failed attempt only fails the request if the other one is not still running
+                    .onErrorResume(ex -> running.decrementAndGet() > 0 && winner.get() == null
+                            ? Mono.empty()
+                            : Mono.error(ex))
+                    .doFinally(signal -> releaseIfLost());
+        }
+
+        boolean claim() {
+            if (winner.get() == this) {
+                return true;
+            }
+            if (!winner.compareAndSet(null, this)) {
+                return false;
+            }
+            other.cancelled.tryEmitValue(true);
+            original.getAttributes().putAll(exchange.getAttributes());
+            AttemptResponse attemptResponse = exchange.response;
+            ServerHttpResponse response = original.getResponse();
+            response.getHeaders().putAll(attemptResponse.headers);
+            if (attemptResponse.status != null) {
+                response.setStatusCode(attemptResponse.status);
+            }
+            return true;
+        }
+
+        private void releaseIfLost() {
+            if (winner.get() == this) {
+                return;
+            }
+            Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+            if (connection != null) {
+                connection.dispose();
+            }
+        }
+    }
+
+    private static final class AttemptExchange extends ServerWebExchangeDecorator {
+
+        private final Map<String, Object> attributes;
+        private final AttemptResponse response;
+
+        AttemptExchange(ServerWebExchange delegate, Attempt attempt) {
+            super(delegate);
+            this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+            this.response = new AttemptResponse(delegate.getResponse(), attempt);
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public ServerHttpResponse getResponse() {
+            return response;
+        }
+    }
+
+    /**
+     * Keeps status and headers to itself until the attempt claims the real response.
+     */
+    private static final class AttemptResponse extends ServerHttpResponseDecorator {
+
+        private final Attempt attempt;
+        private final HttpHeaders headers = new HttpHeaders();
+        private HttpStatusCode status;
+
+        AttemptResponse(ServerHttpResponse delegate, Attempt attempt) {
+            super(delegate);
+            this.attempt = attempt;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return attempt.winner.get() == attempt ? getDelegate().getHeaders() : headers;
+        }
+
+        @Override
+        public boolean setStatusCode(HttpStatusCode status) {
+            if (attempt.winner.get() == attempt) {
+                return getDelegate().setStatusCode(status);
+            }
+            this.status = status;
+            return true;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return attempt.winner.get() == attempt ? getDelegate().getStatusCode() : status;
+        }
+
+        @Override
+        @Deprecated
+        public boolean setRawStatusCode(Integer value) {
+            return setStatusCode(value != null ? HttpStatusCode.valueOf(value) : null);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return attempt.claim() ? getDelegate().writeWith(body) : discard(body);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return attempt.claim() ? getDelegate().writeAndFlushWith(body) : discard(Flux.from(body).flatMap(Flux::from));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return attempt.claim() ? getDelegate().setComplete() : Mono.empty();
+        }
+
+        private static Mono<Void> discard(Publisher<? extends DataBuffer> body) {
+            return Flux.from(body).doOnNext(DataBufferUtils::release).then();
+        }
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : "";
+    }
+
+    private void count(String routeId, String result) {
+        counters.computeIfAbsent(routeId + ':' + result, k -> Counter.builder("gateway.hedging.requests")
+                        .description("Hedged upstream requests sent by the gateway")
+                        .tag("route", routeId)
+                        .tag("result", result)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private List<HttpMethod> methods = List.of(HttpMethod.GET, HttpMethod.HEAD);
+        private double quantile = 0.95;
+        private Duration minDelay = Duration.ofMillis(10);
+        private double maxExtraLoadPercent = 10;
+        private int burst = 10;
+        private int minSamples = 100;
+        private int windowSize = 1024;
+        private Duration refreshInterval = Duration.ofSeconds(1);
+
+        void validate() {
+            for (HttpMethod method : methods) {
+                if (!IDEMPOTENT_METHODS.contains(method)) {
+                    throw new IllegalArgumentException("HedgedRequest does not duplicate " + method + " requests");
+                }
+            }
+            if (quantile <= 0 || quantile >= 1) {
+                throw new IllegalArgumentException("HedgedRequest quantile must be between 0 and 1");
+            }
+            if (windowSize < minSamples) {
+                throw new IllegalArgumentException("HedgedRequest windowSize must hold at least minSamples");
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package sn.noreyni.gateweyservice.filter;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+
+/**
+ * Retry filter restricted to idempotent methods, with exponential backoff and jitter.
+ * <p>
+ * The built-in {@code Retry} filter has no jitter, so synchronized clients retrying after
+ * the same upstream blip all come back at the same instant. Requests with a body are
+ * never replayed: only GET, HEAD, OPTIONS and DELETE are accepted in {@code methods}.
+ * <pre>
+ * - name: IdempotentRetry
+ *   args:
+ *     retries: 2
+ *     firstBackoff: 50ms
+ *     maxBackoff: 500ms
+ *     jitter: 0.5
+ * </pre>
+ */
+@Slf4j
+@Component
+public class IdempotentRetryGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<IdempotentRetryGatewayFilterFactory.Config> {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS =
+            Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.DELETE);
+
+    public IdempotentRetryGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        config.validate();
+
+        return (exchange, chain) -> {
+            if (!config.getMethods().contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+
+            AtomicInteger attempt = new AtomicInteger();
+            Retry retry = Retry.backoff(config.getRetries(), config.getFirstBackoff())
+                    .maxBackoff(config.getMaxBackoff())
+                    .jitter(config.getJitter())
+                    .filter(ex -> isRetryable(ex, config))
+                    .doBeforeRetry(signal -> log.debug("Retrying {} {} | attempt={} | cause={}",
+                            exchange.getRequest().getMethod(), exchange.getRequest().getPath(),
+                            signal.totalRetries() + 1, signal.failure().toString()))
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+            return Mono.defer(() -> {
+                        if (attempt.getAndIncrement() > 0) {
+                            reset(exchange);
+                        }
+                        return chain.filter(exchange).then(Mono.defer(() -> checkStatus(exchange, config, attempt.get())));
+                    })
+                    .retryWhen(retry)
+                    // Out of retries on a retryable status: the last upstream response is already in place
+                    .onErrorResume(RetryableStatusException.class, ex -> Mono.empty());
+        };
+    }
+
+    private Mono<Void> checkStatus(ServerWebExchange exchange, Config config, int attempt) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null && attempt <= config.getRetries()
+                && config.getStatuses().contains(HttpStatus.resolve(status.value()))) {
+            return Mono.error(new RetryableStatusException(status));
+        }
+        return Mono.empty();
+    }
+
+    private boolean isRetryable(Throwable ex, Config config) {
+        if (ex instanceof RetryableStatusException) {
+            return true;
+        }
+        // Response timeouts reach this filter wrapped in a 504 ResponseStatusException
+        return config.getExceptions().stream()
+                .anyMatch(type -> type.isInstance(ex) || type.isInstance(ex.getCause()));
+    }
+
+    /**
+     * Drops the previous upstream connection and the headers it copied onto the response,
+     * exactly like the built-in retry filter does between iterations.
+     */
+    private void reset(ServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
+            exchange.getAttributes().remove(CLIENT_RESPONSE_CONN_ATTR);
+        }
+        ServerWebExchangeUtils.reset(exchange);
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private int retries = 2;
+        private List<HttpMethod> methods = List.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+        private List<HttpStatus> statuses = List.of(
+                HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.GATEWAY_TIMEOUT);
+        private List<Class<? extends Throwable>> exceptions = List.of(IOException.class, TimeoutException.class);
+        private Duration firstBackoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        private double jitter = 0.5;
+
+        void validate() {
+            for (HttpMethod method : methods) {
+                if (!IDEMPOTENT_METHODS.contains(method)) {
+                    throw new IllegalArgumentException("IdempotentRetry does not replay " + method + " requests");
+                }
+            }
+            if (jitter < 0 || jitter > 1) {
+                throw new IllegalArgumentException("IdempotentRetry jitter must be between 0 and 1");
+            }
+        }
+    }
+
+    private static class RetryableStatusException extends RuntimeException {
+        RetryableStatusException(HttpStatusCode status) {
+            super("Retryable upstream status " + status.value(), null, false, false);
+        }
+    }
+}
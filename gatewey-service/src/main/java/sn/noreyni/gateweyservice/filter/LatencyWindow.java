@@ -0,0 +1,50 @@
+package sn.noreyni.gateweyservice.filter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The last {@code size} latencies of a route in a ring, with a quantile recomputed at most
+ * once per {@code refreshNanos}. Recording is one atomic increment and one store, so it
+ * stays off the contended path of every request.
+ */
+final class LatencyWindow {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong nextRefreshNanos = new AtomicLong(Long.MIN_VALUE);
+    private final long refreshNanos;
+    private volatile long quantileNanos = -1;
+
+    LatencyWindow(int size, long refreshNanos) {
+        this.samples = new AtomicLongArray(size);
+        this.refreshNanos = refreshNanos;
+    }
+
+    void record(long latencyNanos) {
+        long index = recorded.getAndIncrement();
+        samples.set((int) (index % samples.length()), latencyNanos);
+    }
+
+    /**
+     * @return the {@code quantile} of the window in nanos, or {@code -1} before {@code minSamples} were recorded
+     */
+    long quantile(double quantile, int minSamples) {
+        long count = Math.min(recorded.get(), samples.length());
+        if (count < minSamples) {
+            return -1;
+        }
+        long now = System.nanoTime();
+        long next = nextRefreshNanos.get();
+        if ((next == Long.MIN_VALUE || now - next >= 0) && nextRefreshNanos.compareAndSet(next, now + refreshNanos)) {
+            long[] sorted = new long[(int) count];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            quantileNanos = sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+        }
+        return quantileNanos;
+    }
+}
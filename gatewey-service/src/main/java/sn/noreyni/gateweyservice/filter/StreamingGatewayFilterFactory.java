@@ -0,0 +1,189 @@
+package sn.noreyni.gateweyservice.filter;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+
+/**
+ * Marks a route as streaming: request and response bodies flow through as {@link DataBuffer}s
+ * with backpressure and are never aggregated, so gateway memory stays flat whatever the size.
+ * Global response compression steps aside for exchanges carrying {@link #STREAMING_ATTR};
+ * the buffering route filters ({@code ResponseCache}, {@code RequestCoalescing}) are simply
+ * not declared on streaming routes.
+ * <p>
+ * Sizes are enforced while streaming: a declared {@code Content-Length} over the limit is
+ * rejected up front (413 for requests, 502 for responses), a chunked body is cut as soon as
+ * it crosses the limit. The filter runs ahead of {@link NettyWriteResponseFilter}, whatever
+ * its place in the route, so that the upstream body is written through the limit.
+ * <pre>
+ * - name: Streaming
+ *   args:
+ *     maxRequestSize: 1GB
+ *     maxResponseSize: 2GB
+ * </pre>
+ */
+@Component
+public class StreamingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<StreamingGatewayFilterFactory.Config> {
+
+    public static final String STREAMING_ATTR = StreamingGatewayFilterFactory.class.getName() + ".streaming";
+
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public StreamingGatewayFilterFactory(ErrorResponseWriter errorResponseWriter) {
+        super(Config.class);
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    public static boolean isStreaming(ServerWebExchange exchange) {
+        return Boolean.TRUE.equals(exchange.getAttribute(STREAMING_ATTR));
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long maxRequestSize = config.getMaxRequestSize().toBytes();
+        long maxResponseSize = config.getMaxResponseSize().toBytes();
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            exchange.getAttributes().put(STREAMING_ATTR, true);
+            if (exchange.getRequest().getHeaders().getContentLength() > maxRequestSize) {
+                return requestTooLarge(exchange, config);
+            }
+            ServerWebExchange limited = exchange.mutate()
+                    .request(new LimitedRequest(exchange.getRequest(), maxRequestSize))
+                    .response(new LimitedResponse(exchange, maxResponseSize, config))
+                    .build();
+            return chain.filter(limited)
+                    .onErrorResume(StreamingGatewayFilterFactory::isRequestTooLarge,
+                            ex -> requestTooLarge(exchange, config));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> requestTooLarge(ServerWebExchange exchange, Config config) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.CONNECTION, "close");
+        return errorResponseWriter.write(exchange, HttpStatus.PAYLOAD_TOO_LARGE, "GATEWAY_005",
+                "La requête dépasse la taille maximale autorisée (" + config.getMaxRequestSize().toMegabytes() + " Mo)");
+    }
+
+    /**
+     * A response cut mid-stream is already committed, only an oversized request gets a 413
+     */
+    private static boolean isRequestTooLarge(Throwable ex) {
+        return ex instanceof BodyTooLargeException tooLarge && tooLarge.request
+                || ex.getCause() instanceof BodyTooLargeException tooLarge && tooLarge.request;
+    }
+
+    private static Flux<DataBuffer> limit(Publisher<? extends DataBuffer> body, AtomicLong seen, long maxSize,
+                                          boolean request) {
+        return Flux.<DataBuffer>from(body).handle((buffer, sink) -> {
+            if (seen.addAndGet(buffer.readableByteCount()) > maxSize) {
+                DataBufferUtils.release(buffer);
+                sink.error(new BodyTooLargeException(maxSize, request));
+            } else {
+                sink.next(buffer);
+            }
+        });
+    }
+
+    private static final class LimitedRequest extends ServerHttpRequestDecorator {
+
+        private final long maxSize;
+
+        LimitedRequest(ServerHttpRequest delegate, long maxSize) {
+            super(delegate);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return limit(super.getBody(), new AtomicLong(), maxSize, true);
+        }
+    }
+
+    private final class LimitedResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final long maxSize;
+        private final Config config;
+        private final AtomicLong written = new AtomicLong();
+
+        LimitedResponse(ServerWebExchange exchange, long maxSize, Config config) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.maxSize = maxSize;
+            this.config = config;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getHeaders().getContentLength() > maxSize) {
+                return responseTooLarge();
+            }
+            // Already committed: the client sees a truncated body, as for any upstream failure
+            return super.writeWith(limit(body, written, maxSize, false));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            if (getHeaders().getContentLength() > maxSize) {
+                return responseTooLarge();
+            }
+            return super.writeAndFlushWith(Flux.from(body).map(chunk -> limit(chunk, written, maxSize, false)));
+        }
+
+        /**
+         * Drops the upstream connection instead of draining a body that will never be sent
+         */
+        private Mono<Void> responseTooLarge() {
+            Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+            if (connection != null) {
+                connection.dispose();
+            }
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().clear();
+            return errorResponseWriter.write(exchange, HttpStatus.BAD_GATEWAY, "GATEWAY_006",
+                    "La réponse du service dépasse la taille maximale autorisée ("
+                            + config.getMaxResponseSize().toMegabytes() + " Mo)");
+        }
+    }
+
+    static final class BodyTooLargeException extends RuntimeException {
+
+        private final boolean request;
+
+        BodyTooLargeException(long maxSize, boolean request) {
+            super((request ? "Request" : "Response") + " body larger than " + maxSize + " bytes", null, false, false);
+            this.request = request;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Config {
+        private DataSize maxRequestSize = DataSize.ofGigabytes(1);
+        private DataSize maxResponseSize = DataSize.ofGigabytes(2);
+    }
+}
@@ -0,0 +1,70 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and load of one service instance as seen by this gateway.
+ * <p>
+ * Latency is a peak EWMA decayed over time: a slower sample replaces the average at once,
+ * faster samples pull it down with weight {@code 1 - exp(-elapsed / decay)}, so an instance
+ * that just got slow loses traffic immediately and earns it back gradually.
+ */
+public final class InstanceStats {
+
+    private final long decayNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong ewmaBits;
+    private final AtomicLong lastSampleNanos;
+    private volatile long coolDownUntilNanos;
+
+    InstanceStats(long initialLatencyNanos, long decayNanos, long nowNanos) {
+        this.decayNanos = decayNanos;
+        this.ewmaBits = new AtomicLong(Double.doubleToRawLongBits(initialLatencyNanos));
+        this.lastSampleNanos = new AtomicLong(nowNanos);
+    }
+
+    void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    void requestFinished(long latencyNanos, boolean failed, long coolDownNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        if (failed) {
+            coolDownUntilNanos = nowNanos + coolDownNanos;
+        }
+        observe(latencyNanos, nowNanos);
+    }
+
+    void observe(long latencyNanos, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - lastSampleNanos.getAndSet(nowNanos));
+        double weight = Math.exp(-(double) elapsed / decayNanos);
+        while (true) {
+            long bits = ewmaBits.get();
+            double ewma = Double.longBitsToDouble(bits);
+            double updated = latencyNanos > ewma ? latencyNanos : ewma * weight + latencyNanos * (1 - weight);
+            if (ewmaBits.compareAndSet(bits, Double.doubleToRawLongBits(updated))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Expected wait for one more request: latency times the requests it would queue behind.
+     */
+    double cost() {
+        return Double.longBitsToDouble(ewmaBits.get()) * (inFlight.get() + 1);
+    }
+
+    boolean isCoolingDown(long nowNanos) {
+        return nowNanos - coolDownUntilNanos < 0;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public double latencyMillis() {
+        return Double.longBitsToDouble(ewmaBits.get()) / 1_000_000d;
+    }
+}
@@ -0,0 +1,44 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * Ends the {@link InstanceStats} call of a cancelled exchange. {@link InstanceStatsLifecycle} only
+ * hears about calls that complete or fail, so without this a client disconnect, a time limiter,
+ * a circuit breaker or the losing attempt of a hedged request would leave the instance's
+ * in-flight count raised for good. Runs just outside the load balancer filter, so each attempt
+ * of a retried or hedged request is released on its own.
+ */
+public class InstanceStatsCancellationFilter implements GlobalFilter, Ordered {
+
+    private final InstanceStatsRegistry registry;
+
+    public InstanceStatsCancellationFilter(InstanceStatsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startedAt = System.nanoTime();
+        return chain.filter(exchange).doOnCancel(() -> {
+            Response<ServiceInstance> chosen = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            if (chosen != null && chosen.hasServer()) {
+                registry.requestCancelled(chosen.getServer(), System.nanoTime() - startedAt);
+            }
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,59 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-instance {@link InstanceStats}, shared by the load balancer of every service
+ * (lookups) and {@link InstanceStatsLifecycle} (updates).
+ */
+public class InstanceStatsRegistry {
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final long initialLatencyNanos;
+    private final long decayNanos;
+    private final long coolDownNanos;
+
+    public InstanceStatsRegistry(Duration initialLatency, Duration decay, Duration coolDown) {
+        this.initialLatencyNanos = initialLatency.toNanos();
+        this.decayNanos = decay.toNanos();
+        this.coolDownNanos = coolDown.toNanos();
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new InstanceStats(initialLatencyNanos, decayNanos, System.nanoTime()));
+    }
+
+    public Map<String, InstanceStats> snapshot() {
+        return Map.copyOf(stats);
+    }
+
+    /**
+     * Ends a call the load balancer lifecycle never sees complete because it was cancelled
+     * (see {@link InstanceStatsCancellationFilter}). The time it had been waiting counts
+     * as a latency sample, without cool-down.
+     */
+    public void requestCancelled(ServiceInstance instance, long elapsedNanos) {
+        get(instance).requestFinished(elapsedNanos, false, coolDownNanos, System.nanoTime());
+    }
+
+    long coolDownNanos() {
+        return coolDownNanos;
+    }
+
+    /**
+     * Drops stats of instances no longer registered, called with the current instance list of a service.
+     */
+    void retainOnly(String serviceId, Collection<String> liveKeys) {
+        String prefix = serviceId.toLowerCase() + '|';
+        stats.keySet().removeIf(key -> key.startsWith(prefix) && !liveKeys.contains(key));
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getServiceId().toLowerCase() + '|' + instance.getHost() + ':' + instance.getPort();
+    }
+}
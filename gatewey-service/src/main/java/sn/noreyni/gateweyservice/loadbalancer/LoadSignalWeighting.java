@@ -0,0 +1,75 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Cost multiplier from the load signals an instance publishes in its registry metadata
+ * ({@code load-in-flight}, {@code load-pool-saturation}, {@code load-p99-ms}, {@code load-updated-at}).
+ * <p>
+ * The gateway's own peak-EWMA cost only sees the calls of this gateway node; the published signals
+ * also cover the calls of the other nodes and the pressure on the instance's own backends:
+ * <pre>
+ * factor = (1 + inFlight / inFlightScale) x (1 + saturationWeight x saturation) x (1 + p99 / p99Scale)
+ * </pre>
+ * Instances without signals, or with signals older than {@code maxAge}, get a factor of 1.
+ */
+public class LoadSignalWeighting {
+
+    static final String IN_FLIGHT_METADATA = "load-in-flight";
+    static final String POOL_SATURATION_METADATA = "load-pool-saturation";
+    static final String P99_METADATA = "load-p99-ms";
+    static final String UPDATED_AT_METADATA = "load-updated-at";
+
+    private final boolean enabled;
+    private final long maxAgeMillis;
+    private final double inFlightScale;
+    private final double saturationWeight;
+    private final double p99ScaleMillis;
+
+    public LoadSignalWeighting(boolean enabled, Duration maxAge, int inFlightScale, double saturationWeight, Duration p99Scale) {
+        this.enabled = enabled;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.inFlightScale = Math.max(1, inFlightScale);
+        this.saturationWeight = Math.max(0, saturationWeight);
+        this.p99ScaleMillis = Math.max(1, p99Scale.toMillis());
+    }
+
+    double factor(ServiceInstance instance, long nowMillis) {
+        Map<String, String> metadata = instance.getMetadata();
+        if (!enabled || metadata == null) {
+            return 1;
+        }
+        long updatedAt = parseLong(metadata.get(UPDATED_AT_METADATA));
+        // Clocks of the instances are not trusted to be in sync, a generous max-age absorbs the skew
+        if (updatedAt <= 0 || Math.abs(nowMillis - updatedAt) > maxAgeMillis) {
+            return 1;
+        }
+        double inFlight = Math.max(0, parseLong(metadata.get(IN_FLIGHT_METADATA)));
+        double saturation = Math.clamp(parseDouble(metadata.get(POOL_SATURATION_METADATA)), 0, 1);
+        double p99 = Math.max(0, parseLong(metadata.get(P99_METADATA)));
+        return (1 + inFlight / inFlightScale) * (1 + saturationWeight * saturation) * (1 + p99 / p99ScaleMillis);
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * NaN or infinite signals count as absent: NaN would go through {@code Math.clamp} and poison the cost
+     */
+    private static double parseDouble(String value) {
+        try {
+            double parsed = value != null ? Double.parseDouble(value) : 0;
+            return Double.isFinite(parsed) ? parsed : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
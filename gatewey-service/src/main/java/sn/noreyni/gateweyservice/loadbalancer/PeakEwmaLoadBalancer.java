@@ -0,0 +1,135 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices over peak-EWMA cost: draws two random instances and keeps the one
+ * with the lower {@code latency x (in-flight + 1)}. Instances cooling down after a failure
+ * are skipped unless every instance is cooling down. The cost is multiplied by the load the
+ * instance publishes in its metadata ({@link LoadSignalWeighting}), which also reflects the
+ * traffic of the other gateway nodes.
+ * <p>
+ * Two random candidates instead of the global minimum keep several gateway nodes from all
+ * stampeding onto the same "best" instance with the same stale view.
+ * <p>
+ * A request carrying {@link #EXCLUDED_INSTANCE_ATTR} avoids that instance when another one
+ * is available, so that a hedged request does not land on the instance it is hedging against.
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    /**
+     * Exchange attribute holding the {@link ServiceInstance} to avoid
+     */
+    public static final String EXCLUDED_INSTANCE_ATTR = PeakEwmaLoadBalancer.class.getName() + ".excludedInstance";
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry registry;
+    private final LoadSignalWeighting loadSignals;
+    private volatile List<ServiceInstance> lastInstances;
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                String serviceId,
+                                InstanceStatsRegistry registry,
+                                LoadSignalWeighting loadSignals) {
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.registry = registry;
+        this.loadSignals = loadSignals;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        ServiceInstance excluded = excludedInstance(request);
+        return supplier.get(request).next().map(instances -> choose(instances, excluded));
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> allInstances, ServiceInstance excluded) {
+        if (allInstances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        pruneStats(allInstances);
+        List<ServiceInstance> instances = excluded != null ? without(allInstances, excluded) : allInstances;
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        List<ServiceInstance> candidates = available(instances);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(first));
+        }
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        return new DefaultResponse(cost(a) <= cost(b) ? a : b);
+    }
+
+    private double cost(ServiceInstance instance) {
+        return registry.get(instance).cost() * loadSignals.factor(instance, System.currentTimeMillis());
+    }
+
+    private static ServiceInstance excludedInstance(Request<?> request) {
+        if (request.getContext() instanceof RequestDataContext context && context.getClientRequest() != null
+                && context.getClientRequest().getAttributes().get(EXCLUDED_INSTANCE_ATTR) instanceof ServiceInstance instance) {
+            return instance;
+        }
+        return null;
+    }
+
+    private static List<ServiceInstance> without(List<ServiceInstance> instances, ServiceInstance excluded) {
+        String excludedKey = InstanceStatsRegistry.key(excluded);
+        List<ServiceInstance> remaining = instances.stream()
+                .filter(instance -> !InstanceStatsRegistry.key(instance).equals(excludedKey))
+                .toList();
+        return remaining.isEmpty() ? instances : remaining;
+    }
+
+    private List<ServiceInstance> available(List<ServiceInstance> instances) {
+        long now = System.nanoTime();
+        List<ServiceInstance> available = null;
+        for (int i = 0; i < instances.size(); i++) {
+            boolean coolingDown = registry.get(instances.get(i)).isCoolingDown(now);
+            if (coolingDown && available == null) {
+                available = new ArrayList<>(instances.subList(0, i));
+            } else if (!coolingDown && available != null) {
+                available.add(instances.get(i));
+            }
+        }
+        if (available == null) {
+            return instances;
+        }
+        return available.isEmpty() ? instances : available;
+    }
+
+    private void pruneStats(List<ServiceInstance> instances) {
+        if (instances == lastInstances) {
+            return;
+        }
+        lastInstances = instances;
+        registry.retainOnly(serviceId, instances.stream().map(InstanceStatsRegistry::key).toList());
+    }
+}
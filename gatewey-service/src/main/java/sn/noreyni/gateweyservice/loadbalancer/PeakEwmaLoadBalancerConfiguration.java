@@ -0,0 +1,43 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service LoadBalancer child context configuration. Deliberately not a
+ * {@code @Configuration}: it is registered through {@code @LoadBalancerClients} only,
+ * so component scanning must not pick it up into the main context.
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> peakEwmaLoadBalancer(Environment environment,
+                                                                    LoadBalancerClientFactory loadBalancerClientFactory,
+                                                                    InstanceStatsRegistry instanceStatsRegistry,
+                                                                    LoadSignalWeighting loadSignalWeighting) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId,
+                instanceStatsRegistry,
+                loadSignalWeighting);
+    }
+
+    /**
+     * The default discovery-backed, cached supplier, with pushed registry changes applied on top
+     */
+    @Bean
+    public ServiceInstanceListSupplier registryOverlayServiceInstanceListSupplier(ConfigurableApplicationContext context,
+                                                                                  RegistryOverlay registryOverlay) {
+        ServiceInstanceListSupplier polled = ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .withCaching()
+                .build(context);
+        return new RegistryOverlaySupplier(polled, registryOverlay);
+    }
+}
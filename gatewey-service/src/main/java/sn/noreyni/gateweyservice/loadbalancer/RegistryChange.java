@@ -0,0 +1,18 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import java.util.Map;
+
+/**
+ * Registry delta pushed by discovery-service on {@code /registry/stream}.
+ */
+public record RegistryChange(Type type, String app, String instanceId, String host, int port, boolean secure,
+                             String status, Map<String, String> metadata, long timestamp) {
+
+    public enum Type {
+        REGISTERED, STATUS_CHANGED, CANCELED
+    }
+
+    boolean isUp() {
+        return type != Type.CANCELED && "UP".equals(status);
+    }
+}
@@ -0,0 +1,91 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushed registry changes (registrations, status overrides, cancellations) laid over the
+ * polled instance lists until polling catches up.
+ * <p>
+ * An instance pushed as cancelled or not {@code UP} is hidden from the polled list, an
+ * instance pushed as {@code UP} is added if polling has not seen it yet. Marks expire after
+ * {@code retention}, which must cover the Eureka client poll plus the load balancer cache;
+ * from then on the polled list is authoritative again.
+ */
+public class RegistryOverlay {
+
+    private record Mark(ServiceInstance instance, long atNanos) {
+
+        boolean isRemoval() {
+            return instance == null;
+        }
+    }
+
+    private final long retentionNanos;
+    private final Map<String, Map<String, Mark>> services = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public RegistryOverlay(Duration retention) {
+        this.retentionNanos = retention.toNanos();
+    }
+
+    /**
+     * Bumped on every applied change, so suppliers can reuse their last merged list until then
+     */
+    long version() {
+        return version.get();
+    }
+
+    public void apply(RegistryChange change) {
+        if (change.app() == null || change.instanceId() == null) {
+            return;
+        }
+        String serviceId = change.app().toLowerCase();
+        ServiceInstance instance = change.isUp()
+                ? new DefaultServiceInstance(change.instanceId(), serviceId, change.host(), change.port(),
+                change.secure(), change.metadata() != null ? change.metadata() : Map.of())
+                : null;
+        services.computeIfAbsent(serviceId, id -> new ConcurrentHashMap<>())
+                .put(change.instanceId(), new Mark(instance, System.nanoTime()));
+        version.incrementAndGet();
+    }
+
+    List<ServiceInstance> apply(String serviceId, List<ServiceInstance> polled) {
+        Map<String, Mark> marks = services.get(serviceId.toLowerCase());
+        if (marks == null) {
+            return polled;
+        }
+        long now = System.nanoTime();
+        if (marks.values().removeIf(mark -> now - mark.atNanos() > retentionNanos)) {
+            version.incrementAndGet();
+        }
+        if (marks.isEmpty()) {
+            return polled;
+        }
+
+        List<ServiceInstance> merged = new ArrayList<>(polled.size() + marks.size());
+        Set<String> seen = new HashSet<>();
+        for (ServiceInstance instance : polled) {
+            Mark mark = marks.get(instance.getInstanceId());
+            seen.add(instance.getInstanceId());
+            if (mark == null || !mark.isRemoval()) {
+                merged.add(instance);
+            }
+        }
+        for (Mark mark : marks.values()) {
+            if (!mark.isRemoval() && !seen.contains(mark.instance().getInstanceId())) {
+                merged.add(mark.instance());
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,50 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Applies the {@link RegistryOverlay} on top of the polled (and cached) instance list.
+ * The merged list is reused while neither input changes, so {@link PeakEwmaLoadBalancer}
+ * keeps recognising it and does not prune its stats on every request.
+ */
+public class RegistryOverlaySupplier extends DelegatingServiceInstanceListSupplier {
+
+    private final RegistryOverlay overlay;
+    private volatile Merged last;
+
+    private record Merged(List<ServiceInstance> polled, long version, List<ServiceInstance> result) {
+    }
+
+    public RegistryOverlaySupplier(ServiceInstanceListSupplier delegate, RegistryOverlay overlay) {
+        super(delegate);
+        this.overlay = overlay;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+        return getDelegate().get().map(this::merge);
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get(Request request) {
+        return getDelegate().get(request).map(this::merge);
+    }
+
+    private List<ServiceInstance> merge(List<ServiceInstance> polled) {
+        long version = overlay.version();
+        Merged previous = last;
+        if (previous != null && previous.polled() == polled && previous.version() == version) {
+            return previous.result();
+        }
+        List<ServiceInstance> result = overlay.apply(getServiceId(), polled);
+        // Expired marks bump the version while merging; the next call recomputes once
+        last = new Merged(polled, version, result);
+        return result;
+    }
+}
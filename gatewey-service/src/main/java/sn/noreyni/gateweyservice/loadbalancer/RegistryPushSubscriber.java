@@ -0,0 +1,74 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Follows the registry change stream of discovery-service and applies each change to the
+ * {@link RegistryOverlay}, so a crashed or deployed instance leaves the load balancer within
+ * milliseconds instead of after the next 30s poll. Polling stays in place: while the stream
+ * is down the gateway simply falls back to it, and reconnects with backoff.
+ */
+@Slf4j
+public class RegistryPushSubscriber {
+
+    private static final ParameterizedTypeReference<ServerSentEvent<RegistryChange>> CHANGE_EVENT =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+    private final String url;
+    private final RegistryOverlay overlay;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private Disposable subscription;
+
+    public RegistryPushSubscriber(WebClient webClient, String url, RegistryOverlay overlay,
+                                  Duration minBackoff, Duration maxBackoff) {
+        this.webClient = webClient;
+        this.url = url;
+        this.overlay = overlay;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    public void start() {
+        subscription = webClient.get()
+                .uri(url)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(CHANGE_EVENT)
+                .doOnSubscribe(s -> log.info("Following registry changes | url={}", url))
+                .filter(event -> event.data() != null)
+                .doOnNext(event -> apply(event.data()))
+                // A stream closed by a discovery restart is reconnected like a failed one
+                .concatWith(Mono.error(() -> new IllegalStateException("Registry stream closed")))
+                // Transient: a stream that delivered events restarts the backoff from minBackoff
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, minBackoff)
+                        .maxBackoff(maxBackoff)
+                        .transientErrors(true)
+                        .doBeforeRetry(signal -> log.warn("Registry stream lost, polling only until reconnected | attempt={} | cause={}",
+                                signal.totalRetriesInARow() + 1, signal.failure().toString())))
+                .subscribe();
+    }
+
+    private void apply(RegistryChange change) {
+        log.debug("Registry change | type={} | app={} | instance={} | status={}",
+                change.type(), change.app(), change.instanceId(), change.status());
+        overlay.apply(change);
+    }
+
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
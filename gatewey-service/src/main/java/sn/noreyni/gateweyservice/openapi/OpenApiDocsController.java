@@ -0,0 +1,74 @@
+package sn.noreyni.gateweyservice.openapi;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.compression.ContentCoding;
+import sn.noreyni.gateweyservice.compression.ResponseCompressor;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Serves the OpenAPI documents listed in Swagger UI from {@link OpenApiDocumentCache}.
+ * Controller mappings take precedence over gateway routes, so {@code /{service}/libromesh/api-docs}
+ * is answered here and never proxied.
+ */
+@RestController
+@RequiredArgsConstructor
+public class OpenApiDocsController {
+
+    private static final Set<ContentCoding> GZIP_ONLY = EnumSet.of(ContentCoding.GZIP);
+
+    private final OpenApiDocumentCache cache;
+    private final ResponseCompressor compressor;
+
+    @GetMapping("/{serviceId}/libromesh/api-docs")
+    public Mono<ResponseEntity<byte[]>> apiDocs(@PathVariable String serviceId, @RequestHeader HttpHeaders headers) {
+        if (!cache.isKnown(serviceId)) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        return cache.get(serviceId)
+                .map(document -> {
+                    if (notModified(headers, document.etag())) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(document.etag())
+                                .<byte[]>build();
+                    }
+                    boolean gzip = compressor.negotiate(headers, GZIP_ONLY) == ContentCoding.GZIP;
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .eTag(document.etag())
+                            .cacheControl(CacheControl.noCache())
+                            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    return gzip
+                            ? response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(document.gzip())
+                            : response.body(document.json());
+                })
+                .onErrorResume(ex -> Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()));
+    }
+
+    /**
+     * Weak comparison, as If-None-Match requires: {@code W/"x"} matches {@code "x"}, {@code *} matches any
+     */
+    static boolean notModified(HttpHeaders headers, String etag) {
+        for (String candidate : headers.getIfNoneMatch()) {
+            if (candidate.equals("*") || stripWeak(candidate).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
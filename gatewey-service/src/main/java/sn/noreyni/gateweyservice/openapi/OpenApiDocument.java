@@ -0,0 +1,10 @@
+package sn.noreyni.gateweyservice.openapi;
+
+/**
+ * One service's OpenAPI document, held in memory as JSON and pre-gzipped.
+ *
+ * @param version hash of the service instances the document was fetched from
+ * @param etag    strong ETag over the JSON content
+ */
+public record OpenApiDocument(byte[] json, byte[] gzip, String etag, String version, long fetchedAtNanos) {
+}
@@ -0,0 +1,146 @@
+package sn.noreyni.gateweyservice.openapi;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gateway-side copy of each service's {@code /libromesh/api-docs}, so that Swagger UI loads
+ * never reach the backends.
+ * <p>
+ * A document is fetched again only when the version hash of the service changes (instance
+ * ids and their {@code instance-version} metadata, which changes on every restart) or when
+ * it is older than {@code maxAge}. A fetched document whose content did not change keeps
+ * its ETag and compressed bytes.
+ */
+@Slf4j
+public class OpenApiDocumentCache {
+
+    public static final String INSTANCE_VERSION_METADATA = "instance-version";
+
+    private final WebClient webClient;
+    private final String apiDocsPath;
+    private final long maxAgeNanos;
+    private final Duration fetchTimeout;
+    private final Map<String, OpenApiDocument> documents = new ConcurrentHashMap<>();
+    private final Map<String, Mono<OpenApiDocument>> pending = new ConcurrentHashMap<>();
+    private volatile Set<String> serviceIds = Set.of();
+
+    public OpenApiDocumentCache(WebClient webClient, String apiDocsPath, Duration maxAge, Duration fetchTimeout) {
+        this.webClient = webClient;
+        this.apiDocsPath = apiDocsPath;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    /**
+     * The cached document, fetched once on a miss (e.g. a service discovered since the last refresh).
+     */
+    public Mono<OpenApiDocument> get(String serviceId) {
+        OpenApiDocument document = documents.get(serviceId);
+        return document != null ? Mono.just(document) : fetch(serviceId, "");
+    }
+
+    /**
+     * Called by the periodic re-discovery with the current instances of a service.
+     */
+    public Mono<OpenApiDocument> refresh(String serviceId, List<ServiceInstance> instances) {
+        String version = versionHash(instances);
+        OpenApiDocument current = documents.get(serviceId);
+        if (current != null && current.version().equals(version)
+                && System.nanoTime() - current.fetchedAtNanos() < maxAgeNanos) {
+            return Mono.just(current);
+        }
+        return fetch(serviceId, version);
+    }
+
+    /**
+     * Records the services found by the last discovery and drops documents of the others.
+     */
+    public void retainOnly(Collection<String> discovered) {
+        this.serviceIds = Set.copyOf(discovered);
+        documents.keySet().retainAll(this.serviceIds);
+    }
+
+    public boolean isKnown(String serviceId) {
+        return serviceIds.contains(serviceId);
+    }
+
+    private Mono<OpenApiDocument> fetch(String serviceId, String version) {
+        // Concurrent misses for the same service share one backend call
+        return pending.computeIfAbsent(serviceId, id -> webClient.get()
+                .uri("http://{serviceId}{path}", id, apiDocsPath)
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(fetchTimeout)
+                .map(json -> store(id, json, version))
+                .doOnError(ex -> log.warn("Could not fetch OpenAPI document of {}: {}", id, ex.toString()))
+                .doFinally(signal -> pending.remove(id))
+                .cache());
+    }
+
+    private OpenApiDocument store(String serviceId, byte[] json, String version) {
+        String etag = '"' + sha256(json) + '"';
+        OpenApiDocument previous = documents.get(serviceId);
+        OpenApiDocument document = previous != null && previous.etag().equals(etag)
+                ? new OpenApiDocument(previous.json(), previous.gzip(), etag, version, System.nanoTime())
+                : new OpenApiDocument(json, gzip(json), etag, version, System.nanoTime());
+        documents.put(serviceId, document);
+        if (previous == null || !previous.etag().equals(etag)) {
+            log.info("Cached OpenAPI document of {} | bytes={} | gzip={} | etag={}",
+                    serviceId, json.length, document.gzip().length, etag);
+        }
+        return document;
+    }
+
+    static String versionHash(List<ServiceInstance> instances) {
+        StringBuilder version = new StringBuilder();
+        instances.stream()
+                .map(instance -> instance.getInstanceId() + '@' + instance.getHost() + ':' + instance.getPort()
+                        + '#' + instance.getMetadata().getOrDefault(INSTANCE_VERSION_METADATA, ""))
+                .sorted()
+                .forEach(id -> version.append(id).append('\n'));
+        return sha256(version.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
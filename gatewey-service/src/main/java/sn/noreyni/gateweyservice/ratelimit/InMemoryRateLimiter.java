@@ -0,0 +1,123 @@
+package sn.noreyni.gateweyservice.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RequestRateLimiter} backend that keeps one {@link TokenBucket} per route and key in
+ * gateway memory, so no Redis round trip is added to every request. Limits are per gateway node.
+ * <p>
+ * The buckets live in a Caffeine cache bounded to {@code maxKeys}: a bucket untouched for
+ * {@code idleTimeout} expires, and past the bound the least valuable buckets (one-off keys
+ * before busy ones) are evicted, so a flood of distinct keys cannot exhaust the heap nor
+ * make unrelated callers share a limit. An evicted bucket starts again full, which costs
+ * at most one extra burst for that key; {@code idleTimeout} should exceed the longest
+ * {@code burstCapacity / replenishRate} of the routes so expiry only drops full buckets.
+ * <pre>
+ * - name: RequestRateLimiter
+ *   args:
+ *     in-memory-rate-limiter.replenishRate: 50
+ *     in-memory-rate-limiter.burstCapacity: 100
+ * </pre>
+ */
+public class InMemoryRateLimiter extends AbstractRateLimiter<InMemoryRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "in-memory-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Config defaultConfig;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                               Config defaultConfig, int maxKeys, Duration idleTimeout) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        this.defaultConfig = defaultConfig;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        Gauge.builder("gateway.ratelimiter.buckets", buckets, Cache::estimatedSize)
+                .description("Token buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        long emissionIntervalNanos = NANOS_PER_SECOND / config.getReplenishRate();
+        long now = System.nanoTime();
+
+        long result = buckets.get(routeId + '\u0000' + id, key -> new TokenBucket(now))
+                .tryConsume(now, config.getRequestedTokens(), emissionIntervalNanos, config.getBurstCapacity());
+        boolean allowed = result >= 0;
+
+        counter(routeId, allowed).increment();
+        return Mono.just(new Response(allowed, headers(config, result)));
+    }
+
+    private Map<String, String> headers(Config config, long result) {
+        Map<String, String> headers = new HashMap<>(8);
+        headers.put(REMAINING_HEADER, Long.toString(Math.max(result, 0)));
+        headers.put(REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()));
+        headers.put(BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()));
+        headers.put(REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+        if (result < 0) {
+            headers.put(RETRY_AFTER_HEADER, Long.toString(Math.ceilDiv(-result, NANOS_PER_SECOND)));
+        }
+        return headers;
+    }
+
+    private Counter counter(String routeId, boolean allowed) {
+        String outcome = allowed ? "allowed" : "denied";
+        return counters.computeIfAbsent(routeId + ':' + outcome, k -> Counter.builder("gateway.ratelimiter.requests")
+                .description("Requests checked by the in-memory rate limiter")
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    long bucketCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    @Getter
+    @Setter
+    @Validated
+    public static class Config {
+        @Min(1)
+        private int replenishRate = 20;
+
+        @Min(1)
+        private int burstCapacity = 40;
+
+        @Min(1)
+        private int requestedTokens = 1;
+    }
+}
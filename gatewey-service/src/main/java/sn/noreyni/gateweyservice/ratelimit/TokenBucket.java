@@ -0,0 +1,40 @@
+package sn.noreyni.gateweyservice.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as GCRA (generic cell rate algorithm): the whole
+ * state is one "theoretical arrival time" updated with a CAS, so concurrent requests of
+ * the same key never block each other.
+ * <p>
+ * A bucket whose arrival time is in the past is full, i.e. indistinguishable from a new
+ * bucket, which is what makes idle buckets safe to evict.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @param emissionIntervalNanos time to earn back one token (1s / replenish rate)
+     * @param burstCapacity         maximum tokens the bucket holds
+     * @return remaining tokens when allowed, otherwise minus the nanoseconds until the request would fit
+     */
+    long tryConsume(long nowNanos, int tokens, long emissionIntervalNanos, long burstCapacity) {
+        long capacityNanos = emissionIntervalNanos * burstCapacity;
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long newTat = Math.max(tat, nowNanos) + emissionIntervalNanos * tokens;
+            long debt = newTat - nowNanos;
+            if (debt > capacityNanos) {
+                return -Math.max(1, debt - capacityNanos);
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, newTat)) {
+                return (capacityNanos - debt) / emissionIntervalNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package sn.noreyni.gateweyservice.routing;
+
+import io.netty.channel.ChannelOption;
+import io.netty.resolver.DefaultAddressResolverGroup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.netty.http.Http2AllocationStrategy;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * One {@link HttpClient} per downstream service, each with its own connection pool and protocols.
+ * <p>
+ * With HTTP/2 the pool's {@link Http2AllocationStrategy} opens at most {@code maxConnections}
+ * per instance and multiplexes at most {@code maxConcurrentStreams} requests on each (fewer if
+ * the server advertises a lower limit); further requests wait for a stream in the pending
+ * queue instead of opening a connection each. Pools are created on first use and publish the {@code reactor.netty.connection.provider.*}
+ * meters, tagged with the pool name {@code gateway-<service>}.
+ */
+@Slf4j
+public class DownstreamHttpClients implements DisposableBean {
+
+    /**
+     * Settings of the pool of one service
+     *
+     * @param protocols            spoken to its instances; H2C only where they serve h2c
+     * @param maxConnections       per instance
+     * @param maxConcurrentStreams with HTTP/2, requests the gateway multiplexes on one connection
+     */
+    public record PoolSettings(List<HttpProtocol> protocols, int maxConnections, long maxConcurrentStreams,
+                               int pendingAcquireMaxCount, Duration pendingAcquireTimeout, Duration maxIdleTime,
+                               Duration maxLifeTime, Duration evictionInterval) {
+
+        public PoolSettings {
+            if (protocols.isEmpty()) {
+                throw new IllegalArgumentException("At least one downstream protocol is required");
+            }
+            protocols = List.copyOf(protocols);
+        }
+    }
+
+    private final Duration connectTimeout;
+    private final Function<String, PoolSettings> settings;
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    public DownstreamHttpClients(Duration connectTimeout, Function<String, PoolSettings> settings) {
+        this.connectTimeout = connectTimeout;
+        this.settings = settings;
+    }
+
+    public HttpClient clientFor(String serviceId) {
+        return clients.computeIfAbsent(serviceId, this::newClient);
+    }
+
+    private HttpClient newClient(String serviceId) {
+        PoolSettings pool = settings.apply(serviceId);
+        List<HttpProtocol> protocols = pool.protocols();
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("gateway-" + serviceId);
+        if (protocols.contains(HttpProtocol.H2C) || protocols.contains(HttpProtocol.H2)) {
+            // The client's own SETTINGS only bound streams the server opens; this bounds ours
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(pool.maxConnections())
+                    .maxConcurrentStreams(pool.maxConcurrentStreams())
+                    .build());
+        } else {
+            builder.maxConnections(pool.maxConnections());
+        }
+        ConnectionProvider provider = builder
+                .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                .maxIdleTime(pool.maxIdleTime())
+                .maxLifeTime(pool.maxLifeTime())
+                .evictInBackground(pool.evictionInterval())
+                .metrics(true)
+                .build();
+        providers.put(serviceId, provider);
+        log.info("Downstream pool for {} | protocols={} | maxConnections={} | maxConcurrentStreams={}",
+                serviceId, protocols, pool.maxConnections(), pool.maxConcurrentStreams());
+
+        return HttpClient.create(provider)
+                .protocol(protocols.toArray(HttpProtocol[]::new))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .resolver(DefaultAddressResolverGroup.INSTANCE);
+    }
+
+    @Override
+    public void destroy() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+}
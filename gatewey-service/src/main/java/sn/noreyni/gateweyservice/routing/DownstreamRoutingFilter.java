@@ -0,0 +1,51 @@
+package sn.noreyni.gateweyservice.routing;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+
+/**
+ * Netty routing through the pool of the route's downstream service ({@code lb://<service>}).
+ * Routes to plain URLs keep the gateway's shared client.
+ */
+public class DownstreamRoutingFilter extends NettyRoutingFilter {
+
+    private final DownstreamHttpClients clients;
+
+    public DownstreamRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                   HttpClientProperties properties, DownstreamHttpClients clients) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.clients = clients;
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        URI uri = route.getUri();
+        if (!"lb".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null) {
+            return super.getHttpClient(route, exchange);
+        }
+        HttpClient client = clients.clientFor(uri.getHost().toLowerCase());
+        Object connectTimeout = route.getMetadata().get(CONNECT_TIMEOUT_ATTR);
+        return connectTimeout != null
+                ? client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()))
+                : client;
+    }
+
+    /**
+     * Ahead of the built-in routing filter, which then skips the exchange as already routed
+     */
+    @Override
+    public int getOrder() {
+        return super.getOrder() - 1;
+    }
+}
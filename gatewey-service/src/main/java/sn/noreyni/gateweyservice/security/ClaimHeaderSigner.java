@@ -0,0 +1,65 @@
+package sn.noreyni.gateweyservice.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * HMAC-SHA256 signature over the verified claim headers, so a downstream service can
+ * trust them without calling Keycloak, as long as it shares the signing secret.
+ * <p>
+ * Signed payload, one value per line: subject, username, roles, timestamp (epoch seconds).
+ */
+public class ClaimHeaderSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    // Mac instances are not thread-safe; one per event-loop thread avoids a lookup per request
+    private final ThreadLocal<Mac> macs;
+
+    public ClaimHeaderSigner(String secret) {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalArgumentException("app.gateway.edge-auth.header-signing-secret (GATEWAY_CLAIMS_SECRET) must be set and at least 32 characters long");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String sign(String subject, String username, String roles, long timestamp) {
+        Mac mac = macs.get();
+        byte[] signature = mac.doFinal(payload(subject, username, roles, timestamp));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    public boolean verify(String subject, String username, String roles, long timestamp, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        byte[] expected = sign(subject, username, roles, timestamp).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private byte[] payload(String subject, String username, String roles, long timestamp) {
+        return (nullToEmpty(subject) + '\n' + nullToEmpty(username) + '\n' + nullToEmpty(roles) + '\n' + timestamp)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
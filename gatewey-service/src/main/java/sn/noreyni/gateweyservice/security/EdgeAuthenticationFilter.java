@@ -0,0 +1,167 @@
+package sn.noreyni.gateweyservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+import sn.noreyni.gateweyservice.config.EdgeAuthConfig;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies bearer tokens at the edge against the cached JWK set and forwards the verified
+ * claims as signed {@code X-Auth-*} headers. Client-supplied {@code X-Auth-*} headers are
+ * always removed, so downstream services only ever see headers written here.
+ */
+@Slf4j
+@Component
+public class EdgeAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final String VERIFIED_JWT_ATTR = EdgeAuthenticationFilter.class.getName() + ".jwt";
+
+    public static final String SUBJECT_HEADER = "X-Auth-Subject";
+    public static final String USERNAME_HEADER = "X-Auth-Username";
+    public static final String ROLES_HEADER = "X-Auth-Roles";
+    public static final String TIMESTAMP_HEADER = "X-Auth-Timestamp";
+    public static final String SIGNATURE_HEADER = "X-Auth-Signature";
+
+    private static final String HEADER_PREFIX = "x-auth-";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String INVALID_TOKEN = "Bearer error=\"invalid_token\"";
+
+    private final ReactiveJwtDecoder jwtDecoder;
+    private final ClaimHeaderSigner signer;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final boolean enabled;
+    private final List<PathPattern> publicPaths;
+
+    public EdgeAuthenticationFilter(ReactiveJwtDecoder jwtDecoder,
+                                    ClaimHeaderSigner signer,
+                                    ErrorResponseWriter errorResponseWriter,
+                                    EdgeAuthConfig edgeAuthConfig) {
+        this.jwtDecoder = jwtDecoder;
+        this.signer = signer;
+        this.errorResponseWriter = errorResponseWriter;
+        this.enabled = edgeAuthConfig.isEnabled();
+        this.publicPaths = edgeAuthConfig.getPublicPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        boolean spoofed = request.getHeaders().keySet().stream()
+                .anyMatch(name -> name.regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length()));
+        if (spoofed) {
+            request = request.mutate()
+                    .headers(headers -> headers.keySet()
+                            .removeIf(name -> name.regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length())))
+                    .build();
+        }
+        ServerWebExchange sanitized = spoofed ? exchange.mutate().request(request).build() : exchange;
+
+        if (!enabled || isPublic(request)) {
+            return chain.filter(sanitized);
+        }
+
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return unauthorized(sanitized, "Bearer", "AUTH_001", "En-tête d'autorisation manquant ou invalide");
+        }
+
+        String token = authorization.substring(BEARER_PREFIX.length()).trim();
+        return jwtDecoder.decode(token)
+                .flatMap(jwt -> {
+                    sanitized.getAttributes().put(VERIFIED_JWT_ATTR, jwt);
+                    ServerHttpRequest authenticated = sanitized.getRequest().mutate()
+                            .headers(headers -> headers.setAll(claimHeaders(jwt)))
+                            .build();
+                    return chain.filter(sanitized.mutate().request(authenticated).build());
+                })
+                .onErrorResume(JwtException.class, ex -> rejected(sanitized, ex));
+    }
+
+    /**
+     * Verified claims as internal headers. Realm roles are comma separated.
+     */
+    Map<String, String> claimHeaders(Jwt jwt) {
+        String subject = jwt.getSubject();
+        String username = jwt.getClaimAsString("preferred_username");
+        String roles = String.join(",", realmRoles(jwt));
+        long timestamp = System.currentTimeMillis() / 1000;
+
+        return Map.of(
+                SUBJECT_HEADER, subject != null ? subject : "",
+                USERNAME_HEADER, username != null ? username : "",
+                ROLES_HEADER, roles,
+                TIMESTAMP_HEADER, Long.toString(timestamp),
+                SIGNATURE_HEADER, signer.sign(subject, username, roles, timestamp));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<String> realmRoles(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
+        if (realmAccess == null || !(realmAccess.get("roles") instanceof Collection<?> roles)) {
+            return List.of();
+        }
+        return (Collection<String>) roles;
+    }
+
+    private boolean isPublic(ServerHttpRequest request) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (PathPattern pattern : publicPaths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Mono<Void> rejected(ServerWebExchange exchange, JwtException ex) {
+        if (ex instanceof JwtValidationException validation && isExpired(validation)) {
+            return unauthorized(exchange, INVALID_TOKEN, "AUTH_002", "Votre session a expiré, veuillez vous reconnecter");
+        }
+        if (ex instanceof BadJwtException) {
+            log.debug("Rejected token at the edge | path={} | reason={}", exchange.getRequest().getPath(), ex.getMessage());
+            return unauthorized(exchange, INVALID_TOKEN, "AUTH_003", "Token invalide");
+        }
+        // Not the token's fault: the JWK set could not be fetched
+        log.error("Token verification unavailable | path={} | error={}", exchange.getRequest().getPath(), ex.getMessage());
+        return errorResponseWriter.write(exchange, HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_001",
+                "Service temporairement indisponible, veuillez réessayer plus tard");
+    }
+
+    static boolean isExpired(JwtValidationException ex) {
+        return ex.getErrors().stream()
+                .anyMatch(error -> EdgeAuthConfig.TOKEN_EXPIRED_ERROR.equals(error.getErrorCode()));
+    }
+
+    private Mono<Void> unauthorized(ServerWebExchange exchange, String challenge, String code, String message) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        return errorResponseWriter.write(exchange, HttpStatus.UNAUTHORIZED, code, message);
+    }
+
+    @Override
+    public int getOrder() {
+        // Before route filters, so rate limiting and retries only see authenticated traffic
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+}
@@ -3,7 +3,7 @@ package sn.noreyni.gateweyservice;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.gateway.edge-auth.header-signing-secret=test-secret-shared-with-the-services-0123456789")
 class GateweyServiceApplicationTests {
 
 	@Test
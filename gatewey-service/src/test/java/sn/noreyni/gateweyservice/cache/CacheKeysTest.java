@@ -0,0 +1,75 @@
+package sn.noreyni.gateweyservice.cache;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import sn.noreyni.gateweyservice.security.EdgeAuthenticationFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheKeysTest {
+
+    @Test
+    void rolesScopeKeysOnTheSortedRealmRoles() {
+        String first = CacheKeys.primaryKey("users", CacheScope.ROLES, exchange(jwt("u1", List.of("USER", "ADMIN"))));
+        String second = CacheKeys.primaryKey("users", CacheScope.ROLES, exchange(jwt("u2", List.of("ADMIN", "USER"))));
+
+        assertThat(first).isEqualTo(second).contains("roles:ADMIN,USER");
+    }
+
+    @Test
+    void anonymousCallerIsNotCachedUnderRolesOrUserScope() {
+        assertThat(CacheKeys.primaryKey("users", CacheScope.ROLES, exchange(null))).isNull();
+        assertThat(CacheKeys.primaryKey("users", CacheScope.USER, exchange(null))).isNull();
+        assertThat(CacheKeys.primaryKey("users", CacheScope.PUBLIC, exchange(null))).isNotNull();
+    }
+
+    @Test
+    void primaryKeyStartsWithItsPathKey() {
+        String primaryKey = CacheKeys.primaryKey("books", CacheScope.PUBLIC, exchange(null));
+
+        assertThat(CacheKeys.pathKeyOf(primaryKey)).isEqualTo(CacheKeys.pathKey("books", "/api/v1/books/"));
+        assertThat(CacheKeys.pathKey("books", "/api/v1/books/")).isEqualTo("books\u0000/api/v1/books");
+    }
+
+    @Test
+    void copyIsRightSizedAndLeavesThePooledBufferToItsOwner() {
+        NettyDataBufferFactory factory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+        DataBuffer joined = factory.allocateBuffer(8192);
+        joined.write("livre".getBytes(StandardCharsets.UTF_8));
+
+        byte[] copy = CacheKeys.copyOf(joined);
+
+        assertThat(copy).hasSize(5).isEqualTo("livre".getBytes(StandardCharsets.UTF_8));
+        assertThat(joined.readableByteCount()).isEqualTo(5);
+        assertThat(DataBufferUtils.release(joined)).isTrue();
+    }
+
+    private static MockServerWebExchange exchange(Jwt jwt) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/books/?page=2"));
+        if (jwt != null) {
+            exchange.getAttributes().put(EdgeAuthenticationFilter.VERIFIED_JWT_ATTR, jwt);
+        }
+        return exchange;
+    }
+
+    private static Jwt jwt(String subject, List<String> roles) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject(subject)
+                .claim("realm_access", Map.of("roles", roles))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+    }
+}
@@ -0,0 +1,225 @@
+package sn.noreyni.gateweyservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+import sn.noreyni.gateweyservice.support.ProxyChain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sn.noreyni.gateweyservice.cache.IdempotencyGatewayFilterFactory.IDEMPOTENCY_KEY_HEADER;
+import static sn.noreyni.gateweyservice.cache.IdempotencyGatewayFilterFactory.REPLAYED_HEADER;
+
+class IdempotencyGatewayFilterFactoryTest {
+
+    private static final String CREATED = "{\"id\":\"42\"}";
+
+    private static final AtomicInteger backendCalls = new AtomicInteger();
+    private static DisposableServer backend;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @BeforeAll
+    static void startBackend() {
+        byte[] created = CREATED.getBytes(StandardCharsets.UTF_8);
+        backend = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.post("/user-service/api/v1/users", (request, response) -> request.receive()
+                        .aggregate()
+                        .then(Mono.defer(() -> {
+                            backendCalls.incrementAndGet();
+                            return response.status(HttpStatus.CREATED.value())
+                                    .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                                    .header("Content-Length", String.valueOf(created.length))
+                                    .sendByteArray(Mono.just(created))
+                                    .then();
+                        }))))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @Test
+    void retryIsReplayedThroughTheRoutingAndWriteFilters() {
+        backendCalls.set(0);
+        WebTestClient client = new ProxyChain("http://localhost:" + backend.port(),
+                filter(DataSize.ofKilobytes(64), Duration.ofSeconds(1))).client();
+
+        client.post().uri("/user-service/api/v1/users")
+                .header(IDEMPOTENCY_KEY_HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"a\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().doesNotExist(REPLAYED_HEADER)
+                .expectBody(String.class).isEqualTo(CREATED);
+        client.post().uri("/user-service/api/v1/users")
+                .header(IDEMPOTENCY_KEY_HEADER, "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"a\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(REPLAYED_HEADER, "true")
+                .expectBody(String.class).isEqualTo(CREATED);
+
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    @Test
+    void retryWithTheSameKeyIsReplayedWithoutReachingUpstream() {
+        GatewayFilter filter = filter(DataSize.ofKilobytes(64), Duration.ofSeconds(1));
+        GatewayFilterChain upstream = answering(HttpStatus.CREATED, CREATED);
+
+        MockServerWebExchange first = post("key-1", "{\"name\":\"a\"}");
+        filter.filter(first, upstream).block();
+        MockServerWebExchange retry = post("key-1", "{\"name\":\"a\"}");
+        filter.filter(retry, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(retry.getResponse().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getResponse().getHeaders().getFirst(REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getResponse().getBodyAsString().block()).isEqualTo(CREATED);
+    }
+
+    @Test
+    void keyReusedForAnotherBodyIsRefused() {
+        GatewayFilter filter = filter(DataSize.ofKilobytes(64), Duration.ofSeconds(1));
+        GatewayFilterChain upstream = answering(HttpStatus.CREATED, CREATED);
+
+        filter.filter(post("key-1", "{\"name\":\"a\"}"), upstream).block();
+        MockServerWebExchange other = post("key-1", "{\"name\":\"b\"}");
+        filter.filter(other, upstream).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(other.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(other.getResponse().getBodyAsString().block()).contains("GATEWAY_008");
+    }
+
+    @Test
+    void concurrentRetryWaitsForTheExecutionInFlight() {
+        GatewayFilter filter = filter(DataSize.ofKilobytes(64), Duration.ofSeconds(5));
+        Sinks.Empty<Void> upstreamAnswers = Sinks.empty();
+        GatewayFilterChain upstream = exchange -> upstreamAnswers.asMono()
+                .then(answering(HttpStatus.CREATED, CREATED).filter(exchange));
+
+        CompletableFuture<Void> first = filter.filter(post("key-1", "{}"), upstream).toFuture();
+        MockServerWebExchange retry = post("key-1", "{}");
+        CompletableFuture<Void> waiting = filter.filter(retry, upstream).toFuture();
+        assertThat(waiting).isNotDone();
+
+        upstreamAnswers.tryEmitEmpty();
+        first.join();
+        waiting.join();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(retry.getResponse().getHeaders().getFirst(REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void concurrentRetryGivesUpWithAConflictAfterMaxWait() {
+        GatewayFilter filter = filter(DataSize.ofKilobytes(64), Duration.ofMillis(50));
+        filter.filter(post("key-1", "{}"), exchange -> Mono.never()).subscribe();
+
+        MockServerWebExchange retry = post("key-1", "{}");
+        filter.filter(retry, answering(HttpStatus.CREATED, CREATED)).block(Duration.ofSeconds(5));
+
+        assertThat(retry.getResponse().getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(retry.getResponse().getBodyAsString().block()).contains("GATEWAY_009");
+    }
+
+    @Test
+    void responseTooLargeToStoreStillKeepsTheKey() {
+        GatewayFilter filter = filter(DataSize.ofBytes(4), Duration.ofSeconds(1));
+        GatewayFilterChain upstream = answering(HttpStatus.CREATED, CREATED);
+
+        MockServerWebExchange first = post("key-1", "{}");
+        filter.filter(first, upstream).block();
+        MockServerWebExchange retry = post("key-1", "{}");
+        filter.filter(retry, upstream).block();
+
+        assertThat(first.getResponse().getBodyAsString().block()).isEqualTo(CREATED);
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(retry.getResponse().getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(retry.getResponse().getBodyAsString().block()).contains("GATEWAY_011");
+    }
+
+    @Test
+    void serverErrorFreesTheKey() {
+        GatewayFilter filter = filter(DataSize.ofKilobytes(64), Duration.ofSeconds(1));
+        GatewayFilterChain upstream = answering(HttpStatus.SERVICE_UNAVAILABLE, "{}");
+
+        filter.filter(post("key-1", "{}"), upstream).block();
+        filter.filter(post("key-1", "{}"), upstream).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void cancellationBeforeTheUpstreamAnsweredFreesTheKey() {
+        GatewayFilter filter = filter(DataSize.ofKilobytes(64), Duration.ofSeconds(1));
+        filter.filter(post("key-1", "{}"), exchange -> Mono.never()).subscribe().dispose();
+
+        MockServerWebExchange retry = post("key-1", "{}");
+        filter.filter(retry, answering(HttpStatus.CREATED, CREATED)).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(retry.getResponse().getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getResponse().getHeaders().containsKey(REPLAYED_HEADER)).isFalse();
+    }
+
+    private GatewayFilter filter(DataSize maxEntrySize, Duration maxWait) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IdempotencyStore store = new IdempotencyStore(DataSize.ofMegabytes(1), maxEntrySize,
+                Duration.ofMinutes(1), meterRegistry);
+        IdempotencyGatewayFilterFactory factory = new IdempotencyGatewayFilterFactory(store,
+                exchange -> Mono.just("user-1"),
+                new ErrorResponseWriter(new ObjectMapper().findAndRegisterModules()),
+                meterRegistry);
+        IdempotencyGatewayFilterFactory.Config config = new IdempotencyGatewayFilterFactory.Config();
+        config.setPaths(List.of("/user-service/api/v1/users/**"));
+        config.setMaxWait(maxWait);
+        return factory.apply(config);
+    }
+
+    private GatewayFilterChain answering(HttpStatus status, String body) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(status);
+            response.getHeaders().setContentLength(bytes.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        };
+    }
+
+    private static MockServerWebExchange post(String idempotencyKey, String body) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/user-service/api/v1/users")
+                .header(IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .body(body));
+    }
+}
@@ -0,0 +1,183 @@
+package sn.noreyni.gateweyservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import sn.noreyni.gateweyservice.support.ProxyChain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES;
+
+class RequestCoalescingGatewayFilterFactoryTest {
+
+    private static final String BOOKS = "[{\"id\":1}]";
+
+    private static final AtomicInteger backendCalls = new AtomicInteger();
+    private static DisposableServer backend;
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> upstreamAnswers = Sinks.empty();
+    private final GatewayFilter filter = coalescing(Duration.ofSeconds(5));
+
+    /**
+     * Answers after 300ms, long enough for a second request to find the first in flight
+     */
+    @BeforeAll
+    static void startBackend() {
+        byte[] books = BOOKS.getBytes(StandardCharsets.UTF_8);
+        backend = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/book-service/api/v1/books", (request, response) -> {
+                    backendCalls.incrementAndGet();
+                    return Mono.delay(Duration.ofMillis(300))
+                            .then(response.status(HttpStatus.OK.value())
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(books.length))
+                                    .sendByteArray(Mono.just(books))
+                                    .then());
+                }))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @Test
+    void followerGetsTheLeadersBodyThroughTheRoutingAndWriteFilters() {
+        backendCalls.set(0);
+        ProxyChain proxy = new ProxyChain("http://localhost:" + backend.port(), coalescing(Duration.ofSeconds(2)));
+        MockServerWebExchange leader = get("fr");
+        MockServerWebExchange follower = get("fr");
+
+        Mono.when(proxy.handle(leader), proxy.handle(follower)).block(Duration.ofSeconds(5));
+
+        assertThat(backendCalls).hasValue(1);
+        assertThat(follower.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+        assertThat(leader.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneUpstreamCall() {
+        MockServerWebExchange leader = get("fr");
+        MockServerWebExchange follower = get("fr");
+        GatewayFilterChain upstream = delayed(answering(BOOKS, false));
+
+        CompletableFuture<Void> first = filter.filter(leader, upstream).toFuture();
+        CompletableFuture<Void> second = filter.filter(follower, upstream).toFuture();
+        upstreamAnswers.tryEmitEmpty();
+        first.join();
+        second.join();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+        assertThat(leader.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+    }
+
+    @Test
+    void requestsDifferingInAVaryHeaderAreNotCoalesced() {
+        GatewayFilterChain upstream = delayed(answering(BOOKS, false));
+
+        CompletableFuture<Void> first = filter.filter(get("fr"), upstream).toFuture();
+        CompletableFuture<Void> second = filter.filter(get("en"), upstream).toFuture();
+        upstreamAnswers.tryEmitEmpty();
+        first.join();
+        second.join();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void followerGoesUpstreamItselfWhenTheResponseCannotBeShared() {
+        MockServerWebExchange follower = get("fr");
+        GatewayFilterChain upstream = delayed(answering(BOOKS, true));
+
+        CompletableFuture<Void> first = filter.filter(get("fr"), upstream).toFuture();
+        CompletableFuture<Void> second = filter.filter(follower, upstream).toFuture();
+        upstreamAnswers.tryEmitEmpty();
+        first.join();
+        second.join();
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+    }
+
+    @Test
+    void followerGoesUpstreamItselfWhenTheLeaderIsCancelled() {
+        MockServerWebExchange follower = get("fr");
+
+        filter.filter(get("fr"), exchange -> Mono.never()).subscribe().dispose();
+        filter.filter(follower, answering(BOOKS, false)).block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+    }
+
+    @Test
+    void followerStopsWaitingAfterMaxWait() {
+        GatewayFilter impatient = coalescing(Duration.ofMillis(50));
+        MockServerWebExchange follower = get("fr");
+
+        impatient.filter(get("fr"), exchange -> Mono.never()).subscribe();
+        impatient.filter(follower, answering(BOOKS, false)).block(Duration.ofSeconds(5));
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo(BOOKS);
+    }
+
+    private GatewayFilter coalescing(Duration maxWait) {
+        RequestCoalescingGatewayFilterFactory.Config config = new RequestCoalescingGatewayFilterFactory.Config();
+        config.setScope(CacheScope.PUBLIC);
+        config.setPaths(List.of("/book-service/api/v1/books/**"));
+        config.setMaxWait(maxWait);
+        return new RequestCoalescingGatewayFilterFactory(new SimpleMeterRegistry()).apply(config);
+    }
+
+    private GatewayFilterChain delayed(GatewayFilterChain chain) {
+        return exchange -> upstreamAnswers.asMono().then(chain.filter(exchange));
+    }
+
+    private GatewayFilterChain answering(String body, boolean setCookie) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentLength(bytes.length);
+            if (setCookie) {
+                response.getHeaders().add(HttpHeaders.SET_COOKIE, "session=1");
+            }
+            exchange.getAttributes().put(CLIENT_RESPONSE_HEADER_NAMES, Set.copyOf(response.getHeaders().keySet()));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        };
+    }
+
+    private static MockServerWebExchange get(String language) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/book-service/api/v1/books")
+                .header(HttpHeaders.ACCEPT_LANGUAGE, language));
+    }
+}
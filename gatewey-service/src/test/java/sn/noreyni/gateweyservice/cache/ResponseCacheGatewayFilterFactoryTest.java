@@ -0,0 +1,142 @@
+package sn.noreyni.gateweyservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import sn.noreyni.gateweyservice.compression.ResponseCompressor;
+import sn.noreyni.gateweyservice.support.ProxyChain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static sn.noreyni.gateweyservice.cache.ResponseCacheGatewayFilterFactory.CACHE_HEADER;
+
+/**
+ * Through the real routing and write-response filters, against a backend started per class
+ */
+class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final String BOOK = "{\"id\":\"42\",\"title\":\"Une si longue lettre\"}";
+    private static final String ETAG = "\"v1\"";
+
+    private static final AtomicInteger backendCalls = new AtomicInteger();
+    private static final AtomicInteger notModified = new AtomicInteger();
+    private static DisposableServer backend;
+
+    private WebTestClient client;
+
+    /**
+     * {@code /books/42} may be cached for a minute; {@code /books/43} must be revalidated
+     * every time, and answers a matching {@code If-None-Match} with a 304
+     */
+    @BeforeAll
+    static void startBackend() {
+        backend = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/book-service/api/v1/books/42", (request, response) -> {
+                            backendCalls.incrementAndGet();
+                            return book(response, "max-age=60");
+                        })
+                        .get("/book-service/api/v1/books/43", (request, response) -> {
+                            backendCalls.incrementAndGet();
+                            if (ETAG.equals(request.requestHeaders().get(HttpHeaders.IF_NONE_MATCH))) {
+                                notModified.incrementAndGet();
+                                return response.status(HttpStatus.NOT_MODIFIED.value())
+                                        .header(HttpHeaders.ETAG, ETAG)
+                                        .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                                        .send();
+                            }
+                            return book(response, "no-cache");
+                        }))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        backendCalls.set(0);
+        notModified.set(0);
+        ResponseCompressor compressor = new ResponseCompressor(
+                List.of(new ResponseCompressor.Rule(MediaType.APPLICATION_JSON, 16, 6, 4)), false, 64 * 1024, 1024 * 1024);
+        ResponseCacheGatewayFilterFactory factory = new ResponseCacheGatewayFilterFactory(
+                new ResponseCache(DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), new SimpleMeterRegistry()),
+                compressor, new SimpleMeterRegistry());
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setScope(CacheScope.PUBLIC);
+        config.setPaths(List.of("/book-service/api/v1/books/**"));
+        client = new ProxyChain("http://localhost:" + backend.port(), factory.apply(config)).client();
+    }
+
+    @Test
+    void secondGetIsServedFromTheCache() {
+        client.get().uri("/book-service/api/v1/books/42").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CACHE_HEADER, "MISS")
+                .expectBody(String.class).isEqualTo(BOOK);
+        client.get().uri("/book-service/api/v1/books/42").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CACHE_HEADER, "HIT")
+                .expectBody(String.class).isEqualTo(BOOK);
+
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    @Test
+    void hitIsServedWithTheStoredCoding() {
+        client.get().uri("/book-service/api/v1/books/42").exchange().expectStatus().isOk();
+
+        client.get().uri("/book-service/api/v1/books/42")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CACHE_HEADER, "HIT")
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    @Test
+    void staleEntryIsRevalidatedWithItsEtag() {
+        client.get().uri("/book-service/api/v1/books/43").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CACHE_HEADER, "MISS");
+        client.get().uri("/book-service/api/v1/books/43").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CACHE_HEADER, "REVALIDATED")
+                .expectBody(String.class).isEqualTo(BOOK);
+
+        assertThat(backendCalls).hasValue(2);
+        assertThat(notModified).hasValue(1);
+    }
+
+    private static Mono<Void> book(HttpServerResponse response, String cacheControl) {
+        byte[] body = BOOK.getBytes(StandardCharsets.UTF_8);
+        return response.status(HttpStatus.OK.value())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(body.length))
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header(HttpHeaders.ETAG, ETAG)
+                .sendByteArray(Mono.just(body))
+                .then();
+    }
+}
@@ -0,0 +1,99 @@
+package sn.noreyni.gateweyservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+
+    private static final String ROUTE = "book-service";
+
+    private final ResponseCache cache =
+            new ResponseCache(DataSize.ofKilobytes(64), DataSize.ofKilobytes(4), new SimpleMeterRegistry());
+
+    @Test
+    void entryIsFoundByItsPrimaryKeyAndVaryValues() {
+        HttpHeaders french = headers("fr");
+        cache.put(key("*", "/books/42", ""), List.of("accept-language"), french, response("livre"));
+
+        assertThat(cache.get(key("*", "/books/42", ""), french)).isNotNull();
+        assertThat(cache.get(key("*", "/books/42", ""), headers("en"))).isNull();
+        assertThat(cache.get(key("*", "/books/43", ""), french)).isNull();
+    }
+
+    @Test
+    void writeToAnItemDropsEveryScopeAndVariantOfItAndItsCollectionPages() {
+        cache.put(key("roles:ADMIN", "/books/42", ""), List.of("accept-language"), headers("fr"), response("a"));
+        cache.put(key("roles:ADMIN", "/books/42", ""), List.of("accept-language"), headers("en"), response("b"));
+        cache.put(key("roles:USER", "/books/42", ""), List.of(), new HttpHeaders(), response("c"));
+        cache.put(key("roles:USER", "/books/42/reviews", ""), List.of(), new HttpHeaders(), response("d"));
+        cache.put(key("*", "/books", "page=2"), List.of(), new HttpHeaders(), response("e"));
+        cache.put(key("*", "/books/43", ""), List.of(), new HttpHeaders(), response("f"));
+        cache.put(key("*", "/books/420", ""), List.of(), new HttpHeaders(), response("g"));
+
+        assertThat(cache.invalidate(CacheKeys.pathKey(ROUTE, "/books/42/"))).isEqualTo(5);
+
+        assertThat(cache.get(key("roles:ADMIN", "/books/42", ""), headers("en"))).isNull();
+        assertThat(cache.get(key("roles:USER", "/books/42/reviews", ""), new HttpHeaders())).isNull();
+        assertThat(cache.get(key("*", "/books", "page=2"), new HttpHeaders())).isNull();
+        assertThat(cache.get(key("*", "/books/43", ""), new HttpHeaders())).isNotNull();
+        assertThat(cache.get(key("*", "/books/420", ""), new HttpHeaders())).isNotNull();
+    }
+
+    @Test
+    void writeToACollectionDropsItsPagesAndItems() {
+        cache.put(key("*", "/books", "page=1"), List.of(), new HttpHeaders(), response("a"));
+        cache.put(key("*", "/books/42", ""), List.of(), new HttpHeaders(), response("b"));
+        cache.put(key("*", "/loans", ""), List.of(), new HttpHeaders(), response("c"));
+
+        assertThat(cache.invalidate(CacheKeys.pathKey(ROUTE, "/books"))).isEqualTo(2);
+        assertThat(cache.get(key("*", "/loans", ""), new HttpHeaders())).isNotNull();
+    }
+
+    @Test
+    void invalidationStaysWithinTheRoute() {
+        cache.put("user-service" + '\u0000' + "/books" + "\u0000*\u0000", List.of(), new HttpHeaders(), response("a"));
+
+        assertThat(cache.invalidate(CacheKeys.pathKey(ROUTE, "/books"))).isZero();
+    }
+
+    @Test
+    void evictedEntriesLeaveThePathIndex() {
+        byte[] large = new byte[4 * 1024];
+        for (int i = 0; i < 64; i++) {
+            cache.put(key("*", "/books/" + i, ""), List.of(), new HttpHeaders(),
+                    new CachedResponse(HttpStatus.OK, new HttpHeaders(), large, TimeUnit.MINUTES.toNanos(1)));
+        }
+
+        assertThat(cache.invalidate(CacheKeys.pathKey(ROUTE, "/books"))).isLessThan(64);
+    }
+
+    @Test
+    void onlyKnownSizesWithinTheEntryLimitFit() {
+        assertThat(cache.fits(-1)).isFalse();
+        assertThat(cache.fits(0)).isFalse();
+        assertThat(cache.fits(4 * 1024)).isTrue();
+        assertThat(cache.fits(4 * 1024 + 1)).isFalse();
+    }
+
+    private static String key(String principal, String path, String query) {
+        return CacheKeys.pathKey(ROUTE, path) + '\u0000' + principal + '\u0000' + query;
+    }
+
+    private static HttpHeaders headers(String language) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_LANGUAGE, language);
+        return headers;
+    }
+
+    private static CachedResponse response(String body) {
+        return new CachedResponse(HttpStatus.OK, new HttpHeaders(), body.getBytes(), TimeUnit.MINUTES.toNanos(1));
+    }
+}
@@ -0,0 +1,169 @@
+package sn.noreyni.gateweyservice.composition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.circuitbreaker.ConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreaker;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+import sn.noreyni.gateweyservice.config.CompositionConfig;
+import sn.noreyni.gateweyservice.security.EdgeAuthenticationFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ComposeGatewayFilterFactoryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CompositionClient client = mock(CompositionClient.class);
+
+    @Test
+    void allLegsAreMergedIntoOneDocument() throws Exception {
+        answer("user-service", Mono.just(json("{\"name\":\"Awa\"}")));
+        answer("book-service", Mono.just(json("[1,2]")));
+
+        MockServerWebExchange exchange = compose();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getFirst(ComposeGatewayFilterFactory.PARTIAL_HEADER))
+                .isEqualTo("false");
+        JsonNode data = objectMapper.readTree(exchange.getResponse().getBodyAsString().block()).get("data");
+        assertThat(data.get("profile").get("name").asText()).isEqualTo("Awa");
+        assertThat(data.get("loans")).hasSize(2);
+    }
+
+    @Test
+    void failedOptionalLegIsReportedMissing() throws Exception {
+        answer("user-service", Mono.just(json("{\"name\":\"Awa\"}")));
+        answer("book-service", Mono.error(new CompositionClient.LegFailedException(HttpStatus.BAD_GATEWAY, null, null)));
+
+        MockServerWebExchange exchange = compose();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getFirst(ComposeGatewayFilterFactory.PARTIAL_HEADER))
+                .isEqualTo("true");
+        JsonNode body = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+        assertThat(body.get("error").get("details").get("loans").asText()).isEqualTo("HTTP_502");
+    }
+
+    @Test
+    void clientErrorOfRequiredLegIsPassedThrough() {
+        byte[] notFound = "{\"success\":false,\"error\":{\"code\":\"USER_404\"}}".getBytes(StandardCharsets.UTF_8);
+        answer("user-service", Mono.error(new CompositionClient.LegFailedException(HttpStatus.NOT_FOUND,
+                MediaType.APPLICATION_JSON, notFound)));
+        answer("book-service", Mono.just(json("[]")));
+
+        MockServerWebExchange exchange = compose();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(exchange.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("USER_404");
+    }
+
+    @Test
+    void serverErrorOfRequiredLegIsServiceUnavailable() {
+        answer("user-service", Mono.error(new CompositionClient.LegFailedException(HttpStatus.INTERNAL_SERVER_ERROR,
+                null, null)));
+        answer("book-service", Mono.just(json("[]")));
+
+        MockServerWebExchange exchange = compose();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("SERVICE_001");
+    }
+
+    @Test
+    void timedOutRequiredLegIsServiceUnavailable() {
+        answer("user-service", Mono.never());
+        answer("book-service", Mono.just(json("[]")));
+
+        MockServerWebExchange exchange = compose();
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private MockServerWebExchange compose() {
+        CompositionConfig composition = new CompositionConfig();
+        CompositionConfig.View view = new CompositionConfig.View();
+        view.setLegs(List.of(
+                new CompositionConfig.Leg("profile", "user-service", "/api/v1/users/{sub}", Duration.ofMillis(100), true),
+                new CompositionConfig.Leg("loans", "book-service", "/api/v1/loans?user={sub}", Duration.ofMillis(100), false)));
+        composition.setViews(Map.of("patron-dashboard", view));
+
+        ComposeGatewayFilterFactory factory = new ComposeGatewayFilterFactory(composition, client,
+                new PassThroughCircuitBreakers(), new ErrorResponseWriter(objectMapper), objectMapper,
+                new SimpleMeterRegistry());
+        ComposeGatewayFilterFactory.Config config = new ComposeGatewayFilterFactory.Config();
+        config.setView("patron-dashboard");
+        GatewayFilter filter = factory.apply(config);
+
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/dashboard"));
+        exchange.getAttributes().put(EdgeAuthenticationFilter.VERIFIED_JWT_ATTR, Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("user-1")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build());
+        filter.filter(exchange, ex -> Mono.empty()).block(Duration.ofSeconds(5));
+        return exchange;
+    }
+
+    private void answer(String serviceId, Mono<JsonNode> result) {
+        when(client.get(eq(serviceId), any(), any())).thenReturn(result);
+    }
+
+    private JsonNode json(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static final class PassThroughCircuitBreakers extends ReactiveCircuitBreakerFactory<Object, ConfigBuilder<Object>> {
+
+        @Override
+        public ReactiveCircuitBreaker create(String id) {
+            return new ReactiveCircuitBreaker() {
+                @Override
+                public <T> Mono<T> run(Mono<T> toRun, Function<Throwable, Mono<T>> fallback) {
+                    return toRun;
+                }
+
+                @Override
+                public <T> Flux<T> run(Flux<T> toRun, Function<Throwable, Flux<T>> fallback) {
+                    return toRun;
+                }
+            };
+        }
+
+        @Override
+        protected ConfigBuilder<Object> configBuilder(String id) {
+            return () -> null;
+        }
+
+        @Override
+        public void configureDefault(Function<String, Object> defaultConfiguration) {
+        }
+    }
+}
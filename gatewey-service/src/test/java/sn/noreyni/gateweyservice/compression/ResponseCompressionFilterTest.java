@@ -0,0 +1,117 @@
+package sn.noreyni.gateweyservice.compression;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.filter.StreamingGatewayFilterFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCompressionFilterTest {
+
+    private static final byte[] BODY = "{\"title\":\"Une si longue lettre\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(new ResponseCompressor(
+            List.of(new ResponseCompressor.Rule(MediaType.APPLICATION_JSON, 1024, 6, 4)), false, 64 * 1024, 1024 * 1024));
+
+    @Test
+    void acceptedCodingCompressesTheBodyAndWeakensTheETag() throws IOException {
+        MockServerWebExchange exchange = get("gzip");
+
+        filter.filter(exchange, answering(headers -> headers.setETag("\"v1\""))).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertThat(headers.getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(headers.getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(headers.getETag()).isEqualTo("W/\"v1\"");
+        byte[] sent = body(exchange);
+        assertThat(headers.getContentLength()).isEqualTo(sent.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(sent))) {
+            assertThat(in.readAllBytes()).isEqualTo(BODY);
+        }
+    }
+
+    @Test
+    void refusedCodingSendsIdentityButStillVaries() {
+        MockServerWebExchange exchange = get("gzip;q=0");
+
+        filter.filter(exchange, answering(headers -> { })).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertThat(headers.containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(headers.getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(body(exchange)).isEqualTo(BODY);
+    }
+
+    @Test
+    void alreadyEncodedResponsesAreLeftAlone() {
+        MockServerWebExchange exchange = get("gzip");
+
+        filter.filter(exchange, answering(headers -> headers.set(HttpHeaders.CONTENT_ENCODING, "br"))).block();
+
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("br");
+        assertThat(body(exchange)).isEqualTo(BODY);
+    }
+
+    @Test
+    void streamingRoutesAreLeftAlone() {
+        MockServerWebExchange exchange = get("gzip");
+        exchange.getAttributes().put(StreamingGatewayFilterFactory.STREAMING_ATTR, true);
+
+        filter.filter(exchange, answering(headers -> { })).block();
+
+        assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(body(exchange)).isEqualTo(BODY);
+    }
+
+    @Test
+    void bodiesOfUnknownLengthAreLeftAlone() {
+        MockServerWebExchange exchange = get("gzip");
+
+        filter.filter(exchange, answering(headers -> headers.remove(HttpHeaders.CONTENT_LENGTH))).block();
+
+        assertThat(exchange.getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(body(exchange)).isEqualTo(BODY);
+    }
+
+    private static MockServerWebExchange get(String acceptEncoding) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/books")
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+    }
+
+    private static GatewayFilterChain answering(Consumer<HttpHeaders> customizer) {
+        return exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            response.getHeaders().setContentLength(BODY.length);
+            customizer.accept(response.getHeaders());
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(BODY)));
+        };
+    }
+
+    private static byte[] body(MockServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block();
+    }
+}
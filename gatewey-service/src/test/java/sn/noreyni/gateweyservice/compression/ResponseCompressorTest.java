@@ -0,0 +1,85 @@
+package sn.noreyni.gateweyservice.compression;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ResponseCompressorTest {
+
+    private static final ResponseCompressor.Rule JSON = new ResponseCompressor.Rule(MediaType.APPLICATION_JSON, 1024, 6, 4);
+
+    private final ResponseCompressor gzipOnly = new ResponseCompressor(List.of(JSON), false, 64 * 1024, 1024 * 1024);
+
+    @Test
+    void ruleAppliesFromTheThresholdOfTheMatchingMediaType() {
+        assertThat(gzipOnly.ruleFor(MediaType.APPLICATION_JSON, 1024)).isEqualTo(JSON);
+        assertThat(gzipOnly.ruleFor(MediaType.APPLICATION_JSON, 1023)).isNull();
+        assertThat(gzipOnly.ruleFor(MediaType.IMAGE_PNG, 10_000)).isNull();
+    }
+
+    @Test
+    void bodiesOfUnknownOrExcessiveLengthAreNotCompressed() {
+        assertThat(gzipOnly.ruleFor(MediaType.APPLICATION_JSON, -1)).isNull();
+        assertThat(gzipOnly.ruleFor(MediaType.APPLICATION_JSON, 1024 * 1024 + 1)).isNull();
+        assertThat(gzipOnly.ruleFor(null, 4096)).isNull();
+    }
+
+    @Test
+    void negotiationHonoursQualityValues() {
+        assertThat(gzipOnly.negotiate(acceptEncoding("gzip, deflate"), gzipOnly.codings())).isEqualTo(ContentCoding.GZIP);
+        assertThat(gzipOnly.negotiate(acceptEncoding("gzip;q=0"), gzipOnly.codings())).isNull();
+        assertThat(gzipOnly.negotiate(acceptEncoding("*;q=0.5"), gzipOnly.codings())).isEqualTo(ContentCoding.GZIP);
+        assertThat(gzipOnly.negotiate(acceptEncoding("identity"), gzipOnly.codings())).isNull();
+        assertThat(gzipOnly.negotiate(new HttpHeaders(), gzipOnly.codings())).isNull();
+    }
+
+    @Test
+    void brotliIsPreferredAtEqualQualityWhenAvailable() {
+        ResponseCompressor compressor = new ResponseCompressor(List.of(JSON), true, 64 * 1024, 1024 * 1024);
+        assumeTrue(compressor.codings().contains(ContentCoding.BROTLI), "brotli native library not available");
+
+        assertThat(compressor.negotiate(acceptEncoding("gzip, br"), compressor.codings())).isEqualTo(ContentCoding.BROTLI);
+        assertThat(compressor.negotiate(acceptEncoding("gzip, br;q=0.5"), compressor.codings())).isEqualTo(ContentCoding.GZIP);
+        assertThat(compressor.negotiate(acceptEncoding("br"), EnumSet.of(ContentCoding.GZIP))).isNull();
+    }
+
+    @Test
+    void gzipRoundTrips() throws IOException {
+        byte[] body = "{\"title\":\"Une si longue lettre\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = gzipOnly.compress(body, ContentCoding.GZIP, JSON).block();
+
+        assertThat(compressed).hasSizeLessThan(body.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(in.readAllBytes()).isEqualTo(body);
+        }
+    }
+
+    @Test
+    void largeBodiesAreCompressedOffTheCallingThread() {
+        ResponseCompressor compressor = new ResponseCompressor(List.of(JSON), false, 16, 1024 * 1024);
+        Thread caller = Thread.currentThread();
+
+        Thread worker = compressor.compress(new byte[64], ContentCoding.GZIP, JSON)
+                .map(ignored -> Thread.currentThread())
+                .block();
+
+        assertThat(worker).isNotEqualTo(caller);
+    }
+
+    private static HttpHeaders acceptEncoding(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, value);
+        return headers;
+    }
+}
@@ -0,0 +1,72 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTest {
+
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter(
+            new GradientLimit(2, 1, 10, 0.2, 1.5, 0.9, 600, Duration.ofSeconds(1).toNanos(), 10, System.nanoTime()),
+            new WeightedFairQueue<>(new int[]{4, 1}, new int[]{8, 8}));
+
+    @Test
+    void callsOverTheLimitAreShedWithoutAWait() {
+        assertThat(limiter.acquire(0, Duration.ZERO).block()).isEqualTo(1);
+        assertThat(limiter.acquire(0, Duration.ZERO).block()).isEqualTo(2);
+
+        assertThat(limiter.acquire(0, Duration.ZERO).block()).isNull();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void releasedSlotGoesStraightToTheWaiter() {
+        limiter.acquire(0, Duration.ZERO).block();
+        limiter.acquire(0, Duration.ZERO).block();
+        AtomicReference<Integer> granted = new AtomicReference<>();
+        limiter.acquire(0, Duration.ofSeconds(5)).subscribe(granted::set);
+        assertThat(limiter.queued()).isEqualTo(1);
+
+        limiter.releaseIgnored();
+
+        assertThat(granted.get()).isEqualTo(2);
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void waiterGivesUpAfterMaxWait() {
+        limiter.acquire(0, Duration.ZERO).block();
+        limiter.acquire(0, Duration.ZERO).block();
+
+        assertThat(limiter.acquire(0, Duration.ofMillis(20)).block(Duration.ofSeconds(5))).isNull();
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    void cancelledWaiterLeavesTheQueueAndHoldsNoSlot() {
+        limiter.acquire(0, Duration.ZERO).block();
+        limiter.acquire(0, Duration.ZERO).block();
+        Disposable waiting = limiter.acquire(0, Duration.ofSeconds(5)).subscribe();
+
+        waiting.dispose();
+        limiter.releaseIgnored();
+        limiter.releaseIgnored();
+
+        assertThat(limiter.queued()).isZero();
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void releaseFreesTheSlotWhenNobodyWaits() {
+        limiter.acquire(0, Duration.ZERO).block();
+
+        limiter.release(System.nanoTime(), 1, false);
+
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
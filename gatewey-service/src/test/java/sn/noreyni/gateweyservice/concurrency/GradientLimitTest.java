@@ -0,0 +1,66 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradientLimitTest {
+
+    private static final long WINDOW = 1_000;
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final GradientLimit limit = new GradientLimit(20, 5, 100, 1.0, 1.5, 0.9, 600, WINDOW, 1, 0);
+
+    @Test
+    void steadyLatencyUnderLoadGrowsTheLimitByItsSquareRoot() {
+        limit.onSample(WINDOW, RTT, 20, false);
+
+        assertThat(limit.limit()).isEqualTo((int) (20 + Math.sqrt(20)));
+    }
+
+    @Test
+    void inflatedLatencyShrinksTheLimit() {
+        limit.onSample(WINDOW, RTT, 20, false);
+        int grown = limit.limit();
+
+        limit.onSample(2 * WINDOW, 4 * RTT, grown, false);
+
+        assertThat(limit.limit()).isLessThan(grown).isGreaterThanOrEqualTo(grown / 2);
+    }
+
+    @Test
+    void droppedCallBacksTheLimitOff() {
+        limit.onSample(WINDOW, RTT, 1, true);
+
+        assertThat(limit.limit()).isEqualTo(18);
+    }
+
+    @Test
+    void lightTrafficTeachesNothing() {
+        limit.onSample(WINDOW, RTT, 3, false);
+
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void limitIsOnlyUpdatedOncePerWindow() {
+        limit.onSample(WINDOW / 2, RTT, 20, true);
+
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void limitStaysWithinItsBounds() {
+        for (int i = 1; i <= 100; i++) {
+            limit.onSample(i * WINDOW, RTT, 100, true);
+        }
+        assertThat(limit.limit()).isEqualTo(5);
+
+        for (int i = 101; i <= 300; i++) {
+            limit.onSample(i * WINDOW, RTT, 100, false);
+        }
+        assertThat(limit.limit()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,81 @@
+package sn.noreyni.gateweyservice.concurrency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import sn.noreyni.gateweyservice.security.EdgeAuthenticationFilter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityClassifierTest {
+
+    private final PriorityClassifier classifier = new PriorityClassifier(
+            List.of("LIBRARIAN"),
+            List.of("/user-service/api/v1/auth/**"),
+            List.of("/user-service/api/v1/users/all"),
+            true);
+
+    @Test
+    void anonymousLoginIsStandardNotCritical() {
+        assertThat(classify("/user-service/api/v1/auth/login", null)).isEqualTo(PriorityClass.STANDARD);
+    }
+
+    @Test
+    void authenticatedCallToAuthPathIsCritical() {
+        assertThat(classify("/user-service/api/v1/auth/refresh", jwt("patron", List.of("MEMBER"))))
+                .isEqualTo(PriorityClass.CRITICAL);
+    }
+
+    @Test
+    void anonymousCallElsewhereIsAnonymous() {
+        assertThat(classify("/book-service/api/v1/books", null)).isEqualTo(PriorityClass.ANONYMOUS);
+    }
+
+    @Test
+    void staffRoleIsCritical() {
+        assertThat(classify("/book-service/api/v1/books", jwt("librarian", List.of("LIBRARIAN"))))
+                .isEqualTo(PriorityClass.CRITICAL);
+    }
+
+    @Test
+    void serviceAccountIsBatch() {
+        assertThat(classify("/book-service/api/v1/books", jwt("service-account-catalog", List.of())))
+                .isEqualTo(PriorityClass.BATCH);
+    }
+
+    @Test
+    void batchPathWinsOverStaffRole() {
+        assertThat(classify("/user-service/api/v1/users/all", jwt("librarian", List.of("LIBRARIAN"))))
+                .isEqualTo(PriorityClass.BATCH);
+    }
+
+    @Test
+    void otherTokenIsStandard() {
+        assertThat(classify("/book-service/api/v1/books", jwt("patron", List.of("MEMBER"))))
+                .isEqualTo(PriorityClass.STANDARD);
+    }
+
+    private PriorityClass classify(String path, Jwt jwt) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        if (jwt != null) {
+            exchange.getAttributes().put(EdgeAuthenticationFilter.VERIFIED_JWT_ATTR, jwt);
+        }
+        return classifier.classify(exchange);
+    }
+
+    private static Jwt jwt(String username, List<String> roles) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject(username + "-id")
+                .claim("preferred_username", username)
+                .claim("realm_access", Map.of("roles", roles))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+    }
+}
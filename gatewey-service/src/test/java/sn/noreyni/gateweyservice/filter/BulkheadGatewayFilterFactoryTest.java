@@ -0,0 +1,90 @@
+package sn.noreyni.gateweyservice.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadGatewayFilterFactoryTest {
+
+    private final BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+    private final BulkheadGatewayFilterFactory factory = new BulkheadGatewayFilterFactory(registry);
+    private final GatewayFilter bulkhead = bulkhead("book-service", 1);
+
+    @Test
+    void callOverTheLimitIsRejected() {
+        Disposable inFlight = bulkhead.filter(exchange(), exchange -> Mono.never()).subscribe();
+
+        assertThatThrownBy(() -> bulkhead.filter(exchange(), exchange -> Mono.empty()).block())
+                .isInstanceOf(BulkheadFullException.class);
+        inFlight.dispose();
+    }
+
+    @Test
+    void cancelledCallReleasesItsPermit() {
+        bulkhead.filter(exchange(), exchange -> Mono.never()).subscribe().dispose();
+
+        assertThatCode(() -> bulkhead.filter(exchange(), exchange -> Mono.empty()).block())
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void failedCallReleasesItsPermit() {
+        assertThatThrownBy(() -> bulkhead.filter(exchange(), exchange -> Mono.error(new IllegalStateException()))
+                .block()).isInstanceOf(IllegalStateException.class);
+
+        assertThatCode(() -> bulkhead.filter(exchange(), exchange -> Mono.empty()).block())
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void bulkheadIsRegisteredInTheSharedRegistry() {
+        assertThat(registry.find("book-service"))
+                .hasValueSatisfying(registered -> assertThat(registered.getBulkheadConfig().getMaxConcurrentCalls()).isEqualTo(1));
+    }
+
+    @Test
+    void refreshWithTheSameLimitsKeepsTheBulkhead() {
+        Bulkhead before = registry.bulkhead("book-service");
+        Disposable inFlight = bulkhead.filter(exchange(), exchange -> Mono.never()).subscribe();
+
+        GatewayFilter refreshed = bulkhead("book-service", 1);
+
+        assertThat(registry.bulkhead("book-service")).isSameAs(before);
+        assertThatThrownBy(() -> refreshed.filter(exchange(), exchange -> Mono.empty()).block())
+                .isInstanceOf(BulkheadFullException.class);
+        inFlight.dispose();
+    }
+
+    @Test
+    void refreshWithNewLimitsReplacesTheBulkhead() {
+        Disposable inFlight = bulkhead.filter(exchange(), exchange -> Mono.never()).subscribe();
+
+        GatewayFilter refreshed = bulkhead("book-service", 2);
+
+        assertThat(registry.bulkhead("book-service").getBulkheadConfig().getMaxConcurrentCalls()).isEqualTo(2);
+        assertThatCode(() -> refreshed.filter(exchange(), exchange -> Mono.empty()).block())
+                .doesNotThrowAnyException();
+        inFlight.dispose();
+    }
+
+    private GatewayFilter bulkhead(String name, int maxConcurrentCalls) {
+        BulkheadGatewayFilterFactory.Config config = new BulkheadGatewayFilterFactory.Config();
+        config.setName(name);
+        config.setMaxConcurrentCalls(maxConcurrentCalls);
+        return factory.apply(config);
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/book-service/api/v1/books"));
+    }
+}
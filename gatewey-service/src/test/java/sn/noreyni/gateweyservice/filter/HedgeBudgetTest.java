@@ -0,0 +1,46 @@
+package sn.noreyni.gateweyservice.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgeBudgetTest {
+
+    @Test
+    void noHedgeBeforeEnoughRequestsEarnedOne() {
+        HedgeBudget budget = new HedgeBudget(10, 10);
+
+        for (int i = 0; i < 9; i++) {
+            budget.onRequest();
+        }
+        assertThat(budget.tryAcquire()).isFalse();
+
+        budget.onRequest();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void unspentHedgesAreCappedAtTheBurst() {
+        HedgeBudget budget = new HedgeBudget(50, 2);
+
+        for (int i = 0; i < 100; i++) {
+            budget.onRequest();
+        }
+
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void zeroPercentNeverHedges() {
+        HedgeBudget budget = new HedgeBudget(0, 10);
+
+        for (int i = 0; i < 1_000; i++) {
+            budget.onRequest();
+        }
+
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+}
@@ -0,0 +1,165 @@
+package sn.noreyni.gateweyservice.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import sn.noreyni.gateweyservice.support.ProxyChain;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgedRequestGatewayFilterFactoryTest {
+
+    private static final AtomicInteger backendCalls = new AtomicInteger();
+    private static DisposableServer backend;
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * {@code /slow/{ms}} answers after that long; {@code /books} answers after a second on its
+     * first call and at once on the next ones
+     */
+    @BeforeAll
+    static void startBackend() {
+        backend = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/slow/{ms}", (request, response) -> Mono.delay(Duration.ofMillis(Long.parseLong(request.param("ms"))))
+                                .then(response.sendString(Mono.just("warm-up")).then()))
+                        .get("/books", (request, response) -> backendCalls.getAndIncrement() == 0
+                                ? Mono.delay(Duration.ofSeconds(1)).then(response.sendString(Mono.just("slow")).then())
+                                : response.sendString(Mono.just("fast")).then()))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndTheFirstAnswerWins() {
+        GatewayFilter filter = hedging(100);
+        warmUp(filter);
+
+        MockServerWebExchange exchange = get();
+        filter.filter(exchange, slowThenFast()).block(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(2);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("fast");
+    }
+
+    @Test
+    void noHedgeWithoutBudget() {
+        GatewayFilter filter = hedging(0);
+        warmUp(filter);
+
+        MockServerWebExchange exchange = get();
+        filter.filter(exchange, slowThenFast()).block(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(1);
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("slow");
+    }
+
+    @Test
+    void noHedgeBeforeMinSamples() {
+        GatewayFilter filter = hedging(100);
+
+        filter.filter(get(), slowThenFast()).block(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void hedgeWinsThroughTheRoutingAndWriteFilters() {
+        WebTestClient client = new ProxyChain("http://localhost:" + backend.port(), hedging(100)).client();
+        client.get().uri("/slow/1").exchange().expectBody(String.class).isEqualTo("warm-up");
+        backendCalls.set(0);
+
+        long start = System.nanoTime();
+        client.get().uri("/books").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("fast");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(900));
+        assertThat(backendCalls).hasValue(2);
+        assertThat(hedges("sent")).isEqualTo(1);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void answeredPrimaryIsNotHeldBackByTheHedgeDelay() {
+        WebTestClient client = new ProxyChain("http://localhost:" + backend.port(), hedging(100)).client();
+        client.get().uri("/slow/1500").exchange().expectBody(String.class).isEqualTo("warm-up");
+        backendCalls.set(1);
+
+        long start = System.nanoTime();
+        client.get().uri("/books").exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("fast");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1000));
+        assertThat(backendCalls).hasValue(2);
+        assertThat(hedges("sent")).isZero();
+    }
+
+    private double hedges(String result) {
+        Counter counter = meterRegistry.find("gateway.hedging.requests").tag("result", result).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private GatewayFilter hedging(double maxExtraLoadPercent) {
+        HedgedRequestGatewayFilterFactory.Config config = new HedgedRequestGatewayFilterFactory.Config();
+        config.setMinSamples(1);
+        config.setWindowSize(8);
+        config.setMinDelay(Duration.ofMillis(10));
+        config.setMaxExtraLoadPercent(maxExtraLoadPercent);
+        config.setBurst(1);
+        return new HedgedRequestGatewayFilterFactory(meterRegistry).apply(config);
+    }
+
+    private void warmUp(GatewayFilter filter) {
+        filter.filter(get(), exchange -> write(exchange.getResponse(), "warm-up")).block(Duration.ofSeconds(5));
+        attempts.set(0);
+    }
+
+    /**
+     * The first attempt answers after a second, any later one at once
+     */
+    private GatewayFilterChain slowThenFast() {
+        return exchange -> attempts.getAndIncrement() == 0
+                ? Mono.delay(Duration.ofSeconds(1)).then(write(exchange.getResponse(), "slow"))
+                : write(exchange.getResponse(), "fast");
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, String body) {
+        return Mono.defer(() -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentLength(bytes.length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+        });
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/book-service/api/v1/books"));
+    }
+}
@@ -0,0 +1,115 @@
+package sn.noreyni.gateweyservice.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentRetryGatewayFilterFactoryTest {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void retryableStatusIsRetriedUntilItSucceeds() {
+        MockServerWebExchange exchange = exchange(HttpMethod.GET);
+
+        retry(2).filter(exchange, answering(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.OK))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(3);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void lastUpstreamResponseIsKeptOnceRetriesAreExhausted() {
+        MockServerWebExchange exchange = exchange(HttpMethod.GET);
+
+        retry(1).filter(exchange, answering(HttpStatus.BAD_GATEWAY, HttpStatus.BAD_GATEWAY, HttpStatus.OK))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(2);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+    }
+
+    @Test
+    void ioErrorIsRetried() {
+        GatewayFilterChain failingOnce = exchange -> attempts.getAndIncrement() == 0
+                ? Mono.error(new IOException("Connection reset"))
+                : Mono.empty();
+
+        retry(2).filter(exchange(HttpMethod.GET), failingOnce).block(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void nonIdempotentRequestIsNeverReplayed() {
+        retry(2).filter(exchange(HttpMethod.POST), answering(HttpStatus.SERVICE_UNAVAILABLE, HttpStatus.OK))
+                .block(Duration.ofSeconds(5));
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void cancellationStopsTheRetries() throws InterruptedException {
+        IdempotentRetryGatewayFilterFactory.Config config = config(5);
+        config.setFirstBackoff(Duration.ofMillis(200));
+        config.setMaxBackoff(Duration.ofMillis(200));
+
+        new IdempotentRetryGatewayFilterFactory().apply(config)
+                .filter(exchange(HttpMethod.GET), answering(HttpStatus.SERVICE_UNAVAILABLE))
+                .subscribe()
+                .dispose();
+        Thread.sleep(400);
+
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void configuringABodyMethodIsRefused() {
+        IdempotentRetryGatewayFilterFactory.Config config = config(1);
+        config.setMethods(List.of(HttpMethod.POST));
+
+        assertThatThrownBy(() -> new IdempotentRetryGatewayFilterFactory().apply(config))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private GatewayFilter retry(int retries) {
+        return new IdempotentRetryGatewayFilterFactory().apply(config(retries));
+    }
+
+    private static IdempotentRetryGatewayFilterFactory.Config config(int retries) {
+        IdempotentRetryGatewayFilterFactory.Config config = new IdempotentRetryGatewayFilterFactory.Config();
+        config.setRetries(retries);
+        config.setFirstBackoff(Duration.ofMillis(1));
+        config.setMaxBackoff(Duration.ofMillis(5));
+        return config;
+    }
+
+    /**
+     * One status per attempt, the last one repeated
+     */
+    private GatewayFilterChain answering(HttpStatus... statuses) {
+        return exchange -> {
+            int attempt = attempts.getAndIncrement();
+            exchange.getResponse().setStatusCode(statuses[Math.min(attempt, statuses.length - 1)]);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange(HttpMethod method) {
+        return MockServerWebExchange.from(MockServerHttpRequest.method(method, "/book-service/api/v1/books"));
+    }
+}
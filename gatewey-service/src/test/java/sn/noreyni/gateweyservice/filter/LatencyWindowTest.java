@@ -0,0 +1,42 @@
+package sn.noreyni.gateweyservice.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyWindowTest {
+
+    @Test
+    void noQuantileBeforeMinSamples() {
+        LatencyWindow window = new LatencyWindow(100, 0);
+        for (int i = 1; i < 10; i++) {
+            window.record(i);
+        }
+
+        assertThat(window.quantile(0.9, 10)).isEqualTo(-1);
+    }
+
+    @Test
+    void quantileOfTheRecordedLatencies() {
+        LatencyWindow window = new LatencyWindow(100, 0);
+        for (int i = 100; i >= 1; i--) {
+            window.record(i);
+        }
+
+        assertThat(window.quantile(0.95, 10)).isEqualTo(95);
+        assertThat(window.quantile(0.5, 10)).isEqualTo(50);
+    }
+
+    @Test
+    void oldestSamplesLeaveTheWindow() {
+        LatencyWindow window = new LatencyWindow(10, 0);
+        for (int i = 0; i < 10; i++) {
+            window.record(1_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            window.record(10);
+        }
+
+        assertThat(window.quantile(0.99, 10)).isEqualTo(10);
+    }
+}
@@ -0,0 +1,237 @@
+package sn.noreyni.gateweyservice.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import sn.noreyni.gateweyservice.common.ErrorResponseWriter;
+import sn.noreyni.gateweyservice.support.ProxyChain;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
+/**
+ * Through the real routing and write-response filters, against a backend started per class.
+ * Bodies are generated on demand on both sides; how far the producer gets ahead of the consumer
+ * shows whether the gateway streams or buffers.
+ */
+class StreamingGatewayFilterFactoryTest {
+
+    private static final int CHUNK = 64 * 1024;
+    private static final byte[] CHUNK_BYTES = new byte[CHUNK];
+    /**
+     * Socket buffers and prefetch on both hops, far below the bodies streamed here
+     */
+    private static final long MAX_IN_FLIGHT = DataSize.ofMegabytes(32).toBytes();
+
+    private static final AtomicLong received = new AtomicLong();
+    private static final AtomicInteger uploads = new AtomicInteger();
+    private static volatile BodySource download;
+    private static DisposableServer backend;
+
+    private final StreamingGatewayFilterFactory factory =
+            new StreamingGatewayFilterFactory(new ErrorResponseWriter(new ObjectMapper().findAndRegisterModules()));
+    private final AtomicLong sent = new AtomicLong();
+
+    /**
+     * {@code import} reads the whole request body and answers its size; {@code export} sends
+     * {@link #download} chunked, {@code export/declared} with its Content-Length
+     */
+    @BeforeAll
+    static void startBackend() {
+        backend = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .post("/book-service/api/v1/catalog/import", (request, response) -> {
+                            uploads.incrementAndGet();
+                            return request.receive()
+                                    .doOnNext(buffer -> received.addAndGet(buffer.readableBytes()))
+                                    .then(Mono.defer(() -> response.sendString(Mono.just(Long.toString(received.get()))).then()));
+                        })
+                        .get("/book-service/api/v1/catalog/export", (request, response) ->
+                                response.send(download.byteBufs()))
+                        .get("/book-service/api/v1/catalog/export/declared", (request, response) -> response
+                                .header(HttpHeaders.CONTENT_LENGTH, Long.toString(download.size))
+                                .send(download.byteBufs())))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @BeforeEach
+    void reset() {
+        received.set(0);
+        uploads.set(0);
+    }
+
+    @Test
+    void largeRequestBodyIsStreamedToTheBackend() {
+        BodySource upload = new BodySource(DataSize.ofMegabytes(512).toBytes(), received::get);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/book-service/api/v1/catalog/import").body(upload.dataBuffers()));
+
+        proxy(DataSize.ofGigabytes(1), DataSize.ofGigabytes(1)).handle(exchange).block(Duration.ofMinutes(1));
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(received).hasValue(DataSize.ofMegabytes(512).toBytes());
+        assertThat(upload.maxAhead()).isLessThanOrEqualTo(MAX_IN_FLIGHT);
+        assertThat(StreamingGatewayFilterFactory.isStreaming(exchange)).isTrue();
+    }
+
+    @Test
+    void largeResponseBodyIsStreamedToTheClient() {
+        download = new BodySource(DataSize.ofMegabytes(512).toBytes(), sent::get);
+        MockServerWebExchange exchange = countingWrites(MockServerWebExchange.from(
+                MockServerHttpRequest.get("/book-service/api/v1/catalog/export")));
+
+        proxy(DataSize.ofGigabytes(1), DataSize.ofGigabytes(1)).handle(exchange).block(Duration.ofMinutes(1));
+
+        assertThat(sent).hasValue(DataSize.ofMegabytes(512).toBytes());
+        assertThat(download.maxAhead()).isLessThanOrEqualTo(MAX_IN_FLIGHT);
+    }
+
+    @Test
+    void declaredRequestLengthOverTheLimitIsRejectedUpFront() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/book-service/api/v1/catalog/import")
+                .contentLength(DataSize.ofMegabytes(2).toBytes())
+                .body(Flux.empty()));
+
+        proxy(DataSize.ofMegabytes(1), DataSize.ofGigabytes(1)).handle(exchange).block(Duration.ofSeconds(10));
+
+        assertThat(uploads).hasValue(0);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("GATEWAY_005");
+    }
+
+    @Test
+    void chunkedRequestIsCutWhenItCrossesTheLimit() {
+        BodySource upload = new BodySource(DataSize.ofMegabytes(8).toBytes(), received::get);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.post("/book-service/api/v1/catalog/import").body(upload.dataBuffers()));
+
+        proxy(DataSize.ofMegabytes(1), DataSize.ofGigabytes(1)).handle(exchange).block(Duration.ofSeconds(10));
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONNECTION)).isEqualTo("close");
+        assertThat(upload.produced()).isLessThanOrEqualTo(DataSize.ofMegabytes(1).toBytes() + CHUNK);
+    }
+
+    @Test
+    void declaredResponseLengthOverTheLimitIsABadGateway() {
+        download = new BodySource(DataSize.ofMegabytes(2).toBytes(), sent::get);
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/book-service/api/v1/catalog/export/declared"));
+
+        proxy(DataSize.ofGigabytes(1), DataSize.ofMegabytes(1)).handle(exchange).block(Duration.ofSeconds(10));
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+        assertThat(exchange.getResponse().getBodyAsString().block()).contains("GATEWAY_006");
+    }
+
+    @Test
+    void chunkedResponseIsCutWhenItCrossesTheLimit() {
+        download = new BodySource(DataSize.ofMegabytes(64).toBytes(), sent::get);
+        MockServerWebExchange exchange = countingWrites(MockServerWebExchange.from(
+                MockServerHttpRequest.get("/book-service/api/v1/catalog/export")));
+        ProxyChain proxy = proxy(DataSize.ofGigabytes(1), DataSize.ofMegabytes(1));
+
+        assertThatThrownBy(() -> proxy.handle(exchange).block(Duration.ofSeconds(10)))
+                .isInstanceOf(StreamingGatewayFilterFactory.BodyTooLargeException.class);
+        assertThat(exchange.getResponse().getStatusCode()).isNotEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(sent.get()).isLessThanOrEqualTo(DataSize.ofMegabytes(1).toBytes());
+        assertThat(download.produced()).isLessThan(DataSize.ofMegabytes(64).toBytes());
+    }
+
+    /**
+     * Bulk routes have no response timeout, as in the gateway configuration
+     */
+    private ProxyChain proxy(DataSize maxRequestSize, DataSize maxResponseSize) {
+        StreamingGatewayFilterFactory.Config config = new StreamingGatewayFilterFactory.Config();
+        config.setMaxRequestSize(maxRequestSize);
+        config.setMaxResponseSize(maxResponseSize);
+        return new ProxyChain("http://localhost:" + backend.port(), Map.of(RESPONSE_TIMEOUT_ATTR, -1),
+                factory.apply(config));
+    }
+
+    private MockServerWebExchange countingWrites(MockServerWebExchange exchange) {
+        exchange.getResponse().setWriteHandler(body -> body
+                .doOnNext(buffer -> {
+                    sent.addAndGet(buffer.readableByteCount());
+                    DataBufferUtils.release(buffer);
+                })
+                .then());
+        return exchange;
+    }
+
+    /**
+     * Body generated on demand from one shared array, recording how far production got ahead
+     * of what the other end has consumed
+     */
+    private static final class BodySource {
+
+        private final long size;
+        private final LongSupplier consumed;
+        private final AtomicLong produced = new AtomicLong();
+        private final AtomicLong maxAhead = new AtomicLong();
+
+        BodySource(long size, LongSupplier consumed) {
+            this.size = size;
+            this.consumed = consumed;
+        }
+
+        Flux<DataBuffer> dataBuffers() {
+            return generate(() -> DefaultDataBufferFactory.sharedInstance.wrap(CHUNK_BYTES));
+        }
+
+        Flux<ByteBuf> byteBufs() {
+            return generate(() -> Unpooled.wrappedBuffer(CHUNK_BYTES));
+        }
+
+        private <T> Flux<T> generate(Supplier<T> chunk) {
+            return Flux.generate(sink -> {
+                if (produced.get() >= size) {
+                    sink.complete();
+                    return;
+                }
+                long total = produced.addAndGet(CHUNK);
+                maxAhead.accumulateAndGet(total - consumed.getAsLong(), Math::max);
+                sink.next(chunk.get());
+            });
+        }
+
+        long produced() {
+            return produced.get();
+        }
+
+        long maxAhead() {
+            return maxAhead.get();
+        }
+    }
+}
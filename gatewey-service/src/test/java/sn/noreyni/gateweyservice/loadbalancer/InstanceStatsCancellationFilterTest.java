@@ -0,0 +1,58 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+class InstanceStatsCancellationFilterTest {
+
+    private final InstanceStatsRegistry registry =
+            new InstanceStatsRegistry(Duration.ofMillis(50), Duration.ofSeconds(10), Duration.ofSeconds(5));
+    private final InstanceStatsCancellationFilter filter = new InstanceStatsCancellationFilter(registry);
+    private final ServiceInstance instance =
+            new DefaultServiceInstance("book-service-1", "book-service", "10.0.0.1", 8082, false);
+
+    @Test
+    void cancelledCallReleasesTheChosenInstance() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/books"));
+        Disposable call = filter.filter(exchange, ex -> {
+            ex.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instance));
+            registry.get(instance).requestStarted();
+            return Mono.never();
+        }).subscribe();
+
+        assertThat(registry.get(instance).inFlight()).isEqualTo(1);
+        call.dispose();
+        assertThat(registry.get(instance).inFlight()).isZero();
+    }
+
+    @Test
+    void completedCallIsLeftToTheLoadBalancerLifecycle() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/books"));
+        registry.get(instance).requestStarted();
+        exchange.getAttributes().put(GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(instance));
+
+        filter.filter(exchange, ex -> Mono.empty()).block();
+
+        assertThat(registry.get(instance).inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void cancellationBeforeAnInstanceWasChosenIsIgnored() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/books"));
+
+        filter.filter(exchange, ex -> Mono.never()).subscribe().dispose();
+
+        assertThat(registry.snapshot()).isEmpty();
+    }
+}
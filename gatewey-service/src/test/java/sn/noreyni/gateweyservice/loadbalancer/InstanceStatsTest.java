@@ -0,0 +1,67 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class InstanceStatsTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long DECAY = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void slowerSampleReplacesTheAverageAtOnce() {
+        InstanceStats stats = new InstanceStats(20 * MS, DECAY, 0);
+
+        stats.observe(100 * MS, MS);
+
+        assertThat(stats.latencyMillis()).isEqualTo(100, within(1e-9));
+    }
+
+    @Test
+    void fasterSamplesPullTheAverageDownOverTheDecay() {
+        InstanceStats stats = new InstanceStats(100 * MS, DECAY, 0);
+
+        stats.observe(10 * MS, DECAY);
+
+        double weight = Math.exp(-1);
+        assertThat(stats.latencyMillis()).isEqualTo(100 * weight + 10 * (1 - weight), within(1e-6));
+    }
+
+    @Test
+    void costGrowsWithTheRequestsInFlight() {
+        InstanceStats stats = new InstanceStats(20 * MS, DECAY, 0);
+        double idle = stats.cost();
+
+        stats.requestStarted();
+        stats.requestStarted();
+
+        assertThat(stats.inFlight()).isEqualTo(2);
+        assertThat(stats.cost()).isEqualTo(3 * idle, within(1e-6));
+    }
+
+    @Test
+    void finishedRequestLeavesTheInFlightCount() {
+        InstanceStats stats = new InstanceStats(20 * MS, DECAY, 0);
+        stats.requestStarted();
+
+        stats.requestFinished(20 * MS, false, 5_000 * MS, MS);
+
+        assertThat(stats.inFlight()).isZero();
+        assertThat(stats.isCoolingDown(2 * MS)).isFalse();
+    }
+
+    @Test
+    void failureCoolsTheInstanceDown() {
+        InstanceStats stats = new InstanceStats(20 * MS, DECAY, 0);
+        stats.requestStarted();
+
+        stats.requestFinished(20 * MS, true, 5_000 * MS, MS);
+
+        assertThat(stats.isCoolingDown(4_000 * MS)).isTrue();
+        assertThat(stats.isCoolingDown(5_002 * MS)).isFalse();
+    }
+}
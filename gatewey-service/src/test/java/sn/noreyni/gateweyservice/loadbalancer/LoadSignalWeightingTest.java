@@ -0,0 +1,63 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LoadSignalWeightingTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private final LoadSignalWeighting weighting =
+            new LoadSignalWeighting(true, Duration.ofSeconds(90), 10, 2.0, Duration.ofMillis(100));
+
+    @Test
+    void publishedSignalsMultiplyTheCost() {
+        double factor = weighting.factor(instance(Map.of(
+                LoadSignalWeighting.IN_FLIGHT_METADATA, "10",
+                LoadSignalWeighting.POOL_SATURATION_METADATA, "0.5",
+                LoadSignalWeighting.P99_METADATA, "100")), NOW);
+
+        assertThat(factor).isCloseTo(2 * 2 * 2, within(1e-9));
+    }
+
+    @Test
+    void nonFiniteSaturationCountsAsAbsent() {
+        for (String value : new String[]{"NaN", "Infinity", "-Infinity"}) {
+            double factor = weighting.factor(instance(Map.of(LoadSignalWeighting.POOL_SATURATION_METADATA, value)), NOW);
+
+            assertThat(factor).as(value).isEqualTo(1.0);
+        }
+    }
+
+    @Test
+    void saturationIsClampedToOne() {
+        double factor = weighting.factor(instance(Map.of(LoadSignalWeighting.POOL_SATURATION_METADATA, "7")), NOW);
+
+        assertThat(factor).isEqualTo(3.0);
+    }
+
+    @Test
+    void staleOrMissingSignalsAreIgnored() {
+        Map<String, String> stale = new HashMap<>(Map.of(LoadSignalWeighting.IN_FLIGHT_METADATA, "100"));
+        stale.put(LoadSignalWeighting.UPDATED_AT_METADATA, String.valueOf(NOW - Duration.ofMinutes(5).toMillis()));
+
+        assertThat(weighting.factor(new DefaultServiceInstance("book-1", "book-service", "10.0.0.1", 8080, false, stale), NOW))
+                .isEqualTo(1.0);
+        assertThat(weighting.factor(new DefaultServiceInstance("book-2", "book-service", "10.0.0.2", 8080, false), NOW))
+                .isEqualTo(1.0);
+    }
+
+    private static ServiceInstance instance(Map<String, String> signals) {
+        Map<String, String> metadata = new HashMap<>(signals);
+        metadata.put(LoadSignalWeighting.UPDATED_AT_METADATA, String.valueOf(NOW));
+        return new DefaultServiceInstance("book-1", "book-service", "10.0.0.1", 8080, false, metadata);
+    }
+}
@@ -0,0 +1,76 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PeakEwmaLoadBalancerTest {
+
+    private final InstanceStatsRegistry registry =
+            new InstanceStatsRegistry(Duration.ofMillis(20), Duration.ofSeconds(10), Duration.ofSeconds(5));
+    private final PeakEwmaLoadBalancer loadBalancer = new PeakEwmaLoadBalancer(null, "book-service", registry,
+            new LoadSignalWeighting(false, Duration.ofMinutes(5), 50, 2, Duration.ofMillis(500)));
+
+    private final ServiceInstance fast = instance("book-1", Map.of());
+    private final ServiceInstance slow = instance("book-2", Map.of());
+
+    @Test
+    void lowerCostOfTheTwoCandidatesIsChosen() {
+        registry.get(slow).observe(Duration.ofMillis(200).toNanos(), System.nanoTime());
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose(List.of(fast, slow), null).getServer()).isEqualTo(fast);
+        }
+    }
+
+    @Test
+    void requestsInFlightMakeAnInstanceMoreExpensive() {
+        registry.get(fast).requestStarted();
+        registry.get(fast).requestStarted();
+
+        assertThat(loadBalancer.choose(List.of(fast, slow), null).getServer()).isEqualTo(slow);
+    }
+
+    @Test
+    void instanceCoolingDownIsSkipped() {
+        registry.get(slow).observe(Duration.ofMillis(200).toNanos(), System.nanoTime());
+        registry.get(fast).requestStarted();
+        registry.get(fast).requestFinished(0, true, Duration.ofSeconds(5).toNanos(), System.nanoTime());
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(loadBalancer.choose(List.of(fast, slow), null).getServer()).isEqualTo(slow);
+        }
+    }
+
+    @Test
+    void excludedInstanceIsAvoidedWhenAnotherExists() {
+        registry.get(slow).observe(Duration.ofMillis(200).toNanos(), System.nanoTime());
+
+        assertThat(loadBalancer.choose(List.of(fast, slow), fast).getServer()).isEqualTo(slow);
+        assertThat(loadBalancer.choose(List.of(fast), fast).getServer()).isEqualTo(fast);
+    }
+
+    @Test
+    void statsOfInstancesThatLeftAreDropped() {
+        registry.get(slow).requestStarted();
+
+        loadBalancer.choose(List.of(fast), null);
+
+        assertThat(registry.snapshot()).doesNotContainKey(InstanceStatsRegistry.key(slow));
+    }
+
+    @Test
+    void noInstanceGivesAnEmptyResponse() {
+        assertThat(loadBalancer.choose(List.of(), null).hasServer()).isFalse();
+    }
+
+    private static ServiceInstance instance(String id, Map<String, String> metadata) {
+        return new DefaultServiceInstance(id, "book-service", id + ".local", 8082, false, metadata);
+    }
+}
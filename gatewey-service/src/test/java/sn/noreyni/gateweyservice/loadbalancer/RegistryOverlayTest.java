@@ -0,0 +1,101 @@
+package sn.noreyni.gateweyservice.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegistryOverlayTest {
+
+    private final RegistryOverlay overlay = new RegistryOverlay(Duration.ofMinutes(1));
+    private final List<ServiceInstance> polled = List.of(instance("book-1"), instance("book-2"));
+
+    @Test
+    void withoutChangesThePolledListIsReturnedAsIs() {
+        assertThat(overlay.apply("book-service", polled)).isSameAs(polled);
+    }
+
+    @Test
+    void cancelledInstanceIsHidden() {
+        overlay.apply(change(RegistryChange.Type.CANCELED, "book-1", null));
+
+        assertThat(ids(overlay.apply("book-service", polled))).containsExactly("book-2");
+    }
+
+    @Test
+    void instanceOverriddenOutOfServiceIsHidden() {
+        overlay.apply(change(RegistryChange.Type.STATUS_CHANGED, "book-2", "OUT_OF_SERVICE"));
+
+        assertThat(ids(overlay.apply("book-service", polled))).containsExactly("book-1");
+    }
+
+    @Test
+    void instanceRegisteredDownIsHidden() {
+        overlay.apply(change(RegistryChange.Type.REGISTERED, "book-1", "DOWN"));
+
+        assertThat(ids(overlay.apply("book-service", polled))).containsExactly("book-2");
+    }
+
+    @Test
+    void newInstanceIsAddedBeforePollingSeesIt() {
+        overlay.apply(change(RegistryChange.Type.REGISTERED, "book-3", "UP"));
+
+        List<ServiceInstance> merged = overlay.apply("book-service", polled);
+
+        assertThat(ids(merged)).containsExactly("book-1", "book-2", "book-3");
+        assertThat(merged.get(2).getHost()).isEqualTo("10.0.0.3");
+        assertThat(merged.get(2).getServiceId()).isEqualTo("book-service");
+    }
+
+    @Test
+    void instanceBackUpIsShownAgainWithoutDuplicate() {
+        overlay.apply(change(RegistryChange.Type.STATUS_CHANGED, "book-1", "OUT_OF_SERVICE"));
+        overlay.apply(change(RegistryChange.Type.STATUS_CHANGED, "book-1", "UP"));
+
+        assertThat(ids(overlay.apply("book-service", polled))).containsExactly("book-1", "book-2");
+    }
+
+    @Test
+    void changesOfOtherServicesAreIgnored() {
+        overlay.apply(new RegistryChange(RegistryChange.Type.CANCELED, "USER-SERVICE", "book-1", null, 0, false,
+                null, Map.of(), 0));
+
+        assertThat(overlay.apply("book-service", polled)).isSameAs(polled);
+    }
+
+    @Test
+    void everyAppliedChangeBumpsTheVersion() {
+        long before = overlay.version();
+
+        overlay.apply(change(RegistryChange.Type.CANCELED, "book-1", null));
+
+        assertThat(overlay.version()).isGreaterThan(before);
+    }
+
+    @Test
+    void marksExpireAndPollingIsAuthoritativeAgain() throws InterruptedException {
+        RegistryOverlay shortLived = new RegistryOverlay(Duration.ofMillis(10));
+        shortLived.apply(change(RegistryChange.Type.CANCELED, "book-1", null));
+        Thread.sleep(50);
+
+        assertThat(shortLived.apply("book-service", polled)).isSameAs(polled);
+    }
+
+    private static RegistryChange change(RegistryChange.Type type, String id, String status) {
+        return new RegistryChange(type, "BOOK-SERVICE", id, "10.0.0." + id.charAt(id.length() - 1), 8080, false,
+                status, Map.of(), System.currentTimeMillis());
+    }
+
+    private static ServiceInstance instance(String id) {
+        return new DefaultServiceInstance(id, "book-service", "10.0.0." + id.charAt(id.length() - 1), 8080, false);
+    }
+
+    private static List<String> ids(List<ServiceInstance> instances) {
+        return instances.stream().map(ServiceInstance::getInstanceId).toList();
+    }
+}
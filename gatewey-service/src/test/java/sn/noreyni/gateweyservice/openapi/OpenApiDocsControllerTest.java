@@ -0,0 +1,88 @@
+package sn.noreyni.gateweyservice.openapi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import sn.noreyni.gateweyservice.compression.ResponseCompressor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OpenApiDocsControllerTest {
+
+    private static final String ETAG = "\"abc123\"";
+    private static final OpenApiDocument DOCUMENT = new OpenApiDocument("{\"openapi\":\"3.0.1\"}".getBytes(StandardCharsets.UTF_8),
+            new byte[]{31, -117}, ETAG, "v1", System.nanoTime());
+
+    private final OpenApiDocumentCache cache = mock(OpenApiDocumentCache.class);
+    private final OpenApiDocsController controller =
+            new OpenApiDocsController(cache, new ResponseCompressor(List.of(), false, 64 * 1024, 1024 * 1024));
+
+    @BeforeEach
+    void setUp() {
+        when(cache.isKnown("book-service")).thenReturn(true);
+        when(cache.get("book-service")).thenReturn(Mono.just(DOCUMENT));
+    }
+
+    @Test
+    void matchingETagIsNotModified() {
+        assertThat(apiDocs(HttpHeaders.IF_NONE_MATCH, ETAG).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void weakETagMatchesTheStrongOne() {
+        assertThat(apiDocs(HttpHeaders.IF_NONE_MATCH, "W/" + ETAG).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void anyOfSeveralETagsMatches() {
+        assertThat(apiDocs(HttpHeaders.IF_NONE_MATCH, "\"old\", W/" + ETAG).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void wildcardMatchesAnyETag() {
+        assertThat(apiDocs(HttpHeaders.IF_NONE_MATCH, "*").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void otherETagGetsTheDocument() {
+        ResponseEntity<byte[]> response = apiDocs(HttpHeaders.IF_NONE_MATCH, "\"old\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(DOCUMENT.json());
+    }
+
+    @Test
+    void gzipIsSentWhenAccepted() {
+        ResponseEntity<byte[]> response = apiDocs(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8");
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getBody()).isEqualTo(DOCUMENT.gzip());
+    }
+
+    @Test
+    void gzipWithZeroQualityIsRefused() {
+        ResponseEntity<byte[]> response = apiDocs(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity");
+
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getBody()).isEqualTo(DOCUMENT.json());
+    }
+
+    @Test
+    void unknownServiceIsNotFound() {
+        assertThat(controller.apiDocs("nope", new HttpHeaders()).block().getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<byte[]> apiDocs(String header, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(header, value);
+        return controller.apiDocs("book-service", headers).block();
+    }
+}
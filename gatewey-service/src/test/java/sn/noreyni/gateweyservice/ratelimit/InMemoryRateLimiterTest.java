@@ -0,0 +1,52 @@
+package sn.noreyni.gateweyservice.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryRateLimiterTest {
+
+    @Test
+    void eachKeyHasItsOwnBucket() {
+        InMemoryRateLimiter limiter = limiter(1, 100);
+
+        assertThat(limiter.isAllowed("books", "user:a").block().isAllowed()).isTrue();
+        assertThat(limiter.isAllowed("books", "user:a").block().isAllowed()).isFalse();
+        assertThat(limiter.isAllowed("books", "user:b").block().isAllowed()).isTrue();
+        assertThat(limiter.isAllowed("users", "user:a").block().isAllowed()).isTrue();
+    }
+
+    @Test
+    void deniedResponseTellsWhenToRetry() {
+        InMemoryRateLimiter limiter = limiter(1, 100);
+        limiter.isAllowed("books", "user:a").block();
+
+        RateLimiter.Response denied = limiter.isAllowed("books", "user:a").block();
+
+        assertThat(denied.getHeaders())
+                .containsEntry(InMemoryRateLimiter.REMAINING_HEADER, "0")
+                .containsEntry(InMemoryRateLimiter.RETRY_AFTER_HEADER, "1");
+    }
+
+    @Test
+    void keysBeyondMaxKeysEvictBucketsInsteadOfSharingOne() {
+        InMemoryRateLimiter limiter = limiter(1, 10);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(limiter.isAllowed("books", "ip:10.0.0." + i).block().isAllowed()).isTrue();
+        }
+
+        assertThat(limiter.bucketCount()).isLessThanOrEqualTo(10);
+    }
+
+    private static InMemoryRateLimiter limiter(int burstCapacity, int maxKeys) {
+        InMemoryRateLimiter.Config defaults = new InMemoryRateLimiter.Config();
+        defaults.setReplenishRate(1);
+        defaults.setBurstCapacity(burstCapacity);
+        return new InMemoryRateLimiter(null, new SimpleMeterRegistry(), defaults, maxKeys, Duration.ofMinutes(1));
+    }
+}
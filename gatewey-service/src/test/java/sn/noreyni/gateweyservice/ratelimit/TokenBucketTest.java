@@ -0,0 +1,55 @@
+package sn.noreyni.gateweyservice.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    /** 10 tokens per second */
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BURST = 5;
+
+    @Test
+    void fullBucketAllowsTheBurstThenRefuses() {
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+
+        for (long remaining = BURST - 1; remaining >= 0; remaining--) {
+            assertThat(bucket.tryConsume(now, 1, INTERVAL, BURST)).isEqualTo(remaining);
+        }
+        assertThat(bucket.tryConsume(now, 1, INTERVAL, BURST)).isEqualTo(-INTERVAL);
+    }
+
+    @Test
+    void tokensComeBackAtTheReplenishRate() {
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+        for (int i = 0; i < BURST; i++) {
+            bucket.tryConsume(now, 1, INTERVAL, BURST);
+        }
+
+        assertThat(bucket.tryConsume(now + INTERVAL / 2, 1, INTERVAL, BURST)).isEqualTo(-INTERVAL / 2);
+        assertThat(bucket.tryConsume(now + INTERVAL, 1, INTERVAL, BURST)).isZero();
+        assertThat(bucket.tryConsume(now + 4 * INTERVAL, 1, INTERVAL, BURST)).isEqualTo(2);
+    }
+
+    @Test
+    void idleTimeDoesNotGrowTheBucketPastItsCapacity() {
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+
+        assertThat(bucket.tryConsume(now + 100 * INTERVAL, 1, INTERVAL, BURST)).isEqualTo(BURST - 1);
+    }
+
+    @Test
+    void refusedRequestDoesNotConsume() {
+        long now = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(now);
+
+        assertThat(bucket.tryConsume(now, (int) BURST + 1, INTERVAL, BURST)).isEqualTo(-INTERVAL);
+        assertThat(bucket.tryConsume(now, (int) BURST, INTERVAL, BURST)).isZero();
+    }
+}
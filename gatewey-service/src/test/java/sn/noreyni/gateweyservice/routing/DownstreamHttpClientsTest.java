@@ -0,0 +1,158 @@
+package sn.noreyni.gateweyservice.routing;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Against an h2c backend and an HTTP/1.1-only one, started per class, which hold every request
+ * long enough for concurrent ones to overlap
+ */
+class DownstreamHttpClientsTest {
+
+    private static final Duration HOLD = Duration.ofMillis(200);
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+    private static final Set<String> connections = ConcurrentHashMap.newKeySet();
+    private static final Set<String> versions = ConcurrentHashMap.newKeySet();
+    private static DisposableServer h2cBackend;
+    private static DisposableServer http11Backend;
+
+    private final List<String> pooled = new CopyOnWriteArrayList<>();
+    private DownstreamHttpClients clients;
+
+    @BeforeAll
+    static void startBackends() {
+        h2cBackend = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.H2C)
+                .route(DownstreamHttpClientsTest::hold)
+                .bindNow();
+        http11Backend = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(DownstreamHttpClientsTest::hold)
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopBackends() {
+        h2cBackend.disposeNow();
+        http11Backend.disposeNow();
+    }
+
+    @BeforeEach
+    void reset() {
+        inFlight.set(0);
+        maxInFlight.set(0);
+        connections.clear();
+        versions.clear();
+    }
+
+    @AfterEach
+    void disposePools() {
+        clients.destroy();
+    }
+
+    @Test
+    void requestsBeyondTheStreamLimitWaitForAStream() {
+        clients = clients(Map.of("book-service", pool(HttpProtocol.H2C, 1, 2)));
+
+        List<String> bodies = get(clients.clientFor("book-service"), h2cBackend, 6)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(bodies).hasSize(6).containsOnly("ok");
+        assertThat(maxInFlight).hasValue(2);
+        assertThat(connections).hasSize(1);
+        assertThat(versions).containsExactly("HTTP/2.0");
+    }
+
+    @Test
+    void eachServiceHasItsOwnPool() {
+        clients = clients(Map.of(
+                "user-service", pool(HttpProtocol.H2C, 1, 1),
+                "book-service", pool(HttpProtocol.H2C, 1, 1)));
+
+        assertThat(clients.clientFor("user-service")).isSameAs(clients.clientFor("user-service"));
+        assertThat(clients.clientFor("user-service")).isNotSameAs(clients.clientFor("book-service"));
+        assertThat(pooled).containsExactly("user-service", "book-service");
+
+        Flux.merge(get(clients.clientFor("user-service"), h2cBackend, 2),
+                        get(clients.clientFor("book-service"), h2cBackend, 2))
+                .blockLast(Duration.ofSeconds(10));
+
+        assertThat(maxInFlight).hasValue(2);
+        assertThat(connections).hasSize(2);
+    }
+
+    @Test
+    void serviceWithoutH2cStaysOnHttp11() {
+        clients = clients(Map.of("legacy-service", pool(HttpProtocol.HTTP11, 2, 256)));
+
+        List<String> bodies = get(clients.clientFor("legacy-service"), http11Backend, 4)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(bodies).hasSize(4).containsOnly("ok");
+        assertThat(maxInFlight).hasValue(2);
+        assertThat(versions).containsExactly("HTTP/1.1");
+    }
+
+    private DownstreamHttpClients clients(Map<String, DownstreamHttpClients.PoolSettings> services) {
+        return new DownstreamHttpClients(Duration.ofSeconds(2), serviceId -> {
+            pooled.add(serviceId);
+            return services.get(serviceId);
+        });
+    }
+
+    private static DownstreamHttpClients.PoolSettings pool(HttpProtocol protocol, int maxConnections,
+                                                           long maxConcurrentStreams) {
+        return new DownstreamHttpClients.PoolSettings(List.of(protocol), maxConnections, maxConcurrentStreams,
+                100, Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofMinutes(10), Duration.ofSeconds(30));
+    }
+
+    private static Flux<String> get(HttpClient client, DisposableServer backend, int requests) {
+        return Flux.range(0, requests).flatMap(i -> client.get()
+                .uri("http://localhost:" + backend.port() + "/hold")
+                .responseContent()
+                .aggregate()
+                .asString());
+    }
+
+    /**
+     * Records the connection and protocol of each request and how many overlap
+     */
+    private static void hold(HttpServerRoutes routes) {
+        routes.get("/hold", (request, response) -> {
+            connections.add(String.valueOf(request.remoteAddress()));
+            versions.add(request.version().text());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return Mono.delay(HOLD).then(Mono.defer(() -> {
+                inFlight.decrementAndGet();
+                return response.sendString(Mono.just("ok")).then();
+            }));
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package sn.noreyni.gateweyservice.routing;
+
+import io.netty.channel.ChannelOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.ResolvableType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+
+class DownstreamRoutingFilterTest {
+
+    private static final DownstreamHttpClients.PoolSettings POOL = new DownstreamHttpClients.PoolSettings(
+            List.of(HttpProtocol.H2C), 16, 256, 1000, Duration.ofSeconds(1), Duration.ofSeconds(30),
+            Duration.ofMinutes(10), Duration.ofSeconds(30));
+
+    private final HttpClient shared = HttpClient.create();
+    private final DownstreamHttpClients clients = new DownstreamHttpClients(Duration.ofSeconds(2), serviceId -> POOL);
+    private final DownstreamRoutingFilter filter;
+    private final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+    DownstreamRoutingFilterTest() {
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = new DefaultListableBeanFactory()
+                .getBeanProvider(ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class));
+        filter = new DownstreamRoutingFilter(shared, headersFilters, new HttpClientProperties(), clients);
+    }
+
+    @AfterEach
+    void disposePools() {
+        clients.destroy();
+    }
+
+    @Test
+    void lbRouteUsesThePoolOfItsService() {
+        HttpClient client = filter.getHttpClient(route("lb://BOOK-SERVICE", Map.of()), exchange);
+
+        assertThat(client).isSameAs(clients.clientFor("book-service"));
+        assertThat(connectTimeout(client)).isEqualTo(2000);
+    }
+
+    @Test
+    void routeConnectTimeoutOverridesThePoolDefault() {
+        HttpClient client = filter.getHttpClient(
+                route("lb://book-service", Map.of(CONNECT_TIMEOUT_ATTR, 1000)), exchange);
+
+        assertThat(connectTimeout(client)).isEqualTo(1000);
+        assertThat(connectTimeout(clients.clientFor("book-service"))).isEqualTo(2000);
+    }
+
+    @Test
+    void plainUrlRouteKeepsTheSharedClient() {
+        HttpClient client = filter.getHttpClient(route("http://localhost:8081", Map.of()), exchange);
+
+        assertThat(client).isSameAs(shared);
+    }
+
+    @Test
+    void runsAheadOfTheBuiltInRoutingFilter() {
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = new DefaultListableBeanFactory()
+                .getBeanProvider(ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class));
+        NettyRoutingFilter builtIn = new NettyRoutingFilter(shared, headersFilters, new HttpClientProperties());
+
+        assertThat(filter.getOrder()).isLessThan(builtIn.getOrder());
+    }
+
+    private static Route route(String uri, Map<String, Object> metadata) {
+        return Route.async()
+                .id("book-service")
+                .uri(uri)
+                .predicate(exchange -> true)
+                .metadata(metadata)
+                .build();
+    }
+
+    private static Object connectTimeout(HttpClient client) {
+        return client.configuration().options().get(ChannelOption.CONNECT_TIMEOUT_MILLIS);
+    }
+}
@@ -0,0 +1,33 @@
+package sn.noreyni.gateweyservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClaimHeaderSignerTest {
+
+    private final ClaimHeaderSigner signer = new ClaimHeaderSigner("test-secret-shared-with-the-services-0123456789");
+
+    @Test
+    void verifiesItsOwnSignature() {
+        String signature = signer.sign("sub-1", "alice", "PATRON", 1_700_000_000L);
+
+        assertThat(signer.verify("sub-1", "alice", "PATRON", 1_700_000_000L, signature)).isTrue();
+    }
+
+    @Test
+    void rejectsChangedClaims() {
+        String signature = signer.sign("sub-1", "alice", "PATRON", 1_700_000_000L);
+
+        assertThat(signer.verify("sub-1", "alice", "LIBRARIAN", 1_700_000_000L, signature)).isFalse();
+        assertThat(signer.verify("sub-1", "alice", "PATRON", 1_700_000_001L, signature)).isFalse();
+        assertThat(signer.verify("sub-1", "alice", "PATRON", 1_700_000_000L, null)).isFalse();
+    }
+
+    @Test
+    void refusesMissingOrShortSecret() {
+        assertThatThrownBy(() -> new ClaimHeaderSigner(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ClaimHeaderSigner("too-short")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,55 @@
+package sn.noreyni.gateweyservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import sn.noreyni.gateweyservice.config.EdgeAuthConfig;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EdgeAuthenticationFilterTest {
+
+    private static final String ISSUER = "http://localhost:8180/realms/libroMesh";
+
+    @Test
+    void expiredTokenIsReportedWithItsOwnErrorCode() {
+        OAuth2TokenValidatorResult result = EdgeAuthConfig.tokenValidator(ISSUER, Duration.ofSeconds(30))
+                .validate(jwt(Instant.now().minusSeconds(120)));
+
+        assertThat(result.hasErrors()).isTrue();
+        assertThat(EdgeAuthenticationFilter.isExpired(new JwtValidationException("expired", result.getErrors())))
+                .isTrue();
+    }
+
+    @Test
+    void tokenWithinClockSkewIsValid() {
+        OAuth2TokenValidatorResult result = EdgeAuthConfig.tokenValidator(ISSUER, Duration.ofSeconds(30))
+                .validate(jwt(Instant.now().minusSeconds(10)));
+
+        assertThat(result.hasErrors()).isFalse();
+    }
+
+    @Test
+    void wrongIssuerIsNotAnExpiry() {
+        OAuth2TokenValidatorResult result = EdgeAuthConfig.tokenValidator("http://other/realms/x", Duration.ofSeconds(30))
+                .validate(jwt(Instant.now().plusSeconds(300)));
+
+        assertThat(result.hasErrors()).isTrue();
+        assertThat(EdgeAuthenticationFilter.isExpired(new JwtValidationException("invalid", result.getErrors())))
+                .isFalse();
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .issuer(ISSUER)
+                .subject("sub-1")
+                .issuedAt(expiresAt.minusSeconds(300))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package sn.noreyni.gateweyservice.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebHandler;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * The gateway's proxying chain without an application context, for filters that depend on
+ * where they run relative to the routing and write-response filters.
+ * <p>
+ * Route filters get the positions the route locator gives them ({@code 1..n} unless they are
+ * {@link Ordered}) and are sorted together with the real {@link RouteToRequestUrlFilter},
+ * {@link NettyRoutingFilter} and {@link NettyWriteResponseFilter}, which proxy to {@code uri}.
+ */
+public final class ProxyChain implements WebHandler {
+
+    private final Route route;
+    private final List<GatewayFilter> filters;
+
+    public ProxyChain(String uri, GatewayFilter... routeFilters) {
+        this(uri, Map.of(), routeFilters);
+    }
+
+    public ProxyChain(String uri, Map<String, Object> metadata, GatewayFilter... routeFilters) {
+        List<GatewayFilter> positioned = new ArrayList<>();
+        for (int i = 0; i < routeFilters.length; i++) {
+            GatewayFilter filter = routeFilters[i];
+            positioned.add(filter instanceof Ordered ? filter : new OrderedGatewayFilter(filter, i + 1));
+        }
+        this.route = Route.async()
+                .id("test")
+                .uri(uri)
+                .predicate(exchange -> true)
+                .metadata(metadata)
+                .filters(positioned)
+                .build();
+
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = new DefaultListableBeanFactory()
+                .getBeanProvider(ResolvableType.forClassWithGenerics(List.class, HttpHeadersFilter.class));
+        List<GlobalFilter> globalFilters = List.of(
+                new RouteToRequestUrlFilter(),
+                new NettyRoutingFilter(HttpClient.create(), headersFilters, new HttpClientProperties()),
+                new NettyWriteResponseFilter(List.of(MediaType.TEXT_EVENT_STREAM)));
+
+        List<GatewayFilter> combined = new ArrayList<>();
+        for (GlobalFilter global : globalFilters) {
+            combined.add(new OrderedGatewayFilter(global::filter, ((Ordered) global).getOrder()));
+        }
+        combined.addAll(route.getFilters());
+        AnnotationAwareOrderComparator.sort(combined);
+        this.filters = List.copyOf(combined);
+    }
+
+    public WebTestClient client() {
+        return WebTestClient.bindToWebHandler(this)
+                .configureClient()
+                .responseTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange) {
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, route);
+        return filter(exchange, 0);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, int index) {
+        return Mono.defer(() -> index < filters.size()
+                ? filters.get(index).filter(exchange, next -> filter(next, index + 1))
+                : Mono.empty());
+    }
+}
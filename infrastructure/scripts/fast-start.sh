@@ -0,0 +1,141 @@
+#!/bin/bash
+
+# LibroMesh - Fast-start launcher (Spring AOT + AppCDS)
+#
+# Build the archive first (config, Vault and Eureka should be reachable, the training
+# run loads the same config imports as a normal start):
+#   (cd user-service && ./mvnw -Pfast-start package -DskipTests)
+#
+# Usage:
+#   fast-start.sh run <service> [app args...]      start in fast-start mode
+#   fast-start.sh measure <service> [runs]         compare classic vs fast-start startup
+#
+# Measurement protocol and results: fast-start.md next to this script
+
+set -e
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+ROOT_DIR="$(cd "$SCRIPT_DIR/../.." && pwd)"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+# ================================
+# FUNCTIONS
+# ================================
+
+default_port() {
+    case "$1" in
+        config-service)    echo 8000 ;;
+        discovery-service) echo 8761 ;;
+        gatewey-service)   echo 8080 ;;
+        user-service)      echo 9001 ;;
+        book-service)      echo 9002 ;;
+        *)                 echo 8080 ;;
+    esac
+}
+
+classic_jar() {
+    local target="$ROOT_DIR/$1/target"
+    ls "$target"/"$1"-*.jar | grep -v -- '-\(plain\|classes\)\.jar$' | head -1
+}
+
+fast_start_dir() {
+    local dir="$ROOT_DIR/$1/target/fast-start"
+    if [ ! -f "$dir/application.jsa" ]; then
+        echo "✗ No CDS archive in $dir, run: (cd $1 && ./mvnw -Pfast-start package -DskipTests)" >&2
+        exit 1
+    fi
+    echo "$dir"
+}
+
+run_fast() {
+    local service="$1"; shift
+    local dir
+    dir="$(fast_start_dir "$service")"
+    cd "$dir"
+    exec "$JAVA" -XX:SharedArchiveFile=application.jsa -Xshare:auto \
+        -Dspring.aot.enabled=true -Dspring.cloud.refresh.enabled=false \
+        $JAVA_OPTS -jar application.jar "$@"
+}
+
+# Starts the service, returns "<startup seconds> <time-to-first-request ms>" and stops it
+measure_once() {
+    local mode="$1" service="$2" port="$3" log="$4"
+    local start first_ms started pid
+
+    start=$(date +%s%N)
+    if [ "$mode" = "fast" ]; then
+        (cd "$(fast_start_dir "$service")" && exec "$JAVA" -XX:SharedArchiveFile=application.jsa -Xshare:auto \
+            -Dspring.aot.enabled=true -Dspring.cloud.refresh.enabled=false \
+            $JAVA_OPTS -jar application.jar --server.port="$port") > "$log" 2>&1 &
+    else
+        "$JAVA" $JAVA_OPTS -jar "$(classic_jar "$service")" --server.port="$port" > "$log" 2>&1 &
+    fi
+    pid=$!
+
+    # Any HTTP status counts: the first request was served, even if a dependency is DOWN
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$port/actuator/health")" != "000" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "✗ $service exited during $mode start, see $log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    first_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+
+    started=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$log" | grep -oE '[0-9.]+ seconds' | cut -d' ' -f1)
+    kill "$pid" 2>/dev/null; wait "$pid" 2>/dev/null || true
+    echo "${started:-n/a} $first_ms"
+}
+
+measure() {
+    local service="$1" runs="${2:-5}"
+    local port log_dir result
+    port="$(default_port "$service")"
+    log_dir="$ROOT_DIR/$service/target/fast-start-measure"
+    mkdir -p "$log_dir"
+
+    echo "Measuring $service on port $port ($runs runs per mode)"
+    printf "%-8s %-4s %-16s %-24s\n" "mode" "run" "started (s)" "first request (ms)"
+    for mode in classic fast; do
+        : > "$log_dir/$mode.results"
+        for i in $(seq 1 "$runs"); do
+            result=$(measure_once "$mode" "$service" "$port" "$log_dir/$mode-$i.log")
+            printf "%-8s %-4s %-16s %-24s\n" "$mode" "$i" ${result}
+            echo "$result" >> "$log_dir/$mode.results"
+        done
+    done
+
+    echo
+    printf "%-8s %-16s %-24s\n" "median" "started (s)" "first request (ms)"
+    for mode in classic fast; do
+        printf "%-8s %-16s %-24s\n" "$mode" \
+            "$(median 1 "$log_dir/$mode.results")" "$(median 2 "$log_dir/$mode.results")"
+    done
+}
+
+# Median of one column of a results file, "n/a" values skipped
+median() {
+    cut -d' ' -f"$1" "$2" | grep -v 'n/a' | sort -n | awk '{ v[NR] = $1 } END {
+        if (NR == 0) print "n/a"; else if (NR % 2) print v[(NR + 1) / 2]; else print (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+# ================================
+# MAIN
+# ================================
+
+case "$1" in
+    run)
+        shift
+        [ -n "$1" ] || { echo "Usage: $0 run <service> [app args...]"; exit 1; }
+        run_fast "$@"
+        ;;
+    measure)
+        shift
+        [ -n "$1" ] || { echo "Usage: $0 measure <service> [runs]"; exit 1; }
+        measure "$@"
+        ;;
+    *)
+        echo "Usage: $0 {run|measure} <service> ..."
+        exit 1
+        ;;
+esac
@@ -0,0 +1,39 @@
+package sn.noreyni.keycloakstub;
+
+/**
+ * Latency and failure behaviour applied to one {@link StubEndpoint} group.
+ *
+ * @param latency     delay applied before every response, including injected errors
+ * @param errorRate   probability in {@code [0, 1]} of answering with {@code errorStatus}
+ * @param errorStatus HTTP status used for injected errors
+ */
+public record FaultProfile(LatencyDistribution latency, double errorRate, int errorStatus) {
+
+    public FaultProfile {
+        if (latency == null) {
+            throw new IllegalArgumentException("latency must not be null");
+        }
+        if (errorRate < 0.0 || errorRate > 1.0) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        }
+        if (errorStatus < 400 || errorStatus > 599) {
+            throw new IllegalArgumentException("errorStatus must be a 4xx or 5xx status");
+        }
+    }
+
+    public static FaultProfile healthy() {
+        return new FaultProfile(LatencyDistribution.none(), 0.0, 503);
+    }
+
+    public static FaultProfile of(LatencyDistribution latency) {
+        return new FaultProfile(latency, 0.0, 503);
+    }
+
+    public FaultProfile withLatency(LatencyDistribution latency) {
+        return new FaultProfile(latency, errorRate, errorStatus);
+    }
+
+    public FaultProfile withErrors(double errorRate, int errorStatus) {
+        return new FaultProfile(latency, errorRate, errorStatus);
+    }
+}
@@ -0,0 +1,515 @@
+package sn.noreyni.keycloakstub;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
+
+/**
+ * Embeddable stand-in for the Keycloak APIs used by user-service:
+ * OIDC token/userinfo/logout/certs and the admin users, roles and role-mapping endpoints.
+ * <p>
+ * Every {@link StubEndpoint} group has its own {@link FaultProfile}, which can be changed while
+ * the stub is running to simulate a slow or failing Keycloak in the middle of a load test.
+ * All realm names resolve to the same in-memory realm, so both the admin client realm and the
+ * application realm can point at the stub.
+ *
+ * <pre>{@code
+ * try (KeycloakStub keycloak = KeycloakStub.builder()
+ *         .seedPatrons(500)
+ *         .faultProfile(StubEndpoint.TOKEN, FaultProfile.of(LatencyDistribution.logNormal(ofMillis(20), ofMillis(300))))
+ *         .start()) {
+ *     registry.add("app.keycloak.admin.server-url", keycloak::getServerUrl);
+ * }
+ * }</pre>
+ */
+public class KeycloakStub implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KeycloakStub.class);
+
+    private static final String JSON = "application/json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<StubEndpoint, FaultProfile> faultProfiles = new ConcurrentHashMap<>();
+    private final Map<StubEndpoint, LongAdder> requestCounts = new EnumMap<>(StubEndpoint.class);
+    private final Map<StubEndpoint, LongAdder> injectedErrors = new EnumMap<>(StubEndpoint.class);
+    private final RandomGenerator random;
+    private final StubRealm realm;
+    private final StubTokenIssuer tokenIssuer;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String host;
+
+    private KeycloakStub(Builder builder) throws IOException {
+        Clock clock = builder.clock;
+        this.host = builder.host;
+        this.random = builder.seed != null ? new Random(builder.seed) : new Random();
+        this.realm = new StubRealm(clock);
+        this.realm.seed(builder.patronCount);
+        this.tokenIssuer = new StubTokenIssuer(objectMapper, clock);
+        for (StubEndpoint endpoint : StubEndpoint.values()) {
+            faultProfiles.put(endpoint, builder.faultProfiles.getOrDefault(endpoint, builder.defaultProfile));
+            requestCounts.put(endpoint, new LongAdder());
+            injectedErrors.put(endpoint, new LongAdder());
+        }
+        // Virtual threads keep injected latency cheap: a sleeping request does not hold a platform thread
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(builder.host, builder.port), builder.backlog);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+        LOG.info("Keycloak stub started | server_url={} | seeded_users={}", getServerUrl(), realm.countUsers());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getServerUrl() {
+        return "http://" + host + ":" + server.getAddress().getPort();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String issuer(String realmName) {
+        return getServerUrl() + "/realms/" + realmName;
+    }
+
+    public void setFaultProfile(StubEndpoint endpoint, FaultProfile profile) {
+        faultProfiles.put(endpoint, profile);
+    }
+
+    public void setFaultProfile(FaultProfile profile) {
+        for (StubEndpoint endpoint : StubEndpoint.values()) {
+            faultProfiles.put(endpoint, profile);
+        }
+    }
+
+    public FaultProfile getFaultProfile(StubEndpoint endpoint) {
+        return faultProfiles.get(endpoint);
+    }
+
+    public long requestCount(StubEndpoint endpoint) {
+        return requestCounts.get(endpoint).sum();
+    }
+
+    public long injectedErrorCount(StubEndpoint endpoint) {
+        return injectedErrors.get(endpoint).sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        LOG.info("Keycloak stub stopped | server_url={}", getServerUrl());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            List<String> segments = Arrays.stream(exchange.getRequestURI().getPath().split("/"))
+                    .filter(segment -> !segment.isEmpty())
+                    .map(segment -> URLDecoder.decode(segment, StandardCharsets.UTF_8))
+                    .toList();
+            StubEndpoint endpoint = classify(segments);
+            if (endpoint == null) {
+                send(exchange, 404, Map.of("error", "not_found"));
+                return;
+            }
+            requestCounts.get(endpoint).increment();
+            if (injectFault(exchange, endpoint)) {
+                return;
+            }
+            route(exchange, endpoint, segments);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.warn("Keycloak stub request failed | path={} | error_message={}",
+                    exchange.getRequestURI().getPath(), e.getMessage());
+            send(exchange, 500, Map.of("error", "unknown_error", "error_description", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private boolean injectFault(HttpExchange exchange, StubEndpoint endpoint) throws IOException, InterruptedException {
+        FaultProfile profile = faultProfiles.get(endpoint);
+        long delayNanos;
+        boolean fail;
+        synchronized (random) {
+            delayNanos = profile.latency().sampleNanos(random);
+            fail = profile.errorRate() > 0.0 && random.nextDouble() < profile.errorRate();
+        }
+        if (delayNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+        if (fail) {
+            injectedErrors.get(endpoint).increment();
+            send(exchange, profile.errorStatus(), Map.of(
+                    "error", "temporarily_unavailable",
+                    "error_description", "Injected by Keycloak stub"));
+        }
+        return fail;
+    }
+
+    private static StubEndpoint classify(List<String> path) {
+        if (path.size() >= 5 && path.get(0).equals("realms") && path.get(2).equals("protocol")) {
+            return switch (path.get(4)) {
+                case "token" -> StubEndpoint.TOKEN;
+                case "userinfo" -> StubEndpoint.USERINFO;
+                case "logout" -> StubEndpoint.LOGOUT;
+                case "certs" -> StubEndpoint.CERTS;
+                default -> null;
+            };
+        }
+        if (path.size() == 4 && path.get(0).equals("realms") && path.get(2).equals(".well-known")) {
+            return StubEndpoint.CERTS;
+        }
+        if (path.size() >= 4 && path.get(0).equals("admin") && path.get(1).equals("realms")) {
+            if (path.get(3).equals("roles")) {
+                return StubEndpoint.ROLES;
+            }
+            if (path.get(3).equals("users")) {
+                return path.size() >= 6 && path.get(5).equals("role-mappings")
+                        ? StubEndpoint.ROLE_MAPPINGS
+                        : StubEndpoint.USERS;
+            }
+        }
+        return null;
+    }
+
+    private void route(HttpExchange exchange, StubEndpoint endpoint, List<String> path) throws IOException {
+        String method = exchange.getRequestMethod();
+        String realmName = path.get(0).equals("admin") ? path.get(2) : path.get(1);
+        switch (endpoint) {
+            case TOKEN -> token(exchange, realmName);
+            case USERINFO -> userInfo(exchange);
+            case LOGOUT -> exchange.sendResponseHeaders(204, -1);
+            case CERTS -> certs(exchange, realmName, path);
+            case USERS, ROLES, ROLE_MAPPINGS -> {
+                if (bearerClaims(exchange).isEmpty()) {
+                    send(exchange, 401, Map.of("error", "HTTP 401 Unauthorized"));
+                    return;
+                }
+                switch (endpoint) {
+                    case USERS -> users(exchange, method, realmName, path);
+                    case ROLES -> roles(exchange, path);
+                    default -> roleMappings(exchange, method, path);
+                }
+            }
+        }
+    }
+
+    private void token(HttpExchange exchange, String realmName) throws IOException {
+        Map<String, String> form = parseQuery(new String(readBody(exchange), StandardCharsets.UTF_8));
+        String clientId = form.getOrDefault("client_id", "libroMesh");
+        String scope = form.getOrDefault("scope", "openid profile email");
+        Optional<StubRealm.StubUser> user = switch (form.getOrDefault("grant_type", "")) {
+            case "password" -> realm.findByUsername(form.get("username"))
+                    .filter(candidate -> candidate.enabled() && candidate.password() != null
+                            && candidate.password().equals(form.get("password")));
+            case "refresh_token" -> tokenIssuer.verify(form.get("refresh_token"))
+                    .filter(claims -> "Refresh".equals(claims.get("typ")))
+                    .flatMap(claims -> realm.findById((String) claims.get("sub")));
+            case "client_credentials" -> Optional.of(serviceAccount(clientId));
+            default -> Optional.empty();
+        };
+        if (user.isEmpty()) {
+            send(exchange, 401, Map.of("error", "invalid_grant", "error_description", "Invalid user credentials"));
+            return;
+        }
+        send(exchange, 200, tokenIssuer.tokenResponse(issuer(realmName), clientId, user.get(), scope));
+    }
+
+    private StubRealm.StubUser serviceAccount(String clientId) {
+        String username = "service-account-" + clientId.toLowerCase();
+        return realm.findByUsername(username)
+                .or(() -> realm.createUser(realm.newUser(username, "Service", "Account", Set.of())))
+                .orElseGet(() -> realm.findByUsername(username).orElseThrow());
+    }
+
+    private void userInfo(HttpExchange exchange) throws IOException {
+        Optional<StubRealm.StubUser> user = bearerClaims(exchange)
+                .flatMap(claims -> realm.findById((String) claims.get("sub")));
+        if (user.isEmpty()) {
+            send(exchange, 401, Map.of("error", "invalid_token", "error_description", "Token verification failed"));
+            return;
+        }
+        StubRealm.StubUser found = user.get();
+        Map<String, Object> body = new HashMap<>();
+        body.put("sub", found.id());
+        body.put("preferred_username", found.username());
+        body.put("email", found.email());
+        body.put("email_verified", found.emailVerified());
+        body.put("given_name", found.firstName());
+        body.put("family_name", found.lastName());
+        body.put("name", String.join(" ", Objects.toString(found.firstName(), ""),
+                Objects.toString(found.lastName(), "")).trim());
+        send(exchange, 200, body);
+    }
+
+    private void certs(HttpExchange exchange, String realmName, List<String> path) throws IOException {
+        if (path.get(2).equals(".well-known")) {
+            String issuer = issuer(realmName);
+            Map<String, Object> discovery = new HashMap<>();
+            discovery.put("issuer", issuer);
+            discovery.put("token_endpoint", issuer + "/protocol/openid-connect/token");
+            discovery.put("userinfo_endpoint", issuer + "/protocol/openid-connect/userinfo");
+            discovery.put("end_session_endpoint", issuer + "/protocol/openid-connect/logout");
+            discovery.put("jwks_uri", issuer + "/protocol/openid-connect/certs");
+            discovery.put("id_token_signing_alg_values_supported", List.of("RS256"));
+            discovery.put("subject_types_supported", List.of("public"));
+            discovery.put("response_types_supported", List.of("code", "token"));
+            discovery.put("grant_types_supported", List.of("password", "refresh_token", "client_credentials"));
+            send(exchange, 200, discovery);
+            return;
+        }
+        send(exchange, 200, tokenIssuer.jwks());
+    }
+
+    private void users(HttpExchange exchange, String method, String realmName, List<String> path) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (path.size() == 4) {
+            switch (method) {
+                case "GET" -> send(exchange, 200, realm.listUsers(
+                                intParam(query, "first", 0), intParam(query, "max", 100), query.get("search"))
+                        .stream()
+                        .map(StubRealm.StubUser::toRepresentation)
+                        .toList());
+                case "POST" -> {
+                    Map<String, Object> representation = readJson(exchange);
+                    Optional<StubRealm.StubUser> created = realm.createUser(realm.newUser(representation));
+                    if (created.isEmpty()) {
+                        send(exchange, 409, Map.of("errorMessage", "User exists with same username"));
+                        return;
+                    }
+                    exchange.getResponseHeaders().add("Location",
+                            getServerUrl() + "/admin/realms/" + realmName + "/users/" + created.get().id());
+                    exchange.sendResponseHeaders(201, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+            return;
+        }
+        String userId = path.get(4);
+        if (userId.equals("count")) {
+            send(exchange, 200, realm.countUsers());
+            return;
+        }
+        if (path.size() == 6 && path.get(5).equals("reset-password")) {
+            Map<String, Object> credential = readJson(exchange);
+            sendEmpty(exchange, realm.resetPassword(userId, (String) credential.get("value")));
+            return;
+        }
+        switch (method) {
+            case "GET" -> {
+                Optional<StubRealm.StubUser> user = realm.findById(userId);
+                if (user.isPresent()) {
+                    send(exchange, 200, user.get().toRepresentation());
+                } else {
+                    send(exchange, 404, Map.of("error", "User not found"));
+                }
+            }
+            case "PUT" -> sendEmpty(exchange, realm.updateUser(userId, readJson(exchange)).isPresent());
+            case "DELETE" -> sendEmpty(exchange, realm.deleteUser(userId));
+            default -> exchange.sendResponseHeaders(405, -1);
+        }
+    }
+
+    private void roles(HttpExchange exchange, List<String> path) throws IOException {
+        if (path.size() == 4) {
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            send(exchange, 200, realm.listRoles(intParam(query, "first", 0), intParam(query, "max", Integer.MAX_VALUE)));
+            return;
+        }
+        Optional<Map<String, Object>> role = realm.findRole(path.get(4));
+        if (role.isPresent()) {
+            send(exchange, 200, role.get());
+        } else {
+            send(exchange, 404, Map.of("error", "Could not find role"));
+        }
+    }
+
+    private void roleMappings(HttpExchange exchange, String method, List<String> path) throws IOException {
+        String userId = path.get(4);
+        switch (method) {
+            // role-mappings, role-mappings/realm and role-mappings/realm/composite all return realm roles
+            case "GET" -> {
+                Optional<List<Map<String, Object>>> mappings = realm.roleMappings(userId);
+                if (mappings.isPresent()) {
+                    send(exchange, 200, path.size() == 6 ? Map.of("realmMappings", mappings.get()) : mappings.get());
+                } else {
+                    send(exchange, 404, Map.of("error", "User not found"));
+                }
+            }
+            case "POST", "DELETE" -> {
+                List<String> roleNames = readJsonList(exchange).stream()
+                        .map(role -> (String) role.get("name"))
+                        .toList();
+                sendEmpty(exchange, method.equals("POST")
+                        ? realm.addRoleMappings(userId, roleNames)
+                        : realm.removeRoleMappings(userId, roleNames));
+            }
+            default -> exchange.sendResponseHeaders(405, -1);
+        }
+    }
+
+    private Optional<Map<String, Object>> bearerClaims(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return Optional.empty();
+        }
+        return tokenIssuer.verify(authorization.substring(7).trim());
+    }
+
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return body.readAllBytes();
+        }
+    }
+
+    private Map<String, Object> readJson(HttpExchange exchange) throws IOException {
+        byte[] body = readBody(exchange);
+        return body.length == 0 ? Map.of() : objectMapper.readValue(body, new TypeReference<>() {
+        });
+    }
+
+    private List<Map<String, Object>> readJsonList(HttpExchange exchange) throws IOException {
+        byte[] body = readBody(exchange);
+        return body.length == 0 ? List.of() : objectMapper.readValue(body, new TypeReference<>() {
+        });
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sendEmpty(HttpExchange exchange, boolean found) throws IOException {
+        if (found) {
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            send(exchange, 404, Map.of("error", "User not found"));
+        }
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.putIfAbsent(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static int intParam(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value);
+    }
+
+    public static final class Builder {
+
+        private String host = "localhost";
+        private int port = 0;
+        private int backlog = 1024;
+        private int patronCount = 100;
+        private Long seed;
+        private Clock clock = Clock.systemUTC();
+        private FaultProfile defaultProfile = FaultProfile.healthy();
+        private final Map<StubEndpoint, FaultProfile> faultProfiles = new EnumMap<>(StubEndpoint.class);
+
+        private Builder() {
+        }
+
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Port to listen on; {@code 0} (the default) picks a free port.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public Builder backlog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Number of patron accounts ({@code patron00001}...) seeded next to {@code admin} and {@code librarian}.
+         */
+        public Builder seedPatrons(int patronCount) {
+            this.patronCount = patronCount;
+            return this;
+        }
+
+        /**
+         * Seed of the random source driving latency and error injection, for reproducible runs.
+         */
+        public Builder randomSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public Builder defaultFaultProfile(FaultProfile profile) {
+            this.defaultProfile = profile;
+            return this;
+        }
+
+        public Builder faultProfile(StubEndpoint endpoint, FaultProfile profile) {
+            this.faultProfiles.put(endpoint, profile);
+            return this;
+        }
+
+        public KeycloakStub start() {
+            try {
+                return new KeycloakStub(this);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start Keycloak stub on " + host + ":" + port, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package sn.noreyni.keycloakstub;
+
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the {@link KeycloakStub} as a standalone process, e.g. in place of the docker-compose Keycloak:
+ *
+ * <pre>
+ * java -Dstub.port=8180 -Dstub.latency=lognormal:15ms-250ms -Dstub.latency.token=lognormal:40ms-600ms \
+ *      -Dstub.error-rate=0.01 -jar target/keycloak-stub-0.0.1-SNAPSHOT-standalone.jar
+ * </pre>
+ *
+ * Supported system properties: {@code stub.host}, {@code stub.port}, {@code stub.patrons}, {@code stub.seed},
+ * {@code stub.latency}, {@code stub.error-rate}, {@code stub.error-status} and their per-endpoint variants
+ * {@code stub.latency.<endpoint>}, {@code stub.error-rate.<endpoint>} (endpoint names from {@link StubEndpoint},
+ * lower case, e.g. {@code role_mappings}).
+ */
+public class KeycloakStubApplication {
+
+    public static void main(String[] args) throws InterruptedException {
+        FaultProfile defaults = profile(FaultProfile.healthy(), "");
+        KeycloakStub.Builder builder = KeycloakStub.builder()
+                .host(System.getProperty("stub.host", "localhost"))
+                .port(Integer.getInteger("stub.port", 8180))
+                .seedPatrons(Integer.getInteger("stub.patrons", 1000))
+                .defaultFaultProfile(defaults);
+        if (System.getProperty("stub.seed") != null) {
+            builder.randomSeed(Long.getLong("stub.seed"));
+        }
+        for (StubEndpoint endpoint : StubEndpoint.values()) {
+            builder.faultProfile(endpoint, profile(defaults, "." + endpoint.name().toLowerCase(Locale.ROOT)));
+        }
+
+        KeycloakStub stub = builder.start();
+        CountDownLatch shutdown = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stub.close();
+            shutdown.countDown();
+        }));
+        shutdown.await();
+    }
+
+    private static FaultProfile profile(FaultProfile fallback, String suffix) {
+        String latency = System.getProperty("stub.latency" + suffix);
+        String errorRate = System.getProperty("stub.error-rate" + suffix);
+        String errorStatus = System.getProperty("stub.error-status" + suffix);
+        return new FaultProfile(
+                latency != null ? LatencyDistribution.parse(latency) : fallback.latency(),
+                errorRate != null ? Double.parseDouble(errorRate) : fallback.errorRate(),
+                errorStatus != null ? Integer.parseInt(errorStatus) : fallback.errorStatus());
+    }
+}
@@ -0,0 +1,89 @@
+package sn.noreyni.keycloakstub;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of artificial response delays.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /** z-score of the 99th percentile of the standard normal distribution */
+    double Z_99 = 2.326348;
+
+    long sampleNanos(RandomGenerator random);
+
+    static LatencyDistribution none() {
+        return random -> 0L;
+    }
+
+    static LatencyDistribution fixed(Duration delay) {
+        long nanos = delay.toNanos();
+        return random -> nanos;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("max latency must be >= min latency");
+        }
+        return random -> minNanos == maxNanos ? minNanos : random.nextLong(minNanos, maxNanos + 1);
+    }
+
+    static LatencyDistribution exponential(Duration mean) {
+        double meanNanos = mean.toNanos();
+        return random -> (long) (-meanNanos * Math.log(1.0 - random.nextDouble()));
+    }
+
+    /**
+     * Log-normal latency, the usual shape of real service response times:
+     * most calls close to the median with a long tail reaching {@code p99}.
+     */
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        if (p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("p99 latency must be >= median latency");
+        }
+        double mu = Math.log(median.toNanos());
+        double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / Z_99;
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /**
+     * Parses a latency specification such as {@code none}, {@code fixed:20ms},
+     * {@code uniform:5ms-50ms}, {@code exp:30ms} or {@code lognormal:20ms-400ms} (median-p99).
+     * Durations accept the {@code ms} and {@code s} suffixes.
+     */
+    static LatencyDistribution parse(String spec) {
+        String value = spec.trim().toLowerCase(Locale.ROOT);
+        if (value.isEmpty() || value.equals("none")) {
+            return none();
+        }
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            return fixed(parseDuration(value));
+        }
+        String kind = value.substring(0, separator);
+        String[] args = value.substring(separator + 1).split("-");
+        return switch (kind) {
+            case "fixed" -> fixed(parseDuration(args[0]));
+            case "uniform" -> uniform(parseDuration(args[0]), parseDuration(args[1]));
+            case "exp", "exponential" -> exponential(parseDuration(args[0]));
+            case "lognormal" -> logNormal(parseDuration(args[0]), parseDuration(args[1]));
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        };
+    }
+
+    private static Duration parseDuration(String value) {
+        String trimmed = value.trim();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        return Duration.ofMillis(Long.parseLong(trimmed));
+    }
+}
@@ -0,0 +1,23 @@
+package sn.noreyni.keycloakstub;
+
+/**
+ * Groups of Keycloak endpoints served by the stub.
+ * Each group gets its own {@link FaultProfile} so a single upstream dependency
+ * (e.g. only the token endpoint) can be slowed down or broken.
+ */
+public enum StubEndpoint {
+    /** {@code POST /realms/{realm}/protocol/openid-connect/token} */
+    TOKEN,
+    /** {@code GET /realms/{realm}/protocol/openid-connect/userinfo} */
+    USERINFO,
+    /** {@code POST /realms/{realm}/protocol/openid-connect/logout} */
+    LOGOUT,
+    /** JWKS and OpenID discovery documents */
+    CERTS,
+    /** {@code /admin/realms/{realm}/users/**} except role mappings */
+    USERS,
+    /** {@code /admin/realms/{realm}/roles/**} */
+    ROLES,
+    /** {@code /admin/realms/{realm}/users/{id}/role-mappings/**} */
+    ROLE_MAPPINGS
+}
@@ -0,0 +1,224 @@
+package sn.noreyni.keycloakstub;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory users, realm roles and role mappings backing the stub.
+ * Users are kept ordered by username, like Keycloak's admin listing.
+ */
+class StubRealm {
+
+    /** Realm roles of the libroMesh realm (see infrastructure/local/setups/keycloak/realm.json) */
+    static final List<String> DEFAULT_ROLES = List.of(
+            "SUPER_ADMIN", "LIBRARY_MANAGER", "LIBRARIAN", "CIRCULATION_STAFF", "CATALOGER",
+            "REFERENCE_LIBRARIAN", "ACQUISITIONS_LIBRARIAN", "SYSTEMS_ADMIN", "PATRON", "GUEST");
+
+    static final String DEFAULT_PASSWORD = "password";
+
+    record StubUser(String id, String username, String email, String firstName, String lastName,
+                    boolean enabled, boolean emailVerified, long createdTimestamp,
+                    String password, Set<String> roles) {
+
+        StubUser withRoles(Set<String> newRoles) {
+            return new StubUser(id, username, email, firstName, lastName, enabled, emailVerified,
+                    createdTimestamp, password, Set.copyOf(newRoles));
+        }
+
+        StubUser withPassword(String newPassword) {
+            return new StubUser(id, username, email, firstName, lastName, enabled, emailVerified,
+                    createdTimestamp, newPassword, roles);
+        }
+
+        Map<String, Object> toRepresentation() {
+            Map<String, Object> representation = new LinkedHashMap<>();
+            representation.put("id", id);
+            representation.put("username", username);
+            representation.put("email", email);
+            representation.put("firstName", firstName);
+            representation.put("lastName", lastName);
+            representation.put("enabled", enabled);
+            representation.put("emailVerified", emailVerified);
+            representation.put("createdTimestamp", createdTimestamp);
+            return representation;
+        }
+    }
+
+    private final String containerId = UUID.randomUUID().toString();
+    private final Clock clock;
+    private final Map<String, StubUser> usersById = new ConcurrentHashMap<>();
+    private final NavigableMap<String, String> userIdsByUsername = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, Map<String, Object>> rolesByName = new ConcurrentSkipListMap<>();
+
+    StubRealm(Clock clock) {
+        this.clock = clock;
+        DEFAULT_ROLES.forEach(this::addRole);
+    }
+
+    /**
+     * Seeds an administrator, a librarian and {@code patronCount} patrons, all with {@link #DEFAULT_PASSWORD}.
+     */
+    void seed(int patronCount) {
+        createUser(newUser("admin", "Admin", "LibroMesh", Set.of("SUPER_ADMIN")));
+        createUser(newUser("librarian", "Fatou", "Sow", Set.of("LIBRARIAN", "CIRCULATION_STAFF")));
+        for (int i = 1; i <= patronCount; i++) {
+            createUser(newUser(String.format("patron%05d", i), "Patron", "N" + i, Set.of("PATRON")));
+        }
+    }
+
+    void addRole(String name) {
+        Map<String, Object> role = new LinkedHashMap<>();
+        role.put("id", UUID.nameUUIDFromBytes(name.getBytes()).toString());
+        role.put("name", name);
+        role.put("description", name.replace('_', ' ').toLowerCase());
+        role.put("composite", false);
+        role.put("clientRole", false);
+        role.put("containerId", containerId);
+        rolesByName.put(name, role);
+    }
+
+    Optional<StubUser> createUser(StubUser user) {
+        if (userIdsByUsername.putIfAbsent(user.username(), user.id()) != null) {
+            return Optional.empty();
+        }
+        usersById.put(user.id(), user);
+        return Optional.of(user);
+    }
+
+    StubUser newUser(String username, String firstName, String lastName, Set<String> roles) {
+        return new StubUser(UUID.randomUUID().toString(), username, username + "@libromesh.sn",
+                firstName, lastName, true, true, clock.millis(), DEFAULT_PASSWORD, Set.copyOf(roles));
+    }
+
+    /**
+     * Builds a user from an admin API {@code UserRepresentation} payload.
+     */
+    StubUser newUser(Map<String, Object> representation) {
+        return new StubUser(UUID.randomUUID().toString(),
+                (String) representation.get("username"),
+                (String) representation.get("email"),
+                (String) representation.get("firstName"),
+                (String) representation.get("lastName"),
+                !Boolean.FALSE.equals(representation.get("enabled")),
+                Boolean.TRUE.equals(representation.get("emailVerified")),
+                clock.millis(), null, Set.of());
+    }
+
+    Optional<StubUser> findById(String id) {
+        return Optional.ofNullable(usersById.get(id));
+    }
+
+    Optional<StubUser> findByUsername(String username) {
+        String id = username == null ? null : userIdsByUsername.get(username);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    List<StubUser> listUsers(int first, int max, String search) {
+        List<StubUser> page = new ArrayList<>(Math.min(max, 100));
+        int skipped = 0;
+        for (String id : userIdsByUsername.values()) {
+            StubUser user = usersById.get(id);
+            if (user == null || !matches(user, search)) {
+                continue;
+            }
+            if (skipped++ < first) {
+                continue;
+            }
+            page.add(user);
+            if (page.size() >= max) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    int countUsers() {
+        return usersById.size();
+    }
+
+    Optional<StubUser> updateUser(String id, Map<String, Object> changes) {
+        StubUser updated = usersById.computeIfPresent(id, (key, user) -> new StubUser(
+                user.id(),
+                user.username(),
+                valueOrDefault(changes, "email", user.email()),
+                valueOrDefault(changes, "firstName", user.firstName()),
+                valueOrDefault(changes, "lastName", user.lastName()),
+                valueOrDefault(changes, "enabled", user.enabled()),
+                valueOrDefault(changes, "emailVerified", user.emailVerified()),
+                user.createdTimestamp(),
+                user.password(),
+                user.roles()));
+        return Optional.ofNullable(updated);
+    }
+
+    boolean resetPassword(String id, String password) {
+        return usersById.computeIfPresent(id, (key, user) -> user.withPassword(password)) != null;
+    }
+
+    boolean deleteUser(String id) {
+        StubUser removed = usersById.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        userIdsByUsername.remove(removed.username(), id);
+        return true;
+    }
+
+    List<Map<String, Object>> listRoles(int first, int max) {
+        return rolesByName.values().stream().skip(first).limit(max).toList();
+    }
+
+    Optional<Map<String, Object>> findRole(String name) {
+        return Optional.ofNullable(rolesByName.get(name));
+    }
+
+    Optional<List<Map<String, Object>>> roleMappings(String userId) {
+        return findById(userId).map(user -> user.roles().stream()
+                .map(rolesByName::get)
+                .filter(role -> role != null)
+                .toList());
+    }
+
+    boolean addRoleMappings(String userId, List<String> roleNames) {
+        return usersById.computeIfPresent(userId, (key, user) -> {
+            Set<String> roles = new LinkedHashSet<>(user.roles());
+            roles.addAll(roleNames);
+            return user.withRoles(roles);
+        }) != null;
+    }
+
+    boolean removeRoleMappings(String userId, List<String> roleNames) {
+        return usersById.computeIfPresent(userId, (key, user) -> {
+            Set<String> roles = new LinkedHashSet<>(user.roles());
+            roleNames.forEach(roles::remove);
+            return user.withRoles(roles);
+        }) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T valueOrDefault(Map<String, Object> changes, String key, T fallback) {
+        Object value = changes.get(key);
+        return value != null ? (T) value : fallback;
+    }
+
+    private boolean matches(StubUser user, String search) {
+        if (search == null || search.isBlank()) {
+            return true;
+        }
+        String needle = search.replace("*", "").toLowerCase();
+        return user.username().contains(needle)
+                || (user.email() != null && user.email().toLowerCase().contains(needle))
+                || (user.firstName() != null && user.firstName().toLowerCase().contains(needle))
+                || (user.lastName() != null && user.lastName().toLowerCase().contains(needle));
+    }
+}
@@ -0,0 +1,166 @@
+package sn.noreyni.keycloakstub;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Issues and verifies RS256-signed JWTs shaped like Keycloak access and refresh tokens,
+ * and publishes the matching JWKS so token consumers can validate them offline.
+ */
+class StubTokenIssuer {
+
+    static final int ACCESS_TOKEN_TTL_SECONDS = 300;
+    static final int REFRESH_TOKEN_TTL_SECONDS = 1800;
+
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64_DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final KeyPair keyPair;
+    private final String keyId;
+
+    StubTokenIssuer(ObjectMapper objectMapper, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            this.keyPair = generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate stub signing key", e);
+        }
+        this.keyId = UUID.randomUUID().toString();
+    }
+
+    /**
+     * Issues an access/refresh token pair for the given subject.
+     */
+    Map<String, Object> tokenResponse(String issuer, String clientId, StubRealm.StubUser user, String scope) {
+        long now = clock.instant().getEpochSecond();
+        String sessionId = UUID.randomUUID().toString();
+
+        Map<String, Object> access = baseClaims(issuer, clientId, user.id(), sessionId, now, ACCESS_TOKEN_TTL_SECONDS);
+        access.put("typ", "Bearer");
+        access.put("preferred_username", user.username());
+        if (user.email() != null) {
+            access.put("email", user.email());
+        }
+        if (user.firstName() != null) {
+            access.put("given_name", user.firstName());
+        }
+        if (user.lastName() != null) {
+            access.put("family_name", user.lastName());
+        }
+        access.put("email_verified", user.emailVerified());
+        access.put("realm_access", Map.of("roles", List.copyOf(user.roles())));
+        access.put("scope", scope);
+
+        Map<String, Object> refresh = baseClaims(issuer, clientId, user.id(), sessionId, now, REFRESH_TOKEN_TTL_SECONDS);
+        refresh.put("typ", "Refresh");
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("access_token", sign(access));
+        response.put("expires_in", ACCESS_TOKEN_TTL_SECONDS);
+        response.put("refresh_expires_in", REFRESH_TOKEN_TTL_SECONDS);
+        response.put("refresh_token", sign(refresh));
+        response.put("token_type", "Bearer");
+        response.put("id_token", sign(access));
+        response.put("not-before-policy", 0);
+        response.put("session_state", sessionId);
+        response.put("scope", scope);
+        return response;
+    }
+
+    /**
+     * Returns the claims of a token signed by this issuer, if the signature is valid and it has not expired.
+     */
+    Optional<Map<String, Object>> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            Signature verifier = Signature.getInstance("SHA256withRSA");
+            verifier.initVerify(keyPair.getPublic());
+            verifier.update((parts[0] + "." + parts[1]).getBytes(StandardCharsets.US_ASCII));
+            if (!verifier.verify(B64_DECODER.decode(parts[2]))) {
+                return Optional.empty();
+            }
+            Map<String, Object> claims = objectMapper.readValue(B64_DECODER.decode(parts[1]), new TypeReference<>() {
+            });
+            long exp = ((Number) claims.get("exp")).longValue();
+            return exp >= clock.instant().getEpochSecond() ? Optional.of(claims) : Optional.empty();
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    Map<String, Object> jwks() {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", keyId);
+        jwk.put("kty", "RSA");
+        jwk.put("alg", "RS256");
+        jwk.put("use", "sig");
+        jwk.put("n", B64.encodeToString(unsigned(publicKey.getModulus())));
+        jwk.put("e", B64.encodeToString(unsigned(publicKey.getPublicExponent())));
+        return Map.of("keys", List.of(jwk));
+    }
+
+    private Map<String, Object> baseClaims(String issuer, String clientId, String subject, String sessionId,
+                                           long now, int ttlSeconds) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("exp", now + ttlSeconds);
+        claims.put("iat", now);
+        claims.put("jti", UUID.randomUUID().toString());
+        claims.put("iss", issuer);
+        claims.put("aud", "account");
+        claims.put("sub", subject);
+        claims.put("azp", clientId);
+        claims.put("sid", sessionId);
+        return claims;
+    }
+
+    private String sign(Map<String, Object> claims) {
+        try {
+            Map<String, Object> header = Map.of("alg", "RS256", "typ", "JWT", "kid", keyId);
+            String signingInput = B64.encodeToString(objectMapper.writeValueAsBytes(header))
+                    + "." + B64.encodeToString(objectMapper.writeValueAsBytes(claims));
+            Signature signer = Signature.getInstance("SHA256withRSA");
+            signer.initSign(keyPair.getPrivate());
+            signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + B64.encodeToString(signer.sign());
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to sign stub token", e);
+        }
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            byte[] trimmed = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, trimmed, 0, trimmed.length);
+            return trimmed;
+        }
+        return bytes;
+    }
+}
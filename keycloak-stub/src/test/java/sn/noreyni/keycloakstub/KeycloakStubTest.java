@@ -0,0 +1,123 @@
+package sn.noreyni.keycloakstub;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.keycloak.OAuth2Constants;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.KeycloakBuilder;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.RoleRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeycloakStubTest {
+
+    private static final String REALM = "libromesh";
+
+    private KeycloakStub stub;
+    private Keycloak keycloak;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        stub = KeycloakStub.builder().seedPatrons(25).randomSeed(42).start();
+        keycloak = KeycloakBuilder.builder()
+                .serverUrl(stub.getServerUrl())
+                .realm(REALM)
+                .clientId("libroMesh")
+                .clientSecret("secret")
+                .grantType(OAuth2Constants.CLIENT_CREDENTIALS)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        keycloak.close();
+        stub.close();
+    }
+
+    @Test
+    void testAdminClientUserLifecycle() {
+        RealmResource realm = keycloak.realm(REALM);
+        assertThat(realm.users().list(0, 10)).hasSize(10);
+
+        UserRepresentation user = new UserRepresentation();
+        user.setUsername("awa.fall");
+        user.setEmail("awa.fall@libromesh.sn");
+        user.setEnabled(true);
+        String userId;
+        try (Response response = realm.users().create(user)) {
+            assertThat(response.getStatus()).isEqualTo(201);
+            userId = response.getLocation().getPath().substring(response.getLocation().getPath().lastIndexOf('/') + 1);
+        }
+
+        CredentialRepresentation password = new CredentialRepresentation();
+        password.setType(CredentialRepresentation.PASSWORD);
+        password.setValue("passer123");
+        realm.users().get(userId).resetPassword(password);
+
+        RoleRepresentation librarian = realm.roles().get("LIBRARIAN").toRepresentation();
+        realm.users().get(userId).roles().realmLevel().add(List.of(librarian));
+
+        assertThat(realm.users().get(userId).toRepresentation().getUsername()).isEqualTo("awa.fall");
+        assertThat(realm.users().get(userId).roles().realmLevel().listAll())
+                .extracting(RoleRepresentation::getName)
+                .containsExactly("LIBRARIAN");
+    }
+
+    @Test
+    void testPasswordGrantAndUserInfo() throws Exception {
+        HttpResponse<String> token = post("/realms/" + REALM + "/protocol/openid-connect/token",
+                "grant_type=password&client_id=libroMesh&username=patron00001&password=password");
+        assertThat(token.statusCode()).isEqualTo(200);
+        assertThat(token.body()).contains("\"access_token\"", "\"refresh_token\"");
+
+        HttpResponse<String> wrongPassword = post("/realms/" + REALM + "/protocol/openid-connect/token",
+                "grant_type=password&client_id=libroMesh&username=patron00001&password=wrong");
+        assertThat(wrongPassword.statusCode()).isEqualTo(401);
+    }
+
+    @Test
+    void testInjectedLatencyAndErrors() throws Exception {
+        stub.setFaultProfile(StubEndpoint.TOKEN, FaultProfile.of(LatencyDistribution.fixed(Duration.ofMillis(200))));
+        long start = System.nanoTime();
+        post("/realms/" + REALM + "/protocol/openid-connect/token",
+                "grant_type=password&client_id=libroMesh&username=admin&password=password");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+
+        stub.setFaultProfile(StubEndpoint.TOKEN, FaultProfile.healthy().withErrors(1.0, 503));
+        HttpResponse<String> failed = post("/realms/" + REALM + "/protocol/openid-connect/token",
+                "grant_type=password&client_id=libroMesh&username=admin&password=password");
+        assertThat(failed.statusCode()).isEqualTo(503);
+        assertThat(stub.injectedErrorCount(StubEndpoint.TOKEN)).isEqualTo(1);
+        assertThat(stub.requestCount(StubEndpoint.TOKEN)).isEqualTo(2);
+    }
+
+    @Test
+    void testLatencySpecParsing() {
+        assertThat(LatencyDistribution.parse("fixed:20ms").sampleNanos(new java.util.Random(1)))
+                .isEqualTo(Duration.ofMillis(20).toNanos());
+        assertThat(LatencyDistribution.parse("uniform:5ms-10ms").sampleNanos(new java.util.Random(1)))
+                .isBetween(Duration.ofMillis(5).toNanos(), Duration.ofMillis(10).toNanos());
+        assertThat(LatencyDistribution.parse("none").sampleNanos(new java.util.Random(1))).isZero();
+    }
+
+    private HttpResponse<String> post(String path, String form) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(stub.getServerUrl() + path))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
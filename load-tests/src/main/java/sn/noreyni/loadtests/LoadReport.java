@@ -0,0 +1,73 @@
+package sn.noreyni.loadtests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints the run summary and writes, per scenario, the full HdrHistogram percentile distribution
+ * ({@code <scenario>.hgrm}, plottable with the HdrHistogram plotter) plus a {@code summary.json}
+ * to compare runs against each other.
+ */
+public class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final List<ScenarioResult> results;
+
+    public LoadReport(List<ScenarioResult> results) {
+        this.results = results;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%n%-15s %9s %9s %9s %10s %9s %9s %9s %9s %9s%n",
+                "scenario", "requests", "errors", "dropped", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        for (ScenarioResult result : results) {
+            out.printf("%-15s %9d %9d %9d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.scenario(), result.completed() + result.dropped(), result.failed(), result.dropped(),
+                    result.throughputPerSecond(),
+                    result.percentileMillis(50), result.percentileMillis(90), result.percentileMillis(99),
+                    result.percentileMillis(99.9), result.allLatency().getMaxValue() / NANOS_PER_MILLI);
+        }
+        for (ScenarioResult result : results) {
+            if (result.failed() > 0) {
+                out.printf("%s statuses=%s transport_errors=%d dropped=%d%n", result.scenario(),
+                        result.statusCounts(), result.transportErrors(), result.dropped());
+            }
+        }
+    }
+
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (ScenarioResult result : results) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(result.scenario() + ".hgrm")))) {
+                result.allLatency().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+            Map<String, Object> scenario = new LinkedHashMap<>();
+            scenario.put("measuredSeconds", result.measured().toMillis() / 1000.0);
+            scenario.put("requests", result.completed() + result.dropped());
+            scenario.put("succeeded", result.succeeded());
+            scenario.put("failed", result.failed());
+            scenario.put("dropped", result.dropped());
+            scenario.put("transportErrors", result.transportErrors());
+            scenario.put("statusCounts", result.statusCounts());
+            scenario.put("throughputPerSecond", result.throughputPerSecond());
+            scenario.put("p50Ms", result.percentileMillis(50));
+            scenario.put("p90Ms", result.percentileMillis(90));
+            scenario.put("p99Ms", result.percentileMillis(99));
+            scenario.put("p999Ms", result.percentileMillis(99.9));
+            scenario.put("maxMs", result.allLatency().getMaxValue() / NANOS_PER_MILLI);
+            summary.put(result.scenario(), scenario);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("summary.json").toFile(), summary);
+    }
+}
@@ -0,0 +1,111 @@
+package sn.noreyni.loadtests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sn.noreyni.keycloakstub.FaultProfile;
+import sn.noreyni.keycloakstub.KeycloakStub;
+import sn.noreyni.keycloakstub.LatencyDistribution;
+import sn.noreyni.loadtests.scenario.BookSearchScenario;
+import sn.noreyni.loadtests.scenario.LoginScenario;
+import sn.noreyni.loadtests.scenario.PatronPagingScenario;
+import sn.noreyni.loadtests.scenario.UserLookupScenario;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test through gatewey-service.
+ * <p>
+ * Expects discovery, gateway, user-service and book-service running locally (book-service on the
+ * docker-compose {@code book-db} Postgres). With {@code --keycloak-stub.port=8180} the Keycloak
+ * stub is started in-process on the port user-service is configured for, so no real Keycloak is needed.
+ */
+public class LoadTestApplication {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTestApplication.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        KeycloakStub keycloakStub = options.startKeycloakStub() ? startKeycloakStub(options) : null;
+        try {
+            run(options);
+        } finally {
+            if (keycloakStub != null) {
+                keycloakStub.close();
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options) throws Exception {
+        ExecutorService responseExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.requestTimeout())
+                .executor(responseExecutor)
+                .build();
+
+        ScenarioContext context = new ScenarioContext(options.gateway(), options.requestTimeout(), options.patrons());
+        context.prepare(client, new ObjectMapper(), options.adminUsername(), options.adminPassword());
+        LOG.info("Load test prepared | gateway={} | user_ids={} | scenarios={}",
+                options.gateway(), context.userIds().size(), options.scenarios());
+
+        List<OpenModelRunner> runners = new ArrayList<>();
+        long seed = options.seed();
+        for (String name : options.scenarios()) {
+            runners.add(new OpenModelRunner(scenario(name, options), rateProfile(name, options), client, context,
+                    options.warmup(), options.duration(), options.maxInFlight(), seed++));
+        }
+
+        // One platform thread per pacer: virtual threads would add scheduling jitter to send times
+        Thread.Builder pacerThreads = Thread.ofPlatform().name("pacer-", 0);
+        List<Thread> pacers = runners.stream()
+                .map(pacerThreads::start)
+                .toList();
+        for (Thread pacer : pacers) {
+            pacer.join();
+        }
+
+        LoadReport report = new LoadReport(runners.stream().map(OpenModelRunner::result).toList());
+        report.print(System.out);
+        Path reportDirectory = options.reportDirectory()
+                .resolve(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        report.write(reportDirectory);
+        LOG.info("Load test report written | directory={}", reportDirectory.toAbsolutePath());
+        responseExecutor.shutdownNow();
+    }
+
+    private static Scenario scenario(String name, LoadTestOptions options) {
+        return switch (name) {
+            case "login" -> new LoginScenario(options.patronPassword());
+            case "patron-paging" -> new PatronPagingScenario(20);
+            case "user-lookup" -> new UserLookupScenario();
+            case "book-search" -> new BookSearchScenario(options.bookSearchPath());
+            default -> throw new IllegalArgumentException("Unknown scenario: " + name);
+        };
+    }
+
+    private static RateProfile rateProfile(String name, LoadTestOptions options) {
+        double rate = options.rates().get(name);
+        if (name.equals("login")) {
+            return RateProfile.burst(rate, options.loginPeakRate(), options.loginBurstLength(), options.loginBurstPeriod());
+        }
+        return RateProfile.constant(rate);
+    }
+
+    private static KeycloakStub startKeycloakStub(LoadTestOptions options) {
+        return KeycloakStub.builder()
+                .port(options.keycloakStubPort())
+                .seedPatrons(options.patrons())
+                .randomSeed(options.seed())
+                .defaultFaultProfile(FaultProfile.of(LatencyDistribution.parse(options.keycloakStubLatency()))
+                        .withErrors(options.keycloakStubErrorRate(), 503))
+                .start();
+    }
+}
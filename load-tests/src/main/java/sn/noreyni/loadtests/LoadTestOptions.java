@@ -0,0 +1,89 @@
+package sn.noreyni.loadtests;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, all in {@code --name=value} form. See the module README for the full list.
+ */
+public record LoadTestOptions(
+        URI gateway,
+        List<String> scenarios,
+        Duration warmup,
+        Duration duration,
+        Map<String, Double> rates,
+        double loginPeakRate,
+        Duration loginBurstLength,
+        Duration loginBurstPeriod,
+        int maxInFlight,
+        Duration requestTimeout,
+        long seed,
+        int patrons,
+        String adminUsername,
+        String adminPassword,
+        String patronPassword,
+        String bookSearchPath,
+        int keycloakStubPort,
+        String keycloakStubLatency,
+        double keycloakStubErrorRate,
+        Path reportDirectory) {
+
+    public static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        Map<String, Double> rates = new HashMap<>();
+        rates.put("login", Double.parseDouble(values.getOrDefault("rate.login", "5")));
+        rates.put("patron-paging", Double.parseDouble(values.getOrDefault("rate.patron-paging", "20")));
+        rates.put("user-lookup", Double.parseDouble(values.getOrDefault("rate.user-lookup", "50")));
+        rates.put("book-search", Double.parseDouble(values.getOrDefault("rate.book-search", "50")));
+
+        return new LoadTestOptions(
+                URI.create(values.getOrDefault("gateway", "http://localhost:8080")),
+                List.of(values.getOrDefault("scenarios", "login,patron-paging,user-lookup,book-search").split(",")),
+                duration(values.getOrDefault("warmup", "10s")),
+                duration(values.getOrDefault("duration", "60s")),
+                Map.copyOf(rates),
+                Double.parseDouble(values.getOrDefault("login.peak-rate", "100")),
+                duration(values.getOrDefault("login.burst-length", "5s")),
+                duration(values.getOrDefault("login.burst-period", "30s")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+                duration(values.getOrDefault("timeout", "10s")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                Integer.parseInt(values.getOrDefault("patrons", "1000")),
+                values.getOrDefault("admin.username", "admin"),
+                values.getOrDefault("admin.password", "password"),
+                values.getOrDefault("patron.password", "password"),
+                values.getOrDefault("book-search.path", "/book-service/api/v1/books"),
+                Integer.parseInt(values.getOrDefault("keycloak-stub.port", "-1")),
+                values.getOrDefault("keycloak-stub.latency", "lognormal:10ms-150ms"),
+                Double.parseDouble(values.getOrDefault("keycloak-stub.error-rate", "0")),
+                Path.of(values.getOrDefault("report-dir", "target/load-reports")));
+    }
+
+    public boolean startKeycloakStub() {
+        return keycloakStubPort >= 0;
+    }
+
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+}
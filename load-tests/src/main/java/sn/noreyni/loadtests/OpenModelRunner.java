@@ -0,0 +1,135 @@
+package sn.noreyni.loadtests;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives one {@link Scenario} at a constant (or profiled) arrival rate.
+ * <p>
+ * Latency is measured from the <em>intended</em> send time of each request, not from the moment
+ * it was actually sent, so a stalled client or server cannot hide queueing delay
+ * (no coordinated omission). Requests beyond {@code maxInFlight} are counted as dropped.
+ */
+public class OpenModelRunner implements Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OpenModelRunner.class);
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Scenario scenario;
+    private final RateProfile rateProfile;
+    private final HttpClient client;
+    private final ScenarioContext context;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int maxInFlight;
+    private final SplittableRandom random;
+
+    private final Recorder successRecorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Recorder errorRecorder = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    private final LongAdder transportErrors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile long measureStartNanos;
+    private volatile long measureEndNanos;
+
+    public OpenModelRunner(Scenario scenario, RateProfile rateProfile, HttpClient client, ScenarioContext context,
+                           Duration warmup, Duration duration, int maxInFlight, long seed) {
+        this.scenario = scenario;
+        this.rateProfile = rateProfile;
+        this.client = client;
+        this.context = context;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.maxInFlight = maxInFlight;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        measureStartNanos = start + warmup.toNanos();
+        long end = measureStartNanos + duration.toNanos();
+        long intended = start;
+        LOG.info("Scenario started | scenario={} | warmup={} | duration={}", scenario.name(), warmup, duration);
+
+        while (intended < end) {
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            fire(intended);
+            intended += (long) (TimeUnit.SECONDS.toNanos(1) / rateProfile.ratePerSecond(intended - start));
+        }
+        measureEndNanos = end;
+        awaitInFlight(Duration.ofSeconds(30));
+        LOG.info("Scenario finished | scenario={} | in_flight_abandoned={}", scenario.name(), inFlight.get());
+    }
+
+    private void fire(long intendedStart) {
+        boolean measured = intendedStart >= measureStartNanos;
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                dropped.increment();
+            }
+            return;
+        }
+        HttpRequest request;
+        try {
+            request = scenario.nextRequest(context, random);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    long latency = Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS);
+                    inFlight.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    if (error != null) {
+                        transportErrors.increment();
+                        errorRecorder.recordValue(latency);
+                        return;
+                    }
+                    statusCounts.computeIfAbsent(response.statusCode(), status -> new LongAdder()).increment();
+                    (scenario.isSuccess(response.statusCode()) ? successRecorder : errorRecorder).recordValue(latency);
+                });
+    }
+
+    private void awaitInFlight(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    public ScenarioResult result() {
+        Histogram success = successRecorder.getIntervalHistogram();
+        Histogram errors = errorRecorder.getIntervalHistogram();
+        Histogram all = success.copy();
+        all.add(errors);
+        Map<Integer, Long> statuses = new java.util.TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        return new ScenarioResult(scenario.name(), Duration.ofNanos(measureEndNanos - measureStartNanos),
+                success, all, statuses, transportErrors.sum(), dropped.sum());
+    }
+}
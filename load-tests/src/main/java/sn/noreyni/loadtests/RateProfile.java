@@ -0,0 +1,34 @@
+package sn.noreyni.loadtests;
+
+import java.time.Duration;
+
+/**
+ * Target arrival rate over time. Requests are issued on this schedule whatever the
+ * response times are (open model), so a slow system sees queues build up instead of
+ * a politely slowing client.
+ */
+@FunctionalInterface
+public interface RateProfile {
+
+    double ratePerSecond(long elapsedNanos);
+
+    static RateProfile constant(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        return elapsed -> ratePerSecond;
+    }
+
+    /**
+     * {@code baseRate} most of the time, jumping to {@code peakRate} for {@code burstLength}
+     * at the start of every {@code period} (e.g. everybody logging in when the library opens).
+     */
+    static RateProfile burst(double baseRate, double peakRate, Duration burstLength, Duration period) {
+        if (baseRate <= 0 || peakRate <= 0) {
+            throw new IllegalArgumentException("rates must be positive");
+        }
+        long burstNanos = burstLength.toNanos();
+        long periodNanos = period.toNanos();
+        return elapsed -> (elapsed % periodNanos) < burstNanos ? peakRate : baseRate;
+    }
+}
@@ -0,0 +1,19 @@
+package sn.noreyni.loadtests;
+
+import java.net.http.HttpRequest;
+import java.util.random.RandomGenerator;
+
+/**
+ * One kind of traffic sent through the gateway.
+ * {@link #nextRequest} is only called from the scenario's pacer thread.
+ */
+public interface Scenario {
+
+    String name();
+
+    HttpRequest nextRequest(ScenarioContext context, RandomGenerator random);
+
+    default boolean isSuccess(int statusCode) {
+        return statusCode >= 200 && statusCode < 300;
+    }
+}
@@ -0,0 +1,87 @@
+package sn.noreyni.loadtests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data shared by all scenarios, resolved once through the gateway before the run starts:
+ * an access token for authenticated calls and a pool of existing user ids for lookups.
+ */
+public class ScenarioContext {
+
+    private final URI gatewayUri;
+    private final Duration requestTimeout;
+    private final int patronCount;
+    private String accessToken;
+    private List<String> userIds = List.of();
+
+    public ScenarioContext(URI gatewayUri, Duration requestTimeout, int patronCount) {
+        this.gatewayUri = gatewayUri;
+        this.requestTimeout = requestTimeout;
+        this.patronCount = patronCount;
+    }
+
+    public void prepare(HttpClient client, ObjectMapper objectMapper, String username, String password)
+            throws IOException, InterruptedException {
+        HttpResponse<String> login = client.send(
+                jsonPost("/user-service/api/v1/auth/login",
+                        objectMapper.writeValueAsString(new Credentials(username, password))),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode loginBody = objectMapper.readTree(login.body());
+        if (login.statusCode() != 200 || !loginBody.path("success").asBoolean()) {
+            throw new IllegalStateException("Login as " + username + " failed: " + login.statusCode() + " " + login.body());
+        }
+        accessToken = loginBody.path("data").path("access_token").asText();
+
+        HttpResponse<String> users = client.send(get("/user-service/api/v1/users?page=0&size=100"),
+                HttpResponse.BodyHandlers.ofString());
+        List<String> ids = new ArrayList<>();
+        objectMapper.readTree(users.body()).path("data")
+                .forEach(user -> ids.add(user.path("user_id").asText()));
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No users returned by user-service: " + users.statusCode() + " " + users.body());
+        }
+        userIds = List.copyOf(ids);
+    }
+
+    public HttpRequest get(String pathAndQuery) {
+        return request(pathAndQuery).GET().build();
+    }
+
+    public HttpRequest jsonPost(String path, String json) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(gatewayUri.resolve(pathAndQuery))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json");
+        if (accessToken != null) {
+            builder.header("Authorization", "Bearer " + accessToken);
+        }
+        return builder;
+    }
+
+    public List<String> userIds() {
+        return userIds;
+    }
+
+    public int patronCount() {
+        return patronCount;
+    }
+
+    private record Credentials(String username, String password) {
+    }
+}
@@ -0,0 +1,39 @@
+package sn.noreyni.loadtests;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of one scenario over the measured window (warm-up excluded).
+ *
+ * @param successLatency  latency of 2xx responses, in nanoseconds
+ * @param allLatency      latency of every completed request, including errors
+ * @param statusCounts    responses per HTTP status
+ * @param transportErrors connection failures and client-side timeouts
+ * @param dropped         requests not sent because the in-flight cap was reached
+ */
+public record ScenarioResult(String scenario, Duration measured, Histogram successLatency, Histogram allLatency,
+                             Map<Integer, Long> statusCounts, long transportErrors, long dropped) {
+
+    public long completed() {
+        return allLatency.getTotalCount();
+    }
+
+    public long succeeded() {
+        return successLatency.getTotalCount();
+    }
+
+    public long failed() {
+        return completed() - succeeded() + dropped;
+    }
+
+    public double throughputPerSecond() {
+        return succeeded() / (measured.toNanos() / 1e9);
+    }
+
+    public double percentileMillis(double percentile) {
+        return allLatency.getValueAtPercentile(percentile) / 1e6;
+    }
+}
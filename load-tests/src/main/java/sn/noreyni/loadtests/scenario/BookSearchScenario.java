@@ -0,0 +1,39 @@
+package sn.noreyni.loadtests.scenario;
+
+import sn.noreyni.loadtests.Scenario;
+import sn.noreyni.loadtests.ScenarioContext;
+
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Catalog searches through book-service ({@code GET /api/v1/books?search=&page=&size=}).
+ * The path is configurable until the catalog API settles.
+ */
+public class BookSearchScenario implements Scenario {
+
+    private static final List<String> TERMS = List.of(
+            "senghor", "une si longue lettre", "histoire", "mathematiques", "roman", "poesie",
+            "java", "microservices", "afrique", "sembene", "chimie", "philosophie", "kane", "diop");
+
+    private final String searchPath;
+
+    public BookSearchScenario(String searchPath) {
+        this.searchPath = searchPath;
+    }
+
+    @Override
+    public String name() {
+        return "book-search";
+    }
+
+    @Override
+    public HttpRequest nextRequest(ScenarioContext context, RandomGenerator random) {
+        String term = URLEncoder.encode(TERMS.get(random.nextInt(TERMS.size())), StandardCharsets.UTF_8);
+        int page = random.nextInt(10) < 8 ? 0 : random.nextInt(1, 5);
+        return context.get(searchPath + "?search=" + term + "&page=" + page + "&size=20");
+    }
+}
@@ -0,0 +1,32 @@
+package sn.noreyni.loadtests.scenario;
+
+import sn.noreyni.loadtests.Scenario;
+import sn.noreyni.loadtests.ScenarioContext;
+
+import java.net.http.HttpRequest;
+import java.util.random.RandomGenerator;
+
+/**
+ * Patron logins ({@code POST /api/v1/auth/login}), each one a Keycloak password grant behind user-service.
+ * Usually driven with a {@link sn.noreyni.loadtests.RateProfile#burst burst} rate profile.
+ */
+public class LoginScenario implements Scenario {
+
+    private final String password;
+
+    public LoginScenario(String password) {
+        this.password = password;
+    }
+
+    @Override
+    public String name() {
+        return "login";
+    }
+
+    @Override
+    public HttpRequest nextRequest(ScenarioContext context, RandomGenerator random) {
+        String username = String.format("patron%05d", random.nextInt(1, context.patronCount() + 1));
+        return context.jsonPost("/user-service/api/v1/auth/login",
+                "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}");
+    }
+}
@@ -0,0 +1,33 @@
+package sn.noreyni.loadtests.scenario;
+
+import sn.noreyni.loadtests.Scenario;
+import sn.noreyni.loadtests.ScenarioContext;
+
+import java.net.http.HttpRequest;
+import java.util.random.RandomGenerator;
+
+/**
+ * Staff paging through the patron list ({@code GET /api/v1/users?page=&size=}).
+ * Early pages are requested far more often than deep ones, like a list screen would.
+ */
+public class PatronPagingScenario implements Scenario {
+
+    private final int pageSize;
+
+    public PatronPagingScenario(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public String name() {
+        return "patron-paging";
+    }
+
+    @Override
+    public HttpRequest nextRequest(ScenarioContext context, RandomGenerator random) {
+        int lastPage = Math.max(0, context.patronCount() / pageSize - 1);
+        // Geometric page distribution: page 0 about half the time, page 1 a quarter, ...
+        int page = Math.min(lastPage, (int) Math.floor(Math.log(1.0 - random.nextDouble()) / Math.log(0.5)));
+        return context.get("/user-service/api/v1/users?page=" + page + "&size=" + pageSize);
+    }
+}
@@ -0,0 +1,25 @@
+package sn.noreyni.loadtests.scenario;
+
+import sn.noreyni.loadtests.Scenario;
+import sn.noreyni.loadtests.ScenarioContext;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Single user lookups ({@code GET /api/v1/users/{id}}) over the ids resolved before the run.
+ */
+public class UserLookupScenario implements Scenario {
+
+    @Override
+    public String name() {
+        return "user-lookup";
+    }
+
+    @Override
+    public HttpRequest nextRequest(ScenarioContext context, RandomGenerator random) {
+        List<String> userIds = context.userIds();
+        return context.get("/user-service/api/v1/users/" + userIds.get(random.nextInt(userIds.size())));
+    }
+}
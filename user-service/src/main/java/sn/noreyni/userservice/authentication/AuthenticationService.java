@@ -15,6 +15,7 @@ import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 import sn.noreyni.userservice.authentication.dto.*;
+import sn.noreyni.userservice.common.KeycloakObservations;
 import sn.noreyni.userservice.config.KeycloakAdminClientConfig;
 import sn.noreyni.userservice.exception.ApiException;
 
@@ -29,6 +30,7 @@ public class AuthenticationService {
     private final Keycloak keycloak;
     private final WebClient.Builder webClientBuilder;
     private final KeycloakAdminClientConfig keycloakConfig;
+    private final KeycloakObservations keycloakObservations;
 
     public Mono<LoginResponse> login(LoginRequest request) {
         return executeWithLogging("login", request.getUsername(),
@@ -76,7 +78,7 @@ public class AuthenticationService {
                     var realmResource = keycloak.realm(keycloakConfig.getRealm());
                     var user = createUserRepresentation(request);
 
-                    var response = realmResource.users().create(user);
+                    var response = keycloakObservations.call("users.create", () -> realmResource.users().create(user));
                     if (response.getStatus() >= 400) {
                         throw ApiException.badRequest("Failed to create user in Keycloak, status: " + response.getStatus());
                     }
@@ -134,7 +136,7 @@ public class AuthenticationService {
         return keycloakConfig.getServerUrl() + "/realms/" + keycloakConfig.getRealm() + "/protocol/openid-connect/userinfo";
     }
 
-    private MultiValueMap<String, String> buildLoginFormData(LoginRequest request) {
+    MultiValueMap<String, String> buildLoginFormData(LoginRequest request) {
         var formData = new LinkedMultiValueMap<String, String>();
         formData.add("grant_type", "password");
         formData.add("client_id", keycloakConfig.getClientId());
@@ -145,7 +147,7 @@ public class AuthenticationService {
         return formData;
     }
 
-    private MultiValueMap<String, String> buildRefreshTokenFormData(RefreshTokenRequest request) {
+    MultiValueMap<String, String> buildRefreshTokenFormData(RefreshTokenRequest request) {
         var formData = new LinkedMultiValueMap<String, String>();
         formData.add("grant_type", "refresh_token");
         formData.add("client_id", keycloakConfig.getClientId());
@@ -154,7 +156,7 @@ public class AuthenticationService {
         return formData;
     }
 
-    private MultiValueMap<String, String> buildLogoutFormData(LogoutRequest request) {
+    MultiValueMap<String, String> buildLogoutFormData(LogoutRequest request) {
         var formData = new LinkedMultiValueMap<String, String>();
         formData.add("client_id", keycloakConfig.getClientId());
         formData.add("client_secret", keycloakConfig.getClientSecret());
@@ -215,7 +217,7 @@ public class AuthenticationService {
         passwordCred.setType(CredentialRepresentation.PASSWORD);
         passwordCred.setValue(password);
         passwordCred.setTemporary(false);
-        realmResource.users().get(userId).resetPassword(passwordCred);
+        keycloakObservations.run("users.reset-password", () -> realmResource.users().get(userId).resetPassword(passwordCred));
     }
 
     private Throwable mapWebClientException(Throwable ex) {
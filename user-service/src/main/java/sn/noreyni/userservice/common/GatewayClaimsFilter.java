@@ -0,0 +1,133 @@
+package sn.noreyni.userservice.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import sn.noreyni.userservice.config.GatewayClaimsConfig;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Verifies the {@code X-Auth-*} claim headers written by the gateway: HMAC-SHA256 over subject,
+ * username, roles and timestamp with the secret shared with the gateway, and a timestamp no older
+ * than {@code app.gateway-claims.max-age}. Verified claims are exposed as {@link GatewayClaims}.
+ * <p>
+ * A request carrying any {@code X-Auth-*} header that does not verify is rejected with a 401, so
+ * calls reaching the service without the gateway cannot pose as an authenticated user.
+ */
+@Slf4j
+@Component
+public class GatewayClaimsFilter implements WebFilter, Ordered {
+
+    static final String SUBJECT_HEADER = "X-Auth-Subject";
+    static final String USERNAME_HEADER = "X-Auth-Username";
+    static final String ROLES_HEADER = "X-Auth-Roles";
+    static final String TIMESTAMP_HEADER = "X-Auth-Timestamp";
+    static final String SIGNATURE_HEADER = "X-Auth-Signature";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER_PREFIX = "x-auth-";
+
+    private final SecretKeySpec key;
+    private final long maxAgeSeconds;
+    private final ObjectMapper objectMapper;
+
+    public GatewayClaimsFilter(GatewayClaimsConfig config, ObjectMapper objectMapper) {
+        String secret = config.getSecret();
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalStateException("app.gateway-claims.secret must be set and at least 32 characters long");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.maxAgeSeconds = config.getMaxAge().toSeconds();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        boolean hasClaims = headers.keySet().stream()
+                .anyMatch(name -> name.regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length()));
+        if (!hasClaims) {
+            return chain.filter(exchange);
+        }
+        GatewayClaims claims = verify(headers);
+        if (claims == null) {
+            log.warn("Rejected unverified claim headers | path={}", exchange.getRequest().getPath());
+            return unauthorized(exchange.getResponse());
+        }
+        exchange.getAttributes().put(GatewayClaims.ATTRIBUTE, claims);
+        return chain.filter(exchange);
+    }
+
+    GatewayClaims verify(HttpHeaders headers) {
+        String subject = headers.getFirst(SUBJECT_HEADER);
+        String username = headers.getFirst(USERNAME_HEADER);
+        String roles = headers.getFirst(ROLES_HEADER);
+        String timestamp = headers.getFirst(TIMESTAMP_HEADER);
+        String signature = headers.getFirst(SIGNATURE_HEADER);
+        if (subject == null || subject.isEmpty() || username == null || roles == null
+                || timestamp == null || signature == null) {
+            return null;
+        }
+        long signedAt;
+        try {
+            signedAt = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (Math.abs(System.currentTimeMillis() / 1000 - signedAt) > maxAgeSeconds) {
+            return null;
+        }
+        byte[] expected = sign(subject + '\n' + username + '\n' + roles + '\n' + signedAt);
+        if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII))) {
+            return null;
+        }
+        return new GatewayClaims(subject, username,
+                roles.isEmpty() ? List.of() : Arrays.asList(roles.split(",")));
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature).getBytes(StandardCharsets.US_ASCII);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise " + ALGORITHM, e);
+        }
+    }
+
+    private Mono<Void> unauthorized(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(ApiResponse.error("AUTH_003", "Token invalide"));
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        } catch (JsonProcessingException e) {
+            return response.setComplete();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // After LoadSignalsFilter, so rejected calls are still counted
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,54 @@
+package sn.noreyni.userservice.common;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Wraps blocking Keycloak admin client calls in observations so that each REST call
+ * to Keycloak gets its own span (and timer) under the current request's trace.
+ * OIDC calls go through the auto-instrumented {@code WebClient.Builder} instead.
+ * <p>
+ * Also counts the admin calls in flight, which hold a connection of the admin client's pool.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeycloakObservations {
+
+    private static final String OBSERVATION_NAME = "keycloak.admin";
+
+    private final ObservationRegistry observationRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public <T> T call(String operation, Supplier<T> keycloakCall) {
+        inFlight.incrementAndGet();
+        try {
+            return observation(operation).observe(keycloakCall);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public void run(String operation, Runnable keycloakCall) {
+        inFlight.incrementAndGet();
+        try {
+            observation(operation).observe(keycloakCall);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private Observation observation(String operation) {
+        return Observation.createNotStarted(OBSERVATION_NAME, observationRegistry)
+                .contextualName("keycloak " + operation)
+                .lowCardinalityKeyValue("keycloak.operation", operation);
+    }
+}
@@ -0,0 +1,78 @@
+package sn.noreyni.userservice.common;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import sn.noreyni.userservice.config.LoadMetadataConfig;
+
+import java.util.Map;
+
+/**
+ * Publishes the load of this instance in its Eureka metadata, read by the gateway load balancer:
+ * <ul>
+ *     <li>{@code load-in-flight}: requests being served</li>
+ *     <li>{@code load-pool-saturation}: Keycloak admin calls in flight over the admin client pool size</li>
+ *     <li>{@code load-p99-ms}: p99 latency of the requests completed since the previous update</li>
+ *     <li>{@code load-updated-at}: epoch millis of the update</li>
+ * </ul>
+ * Signals are refreshed on each Eureka client heartbeat; the metadata is only changed, which costs a
+ * re-registration, when a rounded signal moved or {@code republish-interval} elapsed. These keys are
+ * not part of the {@code instance-version} the gateway uses to refresh its OpenAPI documents.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadMetadataPublisher {
+
+    private final ApplicationInfoManager applicationInfoManager;
+    private final LoadSignalsFilter loadSignals;
+    private final KeycloakObservations keycloakObservations;
+    private final LoadMetadataConfig config;
+
+    private String lastPublished;
+    private long lastPublishedAt;
+    private long lastP99Millis = -1;
+
+    @EventListener(HeartbeatEvent.class)
+    public synchronized void onHeartbeat() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        int inFlight = loadSignals.inFlight();
+        double saturation = Math.round(Math.min(1,
+                (double) keycloakObservations.inFlight() / Math.max(1, config.getKeycloakPoolSize())) * 20) / 20d;
+        long p99 = loadSignals.p99MillisSinceLastRead();
+        // An idle interval keeps the last p99 instead of reporting an instance with no latency
+        if (p99 >= 0) {
+            lastP99Millis = roundP99(p99);
+        }
+
+        String signals = inFlight + "|" + saturation + "|" + lastP99Millis;
+        long now = System.currentTimeMillis();
+        if (signals.equals(lastPublished) && now - lastPublishedAt < config.getRepublishInterval().toMillis()) {
+            return;
+        }
+        applicationInfoManager.registerAppMetadata(Map.of(
+                "load-in-flight", Integer.toString(inFlight),
+                "load-pool-saturation", Double.toString(saturation),
+                "load-p99-ms", Long.toString(Math.max(0, lastP99Millis)),
+                "load-updated-at", Long.toString(now)));
+        lastPublished = signals;
+        lastPublishedAt = now;
+        log.debug("Load metadata published | signals={}", signals);
+    }
+
+    /**
+     * Two significant digits, so that small variations do not re-register the instance
+     */
+    private static long roundP99(long millis) {
+        if (millis < 100) {
+            return millis;
+        }
+        long scale = (long) Math.pow(10, (long) Math.log10(millis) - 1);
+        return Math.round((double) millis / scale) * scale;
+    }
+}
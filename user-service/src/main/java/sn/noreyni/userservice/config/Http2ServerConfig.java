@@ -0,0 +1,25 @@
+package sn.noreyni.userservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.http2")
+@Data
+public class Http2ServerConfig {
+    /**
+     * Streams the gateway may multiplex on one h2c connection before opening another
+     */
+    private long maxConcurrentStreams = 256;
+
+    /**
+     * server.http2.enabled without TLS serves h2c (prior knowledge or upgrade) next to HTTP/1.1
+     */
+    @Bean
+    public NettyServerCustomizer http2SettingsCustomizer() {
+        return httpServer -> httpServer.http2Settings(settings -> settings.maxConcurrentStreams(maxConcurrentStreams));
+    }
+}
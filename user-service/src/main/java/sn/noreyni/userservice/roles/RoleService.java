@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import sn.noreyni.userservice.common.ApiResponse;
+import sn.noreyni.userservice.common.KeycloakObservations;
 import sn.noreyni.userservice.config.KeycloakAdminClientConfig;
 import sn.noreyni.userservice.exception.ApiException;
 
@@ -21,6 +22,7 @@ public class RoleService {
 
     private final Keycloak keycloak;
     private final KeycloakAdminClientConfig keycloakConfig;
+    private final KeycloakObservations keycloakObservations;
 
     /**
      * List all roles
@@ -50,7 +52,8 @@ public class RoleService {
     }
 
     private List<RoleDTO> fetchAllRoles(String correlationId, long startTime) {
-        List<RoleRepresentation> roles = keycloak.realm(keycloakConfig.getRealm()).roles().list();
+        List<RoleRepresentation> roles = keycloakObservations.call("roles.list",
+                () -> keycloak.realm(keycloakConfig.getRealm()).roles().list());
         List<RoleDTO> roleDTOs = roles.stream().map(this::toRoleDTO).toList();
 
         long duration = System.currentTimeMillis() - startTime;
@@ -64,8 +67,10 @@ public class RoleService {
                                                        long startTime) {
         validatePaginationParameters(page, size);
 
-        List<RoleRepresentation> roles = keycloak.realm(keycloakConfig.getRealm()).roles().list(page * size, size);
-        long totalElements = keycloak.realm(keycloakConfig.getRealm()).roles().list().size();
+        List<RoleRepresentation> roles = keycloakObservations.call("roles.list",
+                () -> keycloak.realm(keycloakConfig.getRealm()).roles().list(page * size, size));
+        long totalElements = keycloakObservations.call("roles.list",
+                () -> keycloak.realm(keycloakConfig.getRealm()).roles().list()).size();
         List<RoleDTO> roleDTOs = roles.stream().map(this::toRoleDTO).toList();
 
         int totalPages = (int) Math.ceil((double) totalElements / size);
@@ -0,0 +1,64 @@
+package sn.noreyni.userservice.snapshot;
+
+import org.apache.commons.logging.Log;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+
+/**
+ * Starts the service from its {@link ConfigSnapshot} when there is one: the snapshot is added
+ * where the config-service properties would be (above {@code application.yml}), and the
+ * {@code configserver:} and {@code vault://} imports are switched off for this boot, so startup
+ * does not wait for either. {@link ConfigSnapshotRefresher} fetches the real configuration once
+ * the service is up.
+ * <p>
+ * Runs before the config data imports are processed.
+ */
+public class ConfigSnapshotEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    private final Log log;
+
+    public ConfigSnapshotEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+        this.log = logFactory.getLog(ConfigSnapshotEnvironmentPostProcessor.class);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        ConfigSnapshot snapshot = ConfigSnapshot.from(environment);
+        if (snapshot == null || environment.getPropertySources().contains(ConfigSnapshot.PROPERTY_SOURCE_NAME)) {
+            return;
+        }
+        Map<String, Object> values;
+        try {
+            values = snapshot.read();
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            log.warn("Config snapshot unreadable, resolving from config-service | path=" + snapshot.path() + " | error=" + e);
+            return;
+        }
+        if (values == null) {
+            return;
+        }
+        // Added last, config data sources are then appended after it, below in precedence
+        environment.getPropertySources().addLast(new MapPropertySource(ConfigSnapshot.PROPERTY_SOURCE_NAME, values));
+        // application.yml keeps both imports fail-fast; only a boot from the snapshot skips them
+        environment.getPropertySources().addFirst(new MapPropertySource(ConfigSnapshot.OVERRIDES_PROPERTY_SOURCE_NAME, Map.of(
+                "spring.cloud.config.enabled", "false",
+                "spring.cloud.config.fail-fast", "false",
+                "spring.cloud.vault.enabled", "false",
+                "spring.cloud.vault.fail-fast", "false")));
+        log.info("Starting from config snapshot | properties=" + values.size() + " | path=" + snapshot.path());
+    }
+
+    @Override
+    public int getOrder() {
+        return ConfigDataEnvironmentPostProcessor.ORDER - 1;
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import sn.noreyni.userservice.common.ApiResponse;
+import sn.noreyni.userservice.common.KeycloakObservations;
 import sn.noreyni.userservice.config.KeycloakAdminClientConfig;
 import sn.noreyni.userservice.exception.ApiException;
 import sn.noreyni.userservice.users.dto.CreateUserRequest;
@@ -33,6 +34,7 @@ public class UserService {
 
     private final Keycloak keycloak;
     private final KeycloakAdminClientConfig keycloakConfig;
+    private final KeycloakObservations keycloakObservations;
 
     /**
      * Create a new user in Keycloak with optional roles
@@ -52,7 +54,7 @@ public class UserService {
         UserRepresentation user = buildUserRepresentation(request);
 
         // Create user
-        Response response = realmResource.users().create(user);
+        Response response = keycloakObservations.call("users.create", () -> realmResource.users().create(user));
         validateResponse(response, correlationId, request.getUsername(), startTime);
 
         // Extract user ID
@@ -104,7 +106,7 @@ public class UserService {
         passwordCred.setType(CredentialRepresentation.PASSWORD);
         passwordCred.setValue(password);
         passwordCred.setTemporary(false);
-        realmResource.users().get(userId).resetPassword(passwordCred);
+        keycloakObservations.run("users.reset-password", () -> realmResource.users().get(userId).resetPassword(passwordCred));
     }
 
     private void assignRolesIfProvided(RealmResource realmResource, String userId, List<String> roles) {
@@ -139,7 +141,8 @@ public class UserService {
     }
 
     private UserRepresentation getUserRepresentation(RealmResource realmResource, String userId) {
-        UserRepresentation user = realmResource.users().get(userId).toRepresentation();
+        UserRepresentation user = keycloakObservations.call("users.get",
+                () -> realmResource.users().get(userId).toRepresentation());
         if (user == null) {
             throw ApiException.badRequest("User not found: " + userId);
         }
@@ -147,13 +150,14 @@ public class UserService {
     }
 
     private List<String> getUserRoles(RealmResource realmResource, String userId) {
-        return realmResource.users().get(userId).roles().realmLevel().listAll()
+        return keycloakObservations.call("users.role-mappings.list",
+                        () -> realmResource.users().get(userId).roles().realmLevel().listAll())
                 .stream()
                 .map(RoleRepresentation::getName)
                 .toList();
     }
 
-    private UserResponse buildUserResponse(UserRepresentation user, List<String> roles) {
+    UserResponse buildUserResponse(UserRepresentation user, List<String> roles) {
         return UserResponse.builder()
                 .userId(user.getId())
                 .username(user.getUsername())
@@ -184,7 +188,7 @@ public class UserService {
 
     private List<UserResponse> fetchAllUsers(String correlationId, long startTime) {
         RealmResource realmResource = keycloak.realm(keycloakConfig.getRealm());
-        List<UserRepresentation> users = realmResource.users().list();
+        List<UserRepresentation> users = keycloakObservations.call("users.list", () -> realmResource.users().list());
 
         List<UserResponse> userResponses = users.stream()
                 .map(user -> buildUserResponse(user, getUserRoles(realmResource, user.getId())))
@@ -215,8 +219,9 @@ public class UserService {
         validatePaginationParameters(page, size);
         RealmResource realmResource = keycloak.realm(keycloakConfig.getRealm());
         int first = page * size;
-        List<UserRepresentation> users = realmResource.users().list(first, size);
-        long totalElements = realmResource.users().count();
+        List<UserRepresentation> users = keycloakObservations.call("users.list",
+                () -> realmResource.users().list(first, size));
+        long totalElements = keycloakObservations.call("users.count", () -> realmResource.users().count());
 
         List<UserResponse> userResponses = users.stream()
                 .map(user -> buildUserResponse(user, getUserRoles(realmResource, user.getId())))
@@ -269,7 +274,7 @@ public class UserService {
         UserRepresentation user = getUserRepresentation(realmResource, userId);
 
         updateUserAttributes(user, request);
-        realmResource.users().get(userId).update(user);
+        keycloakObservations.run("users.update", () -> realmResource.users().get(userId).update(user));
 
         updateUserRolesIfProvided(realmResource, userId, request.getRoles());
 
@@ -289,8 +294,10 @@ public class UserService {
 
     private void updateUserRolesIfProvided(RealmResource realmResource, String userId, List<String> roles) {
         if (roles != null) {
-            List<RoleRepresentation> currentRoles = realmResource.users().get(userId).roles().realmLevel().listEffective();
-            realmResource.users().get(userId).roles().realmLevel().remove(currentRoles);
+            List<RoleRepresentation> currentRoles = keycloakObservations.call("users.role-mappings.list-effective",
+                    () -> realmResource.users().get(userId).roles().realmLevel().listEffective());
+            keycloakObservations.run("users.role-mappings.remove",
+                    () -> realmResource.users().get(userId).roles().realmLevel().remove(currentRoles));
             assignRolesToUser(realmResource, userId, roles);
         }
     }
@@ -298,14 +305,16 @@ public class UserService {
     private void assignRolesToUser(RealmResource realmResource, String userId, List<String> roles) {
         List<RoleRepresentation> rolesToAssign = roles.stream()
                 .map(roleName -> {
-                    RoleRepresentation role = realmResource.roles().get(roleName).toRepresentation();
+                    RoleRepresentation role = keycloakObservations.call("roles.get",
+                            () -> realmResource.roles().get(roleName).toRepresentation());
                     if (role == null) {
                         throw ApiException.badRequest("Role not found: " + roleName);
                     }
                     return role;
                 })
                 .toList();
-        realmResource.users().get(userId).roles().realmLevel().add(rolesToAssign);
+        keycloakObservations.run("users.role-mappings.add",
+                () -> realmResource.users().get(userId).roles().realmLevel().add(rolesToAssign));
     }
 
     /**
@@ -320,7 +329,7 @@ public class UserService {
 
         return Mono.fromCallable(() -> {
                     RealmResource realmResource = keycloak.realm(keycloakConfig.getRealm());
-                    Response response = realmResource.users().delete(userId);
+                    Response response = keycloakObservations.call("users.delete", () -> realmResource.users().delete(userId));
                     validateDeleteResponse(response, userId, correlationId, startTime);
                     return null;
                 })
@@ -0,0 +1,19 @@
+package sn.noreyni.integration.config;
+
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Collects finished spans in memory instead of shipping them over OTLP, so tests can
+ * assert on the spans produced around Keycloak calls. Boot registers every
+ * {@code SpanExporter} bean with the tracer provider.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class InMemoryTracingConfiguration {
+
+    @Bean
+    public InMemorySpanExporter inMemorySpanExporter() {
+        return InMemorySpanExporter.create();
+    }
+}
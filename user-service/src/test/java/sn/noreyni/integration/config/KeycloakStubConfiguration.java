@@ -0,0 +1,58 @@
+package sn.noreyni.integration.config;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import sn.noreyni.keycloakstub.FaultProfile;
+import sn.noreyni.keycloakstub.KeycloakStub;
+import sn.noreyni.userservice.config.KeycloakAdminClientConfig;
+
+/**
+ * Offline alternative to {@link TestcontainersConfiguration}: points user-service at an in-process
+ * Keycloak stub that starts in milliseconds and can inject latency and errors per endpoint.
+ */
+public class KeycloakStubConfiguration {
+
+    private static final String TEST_REALM = "libromesh";
+    private static final String TEST_CLIENT_ID = "libroMesh";
+    private static final String TEST_CLIENT_SECRET = "test-secret";
+
+    private static KeycloakStub keycloakStub;
+
+    public static KeycloakStub startStub() {
+        if (keycloakStub == null) {
+            keycloakStub = KeycloakStub.builder()
+                    .seedPatrons(200)
+                    .randomSeed(42)
+                    .defaultFaultProfile(FaultProfile.healthy())
+                    .start();
+        }
+        return keycloakStub;
+    }
+
+    public static void stopStub() {
+        if (keycloakStub != null) {
+            keycloakStub.close();
+            keycloakStub = null;
+        }
+    }
+
+    /**
+     * Admin client settings pointing at the stub, for tests that build the services by hand
+     */
+    public static KeycloakAdminClientConfig adminClientConfig() {
+        KeycloakAdminClientConfig config = new KeycloakAdminClientConfig();
+        config.setServerUrl(startStub().getServerUrl());
+        config.setRealm(TEST_REALM);
+        config.setClientId(TEST_CLIENT_ID);
+        config.setClientSecret(TEST_CLIENT_SECRET);
+        return config;
+    }
+
+    public static void configureProperties(DynamicPropertyRegistry registry) {
+        KeycloakStub stub = startStub();
+
+        registry.add("app.keycloak.admin.server-url", stub::getServerUrl);
+        registry.add("app.keycloak.admin.realm", () -> TEST_REALM);
+        registry.add("app.keycloak.admin.client-id", () -> TEST_CLIENT_ID);
+        registry.add("app.keycloak.admin.client-secret", () -> TEST_CLIENT_SECRET);
+    }
+}
@@ -0,0 +1,108 @@
+package sn.noreyni.integration.tracing;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.observation.ObservationAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.opentelemetry.OpenTelemetryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.tracing.MicrometerTracingAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.tracing.OpenTelemetryTracingAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.reactive.function.client.WebClient;
+import sn.noreyni.integration.config.InMemoryTracingConfiguration;
+import sn.noreyni.userservice.common.KeycloakObservations;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Spans around Keycloak calls and trace propagation over WebClient, collected by
+ * {@link InMemoryTracingConfiguration} instead of the OTLP exporter.
+ */
+class KeycloakTracingTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ObservationAutoConfiguration.class,
+                    MicrometerTracingAutoConfiguration.class, OpenTelemetryAutoConfiguration.class,
+                    OpenTelemetryTracingAutoConfiguration.class))
+            .withUserConfiguration(InMemoryTracingConfiguration.class)
+            .withBean(KeycloakObservations.class)
+            .withPropertyValues("management.tracing.sampling.probability=1.0");
+
+    @Test
+    void keycloakCallIsAChildSpanOfTheCurrentRequest() {
+        contextRunner.run(context -> {
+            ObservationRegistry registry = context.getBean(ObservationRegistry.class);
+            KeycloakObservations keycloakObservations = context.getBean(KeycloakObservations.class);
+
+            Observation.createNotStarted("user.request", registry)
+                    .observe(() -> keycloakObservations.call("users.list", List::of));
+
+            List<SpanData> spans = finishedSpans(context);
+            SpanData request = span(spans, "user.request");
+            SpanData keycloak = span(spans, "keycloak users.list");
+            assertThat(keycloak.getTraceId()).isEqualTo(request.getTraceId());
+            assertThat(keycloak.getParentSpanId()).isEqualTo(request.getSpanId());
+            assertThat(keycloak.getAttributes().get(AttributeKey.stringKey("keycloak.operation"))).isEqualTo("users.list");
+        });
+    }
+
+    @Test
+    void traceIdCrossesAWebClientCall() throws IOException {
+        AtomicReference<String> traceparent = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            traceparent.set(exchange.getRequestHeaders().getFirst("traceparent"));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            contextRunner.run(context -> {
+                ObservationRegistry registry = context.getBean(ObservationRegistry.class);
+                WebClient webClient = WebClient.builder()
+                        .baseUrl("http://localhost:" + server.getAddress().getPort())
+                        .observationRegistry(registry)
+                        .build();
+                Observation request = Observation.start("user.request", registry);
+
+                webClient.get().uri("/realms/libromesh/protocol/openid-connect/userinfo")
+                        .retrieve().toBodilessEntity()
+                        .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, request))
+                        .block();
+                request.stop();
+
+                String traceId = span(finishedSpans(context), "user.request").getTraceId();
+                assertThat(traceparent.get()).isNotNull();
+                assertThat(traceparent.get().split("-")[1]).isEqualTo(traceId);
+            });
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static List<SpanData> finishedSpans(AssertableApplicationContext context) {
+        context.getBean(SdkTracerProvider.class).forceFlush().join(5, TimeUnit.SECONDS);
+        return context.getBean(InMemorySpanExporter.class).getFinishedSpanItems();
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No span " + name + " in " + spans));
+    }
+}
@@ -0,0 +1,82 @@
+package sn.noreyni.integration.users;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.keycloak.admin.client.Keycloak;
+import sn.noreyni.integration.config.KeycloakStubConfiguration;
+import sn.noreyni.keycloakstub.FaultProfile;
+import sn.noreyni.keycloakstub.KeycloakStub;
+import sn.noreyni.keycloakstub.StubEndpoint;
+import sn.noreyni.userservice.common.ApiResponse;
+import sn.noreyni.userservice.common.KeycloakObservations;
+import sn.noreyni.userservice.config.KeycloakAdminClientConfig;
+import sn.noreyni.userservice.exception.ApiException;
+import sn.noreyni.userservice.users.UserService;
+import sn.noreyni.userservice.users.dto.UserResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link UserService} against the in-process Keycloak stub, through the real admin client
+ */
+class UserServiceKeycloakStubTest {
+
+    private static KeycloakStub stub;
+    private static Keycloak keycloak;
+    private static UserService userService;
+
+    @BeforeAll
+    static void setUp() {
+        stub = KeycloakStubConfiguration.startStub();
+        KeycloakAdminClientConfig config = KeycloakStubConfiguration.adminClientConfig();
+        keycloak = config.keycloak();
+        userService = new UserService(keycloak, config, new KeycloakObservations(ObservationRegistry.create()));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        keycloak.close();
+        KeycloakStubConfiguration.stopStub();
+    }
+
+    @AfterEach
+    void heal() {
+        stub.setFaultProfile(FaultProfile.healthy());
+    }
+
+    @Test
+    void listsSeededUsersPageByPage() {
+        ApiResponse<List<UserResponse>> page = userService.listUsers(1, 20).block();
+
+        assertThat(page.getData()).hasSize(20);
+        assertThat(page.getPagination().getTotalElements()).isEqualTo(202);
+        assertThat(page.getPagination().getTotalPages()).isEqualTo(11);
+    }
+
+    @Test
+    void returnsAUserWithItsRealmRoles() {
+        String librarianId = userService.listUsers(0, 100).block().getData().stream()
+                .filter(user -> "librarian".equals(user.getUsername()))
+                .findFirst().orElseThrow()
+                .getUserId();
+
+        UserResponse librarian = userService.getUser(librarianId).block();
+
+        assertThat(librarian.getRoles()).contains("LIBRARIAN", "CIRCULATION_STAFF");
+    }
+
+    @Test
+    void failingKeycloakSurfacesAsAnInternalError() {
+        stub.setFaultProfile(StubEndpoint.USERS, FaultProfile.healthy().withErrors(1.0, 503));
+
+        assertThatThrownBy(() -> userService.listUsers(0, 10).block())
+                .isInstanceOf(ApiException.class);
+        assertThat(stub.injectedErrorCount(StubEndpoint.USERS)).isPositive();
+    }
+}
@@ -5,6 +5,6 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 
 @Import(TestcontainersConfiguration.class)
-@SpringBootTest
+@SpringBootTest(properties = "app.gateway-claims.secret=test-secret-shared-with-the-gateway-0123456789")
 class UserServiceApplicationTests {
 }
@@ -0,0 +1,129 @@
+package sn.noreyni.unit.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import sn.noreyni.userservice.common.GatewayClaims;
+import sn.noreyni.userservice.common.GatewayClaimsFilter;
+import sn.noreyni.userservice.config.GatewayClaimsConfig;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatewayClaimsFilterTest {
+
+    private static final String SECRET = "test-secret-shared-with-the-gateway-0123456789";
+
+    private GatewayClaimsFilter filter;
+    private final AtomicBoolean passed = new AtomicBoolean();
+    private final WebFilterChain chain = exchange -> {
+        passed.set(true);
+        return Mono.empty();
+    };
+
+    @BeforeEach
+    void setUp() {
+        GatewayClaimsConfig config = new GatewayClaimsConfig();
+        config.setSecret(SECRET);
+        filter = new GatewayClaimsFilter(config, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    void exposesClaimsSignedByTheGateway() {
+        long now = System.currentTimeMillis() / 1000;
+        MockServerWebExchange exchange = exchange(signed("sub-1", "alice", "LIBRARIAN,PATRON", now));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(passed).isTrue();
+        assertThat(GatewayClaims.from(exchange))
+                .isEqualTo(new GatewayClaims("sub-1", "alice", List.of("LIBRARIAN", "PATRON")));
+    }
+
+    @Test
+    void rejectsTamperedRoles() {
+        long now = System.currentTimeMillis() / 1000;
+        MockServerHttpRequest.BaseBuilder<?> request = signed("sub-1", "alice", "PATRON", now);
+        request.header("X-Auth-Roles", "ADMIN");
+        MockServerWebExchange exchange = exchange(request);
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(passed).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void rejectsExpiredSignature() {
+        long longAgo = System.currentTimeMillis() / 1000 - 3600;
+        MockServerWebExchange exchange = exchange(signed("sub-1", "alice", "PATRON", longAgo));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(passed).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void rejectsUnsignedClaimHeaders() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/users")
+                .header("X-Auth-Subject", "sub-1"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(passed).isFalse();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void passesRequestsWithoutClaims() {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/api/v1/auth/login"));
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(passed).isTrue();
+        assertThat(GatewayClaims.from(exchange)).isNull();
+    }
+
+    @Test
+    void refusesToStartWithoutSecret() {
+        assertThatThrownBy(() -> new GatewayClaimsFilter(new GatewayClaimsConfig(), new ObjectMapper()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request.build());
+    }
+
+    private static MockServerHttpRequest.BaseBuilder<?> signed(String subject, String username, String roles, long timestamp) {
+        return MockServerHttpRequest.get("/api/v1/users")
+                .header("X-Auth-Subject", subject)
+                .header("X-Auth-Username", username)
+                .header("X-Auth-Roles", roles)
+                .header("X-Auth-Timestamp", Long.toString(timestamp))
+                .header("X-Auth-Signature", sign(subject + '\n' + username + '\n' + roles + '\n' + timestamp));
+    }
+
+    private static String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package sn.noreyni.unit.common;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import sn.noreyni.userservice.common.KeycloakObservations;
+import sn.noreyni.userservice.common.LoadMetadataPublisher;
+import sn.noreyni.userservice.common.LoadSignalsFilter;
+import sn.noreyni.userservice.config.LoadMetadataConfig;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoadMetadataPublisherTest {
+
+    private final ApplicationInfoManager applicationInfoManager = mock(ApplicationInfoManager.class);
+    private final LoadSignalsFilter loadSignals = mock(LoadSignalsFilter.class);
+    private final KeycloakObservations keycloakObservations = new KeycloakObservations(ObservationRegistry.NOOP);
+    private final LoadMetadataConfig config = new LoadMetadataConfig();
+    private LoadMetadataPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        config.setKeycloakPoolSize(4);
+        when(loadSignals.p99MillisSinceLastRead()).thenReturn(-1L);
+        publisher = new LoadMetadataPublisher(applicationInfoManager, loadSignals, keycloakObservations, config);
+    }
+
+    @Test
+    void publishesTheRequestsInFlight() {
+        when(loadSignals.inFlight()).thenReturn(3);
+
+        publisher.onHeartbeat();
+
+        assertThat(published()).singleElement().satisfies(metadata -> assertThat(metadata)
+                .containsEntry("load-in-flight", "3")
+                .containsEntry("load-pool-saturation", "0.0")
+                .containsEntry("load-p99-ms", "0")
+                .containsKey("load-updated-at"));
+    }
+
+    @Test
+    void saturationIsKeycloakCallsInFlightOverThePoolRoundedToFivePercent() {
+        keycloakObservations.run("users", () -> keycloakObservations.run("roles", publisher::onHeartbeat));
+        config.setKeycloakPoolSize(3);
+        keycloakObservations.run("users", publisher::onHeartbeat);
+        config.setKeycloakPoolSize(1);
+        keycloakObservations.run("users", () -> keycloakObservations.run("roles", publisher::onHeartbeat));
+
+        assertThat(published()).extracting(metadata -> metadata.get("load-pool-saturation"))
+                .containsExactly("0.5", "0.35", "1.0");
+    }
+
+    @Test
+    void p99IsRoundedToTwoSignificantDigitsAndKeptWhileIdle() {
+        when(loadSignals.p99MillisSinceLastRead()).thenReturn(87L, 1234L, 156L, -1L);
+
+        for (int i = 0; i < 4; i++) {
+            publisher.onHeartbeat();
+        }
+
+        assertThat(published()).extracting(metadata -> metadata.get("load-p99-ms"))
+                .containsExactly("87", "1200", "160");
+    }
+
+    @Test
+    void unchangedSignalsAreNotRepublishedBeforeTheInterval() {
+        when(loadSignals.p99MillisSinceLastRead()).thenReturn(1234L, 1249L, 1251L);
+
+        for (int i = 0; i < 3; i++) {
+            publisher.onHeartbeat();
+        }
+
+        assertThat(published()).extracting(metadata -> metadata.get("load-p99-ms"))
+                .containsExactly("1200", "1300");
+    }
+
+    @Test
+    void unchangedSignalsAreRepublishedOnceTheIntervalElapsed() {
+        config.setRepublishInterval(Duration.ZERO);
+
+        publisher.onHeartbeat();
+        publisher.onHeartbeat();
+
+        assertThat(published()).hasSize(2);
+    }
+
+    @Test
+    void disabledPublishesNothing() {
+        config.setEnabled(false);
+
+        publisher.onHeartbeat();
+
+        verify(applicationInfoManager, never()).registerAppMetadata(anyMap());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, String>> published() {
+        ArgumentCaptor<Map<String, String>> metadata = ArgumentCaptor.forClass(Map.class);
+        verify(applicationInfoManager, atLeast(0)).registerAppMetadata(metadata.capture());
+        return metadata.getAllValues();
+    }
+}
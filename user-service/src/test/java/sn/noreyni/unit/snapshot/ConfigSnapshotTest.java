@@ -0,0 +1,159 @@
+package sn.noreyni.unit.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.cloud.context.scope.refresh.RefreshScope;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.mock.env.MockEnvironment;
+import sn.noreyni.userservice.snapshot.ConfigSnapshotEnvironmentPostProcessor;
+import sn.noreyni.userservice.snapshot.ConfigSnapshotRefresher;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Snapshots are written by {@link ConfigSnapshotRefresher} after a boot from config-service and
+ * Vault, and read back by {@link ConfigSnapshotEnvironmentPostProcessor} on the next boot.
+ */
+class ConfigSnapshotTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String OTHER_KEY = Base64.getEncoder().encodeToString("another-256-bit-snapshot-key-xyz".getBytes(StandardCharsets.US_ASCII));
+    private static final String SECRET = "keycloak-client-secret-from-vault";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotOfARemoteBootIsEncryptedAndStartsTheNextBoot() throws IOException {
+        writeSnapshot(remoteBoot(true));
+
+        assertThat(new String(Files.readAllBytes(snapshotPath()), StandardCharsets.ISO_8859_1)).doesNotContain(SECRET);
+
+        MockEnvironment nextBoot = settings(KEY);
+        postProcess(nextBoot);
+
+        assertThat(nextBoot.getProperty("keycloak.admin.client-secret")).isEqualTo(SECRET);
+        assertThat(nextBoot.getProperty("app.greeting")).isEqualTo("from-config-service");
+        assertThat(nextBoot.getPropertySources().iterator().next().getName()).isEqualTo("configSnapshotOverrides");
+        assertThat(nextBoot.getProperty("spring.cloud.config.enabled")).isEqualTo("false");
+        assertThat(nextBoot.getProperty("spring.cloud.vault.enabled")).isEqualTo("false");
+    }
+
+    @Test
+    void configurationWithoutVaultIsNotWritten() {
+        writeSnapshot(remoteBoot(false));
+
+        assertThat(snapshotPath()).doesNotExist();
+    }
+
+    @Test
+    void tamperedSnapshotFallsBackToARemoteBoot() throws IOException {
+        writeSnapshot(remoteBoot(true));
+        byte[] content = Files.readAllBytes(snapshotPath());
+        content[content.length - 1] ^= 1;
+        Files.write(snapshotPath(), content);
+
+        assertRemoteBoot(settings(KEY));
+    }
+
+    @Test
+    void snapshotUnderAnotherKeyFallsBackToARemoteBoot() {
+        writeSnapshot(remoteBoot(true));
+
+        assertRemoteBoot(settings(OTHER_KEY));
+    }
+
+    @Test
+    void snapshotOlderThanMaxAgeFallsBackToARemoteBoot() throws IOException {
+        writeSnapshot(remoteBoot(true));
+        Files.setLastModifiedTime(snapshotPath(), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+        assertRemoteBoot(settings(KEY).withProperty("app.config-snapshot.max-age", "1h"));
+    }
+
+    @Test
+    void snapshotTakesPrecedenceOverApplicationYml() {
+        writeSnapshot(remoteBoot(true));
+        MockEnvironment nextBoot = settings(KEY)
+                .withProperty("spring.config.location", "optional:classpath:/config-snapshot/application.yml");
+
+        postProcess(nextBoot);
+        ConfigDataEnvironmentPostProcessor.applyTo(nextBoot);
+
+        assertThat(nextBoot.getProperty("app.greeting")).isEqualTo("from-config-service");
+        assertThat(nextBoot.getProperty("app.local-only")).isEqualTo("local");
+        List<String> order = nextBoot.getPropertySources().stream().map(PropertySource::getName).toList();
+        String applicationYml = order.stream()
+                .filter(name -> name.contains("config-snapshot/application.yml"))
+                .findFirst().orElseThrow();
+        assertThat(order.indexOf("configSnapshot")).isLessThan(order.indexOf(applicationYml));
+    }
+
+    private void assertRemoteBoot(MockEnvironment nextBoot) {
+        postProcess(nextBoot);
+
+        assertThat(nextBoot.getPropertySources().contains("configSnapshot")).isFalse();
+        assertThat(nextBoot.getPropertySources().contains("configSnapshotOverrides")).isFalse();
+        assertThat(nextBoot.getProperty("keycloak.admin.client-secret")).isNull();
+    }
+
+    private MockEnvironment settings(String key) {
+        MockEnvironment environment = new MockEnvironment();
+        // As SpringApplication does, for durations such as 1h
+        environment.setConversionService(new ApplicationConversionService());
+        return environment
+                .withProperty("app.config-snapshot.key", key)
+                .withProperty("app.config-snapshot.path", snapshotPath().toString());
+    }
+
+    /**
+     * Environment of a boot that resolved from config-service, and from Vault if {@code withVault}
+     */
+    private MockEnvironment remoteBoot(boolean withVault) {
+        MockEnvironment environment = settings(KEY);
+        environment.getPropertySources().addLast(new MapPropertySource(
+                "configserver:http://localhost:8000/user-service/default", Map.of("app.greeting", "from-config-service")));
+        if (withVault) {
+            environment.getPropertySources().addLast(new MapPropertySource(
+                    "vault:secret/user-service", Map.of("keycloak.admin.client-secret", SECRET)));
+        }
+        return environment;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeSnapshot(MockEnvironment environment) {
+        new ConfigSnapshotRefresher(environment, mock(ApplicationContext.class),
+                (ObjectProvider<ContextRefresher>) mock(ObjectProvider.class),
+                (ObjectProvider<RefreshScope>) mock(ObjectProvider.class))
+                .onReady();
+    }
+
+    private static void postProcess(MockEnvironment environment) {
+        new ConfigSnapshotEnvironmentPostProcessor(Supplier::get)
+                .postProcessEnvironment(environment, new SpringApplication());
+    }
+
+    private Path snapshotPath() {
+        return directory.resolve("config-snapshot.enc");
+    }
+}